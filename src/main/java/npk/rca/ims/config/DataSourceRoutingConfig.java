@@ -0,0 +1,146 @@
+package npk.rca.ims.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.AnyNestedCondition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ConfigurationCondition;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DataSourceRoutingConfig - Workload pools and read replicas
+ *
+ * Only active when app.datasource.workloads.enabled and/or
+ * app.datasource.replicas.enabled is set; otherwise Spring Boot's single
+ * auto-configured DataSource is used as before.
+ *
+ * Layers, outermost first:
+ * - LazyConnectionDataSourceProxy: the route is chosen once the transaction's
+ *   read-only flag and workload are known (this is the DataSource JPA and Flyway use)
+ * - ReplicaRoutingDataSource: read-only transactions to a healthy replica
+ * - WorkloadRoutingDataSource: everything else to the OLTP/REPORTING/SCHEDULED
+ *   pool on the primary (or a single primary pool when workloads are off)
+ */
+@Configuration
+@Conditional(DataSourceRoutingConfig.RoutingEnabled.class)
+@EnableConfigurationProperties({ReplicaProperties.class, WorkloadProperties.class})
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.datasource.workloads", name = "enabled", havingValue = "true")
+    public WorkloadRoutingDataSource workloadRoutingDataSource(DataSourceProperties properties,
+                                                               WorkloadProperties workloadProperties,
+                                                               Environment environment) {
+        Map<WorkloadType, HikariDataSource> pools = new EnumMap<>(WorkloadType.class);
+        for (WorkloadType workload : WorkloadType.values()) {
+            HikariDataSource pool = primaryPool(workload.name().toLowerCase(), properties, environment);
+            pool.setMaximumPoolSize(workloadProperties.pool(workload).getMaximumPoolSize());
+            pools.put(workload, pool);
+        }
+        return new WorkloadRoutingDataSource(pools);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.datasource.workloads", name = "enabled", havingValue = "false", matchIfMissing = true)
+    public HikariDataSource primaryDataSource(DataSourceProperties properties, Environment environment) {
+        return primaryPool("primary", properties, environment);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.datasource.replicas", name = "enabled", havingValue = "true")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(ObjectProvider<WorkloadRoutingDataSource> workloadRouting,
+                                                             ObjectProvider<HikariDataSource> primaryDataSource,
+                                                             DataSourceProperties properties,
+                                                             ReplicaProperties replicaProperties) {
+        List<ReplicaProperties.Node> nodes = replicaProperties.getNodes();
+        if (nodes.isEmpty()) {
+            throw new IllegalStateException("app.datasource.replicas.enabled=true but no replica nodes are configured");
+        }
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            String key = "replica-" + i;
+            replicas.put(key, replicaPool(key, nodes.get(i), properties));
+        }
+        return new ReplicaRoutingDataSource(primary(workloadRouting, primaryDataSource), replicas,
+                replicaProperties.effectiveReadYourWritesWindow(), Clock.systemUTC());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.datasource.replicas", name = "enabled", havingValue = "true")
+    public ReplicaHealthMonitor replicaHealthMonitor(ReplicaRoutingDataSource routingDataSource,
+                                                     ReplicaProperties replicaProperties) {
+        return new ReplicaHealthMonitor(routingDataSource,
+                replicaProperties.getLagQuery(), replicaProperties.getMaxLag());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ObjectProvider<ReplicaRoutingDataSource> replicaRouting,
+                                 ObjectProvider<WorkloadRoutingDataSource> workloadRouting,
+                                 ObjectProvider<HikariDataSource> primaryDataSource) {
+        ReplicaRoutingDataSource replicas = replicaRouting.getIfAvailable();
+        DataSource target = replicas != null ? replicas : primary(workloadRouting, primaryDataSource);
+        return new LazyConnectionDataSourceProxy(target);
+    }
+
+    private static DataSource primary(ObjectProvider<WorkloadRoutingDataSource> workloadRouting,
+                                      ObjectProvider<HikariDataSource> primaryDataSource) {
+        WorkloadRoutingDataSource routing = workloadRouting.getIfAvailable();
+        return routing != null ? routing : primaryDataSource.getObject();
+    }
+
+    private static HikariDataSource primaryPool(String poolName, DataSourceProperties properties, Environment environment) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        dataSource.setPoolName(poolName);
+        return dataSource;
+    }
+
+    private static HikariDataSource replicaPool(String key, ReplicaProperties.Node node, DataSourceProperties primary) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(key);
+        dataSource.setJdbcUrl(node.getUrl());
+        dataSource.setUsername(node.getUsername() != null ? node.getUsername() : primary.determineUsername());
+        dataSource.setPassword(node.getPassword() != null ? node.getPassword() : primary.determinePassword());
+        dataSource.setDriverClassName(primary.determineDriverClassName());
+        dataSource.setMaximumPoolSize(node.getMaximumPoolSize());
+        dataSource.setReadOnly(true);
+        // Don't fail startup when a replica is down; the health monitor keeps it out of rotation
+        dataSource.setInitializationFailTimeout(-1);
+        return dataSource;
+    }
+
+    static class RoutingEnabled extends AnyNestedCondition {
+
+        RoutingEnabled() {
+            super(ConfigurationCondition.ConfigurationPhase.REGISTER_BEAN);
+        }
+
+        @ConditionalOnProperty(prefix = "app.datasource.workloads", name = "enabled", havingValue = "true")
+        static class WorkloadsEnabled {
+        }
+
+        @ConditionalOnProperty(prefix = "app.datasource.replicas", name = "enabled", havingValue = "true")
+        static class ReplicasEnabled {
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package npk.rca.ims.config;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import npk.rca.ims.dto.FieldSet;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * JacksonConfig - Serialize every property of filtered DTOs by default
+ *
+ * DTOs marked @JsonFilter(FieldSet.FILTER) need a filter to be serialized at
+ * all; outside a ?fields= request (see SparseFieldsetAdvice) that filter
+ * keeps everything.
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer fieldSetFilterCustomizer() {
+        return builder -> builder.filters(serializeAll());
+    }
+
+    static SimpleFilterProvider serializeAll() {
+        return new SimpleFilterProvider()
+                .addFilter(FieldSet.FILTER, SimpleBeanPropertyFilter.serializeAll());
+    }
+}
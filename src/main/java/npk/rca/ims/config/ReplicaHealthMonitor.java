@@ -0,0 +1,60 @@
+package npk.rca.ims.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * ReplicaHealthMonitor - Takes unreachable or lagging replicas out of rotation
+ *
+ * Each check runs the configured lag query on every replica. A failure or a lag
+ * above the limit marks the replica unhealthy, and read-only transactions fall
+ * back to the other replicas or the primary until a later check passes.
+ */
+@Slf4j
+public class ReplicaHealthMonitor {
+
+    private static final int CHECK_TIMEOUT_SECONDS = 2;
+
+    private final ReplicaRoutingDataSource routingDataSource;
+    private final String lagQuery;
+    private final Duration maxLag;
+
+    public ReplicaHealthMonitor(ReplicaRoutingDataSource routingDataSource, String lagQuery, Duration maxLag) {
+        this.routingDataSource = routingDataSource;
+        this.lagQuery = (lagQuery == null || lagQuery.isBlank()) ? "SELECT 1" : lagQuery;
+        this.maxLag = (lagQuery == null || lagQuery.isBlank()) ? null : maxLag;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replicas.health-check-interval:PT10S}")
+    public void checkReplicas() {
+        for (Map.Entry<String, DataSource> replica : routingDataSource.getReplicas().entrySet()) {
+            check(replica.getKey(), replica.getValue());
+        }
+    }
+
+    private void check(String key, DataSource dataSource) {
+        try {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.setQueryTimeout(CHECK_TIMEOUT_SECONDS);
+            Number lag = jdbcTemplate.queryForObject(lagQuery, Number.class);
+
+            if (maxLag != null && lag != null && lag.doubleValue() > maxLag.toSeconds()) {
+                if (routingDataSource.markUnhealthy(key)) {
+                    log.warn("Replica {} is {}s behind (limit {}s), reads fall back to other nodes",
+                            key, lag, maxLag.toSeconds());
+                }
+            } else if (routingDataSource.markHealthy(key)) {
+                log.info("Replica {} is back in rotation", key);
+            }
+        } catch (Exception e) {
+            if (routingDataSource.markUnhealthy(key)) {
+                log.warn("Replica {} is unreachable, reads fall back to other nodes: {}", key, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package npk.rca.ims.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replica settings (app.datasource.replicas.*)
+ *
+ * When enabled, read-only transactions are routed to one of the healthy
+ * replicas; everything else stays on the primary (spring.datasource.*).
+ */
+@Data
+@ConfigurationProperties(prefix = "app.datasource.replicas")
+public class ReplicaProperties {
+
+    private boolean enabled = false;
+
+    private List<Node> nodes = new ArrayList<>();
+
+    /**
+     * After a user's read-write transaction commits, that user's reads stay
+     * on the primary for this long so they see their own changes. Raised to
+     * maxLag when shorter: a replica in rotation may be up to that far behind.
+     */
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+
+    /**
+     * A replica further behind than this is taken out of rotation until it catches up.
+     */
+    private Duration maxLag = Duration.ofSeconds(30);
+
+    /**
+     * Delay between replica health checks (read by ReplicaHealthMonitor's schedule).
+     */
+    private Duration healthCheckInterval = Duration.ofSeconds(10);
+
+    /**
+     * Returns the replica's lag in seconds (NULL or 0 when caught up). The default
+     * reports 0 on an idle standby instead of the time since the last replayed write.
+     * Blank means liveness only (SELECT 1).
+     */
+    private String lagQuery = "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END";
+
+    public Duration effectiveReadYourWritesWindow() {
+        return readYourWritesWindow.compareTo(maxLag) >= 0 ? readYourWritesWindow : maxLag;
+    }
+
+    @Data
+    public static class Node {
+        private String url;
+        // Username/password default to the primary's credentials
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
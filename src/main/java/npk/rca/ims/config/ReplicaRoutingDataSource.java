@@ -0,0 +1,184 @@
+package npk.rca.ims.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ReplicaRoutingDataSource - Sends read-only transactions to a replica
+ *
+ * The lookup key is decided when a connection is first needed, so this must
+ * sit behind a LazyConnectionDataSourceProxy: by then the transaction manager
+ * has already marked the transaction read-only (or not).
+ *
+ * Routed to the PRIMARY:
+ * - read-write transactions (and work outside any transaction)
+ * - read-only transactions of a user whose write committed within the
+ *   read-your-writes window (which is never shorter than the allowed lag)
+ * - everything, while no replica is healthy
+ *
+ * Replicas are used round-robin. A JPA session reading from a replica only
+ * reads the second-level cache (CacheMode.GET): rows up to max-lag old must
+ * not be cached, or a later read-write transaction on the primary would load
+ * and save them over newer data.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    public static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final Map<String, DataSource> replicas;
+    private final List<String> replicaKeys;
+    private final Set<String> unhealthyReplicas = ConcurrentHashMap.newKeySet();
+    private final Map<String, Instant> lastWriteByUser = new ConcurrentHashMap<>();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final Duration readYourWritesWindow;
+    private final Clock clock;
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas,
+                                    Duration readYourWritesWindow, Clock clock) {
+        this.primary = primary;
+        this.replicas = new LinkedHashMap<>(replicas);
+        this.replicaKeys = new ArrayList<>(replicas.keySet());
+        this.readYourWritesWindow = readYourWritesWindow;
+        this.clock = clock;
+
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return PRIMARY;
+        }
+        String user = currentUser();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (user != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+                // Only a committed write pins the user; the window starts when it becomes visible
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        lastWriteByUser.put(user, clock.instant());
+                    }
+                });
+            }
+            return PRIMARY;
+        }
+        if (user != null && recentlyWrote(user)) {
+            return PRIMARY;
+        }
+        String replica = nextHealthyReplica();
+        if (!PRIMARY.equals(replica)) {
+            readSecondLevelCacheOnly();
+        }
+        return replica;
+    }
+
+    public Map<String, DataSource> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * @return true if this changed the replica's state
+     */
+    public boolean markHealthy(String replicaKey) {
+        return unhealthyReplicas.remove(replicaKey);
+    }
+
+    /**
+     * @return true if this changed the replica's state
+     */
+    public boolean markUnhealthy(String replicaKey) {
+        return unhealthyReplicas.add(replicaKey);
+    }
+
+    public boolean isHealthy(String replicaKey) {
+        return replicaKeys.contains(replicaKey) && !unhealthyReplicas.contains(replicaKey);
+    }
+
+    private String nextHealthyReplica() {
+        int size = replicaKeys.size();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            String key = replicaKeys.get((start + i) % size);
+            if (!unhealthyReplicas.contains(key)) {
+                return key;
+            }
+        }
+        return PRIMARY;
+    }
+
+    private boolean recentlyWrote(String user) {
+        Instant lastWrite = lastWriteByUser.get(user);
+        if (lastWrite == null) {
+            return false;
+        }
+        if (lastWrite.plus(readYourWritesWindow).isAfter(clock.instant())) {
+            return true;
+        }
+        lastWriteByUser.remove(user, lastWrite);
+        return false;
+    }
+
+    /**
+     * Stops the transaction's JPA session, if any, from putting replica rows
+     * into the second-level cache; cached entries can still be read.
+     */
+    private static void readSecondLevelCacheOnly() {
+        for (Object resource : TransactionSynchronizationManager.getResourceMap().values()) {
+            if (resource instanceof EntityManagerHolder holder) {
+                holder.getEntityManager().unwrap(Session.class).setCacheMode(CacheMode.GET);
+            }
+        }
+    }
+
+    private String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    /**
+     * Closes the replica pools; the primary is a bean of its own and closed by Spring.
+     */
+    @Override
+    public void close() {
+        replicas.forEach((key, dataSource) -> {
+            if (dataSource instanceof AutoCloseable closeable && dataSource != primary) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Failed to close replica pool {}", key, e);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,31 @@
+package npk.rca.ims.config;
+
+import npk.rca.ims.repository.InMemoryTransactionSearchIndex;
+import npk.rca.ims.repository.PostgresTransactionSearchIndex;
+import npk.rca.ims.repository.StockTransactionRepository;
+import npk.rca.ims.repository.TransactionSearchIndex;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+/**
+ * SearchConfig - Picks the full-text search implementation for the database in use
+ *
+ * PostgreSQL has a tsvector column and GIN index (V4 migration); anything else
+ * (H2 in tests) gets the in-memory inverted index.
+ */
+@Configuration
+public class SearchConfig {
+
+    @Bean
+    public TransactionSearchIndex transactionSearchIndex(DataSourceProperties dataSourceProperties,
+                                                         NamedParameterJdbcTemplate jdbcTemplate,
+                                                         StockTransactionRepository transactionRepository) {
+        if (DatabaseDriver.fromJdbcUrl(dataSourceProperties.determineUrl()) == DatabaseDriver.POSTGRESQL) {
+            return new PostgresTransactionSearchIndex(jdbcTemplate);
+        }
+        return new InMemoryTransactionSearchIndex(transactionRepository);
+    }
+}
@@ -0,0 +1,62 @@
+package npk.rca.ims.config;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * SqlProfileConfig - Puts a datasource-proxy layer in front of the
+ * application DataSource and feeds it to the SqlProfiler
+ *
+ * Only the "dataSource" bean is wrapped (with routing on, that is the
+ * LazyConnectionDataSourceProxy), so statements are seen once whichever pool
+ * runs them. Off unless app.sql-profile.enabled=true: every statement and
+ * result set goes through the proxy while it is on.
+ *
+ * The request filter runs ahead of Spring Security, so the statements of
+ * authentication count towards the request too.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.sql-profile", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(SqlProfileProperties.class)
+public class SqlProfileConfig {
+
+    @Bean
+    public SqlProfiler sqlProfiler(SqlProfileProperties sqlProfileProperties) {
+        return new SqlProfiler(sqlProfileProperties);
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlProfileFilter> sqlProfileFilter(SqlProfiler sqlProfiler) {
+        FilterRegistrationBean<SqlProfileFilter> registration =
+                new FilterRegistrationBean<>(new SqlProfileFilter(sqlProfiler));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+
+    @Bean
+    public static BeanPostProcessor sqlProfilingDataSource(ObjectProvider<SqlProfiler> sqlProfiler) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)) {
+                    SqlProfiler profiler = sqlProfiler.getObject();
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name("sql-profile")
+                            .listener(profiler)
+                            .proxyResultSet(profiler.rowCounter())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
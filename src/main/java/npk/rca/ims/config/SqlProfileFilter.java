@@ -0,0 +1,35 @@
+package npk.rca.ims.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Collects the SQL statements of each HTTP request in the SqlProfiler,
+ * which logs the request when its statements add up to more than the
+ * slow-request threshold
+ */
+public class SqlProfileFilter extends OncePerRequestFilter {
+
+    private final SqlProfiler sqlProfiler;
+
+    public SqlProfileFilter(SqlProfiler sqlProfiler) {
+        this.sqlProfiler = sqlProfiler;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        sqlProfiler.beginRequest(request.getMethod() + " " + request.getRequestURI());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            sqlProfiler.endRequest();
+        }
+    }
+}
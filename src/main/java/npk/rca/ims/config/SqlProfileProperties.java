@@ -0,0 +1,33 @@
+package npk.rca.ims.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * SQL profiling settings (app.sql-profile.*)
+ *
+ * Every statement is timed; the ones at or over slow-statement-threshold are
+ * logged on their own, and a request whose statements add up to at least
+ * slow-request-threshold is logged with its statements grouped.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.sql-profile")
+public class SqlProfileProperties {
+
+    private boolean enabled = false;
+
+    private Duration slowStatementThreshold = Duration.ofMillis(500);
+
+    private Duration slowRequestThreshold = Duration.ofSeconds(1);
+
+    // Distinct normalized statements kept; statements beyond that are only counted
+    private int maxStatements = 1000;
+
+    // Latest durations kept per statement for the percentiles
+    private int samplesPerStatement = 1024;
+
+    // Statements listed per request in the slow-request log; the totals cover all of them
+    private int maxStatementsPerRequest = 200;
+}
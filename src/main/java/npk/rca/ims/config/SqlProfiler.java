@@ -0,0 +1,321 @@
+package npk.rca.ims.config;
+
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.proxy.ProxyJdbcObject;
+import net.ttddyy.dsproxy.proxy.ResultSetProxyLogicFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * SqlProfiler - Times every statement that goes through the DataSource
+ *
+ * Statements are normalized (literals and IN lists replaced by ?) so one
+ * query run with different ids is one entry. For each entry it keeps counts,
+ * total and max time, rows and a window of durations for the percentiles.
+ *
+ * Within an HTTP request (see SqlProfileFilter) the statements are also
+ * collected per request, so a slow request can be logged with the queries
+ * that made it slow. Parameters are recorded by type only, never by value.
+ *
+ * Rows fetched are counted as the result set is read, and attributed to the
+ * latest query of the thread. Only ResultSet.next() is intercepted for that
+ * (see rowCounter()); connections and statements get no per-method callback.
+ */
+@Slf4j
+public class SqlProfiler implements QueryExecutionListener {
+
+    private static final String STARTED_AT = SqlProfiler.class.getName() + ".startedAt";
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?(?![\\w.])");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final SqlProfileProperties properties;
+    private final Map<String, SqlStatementStats> statements = new ConcurrentHashMap<>();
+    private final AtomicLong untracked = new AtomicLong();
+
+    private final ThreadLocal<RequestProfile> currentRequest = new ThreadLocal<>();
+    private final ThreadLocal<LastQuery> lastQuery = new ThreadLocal<>();
+
+    public SqlProfiler(SqlProfileProperties properties) {
+        this.properties = properties;
+    }
+
+    public Collection<SqlStatementStats> getStatements() {
+        return statements.values();
+    }
+
+    /**
+     * Executions not tracked because max-statements distinct statements were
+     * already being tracked
+     */
+    public long getUntrackedCount() {
+        return untracked.get();
+    }
+
+    public void reset() {
+        statements.clear();
+        untracked.set(0);
+        log.info("SQL profile cleared");
+    }
+
+    void beginRequest(String name) {
+        currentRequest.set(new RequestProfile(name, properties.getMaxStatementsPerRequest()));
+    }
+
+    void endRequest() {
+        RequestProfile profile = currentRequest.get();
+        currentRequest.remove();
+        lastQuery.remove();
+        if (profile == null || profile.statementCount == 0) {
+            return;
+        }
+        if (profile.totalNanos >= properties.getSlowRequestThreshold().toNanos()) {
+            log.warn("Slow request {}", profile.describe());
+        } else if (log.isDebugEnabled()) {
+            log.debug("{}: {} SQL statements, {} ms", profile.name, profile.statementCount, millis(profile.totalNanos));
+        }
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execInfo.addCustomValue(STARTED_AT, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (queryInfoList.isEmpty()) {
+            return;
+        }
+        Long startedAt = execInfo.getCustomValue(STARTED_AT, Long.class);
+        long elapsed = startedAt != null
+                ? System.nanoTime() - startedAt
+                : TimeUnit.MILLISECONDS.toNanos(execInfo.getElapsedTime());
+        // A Statement batch runs several statements in one call; share the time out
+        long nanos = elapsed / queryInfoList.size();
+        long changed = updateCount(execInfo.getResult());
+        boolean slow = elapsed >= properties.getSlowStatementThreshold().toNanos();
+        RequestProfile request = currentRequest.get();
+
+        SqlStatementStats stats = null;
+        StatementRecord record = null;
+        for (QueryInfo query : queryInfoList) {
+            String sql = normalize(query.getQuery());
+            String shape = parameterShape(query.getParametersList());
+
+            stats = statsFor(sql);
+            if (stats != null) {
+                stats.record(nanos, shape, changed, slow);
+            }
+            if (request != null) {
+                record = request.add(sql, shape, nanos, changed);
+            }
+            if (slow) {
+                log.warn("Slow SQL ({} ms{}): {} {}", millis(elapsed),
+                        request != null ? ", " + request.name : "", sql, shape);
+            }
+        }
+
+        if (execInfo.getResult() instanceof ResultSet) {
+            lastQuery.set(new LastQuery(stats, record));
+        } else {
+            lastQuery.remove();
+        }
+    }
+
+    /**
+     * ResultSet proxy that counts rows as Hibernate reads them: every next()
+     * that returns true. Every other call goes straight to the driver's
+     * result set.
+     */
+    public ResultSetProxyLogicFactory rowCounter() {
+        return (resultSet, connectionInfo, proxyConfig) -> (proxy, method, args) -> {
+            String name = method.getName();
+            if ("getTarget".equals(name) && method.getDeclaringClass() == ProxyJdbcObject.class) {
+                return resultSet;
+            }
+            Object result;
+            try {
+                result = method.invoke(resultSet, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if ("next".equals(name) && Boolean.TRUE.equals(result)) {
+                LastQuery query = lastQuery.get();
+                if (query != null) {
+                    query.addRow();
+                }
+            }
+            return result;
+        };
+    }
+
+    private SqlStatementStats statsFor(String sql) {
+        SqlStatementStats stats = statements.get(sql);
+        if (stats != null) {
+            return stats;
+        }
+        if (statements.size() >= properties.getMaxStatements()) {
+            untracked.incrementAndGet();
+            return null;
+        }
+        return statements.computeIfAbsent(sql, key -> new SqlStatementStats(key, properties.getSamplesPerStatement()));
+    }
+
+    /**
+     * Same statement, same text: literals and IN lists become ?, whitespace
+     * is collapsed
+     */
+    static String normalize(String sql) {
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = IN_LIST.matcher(normalized).replaceAll("in (?...)");
+        return WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+    }
+
+    /**
+     * Parameter types in index order, e.g. "(Long, String, null)"; for a
+     * batch the first set and the batch size
+     */
+    static String parameterShape(List<List<ParameterSetOperation>> parametersList) {
+        if (parametersList == null || parametersList.isEmpty() || parametersList.get(0).isEmpty()) {
+            return "()";
+        }
+        List<ParameterSetOperation> operations = new ArrayList<>(parametersList.get(0));
+        operations.sort(Comparator.comparing(operation -> String.valueOf(operation.getArgs()[0]),
+                Comparator.comparingInt(String::length).thenComparing(Comparator.naturalOrder())));
+
+        List<String> types = new ArrayList<>(operations.size());
+        for (ParameterSetOperation operation : operations) {
+            String method = operation.getMethod().getName();
+            types.add(ParameterSetOperation.isSetNullParameterOperation(operation) ? "null"
+                    : method.startsWith("set") ? method.substring(3) : method);
+        }
+        String shape = "(" + String.join(", ", types) + ")";
+        return parametersList.size() > 1 ? shape + " x" + parametersList.size() : shape;
+    }
+
+    private static long updateCount(Object result) {
+        if (result instanceof Integer count) {
+            return Math.max(count, 0);
+        }
+        if (result instanceof Long count) {
+            return Math.max(count, 0);
+        }
+        long total = 0;
+        if (result instanceof int[] counts) {
+            for (int count : counts) {
+                total += Math.max(count, 0);
+            }
+        } else if (result instanceof long[] counts) {
+            for (long count : counts) {
+                total += Math.max(count, 0);
+            }
+        }
+        return total;
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.1f", nanos / 1_000_000.0);
+    }
+
+    private record LastQuery(SqlStatementStats stats, StatementRecord record) {
+
+        void addRow() {
+            if (stats != null) {
+                stats.addRows(1);
+            }
+            if (record != null) {
+                record.rows++;
+            }
+        }
+    }
+
+    private static class StatementRecord {
+        private final String sql;
+        private final String parameterShape;
+        private final long nanos;
+        private long rows;
+
+        StatementRecord(String sql, String parameterShape, long nanos, long rows) {
+            this.sql = sql;
+            this.parameterShape = parameterShape;
+            this.nanos = nanos;
+            this.rows = rows;
+        }
+    }
+
+    /**
+     * Statements of one HTTP request; only the first maxRecords are kept,
+     * the totals count all of them
+     */
+    private static class RequestProfile {
+        private final String name;
+        private final int maxRecords;
+        private final List<StatementRecord> records = new ArrayList<>();
+        private int statementCount;
+        private long totalNanos;
+
+        RequestProfile(String name, int maxRecords) {
+            this.name = name;
+            this.maxRecords = maxRecords;
+        }
+
+        StatementRecord add(String sql, String parameterShape, long nanos, long rows) {
+            statementCount++;
+            totalNanos += nanos;
+            if (records.size() >= maxRecords) {
+                return null;
+            }
+            StatementRecord record = new StatementRecord(sql, parameterShape, nanos, rows);
+            records.add(record);
+            return record;
+        }
+
+        /**
+         * One line per distinct statement, most time first, so an N+1 shows
+         * up as one line with a large count
+         */
+        String describe() {
+            Map<String, long[]> grouped = new LinkedHashMap<>();
+            for (StatementRecord record : records) {
+                long[] totals = grouped.computeIfAbsent(record.sql + " " + record.parameterShape, key -> new long[3]);
+                totals[0]++;
+                totals[1] += record.nanos;
+                totals[2] += record.rows;
+            }
+
+            StringBuilder description = new StringBuilder()
+                    .append(name).append(": ").append(statementCount).append(" SQL statements, ")
+                    .append(millis(totalNanos)).append(" ms");
+            if (statementCount > records.size()) {
+                description.append(" (first ").append(records.size()).append(" listed)");
+            }
+            grouped.entrySet().stream()
+                    .sorted(Map.Entry.<String, long[]>comparingByValue(
+                            Comparator.comparingLong(totals -> totals[1])).reversed())
+                    .forEach(entry -> description.append("\n  ")
+                            .append(entry.getValue()[0]).append("x, ")
+                            .append(millis(entry.getValue()[1])).append(" ms, ")
+                            .append(entry.getValue()[2]).append(" rows: ")
+                            .append(entry.getKey()));
+            return description.toString();
+        }
+    }
+}
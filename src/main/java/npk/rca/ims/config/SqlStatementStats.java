@@ -0,0 +1,94 @@
+package npk.rca.ims.config;
+
+import java.util.Arrays;
+
+/**
+ * Running totals for one normalized statement, with its latest durations kept
+ * in a ring buffer for the percentiles
+ */
+public class SqlStatementStats {
+
+    private final String sql;
+    private final long[] samples;
+    private int sampled;
+    private int next;
+
+    private long count;
+    private long totalNanos;
+    private long maxNanos;
+    private long rows;
+    private long slowCount;
+    private String parameterShape;
+
+    public SqlStatementStats(String sql, int maxSamples) {
+        this.sql = sql;
+        this.samples = new long[Math.max(1, maxSamples)];
+    }
+
+    public synchronized void record(long nanos, String parameterShape, long rowsAffected, boolean slow) {
+        count++;
+        totalNanos += nanos;
+        maxNanos = Math.max(maxNanos, nanos);
+        rows += rowsAffected;
+        if (slow) {
+            slowCount++;
+        }
+        this.parameterShape = parameterShape;
+
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        sampled = Math.min(sampled + 1, samples.length);
+    }
+
+    synchronized void addRows(long fetched) {
+        rows += fetched;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public synchronized long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public synchronized long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * Rows fetched by queries plus rows changed by updates
+     */
+    public synchronized long getRows() {
+        return rows;
+    }
+
+    public synchronized long getSlowCount() {
+        return slowCount;
+    }
+
+    /**
+     * Parameter types of the latest execution, e.g. "(Long, String)"
+     */
+    public synchronized String getParameterShape() {
+        return parameterShape;
+    }
+
+    /**
+     * Nearest-rank percentile (0-100) of the sampled durations; 0 before the
+     * first execution
+     */
+    public synchronized long percentileNanos(double percentile) {
+        if (sampled == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, sampled);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(rank, sorted.length) - 1)];
+    }
+}
@@ -0,0 +1,23 @@
+package npk.rca.ims.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs the annotated method (or every public method of the annotated class) in
+ * the given workload: its database work uses that workload's connection pool and
+ * it counts against that workload's concurrency limit.
+ *
+ * A method annotation overrides the class annotation. Nested calls join the
+ * workload already in progress, so a scheduled job that generates a report stays
+ * in SCHEDULED.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Workload {
+    WorkloadType value();
+}
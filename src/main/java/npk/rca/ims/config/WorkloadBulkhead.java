@@ -0,0 +1,77 @@
+package npk.rca.ims.config;
+
+import npk.rca.ims.exceptions.WorkloadRejectedException;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps how many calls of one workload run at the same time. Callers beyond the
+ * cap wait up to the queue timeout and are then rejected.
+ */
+public class WorkloadBulkhead {
+
+    private final WorkloadType workload;
+    private final int maxConcurrent;
+    private final Duration queueTimeout;
+    private final Semaphore permits;
+    private final AtomicLong inFlight = new AtomicLong();
+    private final AtomicLong waiting = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public WorkloadBulkhead(WorkloadType workload, int maxConcurrent, Duration queueTimeout) {
+        this.workload = workload;
+        this.maxConcurrent = maxConcurrent;
+        this.queueTimeout = queueTimeout;
+        this.permits = maxConcurrent > 0 ? new Semaphore(maxConcurrent, true) : null;
+    }
+
+    public void acquire() {
+        if (permits != null) {
+            waiting.incrementAndGet();
+            try {
+                if (!permits.tryAcquire(queueTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                    rejected.incrementAndGet();
+                    throw new WorkloadRejectedException(
+                            "Too many " + workload.name().toLowerCase() + " requests in progress, please retry shortly");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                rejected.incrementAndGet();
+                throw new WorkloadRejectedException("Interrupted while waiting for a " + workload + " slot");
+            } finally {
+                waiting.decrementAndGet();
+            }
+        }
+        inFlight.incrementAndGet();
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+        if (permits != null) {
+            permits.release();
+        }
+    }
+
+    public WorkloadType getWorkload() {
+        return workload;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public long getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getWaiting() {
+        return waiting.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+}
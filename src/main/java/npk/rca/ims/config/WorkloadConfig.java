@@ -0,0 +1,49 @@
+package npk.rca.ims.config;
+
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * WorkloadConfig - Applies {@link Workload} annotations
+ *
+ * Each workload gets a bulkhead sized from app.datasource.workloads.pools.*;
+ * the matching connection pools are set up in DataSourceRoutingConfig.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.workloads", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(WorkloadProperties.class)
+public class WorkloadConfig {
+
+    @Bean
+    public WorkloadInterceptor workloadInterceptor(WorkloadProperties workloadProperties) {
+        Map<WorkloadType, WorkloadBulkhead> bulkheads = new EnumMap<>(WorkloadType.class);
+        for (WorkloadType workload : WorkloadType.values()) {
+            WorkloadProperties.Pool pool = workloadProperties.pool(workload);
+            bulkheads.put(workload, new WorkloadBulkhead(workload, pool.getMaxConcurrent(), pool.getQueueTimeout()));
+        }
+        return new WorkloadInterceptor(bulkheads);
+    }
+
+    /**
+     * Ordered first so the workload is entered before @Transactional opens the
+     * transaction and takes a connection.
+     */
+    @Bean
+    public Advisor workloadAdvisor(WorkloadInterceptor workloadInterceptor) {
+        ComposablePointcut pointcut = new ComposablePointcut(new AnnotationMatchingPointcut(Workload.class, true))
+                .union(AnnotationMatchingPointcut.forMethodAnnotation(Workload.class));
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(pointcut, workloadInterceptor);
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+}
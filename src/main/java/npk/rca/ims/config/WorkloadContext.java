@@ -0,0 +1,48 @@
+package npk.rca.ims.config;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Holds the workload of the current thread (null means OLTP)
+ */
+public final class WorkloadContext {
+
+    private static final ThreadLocal<WorkloadType> CURRENT = new ThreadLocal<>();
+
+    private WorkloadContext() {
+    }
+
+    public static WorkloadType current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Wraps a task handed to another thread so it runs in the workload of the
+     * thread creating it. The caller already holds that workload's slot, so
+     * the task joins it instead of taking one of its own.
+     */
+    public static <T> Callable<T> propagate(Callable<T> task) {
+        WorkloadType workload = current();
+        return () -> {
+            WorkloadType previous = current();
+            CURRENT.set(workload);
+            try {
+                return task.call();
+            } finally {
+                if (previous != null) {
+                    CURRENT.set(previous);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+        };
+    }
+
+    static void set(WorkloadType workload) {
+        CURRENT.set(workload);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+}
@@ -0,0 +1,59 @@
+package npk.rca.ims.config;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+
+/**
+ * Enters the workload declared by {@link Workload} for the duration of the call.
+ *
+ * Runs ahead of the transaction interceptor so the connection for the call's
+ * transaction is taken from the workload's pool.
+ */
+public class WorkloadInterceptor implements MethodInterceptor {
+
+    private final Map<WorkloadType, WorkloadBulkhead> bulkheads;
+
+    public WorkloadInterceptor(Map<WorkloadType, WorkloadBulkhead> bulkheads) {
+        this.bulkheads = bulkheads;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (WorkloadContext.current() != null) {
+            return invocation.proceed();
+        }
+        Workload workload = findWorkload(invocation);
+        if (workload == null) {
+            return invocation.proceed();
+        }
+
+        WorkloadBulkhead bulkhead = bulkheads.get(workload.value());
+        bulkhead.acquire();
+        WorkloadContext.set(workload.value());
+        try {
+            return invocation.proceed();
+        } finally {
+            WorkloadContext.clear();
+            bulkhead.release();
+        }
+    }
+
+    public Map<WorkloadType, WorkloadBulkhead> getBulkheads() {
+        return bulkheads;
+    }
+
+    private Workload findWorkload(MethodInvocation invocation) {
+        Class<?> targetClass = invocation.getThis() != null
+                ? AopUtils.getTargetClass(invocation.getThis())
+                : invocation.getMethod().getDeclaringClass();
+        Method method = AopUtils.getMostSpecificMethod(invocation.getMethod(), targetClass);
+
+        Workload workload = AnnotatedElementUtils.findMergedAnnotation(method, Workload.class);
+        return workload != null ? workload : AnnotatedElementUtils.findMergedAnnotation(targetClass, Workload.class);
+    }
+}
@@ -0,0 +1,55 @@
+package npk.rca.ims.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Workload isolation settings (app.datasource.workloads.*)
+ *
+ * Each workload gets its own Hikari pool against the primary database and an
+ * optional cap on concurrent executions, so a burst of reports cannot take the
+ * connections that stock movements need.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.datasource.workloads")
+public class WorkloadProperties {
+
+    private boolean enabled = false;
+
+    private Map<WorkloadType, Pool> pools = defaultPools();
+
+    public Pool pool(WorkloadType workload) {
+        return pools.getOrDefault(workload, new Pool());
+    }
+
+    @Data
+    public static class Pool {
+        private int maximumPoolSize = 10;
+        // 0 = no limit on concurrent executions
+        private int maxConcurrent = 0;
+        // How long a caller waits for a free slot before being rejected
+        private Duration queueTimeout = Duration.ofSeconds(10);
+
+        public Pool() {
+        }
+
+        Pool(int maximumPoolSize, int maxConcurrent, Duration queueTimeout) {
+            this.maximumPoolSize = maximumPoolSize;
+            this.maxConcurrent = maxConcurrent;
+            this.queueTimeout = queueTimeout;
+        }
+    }
+
+    private static Map<WorkloadType, Pool> defaultPools() {
+        Map<WorkloadType, Pool> pools = new EnumMap<>(WorkloadType.class);
+        pools.put(WorkloadType.OLTP, new Pool(10, 0, Duration.ofSeconds(10)));
+        pools.put(WorkloadType.REPORTING, new Pool(4, 3, Duration.ofSeconds(10)));
+        pools.put(WorkloadType.SCHEDULED, new Pool(2, 2, Duration.ofMinutes(5)));
+        pools.put(WorkloadType.IMPORT, new Pool(1, 1, Duration.ZERO));
+        return pools;
+    }
+}
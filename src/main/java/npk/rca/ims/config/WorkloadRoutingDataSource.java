@@ -0,0 +1,42 @@
+package npk.rca.ims.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * WorkloadRoutingDataSource - One connection pool per workload, all on the primary
+ *
+ * The pool is picked from {@link WorkloadContext}; threads outside any workload
+ * use the OLTP pool.
+ */
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private final Map<WorkloadType, HikariDataSource> pools;
+
+    public WorkloadRoutingDataSource(Map<WorkloadType, HikariDataSource> pools) {
+        this.pools = new EnumMap<>(pools);
+
+        setTargetDataSources(new HashMap<>(pools));
+        setDefaultTargetDataSource(pools.get(WorkloadType.OLTP));
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        WorkloadType workload = WorkloadContext.current();
+        return workload != null ? workload : WorkloadType.OLTP;
+    }
+
+    public Map<WorkloadType, HikariDataSource> getPools() {
+        return pools;
+    }
+
+    @Override
+    public void close() {
+        pools.values().forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,15 @@
+package npk.rca.ims.config;
+
+/**
+ * Workload classes that get their own connection pool and concurrency limit
+ */
+public enum WorkloadType {
+    /** Interactive requests (the default for anything not annotated) */
+    OLTP,
+    /** Report generation and analytics */
+    REPORTING,
+    /** Background jobs run by the scheduler */
+    SCHEDULED,
+    /** Bulk ledger imports: one at a time, rejected rather than queued */
+    IMPORT
+}
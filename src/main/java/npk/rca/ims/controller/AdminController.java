@@ -1,19 +1,30 @@
 package npk.rca.ims.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import npk.rca.ims.dto.CacheRegionStatsDTO;
 import npk.rca.ims.dto.CreateUserRequest;
+import npk.rca.ims.dto.LedgerImportResultDTO;
+import npk.rca.ims.dto.SqlStatementStatsDTO;
 import npk.rca.ims.dto.UserDTO;
+import npk.rca.ims.dto.WorkloadStatsDTO;
 import npk.rca.ims.model.User;
 import npk.rca.ims.repository.UserRepository;
+import npk.rca.ims.service.CacheStatisticsService;
 import npk.rca.ims.service.EmailService;
+import npk.rca.ims.service.LedgerImportService;
+import npk.rca.ims.service.SqlProfileService;
 import npk.rca.ims.service.UserService;
+import npk.rca.ims.service.WorkloadStatisticsService;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.security.Principal;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -33,6 +44,10 @@ public class AdminController {
     private final PasswordEncoder passwordEncoder;
     private final UserService userService;
     private final EmailService emailService;
+    private final CacheStatisticsService cacheStatisticsService;
+    private final WorkloadStatisticsService workloadStatisticsService;
+    private final LedgerImportService ledgerImportService;
+    private final SqlProfileService sqlProfileService;
 
     @Value("${app.admin.default-email:ntarekayitare@gmail.com}")
     private String defaultEmail;
@@ -206,6 +221,69 @@ public class AdminController {
         }
     }
 
+    /**
+     * GET /api/admin/cache/stats
+     * Hit/miss counters per second-level cache region
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<List<CacheRegionStatsDTO>> getCacheStatistics() {
+        return ResponseEntity.ok(cacheStatisticsService.getRegionStatistics());
+    }
+
+    /**
+     * DELETE /api/admin/cache
+     * Evict all cached entities and query results
+     */
+    @DeleteMapping("/cache")
+    public ResponseEntity<?> evictCache() {
+        cacheStatisticsService.evictAll();
+        return ResponseEntity.ok(Map.of("message", "Cache cleared"));
+    }
+
+    /**
+     * GET /api/admin/workloads
+     * Connection pool and concurrency saturation per workload (OLTP, REPORTING, SCHEDULED)
+     */
+    @GetMapping("/workloads")
+    public ResponseEntity<List<WorkloadStatsDTO>> getWorkloadStatistics() {
+        return ResponseEntity.ok(workloadStatisticsService.getWorkloadStatistics());
+    }
+
+    /**
+     * GET /api/admin/sql-profile?sort=total&limit=20
+     * Most expensive SQL statements (normalized) with counts, rows and latency percentiles
+     * sort: total (default), mean, p95, p99, max or count
+     */
+    @GetMapping("/sql-profile")
+    public ResponseEntity<List<SqlStatementStatsDTO>> getSqlProfile(
+            @RequestParam(defaultValue = "total") String sort,
+            @RequestParam(defaultValue = "" + SqlProfileService.DEFAULT_LIMIT) int limit) {
+        return ResponseEntity.ok(sqlProfileService.getTopStatements(sort, limit));
+    }
+
+    /**
+     * DELETE /api/admin/sql-profile
+     * Start the statement statistics afresh, e.g. before reproducing a slow page
+     */
+    @DeleteMapping("/sql-profile")
+    public ResponseEntity<?> resetSqlProfile() {
+        sqlProfileService.reset();
+        return ResponseEntity.ok(Map.of("message", "SQL profile cleared"));
+    }
+
+    /**
+     * POST /api/admin/import/transactions
+     * Bulk load of historical ledger rows. The request body is the CSV itself
+     * (Content-Type: text/csv), streamed straight into the database rather than
+     * going through the multipart upload limits.
+     */
+    @PostMapping(value = "/import/transactions", consumes = "text/csv")
+    public ResponseEntity<LedgerImportResultDTO> importTransactions(HttpServletRequest request,
+                                                                    Principal principal) throws IOException {
+        String importedBy = principal != null ? principal.getName() : null;
+        return ResponseEntity.ok(ledgerImportService.importTransactions(request.getInputStream(), importedBy));
+    }
+
     private UserDTO convertToDTO(User user) {
         return new UserDTO(
                 user.getId(),
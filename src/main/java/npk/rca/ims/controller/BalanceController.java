@@ -0,0 +1,37 @@
+package npk.rca.ims.controller;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import npk.rca.ims.dto.BatchGetRequest;
+import npk.rca.ims.dto.BatchGetResponse;
+import npk.rca.ims.dto.StockBalanceDTO;
+import npk.rca.ims.service.StockBalanceService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * BalanceController - Current stock balances
+ */
+@RestController
+@RequestMapping("/api/balances")
+@RequiredArgsConstructor
+public class BalanceController {
+
+    private final StockBalanceService balanceService;
+
+    /**
+     * POST /api/balances/batch-get
+     * Balances of a list of items in one round trip
+     *
+     * Request body example:
+     * { "ids": [1, 2, 3] }
+     */
+    @PostMapping("/batch-get")
+    public ResponseEntity<BatchGetResponse<StockBalanceDTO>> getBalancesByIds(
+            @Valid @RequestBody BatchGetRequest request) {
+        return ResponseEntity.ok(balanceService.getBalancesByIds(request.getIds()));
+    }
+}
@@ -2,9 +2,12 @@ package npk.rca.ims.controller;
 
 import lombok.RequiredArgsConstructor;
 import npk.rca.ims.dto.AnalyticsSummaryDTO;
+import npk.rca.ims.dto.CursorPageDTO;
+import npk.rca.ims.dto.FieldSet;
 import npk.rca.ims.dto.NotificationDTO;
 import npk.rca.ims.dto.StockMetricsDTO;
 import npk.rca.ims.dto.StockTransactionDTO;
+import npk.rca.ims.dto.TransactionFilter;
 import npk.rca.ims.service.AnalyticsService;
 import npk.rca.ims.service.StockService;
 import npk.rca.ims.service.StockTransactionService;
@@ -70,30 +73,16 @@ public class DashboardController {
     /**
      * GET /api/dashboard/recent-transactions
      * Get recent transactions for activity feed
-     * Optional query param: ?limit=10
+     * Optional query params: ?limit=10, ?cursor=... (nextCursor of the previous page)
+     *
+     * Reads only the newest `limit` rows instead of the whole ledger.
      */
     @GetMapping("/recent-transactions")
-    public ResponseEntity<List<StockTransactionDTO>> getRecentTransactions(
-            @RequestParam(defaultValue = "10") int limit) {
-        
-        List<StockTransactionDTO> allTransactions = transactionService.getAllTransactions();
-        
-        // Sort by createdAt descending (most recent first) and limit
-        List<StockTransactionDTO> recent = allTransactions.stream()
-                .sorted((a, b) -> {
-                    // Sort by transaction date first, then by createdAt if available
-                    int dateCompare = b.getTransactionDate().compareTo(a.getTransactionDate());
-                    if (dateCompare != 0) return dateCompare;
-                    // If dates are equal, sort by createdAt if available
-                    if (a.getCreatedAt() != null && b.getCreatedAt() != null) {
-                        return b.getCreatedAt().compareTo(a.getCreatedAt());
-                    }
-                    return dateCompare;
-                })
-                .limit(limit)
-                .collect(Collectors.toList());
-        
-        return ResponseEntity.ok(recent);
+    public ResponseEntity<CursorPageDTO<StockTransactionDTO>> getRecentTransactions(
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String cursor) {
+
+        return ResponseEntity.ok(transactionService.getTransactionPage(new TransactionFilter(), FieldSet.ALL, cursor, limit));
     }
 
     /**
@@ -2,15 +2,20 @@ package npk.rca.ims.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import npk.rca.ims.dto.BatchGetRequest;
+import npk.rca.ims.dto.BatchGetResponse;
 import npk.rca.ims.dto.DeleteRequestDTO;
+import npk.rca.ims.dto.FieldSet;
 import npk.rca.ims.dto.ItemDTO;
+import npk.rca.ims.dto.ItemFilter;
+import npk.rca.ims.dto.ItemMergeRequest;
+import npk.rca.ims.dto.PageDTO;
 import npk.rca.ims.service.ItemService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.security.Principal;
-import java.util.List;
 
 /**
  * ItemController - REST API endpoints for Item management
@@ -23,17 +28,33 @@ public class ItemController {
     private final ItemService itemService;
 
     /**
-     * GET /api/items (with optional filters and sorting)
+     * GET /api/items?category=&status=&name=&sort=name,asc&page=0&size=50
+     *
+     * One page of the catalogue with balances and the total count.
+     * ?fields=id,name returns (and loads) only those properties, e.g. for a dropdown.
      */
     @GetMapping
-    public ResponseEntity<List<ItemDTO>> getAllItems(
-            @RequestParam(required = false) String category,
-            @RequestParam(required = false) String status,
-            @RequestParam(required = false) String name,
-            @RequestParam(required = false, defaultValue = "name,asc") String sort
+    public ResponseEntity<PageDTO<ItemDTO>> getAllItems(
+            ItemFilter filter,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false, defaultValue = "name,asc") String sort,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "" + ItemService.DEFAULT_PAGE_SIZE) int size
     ) {
-        List<ItemDTO> items = itemService.getFilteredItems(category, status, name, sort);
-        return ResponseEntity.ok(items);
+        FieldSet fieldSet = FieldSet.parse(fields, ItemDTO.FIELDS);
+        return ResponseEntity.ok(itemService.getItemCatalogue(filter, fieldSet, sort, page, size));
+    }
+
+    /**
+     * POST /api/items/batch-get
+     * Items with balances for a list of ids in one round trip
+     *
+     * Request body example:
+     * { "ids": [4, 8, 15] }
+     */
+    @PostMapping("/batch-get")
+    public ResponseEntity<BatchGetResponse<ItemDTO>> getItemsByIds(@Valid @RequestBody BatchGetRequest request) {
+        return ResponseEntity.ok(itemService.getItemsByIds(request.getIds()));
     }
 
     /**
@@ -82,6 +103,27 @@ public class ItemController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * POST /api/items/{id}/merge
+     * Merge duplicate items into this item (requires the user's password).
+     *
+     * Request body example:
+     * {
+     *   "sourceItemIds": [7, 12],
+     *   "password": "********"
+     * }
+     */
+    @PostMapping("/{id}/merge")
+    public ResponseEntity<ItemDTO> mergeItems(
+            @PathVariable Long id,
+            @Valid @RequestBody ItemMergeRequest mergeRequest,
+            Principal principal) {
+
+        ItemDTO merged = itemService.mergeItemsWithPasswordVerification(
+                id, mergeRequest.getSourceItemIds(), principal.getName(), mergeRequest.getPassword());
+        return ResponseEntity.ok(merged);
+    }
+
     /**
      * PATCH /api/items/{id}/damaged
      */
@@ -0,0 +1,65 @@
+package npk.rca.ims.controller;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import npk.rca.ims.dto.GoodsReceiptRequest;
+import npk.rca.ims.dto.PurchaseOrderDTO;
+import npk.rca.ims.service.PurchaseOrderService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/purchase-orders")
+@RequiredArgsConstructor
+public class PurchaseOrderController {
+
+    private final PurchaseOrderService purchaseOrderService;
+
+    /**
+     * GET /api/purchase-orders?supplierId=3&openOnly=true
+     */
+    @GetMapping
+    public ResponseEntity<List<PurchaseOrderDTO>> getPurchaseOrders(
+            @RequestParam(required = false) Long supplierId,
+            @RequestParam(defaultValue = "false") boolean openOnly) {
+        return ResponseEntity.ok(purchaseOrderService.getPurchaseOrders(supplierId, openOnly));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<PurchaseOrderDTO> getPurchaseOrderById(@PathVariable Long id) {
+        return ResponseEntity.ok(purchaseOrderService.getPurchaseOrderById(id));
+    }
+
+    @PostMapping
+    public ResponseEntity<PurchaseOrderDTO> createPurchaseOrder(@Valid @RequestBody PurchaseOrderDTO purchaseOrderDTO) {
+        PurchaseOrderDTO created = purchaseOrderService.createPurchaseOrder(purchaseOrderDTO);
+        return new ResponseEntity<>(created, HttpStatus.CREATED);
+    }
+
+    /**
+     * Receive goods (partial or full). An empty body receives everything outstanding.
+     * POST /api/purchase-orders/{id}/receive
+     */
+    @PostMapping("/{id}/receive")
+    public ResponseEntity<PurchaseOrderDTO> receiveGoods(
+            @PathVariable Long id,
+            @Valid @RequestBody(required = false) GoodsReceiptRequest request,
+            Principal principal) {
+        if (request == null) {
+            request = new GoodsReceiptRequest();
+        }
+        if ((request.getRecordedBy() == null || request.getRecordedBy().isBlank()) && principal != null) {
+            request.setRecordedBy(principal.getName());
+        }
+        return ResponseEntity.ok(purchaseOrderService.receiveGoods(id, request));
+    }
+
+    @PatchMapping("/{id}/cancel")
+    public ResponseEntity<PurchaseOrderDTO> cancelPurchaseOrder(@PathVariable Long id) {
+        return ResponseEntity.ok(purchaseOrderService.cancelPurchaseOrder(id));
+    }
+}
@@ -0,0 +1,65 @@
+package npk.rca.ims.controller;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import npk.rca.ims.dto.RecipeDTO;
+import npk.rca.ims.dto.RecipeIssueRequest;
+import npk.rca.ims.dto.StockTransactionDTO;
+import npk.rca.ims.service.RecipeService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/recipes")
+@RequiredArgsConstructor
+public class RecipeController {
+
+    private final RecipeService recipeService;
+
+    @GetMapping
+    public ResponseEntity<List<RecipeDTO>> getAllRecipes() {
+        return ResponseEntity.ok(recipeService.getAllRecipes());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<RecipeDTO> getRecipeById(@PathVariable Long id) {
+        return ResponseEntity.ok(recipeService.getRecipeById(id));
+    }
+
+    @PostMapping
+    public ResponseEntity<RecipeDTO> createRecipe(@Valid @RequestBody RecipeDTO recipeDTO) {
+        RecipeDTO createdRecipe = recipeService.createRecipe(recipeDTO);
+        return new ResponseEntity<>(createdRecipe, HttpStatus.CREATED);
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<RecipeDTO> updateRecipe(@PathVariable Long id, @Valid @RequestBody RecipeDTO recipeDTO) {
+        return ResponseEntity.ok(recipeService.updateRecipe(id, recipeDTO));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteRecipe(@PathVariable Long id) {
+        recipeService.deleteRecipe(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Issue N portions: one OUT movement per ingredient, all or nothing.
+     * POST /api/recipes/{id}/issue
+     */
+    @PostMapping("/{id}/issue")
+    public ResponseEntity<List<StockTransactionDTO>> issuePortions(
+            @PathVariable Long id,
+            @Valid @RequestBody RecipeIssueRequest request,
+            Principal principal) {
+        if ((request.getRecordedBy() == null || request.getRecordedBy().isBlank()) && principal != null) {
+            request.setRecordedBy(principal.getName());
+        }
+        List<StockTransactionDTO> transactions = recipeService.issuePortions(id, request);
+        return new ResponseEntity<>(transactions, HttpStatus.CREATED);
+    }
+}
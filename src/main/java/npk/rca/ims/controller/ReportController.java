@@ -1,12 +1,18 @@
 package npk.rca.ims.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import npk.rca.ims.dto.FieldSet;
 import npk.rca.ims.dto.StockBalanceDTO;
 import npk.rca.ims.dto.CategoryDistributionDTO;
 import npk.rca.ims.model.ReportHistory;
 import npk.rca.ims.service.ReportService;
 import npk.rca.ims.service.StockTransactionService;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -15,28 +21,38 @@ import org.springframework.web.bind.annotation.*;
 import npk.rca.ims.model.ScheduledReportConfig;
 import npk.rca.ims.repository.ScheduledReportConfigRepository;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.List;
 
 /**
  * ReportController - Generate inventory reports
+ *
+ * Failures are left to GlobalExceptionHandler: a busy reporting workload
+ * is a 503 with Retry-After, a failed generation a 500 with an error body.
  */
 @RestController
 @RequestMapping("/api/reports")
 @RequiredArgsConstructor
 public class ReportController {
 
+    private static final MediaType EXCEL =
+            MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+
     private final StockTransactionService transactionService;
     private final ReportService reportService;
     private final ScheduledReportConfigRepository scheduledReportConfigRepository;
 
     /**
-     * GET /api/reports/balance
-     * Get JSON data for balance
+     * GET /api/reports/balance[?fields=itemId,itemName]
+     * Get JSON data for balance (totals are only read when a balance field is requested)
      */
     @GetMapping("/balance")
-    public ResponseEntity<List<StockBalanceDTO>> getBalanceReport() {
-        List<StockBalanceDTO> report = transactionService.generateBalanceReport();
+    public ResponseEntity<List<StockBalanceDTO>> getBalanceReport(@RequestParam(required = false) String fields) {
+        List<StockBalanceDTO> report = transactionService.generateBalanceReport(
+                FieldSet.parse(fields, StockBalanceDTO.FIELDS));
         return ResponseEntity.ok(report);
     }
 
@@ -64,37 +80,32 @@ public class ReportController {
     }
 
     @GetMapping("/download/{id}")
-    public ResponseEntity<byte[]> downloadReport(@PathVariable Long id) {
-        try {
-            ReportHistory history = reportService.getReportHistoryById(id);
-            byte[] content = reportService.getReportFileContent(id);
-            
-            String filename = history.getTitle().replaceAll("[^a-zA-Z0-9.-]", "_") + "_" + id;
-            MediaType mediaType = MediaType.APPLICATION_OCTET_STREAM;
-            
-            if ("PDF".equalsIgnoreCase(history.getFormat())) {
-                filename += ".pdf";
-                mediaType = MediaType.APPLICATION_PDF;
-            } else if ("EXCEL".equalsIgnoreCase(history.getFormat()) || "CSV".equalsIgnoreCase(history.getFormat())) {
-                filename += ".xlsx";
-                mediaType = MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
-            }
-            
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                    .contentType(mediaType)
-                    .body(content);
-        } catch (Exception e) {
-            return ResponseEntity.notFound().build();
+    public void downloadReport(@PathVariable Long id, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        ReportHistory history = reportService.getReportHistoryById(id);
+        Path file = reportService.getReportFile(id);
+
+        String filename = history.getTitle().replaceAll("[^a-zA-Z0-9.-]", "_") + "_" + id;
+        MediaType mediaType = MediaType.APPLICATION_OCTET_STREAM;
+
+        if ("PDF".equalsIgnoreCase(history.getFormat())) {
+            filename += ".pdf";
+            mediaType = MediaType.APPLICATION_PDF;
+        } else if ("EXCEL".equalsIgnoreCase(history.getFormat()) || "CSV".equalsIgnoreCase(history.getFormat())) {
+            filename += ".xlsx";
+            mediaType = EXCEL;
         }
+
+        FileDownload.send(file, mediaType, ContentDisposition.attachment().filename(filename).build(), request, response);
     }
 
     /**
-     * GET /api/reports/low-stock
+     * GET /api/reports/low-stock[?fields=...]
      * Get JSON data for low stock
      */
     @GetMapping("/low-stock")
-    public ResponseEntity<List<StockBalanceDTO>> getLowStockReport() {
+    public ResponseEntity<List<StockBalanceDTO>> getLowStockReport(@RequestParam(required = false) String fields) {
+        FieldSet.parse(fields, StockBalanceDTO.FIELDS); // balances are needed to filter; fields only trims the output
         List<StockBalanceDTO> report = transactionService.getLowStockItems();
         return ResponseEntity.ok(report);
     }
@@ -114,21 +125,14 @@ public class ReportController {
      * Export full transaction history as PDF
      */
     @GetMapping("/export/pdf")
-    public ResponseEntity<byte[]> exportPdf(
+    public ResponseEntity<Resource> exportPdf(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
             @RequestParam(required = false) Long itemId,
-            @RequestParam(required = false) String title) {
-        try {
-            byte[] pdfContent = reportService.generateTransactionReportPdf(startDate, endDate, itemId, title);
-            
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=transaction_report.pdf")
-                    .contentType(MediaType.APPLICATION_PDF)
-                    .body(pdfContent);
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().build();
-        }
+            @RequestParam(required = false) String title) throws IOException {
+        Path pdfFile = reportService.generateTransactionReportPdf(startDate, endDate, itemId, title);
+
+        return fileResponse(pdfFile, "inline; filename=transaction_report.pdf", MediaType.APPLICATION_PDF);
     }
 
     /**
@@ -136,21 +140,14 @@ public class ReportController {
      * Export full transaction history as Excel
      */
     @GetMapping("/export/excel")
-    public ResponseEntity<byte[]> exportExcel(
+    public ResponseEntity<Resource> exportExcel(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
             @RequestParam(required = false) Long itemId,
-            @RequestParam(required = false) String title) {
-        try {
-            byte[] excelContent = reportService.generateTransactionReportExcel(startDate, endDate, itemId, title);
-            
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=transaction_report.xlsx")
-                    .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
-                    .body(excelContent);
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().build();
-        }
+            @RequestParam(required = false) String title) throws IOException {
+        Path excelFile = reportService.generateTransactionReportExcel(startDate, endDate, itemId, title);
+
+        return fileResponse(excelFile, "attachment; filename=transaction_report.xlsx", EXCEL);
     }
 
     /**
@@ -158,17 +155,10 @@ public class ReportController {
      * Export balance report as PDF
      */
     @GetMapping("/export/balance/pdf")
-    public ResponseEntity<byte[]> exportBalancePdf() {
-        try {
-            byte[] pdfContent = reportService.generateBalanceReportPdf();
-            
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=stock_balance_report.pdf")
-                    .contentType(MediaType.APPLICATION_PDF)
-                    .body(pdfContent);
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().build();
-        }
+    public ResponseEntity<Resource> exportBalancePdf() throws IOException {
+        Path pdfFile = reportService.generateBalanceReportPdf();
+
+        return fileResponse(pdfFile, "inline; filename=stock_balance_report.pdf", MediaType.APPLICATION_PDF);
     }
 
     /**
@@ -176,17 +166,10 @@ public class ReportController {
      * Export balance report as Excel
      */
     @GetMapping("/export/balance/excel")
-    public ResponseEntity<byte[]> exportBalanceExcel() {
-        try {
-            byte[] excelContent = reportService.generateBalanceReportExcel();
-            
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=stock_balance_report.xlsx")
-                    .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
-                    .body(excelContent);
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().build();
-        }
+    public ResponseEntity<Resource> exportBalanceExcel() throws IOException {
+        Path excelFile = reportService.generateBalanceReportExcel();
+
+        return fileResponse(excelFile, "attachment; filename=stock_balance_report.xlsx", EXCEL);
     }
 
     /**
@@ -194,17 +177,10 @@ public class ReportController {
      * Export low stock report as PDF
      */
     @GetMapping("/export/low-stock/pdf")
-    public ResponseEntity<byte[]> exportLowStockPdf() {
-        try {
-            byte[] pdfContent = reportService.generateLowStockReportPdf();
-            
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=low_stock_report.pdf")
-                    .contentType(MediaType.APPLICATION_PDF)
-                    .body(pdfContent);
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().build();
-        }
+    public ResponseEntity<Resource> exportLowStockPdf() throws IOException {
+        Path pdfFile = reportService.generateLowStockReportPdf();
+
+        return fileResponse(pdfFile, "inline; filename=low_stock_report.pdf", MediaType.APPLICATION_PDF);
     }
 
     /**
@@ -212,17 +188,10 @@ public class ReportController {
      * Export low stock report as Excel
      */
     @GetMapping("/export/low-stock/excel")
-    public ResponseEntity<byte[]> exportLowStockExcel() {
-        try {
-            byte[] excelContent = reportService.generateLowStockReportExcel();
-            
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=low_stock_report.xlsx")
-                    .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
-                    .body(excelContent);
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().build();
-        }
+    public ResponseEntity<Resource> exportLowStockExcel() throws IOException {
+        Path excelFile = reportService.generateLowStockReportExcel();
+
+        return fileResponse(excelFile, "attachment; filename=low_stock_report.xlsx", EXCEL);
     }
 
     /**
@@ -230,17 +199,10 @@ public class ReportController {
      * Export active suppliers as PDF
      */
     @GetMapping("/export/suppliers/pdf")
-    public ResponseEntity<byte[]> exportSuppliersPdf() {
-        try {
-            byte[] pdfContent = reportService.generateSupplierReportPdf();
-            
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=suppliers_report.pdf")
-                    .contentType(MediaType.APPLICATION_PDF)
-                    .body(pdfContent);
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().build();
-        }
+    public ResponseEntity<Resource> exportSuppliersPdf() throws IOException {
+        Path pdfFile = reportService.generateSupplierReportPdf();
+
+        return fileResponse(pdfFile, "inline; filename=suppliers_report.pdf", MediaType.APPLICATION_PDF);
     }
 
     /**
@@ -248,16 +210,20 @@ public class ReportController {
      * Export active suppliers as Excel
      */
     @GetMapping("/export/suppliers/excel")
-    public ResponseEntity<byte[]> exportSuppliersExcel() {
-        try {
-            byte[] excelContent = reportService.generateSupplierReportExcel();
-            
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=suppliers_report.xlsx")
-                    .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
-                    .body(excelContent);
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().build();
-        }
+    public ResponseEntity<Resource> exportSuppliersExcel() throws IOException {
+        Path excelFile = reportService.generateSupplierReportExcel();
+
+        return fileResponse(excelFile, "attachment; filename=suppliers_report.xlsx", EXCEL);
+    }
+
+    /**
+     * Streams the stored report from disk rather than loading it into memory
+     */
+    private ResponseEntity<Resource> fileResponse(Path file, String disposition, MediaType mediaType) throws IOException {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition)
+                .contentType(mediaType)
+                .contentLength(Files.size(file))
+                .body(new FileSystemResource(file));
     }
 }
@@ -0,0 +1,35 @@
+package npk.rca.ims.controller;
+
+import lombok.RequiredArgsConstructor;
+import npk.rca.ims.dto.SuggestionDTO;
+import npk.rca.ims.service.AutocompleteService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * SearchController - Search-box autocomplete
+ */
+@RestController
+@RequestMapping("/api/search")
+@RequiredArgsConstructor
+public class SearchController {
+
+    private final AutocompleteService autocompleteService;
+
+    /**
+     * GET /api/search/suggest?q=ric&limit=10
+     * Items (by name, category or SKU) and active suppliers matching what has
+     * been typed so far, best first. Tolerates small typos ("rcie" finds Rice).
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionDTO>> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "" + AutocompleteService.DEFAULT_LIMIT) int limit) {
+        return ResponseEntity.ok(autocompleteService.suggest(q, limit));
+    }
+}
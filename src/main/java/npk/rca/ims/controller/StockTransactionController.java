@@ -2,7 +2,12 @@ package npk.rca.ims.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import npk.rca.ims.dto.BatchGetRequest;
+import npk.rca.ims.dto.BatchGetResponse;
+import npk.rca.ims.dto.CursorPageDTO;
+import npk.rca.ims.dto.FieldSet;
 import npk.rca.ims.dto.StockTransactionDTO;
+import npk.rca.ims.dto.TransactionFilter;
 import npk.rca.ims.service.StockTransactionService;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
@@ -27,48 +32,103 @@ public class StockTransactionController {
 
     /**
      * GET /api/transactions
-     * List all transactions
+     * List transactions, newest first, one page at a time
      *
-     * Optional query parameter: ?itemId=1
-     * Filters transactions by item
+     * Optional query parameters (all filtering is done in the database):
+     *   ?itemId=1 or ?itemIds=1,2   → Only transactions of those items
+     *   ?type=IN|OUT                → Movement type
+     *   ?supplierId=3               → Supplier of IN movements
+     *   ?recordedBy=jane            → Who recorded it (case-insensitive)
+     *   ?reversed=true|false        → Reversed flag
+     *   ?reason=Damaged             → Notes written as "Damaged: ..."
+     *   ?startDate=..&endDate=..    → Transaction date range (inclusive)
+     *   ?size=50                    → Page size (max 200)
+     *   ?cursor=...                 → nextCursor from the previous page
+     *   ?fields=id,itemName,quantity → Only these properties (balanceAfter is
+     *                                  computed only when requested)
      *
      * Examples:
-     * GET /api/transactions → All transactions
-     * GET /api/transactions?itemId=1 → Only Rice transactions
+     * GET /api/transactions → First page of all transactions
+     * GET /api/transactions?itemId=1 → First page of Rice transactions
+     * GET /api/transactions?type=OUT&reason=Expired → Expired stock write-offs
      */
     @GetMapping
-    public ResponseEntity<List<StockTransactionDTO>> getAllTransactions(
-            @RequestParam(required = false) Long itemId) {
+    public ResponseEntity<CursorPageDTO<StockTransactionDTO>> getAllTransactions(
+            @RequestParam(required = false) Long itemId,
+            TransactionFilter filter,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + StockTransactionService.DEFAULT_PAGE_SIZE) int size) {
 
         if (itemId != null) {
-            // Filter by item
-            List<StockTransactionDTO> transactions =
-                    transactionService.getTransactionsByItemId(itemId);
-            return ResponseEntity.ok(transactions);
-        } else {
-            // Get all
-            List<StockTransactionDTO> transactions =
-                    transactionService.getAllTransactions();
-            return ResponseEntity.ok(transactions);
+            filter.setItemIds(List.of(itemId));
         }
+        CursorPageDTO<StockTransactionDTO> page =
+                transactionService.getTransactionPage(
+                        filter, FieldSet.parse(fields, StockTransactionDTO.FIELDS), cursor, size);
+        return ResponseEntity.ok(page);
     }
 
     /**
      * GET /api/transactions/date-range
-     * Get transactions within date range
+     * Get transactions within date range (paged and filterable like GET /api/transactions)
      *
-     * Query parameters: ?startDate=2024-01-01&endDate=2024-12-31
+     * Query parameters: ?startDate=2024-01-01&endDate=2024-12-31[&cursor=...&size=50&fields=...]
      *
      * @DateTimeFormat - Converts string to LocalDate
      */
     @GetMapping("/date-range")
-    public ResponseEntity<List<StockTransactionDTO>> getTransactionsByDateRange(
+    public ResponseEntity<CursorPageDTO<StockTransactionDTO>> getTransactionsByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            TransactionFilter filter,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + StockTransactionService.DEFAULT_PAGE_SIZE) int size) {
 
-        List<StockTransactionDTO> transactions =
-                transactionService.getTransactionsByDateRange(startDate, endDate);
-        return ResponseEntity.ok(transactions);
+        filter.setStartDate(startDate);
+        filter.setEndDate(endDate);
+        CursorPageDTO<StockTransactionDTO> page =
+                transactionService.getTransactionPage(
+                        filter, FieldSet.parse(fields, StockTransactionDTO.FIELDS), cursor, size);
+        return ResponseEntity.ok(page);
+    }
+
+    /**
+     * GET /api/transactions/search?q=kigali foods
+     * Full-text search over notes, reference number and recorded-by, best match first
+     *
+     * Every word of q must match. Takes the same filters as GET /api/transactions
+     * (itemId/itemIds, type, startDate/endDate, ...) and pages with ?cursor=..&size=..
+     *
+     * Example:
+     * GET /api/transactions/search?q=kigali foods&startDate=2024-03-01&endDate=2024-03-31
+     */
+    @GetMapping("/search")
+    public ResponseEntity<CursorPageDTO<StockTransactionDTO>> searchTransactions(
+            @RequestParam String q,
+            @RequestParam(required = false) Long itemId,
+            TransactionFilter filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + StockTransactionService.DEFAULT_PAGE_SIZE) int size) {
+
+        if (itemId != null) {
+            filter.setItemIds(List.of(itemId));
+        }
+        return ResponseEntity.ok(transactionService.fullTextSearch(q, filter, cursor, size));
+    }
+
+    /**
+     * POST /api/transactions/batch-get
+     * Transactions for a list of ids in one round trip
+     *
+     * Request body example:
+     * { "ids": [101, 102, 250] }
+     */
+    @PostMapping("/batch-get")
+    public ResponseEntity<BatchGetResponse<StockTransactionDTO>> getTransactionsByIds(
+            @Valid @RequestBody BatchGetRequest request) {
+        return ResponseEntity.ok(transactionService.getTransactionsByIds(request.getIds()));
     }
 
     /**
@@ -0,0 +1,27 @@
+package npk.rca.ims.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * BatchGetRequest - Ids to resolve in one call (POST .../batch-get)
+ *
+ * Example: { "ids": [4, 8, 15] }
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchGetRequest {
+
+    public static final int MAX_IDS = 500;
+
+    @NotEmpty(message = "At least one id is required")
+    @Size(max = MAX_IDS, message = "At most " + MAX_IDS + " ids per request")
+    private List<@NotNull(message = "Ids must not be null") Long> ids;
+}
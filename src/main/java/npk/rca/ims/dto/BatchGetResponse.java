@@ -0,0 +1,39 @@
+package npk.rca.ims.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BatchGetResponse - Result of a multi-get
+ *
+ * content follows the order of the requested ids (duplicates once);
+ * ids that do not exist are listed in missingIds instead of failing the call.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchGetResponse<T> {
+    private List<T> content;
+    private List<Long> missingIds;
+
+    public static <T> BatchGetResponse<T> inRequestOrder(Collection<Long> ids, Map<Long, T> found) {
+        List<T> content = new ArrayList<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            T row = found.get(id);
+            if (row != null) {
+                content.add(row);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new BatchGetResponse<>(content, missing);
+    }
+}
@@ -0,0 +1,22 @@
+package npk.rca.ims.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Hit/miss counters for one second-level cache region since startup (or the last reset)
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CacheRegionStatsDTO {
+
+    private String region;
+    private long hitCount;
+    private long missCount;
+    private long putCount;
+
+    // hits / (hits + misses); 0 when the region has not been read yet
+    private double hitRatio;
+}
@@ -0,0 +1,23 @@
+package npk.rca.ims.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * CursorPageDTO - One page of a keyset-paginated list
+ *
+ * Pass nextCursor back as ?cursor=... to get the following page.
+ * nextCursor is null when hasMore is false.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDTO<T> {
+    private List<T> content;
+    private String nextCursor;
+    private boolean hasMore;
+    private int size;
+}
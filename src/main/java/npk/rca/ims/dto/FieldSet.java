@@ -0,0 +1,90 @@
+package npk.rca.ims.dto;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * FieldSet - Properties requested with ?fields=id,name on a list endpoint
+ *
+ * Narrows both ends of a request: the repository selects only the columns
+ * (and runs only the joins and aggregates) the requested properties need,
+ * and SparseFieldsetAdvice serializes only those properties of DTOs marked
+ * with @JsonFilter(FieldSet.FILTER). Without the parameter every property is
+ * included, as before.
+ */
+public final class FieldSet {
+
+    public static final String FILTER = "fields";
+    public static final FieldSet ALL = new FieldSet(null);
+
+    private final Set<String> names;
+
+    private FieldSet(Set<String> names) {
+        this.names = names;
+    }
+
+    /**
+     * @param fields  comma-separated property names; null or blank means all
+     * @param allowed the properties of the DTO being listed
+     * @throws IllegalArgumentException on a property the DTO does not have
+     */
+    public static FieldSet parse(String fields, Set<String> allowed) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+        Set<String> names = new LinkedHashSet<>();
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (!allowed.contains(trimmed)) {
+                throw new IllegalArgumentException("Unknown field: " + trimmed + ". Allowed: " + String.join(", ", new TreeSet<>(allowed)));
+            }
+            names.add(trimmed);
+        }
+        return names.isEmpty() ? ALL : new FieldSet(Collections.unmodifiableSet(names));
+    }
+
+    public static FieldSet of(String... names) {
+        return new FieldSet(Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(names))));
+    }
+
+    public boolean isAll() {
+        return names == null;
+    }
+
+    public boolean includes(String name) {
+        return names == null || names.contains(name);
+    }
+
+    public boolean includesAny(String... candidates) {
+        return names == null || Arrays.stream(candidates).anyMatch(names::contains);
+    }
+
+    /**
+     * The requested names; empty when every property is included
+     */
+    public Set<String> names() {
+        return names != null ? names : Set.of();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof FieldSet other && Objects.equals(names, other.names);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(names);
+    }
+
+    @Override
+    public String toString() {
+        return names == null ? "*" : String.join(",", names);
+    }
+}
@@ -0,0 +1,27 @@
+package npk.rca.ims.dto;
+
+import jakarta.validation.Valid;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Goods received against a purchase order.
+ * Leave lines empty to receive everything still outstanding.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GoodsReceiptRequest {
+
+    private LocalDate receivedDate;
+    private String notes;
+    private String recordedBy;
+
+    @Valid
+    private List<GoodsReceiptLineDTO> lines = new ArrayList<>();
+}
@@ -1,5 +1,6 @@
 package npk.rca.ims.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
@@ -8,6 +9,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.Set;
 
 /**
  * ItemDTO - Data Transfer Object for Item
@@ -15,8 +17,16 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonFilter(FieldSet.FILTER)
 public class ItemDTO {
 
+    /**
+     * Properties that can be requested with ?fields=
+     */
+    public static final Set<String> FIELDS = Set.of(
+            "id", "name", "unit", "category", "minimumStock", "description", "createdAt", "updatedAt",
+            "currentBalance", "totalIn", "totalOut", "isLowStock", "damagedQuantity");
+
     private Long id;
 
     @NotBlank(message = "Item name is required")
@@ -0,0 +1,28 @@
+package npk.rca.ims.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * ItemFilter - Criteria for the items catalogue
+ *
+ * Every field is optional; null or blank means "don't filter on it".
+ * Bound straight from query parameters, e.g. ?category=Grains&status=Mucye&name=rice
+ *
+ * status is one of the labels shown in the catalogue:
+ * - Birahagije: adequate stock (balance above the minimum)
+ * - Mucye: low stock (balance at or below the minimum)
+ * - Byashize: out of stock (balance at or below zero)
+ * Any other value is ignored.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemFilter {
+    private String category;
+    private String status;
+    private String name;
+}
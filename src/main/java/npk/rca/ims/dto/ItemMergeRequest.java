@@ -0,0 +1,24 @@
+package npk.rca.ims.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * ItemMergeRequest - Duplicate items to fold into a target item
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemMergeRequest {
+
+    @NotEmpty(message = "At least one source item is required")
+    private List<Long> sourceItemIds;
+
+    @NotBlank(message = "Password is required")
+    private String password;
+}
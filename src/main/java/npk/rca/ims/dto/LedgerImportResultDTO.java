@@ -0,0 +1,20 @@
+package npk.rca.ims.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of a bulk ledger import
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class LedgerImportResultDTO {
+
+    private long rowsImported;
+    private long itemsAffected;
+    private long elapsedMillis;
+}
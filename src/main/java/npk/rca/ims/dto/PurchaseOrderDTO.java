@@ -0,0 +1,42 @@
+package npk.rca.ims.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import npk.rca.ims.model.PurchaseOrderStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PurchaseOrderDTO {
+    private Long id;
+
+    @NotBlank(message = "PO number is required")
+    private String poNumber;
+
+    @NotNull(message = "Supplier ID is required")
+    private Long supplierId;
+
+    private String supplierName;
+    private PurchaseOrderStatus status;
+    private LocalDate orderDate;
+    private LocalDate expectedDate;
+    private String notes;
+    private Integer outstandingQuantity;
+
+    @Valid
+    @NotEmpty(message = "A purchase order needs at least one line")
+    private List<PurchaseOrderLineDTO> lines = new ArrayList<>();
+
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
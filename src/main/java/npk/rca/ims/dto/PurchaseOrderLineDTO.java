@@ -0,0 +1,27 @@
+package npk.rca.ims.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PurchaseOrderLineDTO {
+    private Long id;
+
+    @NotNull(message = "Item ID is required")
+    private Long itemId;
+
+    private String itemName;
+    private String unit;
+
+    @NotNull(message = "Ordered quantity is required")
+    @Positive(message = "Ordered quantity must be positive")
+    private Integer orderedQuantity;
+
+    private Integer receivedQuantity;
+    private Integer outstandingQuantity;
+}
@@ -0,0 +1,31 @@
+package npk.rca.ims.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipeDTO {
+    private Long id;
+
+    @NotBlank(message = "Recipe name is required")
+    private String name;
+
+    private String description;
+
+    @Valid
+    @NotEmpty(message = "A recipe needs at least one ingredient")
+    private List<RecipeIngredientDTO> ingredients = new ArrayList<>();
+
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,26 @@
+package npk.rca.ims.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipeIngredientDTO {
+    private Long id;
+
+    @NotNull(message = "Item ID is required")
+    private Long itemId;
+
+    private String itemName;
+    private String unit;
+
+    @NotNull(message = "Quantity per portion is required")
+    @Positive(message = "Quantity per portion must be positive")
+    private BigDecimal quantityPerPortion;
+}
@@ -0,0 +1,28 @@
+package npk.rca.ims.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Issue N portions of a recipe (e.g. lunch for 300 students).
+ * Date defaults to today; notes and reference are generated when omitted.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipeIssueRequest {
+
+    @NotNull(message = "Number of portions is required")
+    @Positive(message = "Number of portions must be positive")
+    private Integer portions;
+
+    private LocalDate transactionDate;
+    private String referenceNumber;
+    private String notes;
+    private String recordedBy;
+}
@@ -0,0 +1,33 @@
+package npk.rca.ims.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Timings of one normalized SQL statement since startup (or the last reset).
+ * Percentiles cover the latest executions only (app.sql-profile.samples-per-statement).
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SqlStatementStatsDTO {
+
+    private String sql;
+
+    // Parameter types of the latest execution, e.g. "(Long, String)"
+    private String parameterShape;
+
+    private long count;
+    private long slowCount;
+    private long rows;
+
+    private double totalMillis;
+    private double meanMillis;
+    private double p50Millis;
+    private double p95Millis;
+    private double p99Millis;
+    private double maxMillis;
+}
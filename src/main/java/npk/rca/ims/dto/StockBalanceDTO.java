@@ -1,9 +1,11 @@
 package npk.rca.ims.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
+import java.util.Set;
 
 /**
  * StockBalanceDTO - Report data for current stock levels
@@ -16,8 +18,16 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonFilter(FieldSet.FILTER)
 public class StockBalanceDTO {
 
+    /**
+     * Properties that can be requested with ?fields=
+     */
+    public static final Set<String> FIELDS = Set.of(
+            "itemId", "itemName", "unit", "category", "lastUpdated", "totalIn", "totalOut",
+            "damagedQuantity", "currentBalance", "minimumStock", "isLowStock", "status");
+
     private Long itemId;
     private String itemName;
     private String unit;
@@ -50,7 +60,9 @@ public class StockBalanceDTO {
      * Calculate status based on balance
      */
     public String getStatus() {
-        if (currentBalance <= 0) {
+        if (currentBalance == null || isLowStock == null) {
+            return null; // balance not loaded (sparse fieldset)
+        } else if (currentBalance <= 0) {
             return "CRITICAL";
         } else if (isLowStock) {
             return "LOW";
@@ -1,5 +1,6 @@
 package npk.rca.ims.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
@@ -9,6 +10,7 @@ import npk.rca.ims.model.TransactionType;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Set;
 
 /**
  * StockTransactionDTO - Data Transfer Object for transactions
@@ -16,8 +18,17 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonFilter(FieldSet.FILTER)
 public class StockTransactionDTO {
 
+    /**
+     * Properties that can be requested with ?fields= (isReversed is "reversed" in JSON)
+     */
+    public static final Set<String> FIELDS = Set.of(
+            "id", "itemId", "itemName", "unit", "transactionType", "quantity", "transactionDate",
+            "referenceNumber", "notes", "recordedBy", "createdAt", "balanceAfter", "supplierId",
+            "supplierName", "reversed", "originalTransactionId");
+
     private Long id;
 
     @NotNull(message = "Item ID is required")
@@ -0,0 +1,21 @@
+package npk.rca.ims.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * SuggestionDTO - One autocomplete hit for the search box
+ *
+ * type is ITEM or SUPPLIER; detail is the item's category and SKU, or the
+ * supplier's contact person.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionDTO {
+    private String type;
+    private Long id;
+    private String label;
+    private String detail;
+}
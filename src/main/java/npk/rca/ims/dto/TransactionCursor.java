@@ -0,0 +1,50 @@
+package npk.rca.ims.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * TransactionCursor - Position in the transaction list
+ *
+ * The list is ordered by (transactionDate, createdAt, id) descending; the
+ * cursor is the key of the last row of a page. Clients only see it as an
+ * opaque URL-safe string.
+ */
+@Getter
+@AllArgsConstructor
+public class TransactionCursor {
+
+    private final LocalDate transactionDate;
+    private final LocalDateTime createdAt;
+    private final Long id;
+
+    public String encode() {
+        String raw = transactionDate + "|" + createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the cursor was not produced by encode()
+     */
+    public static TransactionCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new TransactionCursor(
+                    LocalDate.parse(parts[0]),
+                    LocalDateTime.parse(parts[1]),
+                    Long.parseLong(parts[2]));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
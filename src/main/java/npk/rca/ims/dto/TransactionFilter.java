@@ -0,0 +1,41 @@
+package npk.rca.ims.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import npk.rca.ims.model.TransactionType;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * TransactionFilter - Criteria for listing/reporting transactions
+ *
+ * Every field is optional; null (or an empty list) means "don't filter on it".
+ * Bound straight from query parameters on the listing endpoints, e.g.
+ * ?type=OUT&reason=Damaged&itemIds=1,2&startDate=2024-01-01
+ * Translated to SQL by StockTransactionSpecifications.matching(..).
+ *
+ * reason matches the "Reason: details" prefix convention used in notes
+ * (e.g. "Damaged", "Expired", "Consumed").
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionFilter {
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate startDate;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate endDate;
+
+    private List<Long> itemIds;
+    private TransactionType type;
+    private Long supplierId;
+    private String recordedBy;
+    private Boolean reversed;
+    private String reason;
+}
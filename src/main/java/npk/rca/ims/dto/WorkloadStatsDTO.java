@@ -0,0 +1,30 @@
+package npk.rca.ims.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Saturation of one workload: its connection pool and its concurrency limit
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class WorkloadStatsDTO {
+
+    private String workload;
+
+    // Connection pool
+    private int maxConnections;
+    private int activeConnections;
+    private int idleConnections;
+    private int threadsAwaitingConnection;
+
+    // Concurrency limit (maxConcurrent 0 = unlimited)
+    private int maxConcurrent;
+    private long inFlight;
+    private long waiting;
+    private long rejected;
+}
@@ -0,0 +1,16 @@
+package npk.rca.ims.exceptions;
+
+/**
+ * Thrown when a request clashes with the current state of a resource, e.g.
+ * deleting an item a recipe still uses. Mapped to 409 CONFLICT.
+ */
+public class ConflictException extends RuntimeException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+
+    public ConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,5 +1,7 @@
 package npk.rca.ims.exceptions;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -29,6 +31,7 @@ import java.util.Map;
  * - Proper HTTP status codes
  * - User-friendly messages
  */
+@Slf4j
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
@@ -100,6 +103,70 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Handle ConflictException
+     * Returns 409 CONFLICT
+     *
+     * The request is valid but clashes with the current state
+     * Example: "Item is used by recipe(s): Lunch"
+     */
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<Map<String, Object>> handleConflict(
+            ConflictException ex) {
+
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("timestamp", LocalDateTime.now());
+        errorResponse.put("status", HttpStatus.CONFLICT.value());
+        errorResponse.put("error", "Conflict");
+        errorResponse.put("message", ex.getMessage());
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Handle WorkloadRejectedException
+     * Returns 503 SERVICE UNAVAILABLE
+     *
+     * The workload (e.g. reporting) is at its concurrency limit; the client
+     * should retry later
+     */
+    @ExceptionHandler(WorkloadRejectedException.class)
+    public ResponseEntity<Map<String, Object>> handleWorkloadRejected(
+            WorkloadRejectedException ex) {
+
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("timestamp", LocalDateTime.now());
+        errorResponse.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        errorResponse.put("error", "Service Unavailable");
+        errorResponse.put("message", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(errorResponse);
+    }
+
+    /**
+     * Handle ReportGenerationException
+     * Returns 500 INTERNAL SERVER ERROR
+     *
+     * The report could not be produced (e.g. the storage file could not be
+     * written); the message says which report, not how it failed
+     */
+    @ExceptionHandler(ReportGenerationException.class)
+    public ResponseEntity<Map<String, Object>> handleReportGeneration(
+            ReportGenerationException ex) {
+
+        log.error("Report generation failed", ex);
+
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("timestamp", LocalDateTime.now());
+        errorResponse.put("status", HttpStatus.INTERNAL_SERVER_ERROR.value());
+        errorResponse.put("error", "Report Generation Failed");
+        errorResponse.put("message", ex.getMessage());
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
     /**
      * Handle Generic Exception
      * Returns 500 INTERNAL SERVER ERROR
@@ -0,0 +1,12 @@
+package npk.rca.ims.exceptions;
+
+/**
+ * Thrown when a workload (e.g. reporting) is at its concurrency limit and the
+ * caller waited too long for a free slot. Mapped to 503 SERVICE UNAVAILABLE.
+ */
+public class WorkloadRejectedException extends RuntimeException {
+
+    public WorkloadRejectedException(String message) {
+        super(message);
+    }
+}
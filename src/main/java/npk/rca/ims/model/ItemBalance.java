@@ -0,0 +1,36 @@
+package npk.rca.ims.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * ItemBalance - Running ledger totals of one item
+ *
+ * Maintained by the database (triggers on stock_transactions in PostgreSQL,
+ * a view in H2), never written by the application. Items without any
+ * transaction have no row.
+ */
+@Entity
+@Immutable
+@Table(name = "item_balances")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemBalance {
+
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+
+    @Column(nullable = false)
+    private Long totalIn;
+
+    @Column(nullable = false)
+    private Long totalOut;
+}
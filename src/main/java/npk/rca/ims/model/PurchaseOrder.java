@@ -0,0 +1,87 @@
+package npk.rca.ims.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * PurchaseOrder Entity
+ *
+ * What we ordered from a supplier and how much of it is still expected.
+ * outstandingQuantity is kept up to date on every receipt, so listing the
+ * open orders of a supplier reads this table through the
+ * (supplier_id, status) index instead of summing IN transactions.
+ */
+@Entity
+@Table(name = "purchase_orders")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PurchaseOrder {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotBlank(message = "PO number is required")
+    @Column(nullable = false, unique = true, length = 50)
+    private String poNumber;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "supplier_id", nullable = false)
+    @NotNull(message = "Supplier is required")
+    private Supplier supplier;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private PurchaseOrderStatus status = PurchaseOrderStatus.OPEN;
+
+    @Column(nullable = false)
+    private LocalDate orderDate;
+
+    private LocalDate expectedDate;
+
+    @Column(length = 500)
+    private String notes;
+
+    /**
+     * Sum of (ordered - received) over all lines, maintained incrementally
+     */
+    @Column(nullable = false)
+    private Integer outstandingQuantity = 0;
+
+    @OneToMany(mappedBy = "purchaseOrder", cascade = CascadeType.ALL, orphanRemoval = true)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private List<PurchaseOrderLine> lines = new ArrayList<>();
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    public void addLine(PurchaseOrderLine line) {
+        line.setPurchaseOrder(this);
+        lines.add(line);
+        outstandingQuantity += line.getOutstandingQuantity();
+    }
+
+    public boolean isOpen() {
+        return status == PurchaseOrderStatus.OPEN || status == PurchaseOrderStatus.PARTIALLY_RECEIVED;
+    }
+}
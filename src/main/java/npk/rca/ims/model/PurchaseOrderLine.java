@@ -0,0 +1,48 @@
+package npk.rca.ims.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * PurchaseOrderLine Entity - One item on a purchase order
+ */
+@Entity
+@Table(name = "purchase_order_lines",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"purchase_order_id", "item_id"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PurchaseOrderLine {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "purchase_order_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private PurchaseOrder purchaseOrder;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "item_id", nullable = false)
+    @NotNull(message = "Item is required")
+    private Item item;
+
+    @Positive(message = "Ordered quantity must be positive")
+    @Column(nullable = false)
+    private Integer orderedQuantity;
+
+    @Column(nullable = false)
+    private Integer receivedQuantity = 0;
+
+    public int getOutstandingQuantity() {
+        return orderedQuantity - receivedQuantity;
+    }
+}
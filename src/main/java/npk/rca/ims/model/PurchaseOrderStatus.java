@@ -0,0 +1,16 @@
+package npk.rca.ims.model;
+
+/**
+ * Lifecycle of a purchase order
+ *
+ * OPEN               - nothing received yet
+ * PARTIALLY_RECEIVED - some lines still have outstanding quantity
+ * RECEIVED           - everything delivered (closed)
+ * CANCELLED          - closed without (full) delivery
+ */
+public enum PurchaseOrderStatus {
+    OPEN,
+    PARTIALLY_RECEIVED,
+    RECEIVED,
+    CANCELLED
+}
@@ -0,0 +1,59 @@
+package npk.rca.ims.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recipe Entity (bill of materials)
+ *
+ * Describes how much of each item one portion consumes,
+ * e.g. "Lunch - Rice and Beans" = 0.15 Kg rice + 0.08 Kg beans + ...
+ * Issuing N portions expands into one OUT transaction per ingredient.
+ */
+@Entity
+@Table(name = "recipes")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Recipe {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotBlank(message = "Recipe name is required")
+    @Column(nullable = false, unique = true, length = 100)
+    private String name;
+
+    @Column(length = 500)
+    private String description;
+
+    @OneToMany(mappedBy = "recipe", cascade = CascadeType.ALL, orphanRemoval = true)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private List<RecipeIngredient> ingredients = new ArrayList<>();
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    public void addIngredient(RecipeIngredient ingredient) {
+        ingredient.setRecipe(this);
+        ingredients.add(ingredient);
+    }
+}
@@ -0,0 +1,47 @@
+package npk.rca.ims.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+
+/**
+ * RecipeIngredient Entity - One line of a recipe
+ *
+ * quantityPerPortion is expressed in the item's own unit and may be
+ * fractional (0.15 Kg of rice per student).
+ */
+@Entity
+@Table(name = "recipe_ingredients",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"recipe_id", "item_id"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipeIngredient {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "recipe_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Recipe recipe;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "item_id", nullable = false)
+    @NotNull(message = "Item is required")
+    private Item item;
+
+    @NotNull(message = "Quantity per portion is required")
+    @Positive(message = "Quantity per portion must be positive")
+    @Column(nullable = false, precision = 12, scale = 4)
+    private BigDecimal quantityPerPortion;
+}
@@ -39,6 +39,10 @@ public class ReportHistory {
     @Column(name = "file_path")
     private String filePath;
 
+    // Same key, same file: see ReportService report cache
+    @Column(name = "cache_key", length = 64)
+    private String cacheKey;
+
     @CreationTimestamp
     private LocalDateTime generatedDate;
 }
@@ -0,0 +1,173 @@
+package npk.rca.ims.repository;
+
+import npk.rca.ims.dto.TransactionFilter;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Full-text search for databases without one (H2 in tests and local runs):
+ * an inverted index from word to transaction ids, held in memory.
+ *
+ * The index is filled on first use and catches up with new transactions
+ * (by id) before every search; edits arrive through reindex(..). Candidates
+ * are checked against the filter in the database, which also drops ids of
+ * rows that no longer exist.
+ *
+ * Words are split the same way PostgreSQL's 'simple' configuration does
+ * roughly: lower-cased runs of letters and digits. Field weights mirror
+ * ts_rank's defaults for A/B/C.
+ */
+public class InMemoryTransactionSearchIndex implements TransactionSearchIndex {
+
+    static final int LOAD_BATCH_SIZE = 1000;
+    private static final int FILTER_CHUNK_SIZE = 1000;
+
+    private static final float REFERENCE_WEIGHT = 1.0f;
+    private static final float NOTES_WEIGHT = 0.4f;
+    private static final float RECORDED_BY_WEIGHT = 0.2f;
+
+    private final StockTransactionRepository transactionRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Map<Long, Float>> postings = new HashMap<>();
+    private final Map<Long, Set<String>> wordsById = new HashMap<>();
+    private long indexedUpTo = 0;
+
+    public InMemoryTransactionSearchIndex(StockTransactionRepository transactionRepository) {
+        this.transactionRepository = transactionRepository;
+    }
+
+    @Override
+    public List<Long> search(String query, TransactionFilter filter, int offset, int limit) {
+        catchUp();
+
+        Map<Long, Float> scores = score(tokenize(query));
+        if (scores.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> ids = matchingFilter(scores.keySet(), filter);
+        ids.sort(Comparator.<Long, Float>comparing(scores::get).reversed()
+                .thenComparing(Comparator.reverseOrder()));
+
+        int from = Math.min(offset, ids.size());
+        int to = Math.min(from + limit, ids.size());
+        return new ArrayList<>(ids.subList(from, to));
+    }
+
+    @Override
+    public void reindex(Long transactionId) {
+        lock.writeLock().lock();
+        try {
+            remove(transactionId);
+            transactionRepository.findSearchTextByIds(List.of(transactionId)).forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Sum of field weights per transaction containing every word; empty when
+     * any word is unknown
+     */
+    private Map<Long, Float> score(Set<String> words) {
+        if (words.isEmpty()) {
+            return Map.of();
+        }
+        lock.readLock().lock();
+        try {
+            Map<Long, Float> scores = null;
+            for (String word : words) {
+                Map<Long, Float> hits = postings.get(word);
+                if (hits == null) {
+                    return Map.of();
+                }
+                if (scores == null) {
+                    scores = new HashMap<>(hits);
+                } else {
+                    scores.keySet().retainAll(hits.keySet());
+                    scores.replaceAll((id, score) -> score + hits.get(id));
+                }
+            }
+            return scores;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Long> matchingFilter(Set<Long> candidates, TransactionFilter filter) {
+        List<Long> all = new ArrayList<>(candidates);
+        List<Long> matching = new ArrayList<>();
+        for (int i = 0; i < all.size(); i += FILTER_CHUNK_SIZE) {
+            List<Long> chunk = all.subList(i, Math.min(i + FILTER_CHUNK_SIZE, all.size()));
+            matching.addAll(transactionRepository.findTransactionIds(
+                    StockTransactionSpecifications.matching(filter)
+                            .and(StockTransactionSpecifications.withIds(chunk))));
+        }
+        return matching;
+    }
+
+    private void catchUp() {
+        lock.writeLock().lock();
+        try {
+            List<TransactionSearchTextView> batch;
+            do {
+                batch = transactionRepository.findSearchTextAfter(indexedUpTo, PageRequest.of(0, LOAD_BATCH_SIZE));
+                for (TransactionSearchTextView row : batch) {
+                    add(row);
+                    indexedUpTo = Math.max(indexedUpTo, row.getId());
+                }
+            } while (batch.size() == LOAD_BATCH_SIZE);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void add(TransactionSearchTextView row) {
+        Map<String, Float> weights = new HashMap<>();
+        tokenize(row.getReferenceNumber()).forEach(word -> weights.merge(word, REFERENCE_WEIGHT, Float::sum));
+        tokenize(row.getNotes()).forEach(word -> weights.merge(word, NOTES_WEIGHT, Float::sum));
+        tokenize(row.getRecordedBy()).forEach(word -> weights.merge(word, RECORDED_BY_WEIGHT, Float::sum));
+
+        weights.forEach((word, weight) -> postings.computeIfAbsent(word, w -> new HashMap<>()).put(row.getId(), weight));
+        wordsById.put(row.getId(), new HashSet<>(weights.keySet()));
+    }
+
+    private void remove(Long id) {
+        Set<String> words = wordsById.remove(id);
+        if (words == null) {
+            return;
+        }
+        for (String word : words) {
+            Map<Long, Float> hits = postings.get(word);
+            hits.remove(id);
+            if (hits.isEmpty()) {
+                postings.remove(word);
+            }
+        }
+    }
+
+    static Set<String> tokenize(String text) {
+        Set<String> words = new LinkedHashSet<>();
+        if (text == null) {
+            return words;
+        }
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+}
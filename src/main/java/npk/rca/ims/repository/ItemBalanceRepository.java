@@ -0,0 +1,15 @@
+package npk.rca.ims.repository;
+
+import npk.rca.ims.model.ItemBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * ItemBalanceRepository - Read access to the maintained ledger totals
+ *
+ * Rows are written by the database only (see ItemBalance); use
+ * findById / findAllById. An item without a row has totals of 0.
+ */
+@Repository
+public interface ItemBalanceRepository extends JpaRepository<ItemBalance, Long> {
+}
@@ -0,0 +1,20 @@
+package npk.rca.ims.repository;
+
+/**
+ * ItemBalanceView - Projection of the ledger totals of one item
+ *
+ * Returned by grouped balance queries so that the totals of many items
+ * can be read with a single SELECT ... GROUP BY.
+ */
+public interface ItemBalanceView {
+
+    Long getItemId();
+
+    Long getTotalIn();
+
+    Long getTotalOut();
+
+    default int getCurrentBalance() {
+        return (int) (getTotalIn() - getTotalOut());
+    }
+}
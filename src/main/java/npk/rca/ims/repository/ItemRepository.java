@@ -1,9 +1,17 @@
 package npk.rca.ims.repository;
 
+import jakarta.persistence.QueryHint;
 import npk.rca.ims.model.Item;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -27,9 +35,16 @@ import java.util.Optional;
  * - existsById(id) - Check if exists
  *
  * You can ADD custom query methods below!
+ *
+ * Items are in the second-level cache ("items" region); the name lookups
+ * below are also query-cached so repeated checks skip the database until the
+ * items table changes. Whole-table lists (findAll) are not: a cached result
+ * grows with the catalogue and is dropped on every item change anyway.
+ *
+ * The paged catalogue (with balances) is in ItemRepositoryCustom.
  */
 @Repository
-public interface ItemRepository extends JpaRepository<Item, Long> {
+public interface ItemRepository extends JpaRepository<Item, Long>, ItemRepositoryCustom {
 
     /**
      * Custom Query Method - Find item by exact name
@@ -42,6 +57,7 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
      *   - If not found: Optional.empty()
      * Prevents NullPointerException!
      */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     Optional<Item> findByName(String name);
 
     /**
@@ -52,7 +68,25 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
      *
      * Use case: Prevent duplicate item names
      */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     boolean existsByName(String name);
 
+    /**
+     * Add the damaged quantity of the source items to the target item.
+     * One UPDATE computed in the database, so it does not depend on a
+     * managed copy of the target (bulk statements clear the context).
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Item i SET i.damagedQuantity = COALESCE(i.damagedQuantity, 0) + "
+            + "CAST((SELECT COALESCE(SUM(s.damagedQuantity), 0) FROM Item s WHERE s.id IN :sourceIds) AS Integer) "
+            + "WHERE i.id = :targetId")
+    int addDamagedQuantityOf(@Param("sourceIds") Collection<Long> sourceIds, @Param("targetId") Long targetId);
 
-}
\ No newline at end of file
+    /**
+     * Add to an item's damaged quantity in the database, so concurrent
+     * recordings (or a stale cached copy) cannot overwrite each other.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Item i SET i.damagedQuantity = COALESCE(i.damagedQuantity, 0) + :quantity WHERE i.id = :id")
+    int addDamagedQuantity(@Param("id") Long id, @Param("quantity") int quantity);
+}
@@ -0,0 +1,29 @@
+package npk.rca.ims.repository;
+
+import npk.rca.ims.dto.FieldSet;
+import npk.rca.ims.dto.ItemDTO;
+import npk.rca.ims.dto.ItemFilter;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Read-side queries of ItemRepository that return DTOs directly
+ *
+ * Implemented in ItemRepositoryImpl with HQL.
+ */
+public interface ItemRepositoryCustom {
+
+    /**
+     * One page of the items catalogue with balances.
+     *
+     * Filtering, sorting and paging all happen in the database, against the
+     * maintained totals in item_balances, so the cost does not depend on the
+     * size of the ledger. Sortable properties: name, currentBalance,
+     * minimumStock (ties broken by id).
+     *
+     * Only the columns behind the requested fields are selected, and the
+     * balances are joined only when a balance field is requested or the
+     * status filter or sort needs them.
+     */
+    Page<ItemDTO> findCatalogue(ItemFilter filter, FieldSet fields, Pageable pageable);
+}
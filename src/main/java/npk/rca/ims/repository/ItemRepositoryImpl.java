@@ -0,0 +1,185 @@
+package npk.rca.ims.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import npk.rca.ims.dto.FieldSet;
+import npk.rca.ims.dto.ItemDTO;
+import npk.rca.ims.dto.ItemFilter;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+class ItemRepositoryImpl implements ItemRepositoryCustom {
+
+    private static final String FROM = " FROM Item i";
+    private static final String BALANCE_JOIN = " LEFT JOIN ItemBalance b ON b.itemId = i.id";
+    private static final String BALANCE = "(COALESCE(b.totalIn, 0) - COALESCE(b.totalOut, 0))";
+
+    /**
+     * Selectable item columns by DTO property (id is always selected)
+     */
+    private static final Map<String, String> ITEM_COLUMNS = new LinkedHashMap<>();
+
+    static {
+        ITEM_COLUMNS.put("name", "i.name");
+        ITEM_COLUMNS.put("unit", "i.unit");
+        ITEM_COLUMNS.put("category", "i.category");
+        ITEM_COLUMNS.put("minimumStock", "i.minimumStock");
+        ITEM_COLUMNS.put("description", "i.description");
+        ITEM_COLUMNS.put("createdAt", "i.createdAt");
+        ITEM_COLUMNS.put("updatedAt", "i.updatedAt");
+        ITEM_COLUMNS.put("damagedQuantity", "i.damagedQuantity");
+    }
+
+    private static final String[] BALANCE_FIELDS = {"currentBalance", "totalIn", "totalOut", "isLowStock"};
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<ItemDTO> findCatalogue(ItemFilter filter, FieldSet fields, Pageable pageable) {
+        Map<String, Object> parameters = new HashMap<>();
+        String where = where(filter, parameters);
+        boolean balances = fields.includesAny(BALANCE_FIELDS);
+        boolean joinBalances = balances || where.contains(BALANCE)
+                || pageable.getSort().getOrderFor("currentBalance") != null;
+
+        List<String> columns = new ArrayList<>();
+        columns.add("i.id AS id");
+        ITEM_COLUMNS.forEach((field, column) -> {
+            if (fields.includes(field) || (balances && field.equals("minimumStock"))) {
+                columns.add(column + " AS " + field);
+            }
+        });
+        if (balances) {
+            columns.add("COALESCE(b.totalIn, 0) AS totalIn");
+            columns.add("COALESCE(b.totalOut, 0) AS totalOut");
+        }
+        String from = joinBalances ? FROM + BALANCE_JOIN : FROM;
+
+        TypedQuery<Tuple> query = entityManager.createQuery(
+                "SELECT " + String.join(", ", columns) + from + where + orderBy(pageable.getSort()),
+                Tuple.class);
+        parameters.forEach(query::setParameter);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+
+        List<ItemDTO> content = new ArrayList<>();
+        for (Tuple row : query.getResultList()) {
+            content.add(toDTO(row, balances));
+        }
+
+        if (pageable.isUnpaged()
+                || (pageable.getOffset() == 0 && content.size() < pageable.getPageSize())) {
+            return new PageImpl<>(content, pageable, content.size());
+        }
+
+        String countFrom = where.contains(BALANCE) ? FROM + BALANCE_JOIN : FROM;
+        TypedQuery<Long> count = entityManager.createQuery("SELECT COUNT(i)" + countFrom + where, Long.class);
+        parameters.forEach(count::setParameter);
+        return new PageImpl<>(content, pageable, count.getSingleResult());
+    }
+
+    private static String where(ItemFilter filter, Map<String, Object> parameters) {
+        List<String> conditions = new ArrayList<>();
+        if (filter != null) {
+            if (hasText(filter.getCategory())) {
+                conditions.add("LOWER(i.category) = :category");
+                parameters.put("category", filter.getCategory().trim().toLowerCase(Locale.ROOT));
+            }
+            if (hasText(filter.getName())) {
+                conditions.add("LOWER(i.name) LIKE :name ESCAPE '\\'");
+                parameters.put("name", "%" + escapeLike(filter.getName().trim().toLowerCase(Locale.ROOT)) + "%");
+            }
+            if (hasText(filter.getStatus())) {
+                switch (filter.getStatus().trim().toLowerCase(Locale.ROOT)) {
+                    case "birahagije" -> conditions.add(BALANCE + " > i.minimumStock");
+                    case "mucye" -> conditions.add(BALANCE + " <= i.minimumStock");
+                    case "byashize" -> conditions.add(BALANCE + " <= 0");
+                    default -> { }
+                }
+            }
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    private static String orderBy(Sort sort) {
+        List<String> terms = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            String expression = switch (order.getProperty()) {
+                case "currentBalance" -> BALANCE;
+                case "minimumStock" -> "i.minimumStock";
+                case "name" -> "LOWER(i.name)";
+                default -> throw new IllegalArgumentException("Cannot sort items by " + order.getProperty());
+            };
+            terms.add(expression + (order.isAscending() ? " ASC" : " DESC"));
+        }
+        terms.add("i.id ASC");
+        return " ORDER BY " + String.join(", ", terms);
+    }
+
+    private static ItemDTO toDTO(Tuple row, boolean balances) {
+        Set<String> selected = new HashSet<>();
+        row.getElements().forEach(element -> selected.add(element.getAlias()));
+
+        ItemDTO dto = new ItemDTO();
+        dto.setId(row.get("id", Long.class));
+        if (selected.contains("name")) {
+            dto.setName(row.get("name", String.class));
+        }
+        if (selected.contains("unit")) {
+            dto.setUnit(row.get("unit", String.class));
+        }
+        if (selected.contains("category")) {
+            dto.setCategory(row.get("category", String.class));
+        }
+        if (selected.contains("minimumStock")) {
+            dto.setMinimumStock(row.get("minimumStock", Integer.class));
+        }
+        if (selected.contains("description")) {
+            dto.setDescription(row.get("description", String.class));
+        }
+        if (selected.contains("createdAt")) {
+            dto.setCreatedAt(row.get("createdAt", LocalDateTime.class));
+        }
+        if (selected.contains("updatedAt")) {
+            dto.setUpdatedAt(row.get("updatedAt", LocalDateTime.class));
+        }
+        if (selected.contains("damagedQuantity")) {
+            dto.setDamagedQuantity(row.get("damagedQuantity", Integer.class));
+        }
+
+        if (balances) {
+            int totalIn = ((Number) row.get("totalIn")).intValue();
+            int totalOut = ((Number) row.get("totalOut")).intValue();
+            dto.setTotalIn(totalIn);
+            dto.setTotalOut(totalOut);
+            dto.setCurrentBalance(totalIn - totalOut);
+            dto.setIsLowStock(totalIn - totalOut <= dto.getMinimumStock());
+        }
+        return dto;
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,82 @@
+package npk.rca.ims.repository;
+
+import npk.rca.ims.dto.TransactionFilter;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.List;
+
+/**
+ * Full-text search on PostgreSQL: stock_transactions.search_vector (a generated
+ * tsvector over reference_number, notes and recorded_by, weighted A/B/C) and
+ * its GIN index.
+ *
+ * The query is parsed with websearch_to_tsquery, so users can type
+ * "kigali foods -rice" or quote a phrase. The filter is added to the same
+ * statement, so ranking and paging only ever see rows that qualify.
+ */
+public class PostgresTransactionSearchIndex implements TransactionSearchIndex {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public PostgresTransactionSearchIndex(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<Long> search(String query, TransactionFilter filter, int offset, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("query", query)
+                .addValue("limit", limit)
+                .addValue("offset", offset);
+
+        StringBuilder sql = new StringBuilder(
+                "SELECT t.id FROM stock_transactions t, websearch_to_tsquery('simple', :query) q "
+                + "WHERE t.search_vector @@ q");
+        appendFilter(sql, params, filter);
+        sql.append(" ORDER BY ts_rank(t.search_vector, q) DESC, t.id DESC LIMIT :limit OFFSET :offset");
+
+        return jdbcTemplate.queryForList(sql.toString(), params, Long.class);
+    }
+
+    /**
+     * SQL form of StockTransactionSpecifications.matching(..); keep the two in step
+     */
+    private static void appendFilter(StringBuilder sql, MapSqlParameterSource params, TransactionFilter filter) {
+        if (filter == null) {
+            return;
+        }
+        if (filter.getStartDate() != null) {
+            sql.append(" AND t.transaction_date >= :startDate");
+            params.addValue("startDate", filter.getStartDate());
+        }
+        if (filter.getEndDate() != null) {
+            sql.append(" AND t.transaction_date <= :endDate");
+            params.addValue("endDate", filter.getEndDate());
+        }
+        if (filter.getItemIds() != null && !filter.getItemIds().isEmpty()) {
+            sql.append(" AND t.item_id IN (:itemIds)");
+            params.addValue("itemIds", filter.getItemIds());
+        }
+        if (filter.getType() != null) {
+            sql.append(" AND t.transaction_type = :type");
+            params.addValue("type", filter.getType().name());
+        }
+        if (filter.getSupplierId() != null) {
+            sql.append(" AND t.supplier_id = :supplierId");
+            params.addValue("supplierId", filter.getSupplierId());
+        }
+        if (filter.getRecordedBy() != null && !filter.getRecordedBy().isBlank()) {
+            sql.append(" AND LOWER(t.recorded_by) = :recordedBy");
+            params.addValue("recordedBy", filter.getRecordedBy().toLowerCase());
+        }
+        if (filter.getReversed() != null) {
+            sql.append(" AND t.is_reversed = :reversed");
+            params.addValue("reversed", filter.getReversed());
+        }
+        if (filter.getReason() != null && !filter.getReason().isBlank()) {
+            sql.append(" AND LOWER(t.notes) LIKE :reason ESCAPE '\\'");
+            params.addValue("reason", StockTransactionSpecifications.reasonPattern(filter.getReason()));
+        }
+    }
+}
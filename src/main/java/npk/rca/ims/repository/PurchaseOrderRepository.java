@@ -0,0 +1,74 @@
+package npk.rca.ims.repository;
+
+import jakarta.persistence.LockModeType;
+import npk.rca.ims.model.Item;
+import npk.rca.ims.model.PurchaseOrder;
+import npk.rca.ims.model.PurchaseOrderStatus;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PurchaseOrderRepository extends JpaRepository<PurchaseOrder, Long> {
+
+    @EntityGraph(attributePaths = {"supplier", "lines", "lines.item"})
+    Optional<PurchaseOrder> findWithLinesById(Long id);
+
+    // Row lock until commit: receipts and cancellations of one order run one after the other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @EntityGraph(attributePaths = {"supplier", "lines", "lines.item"})
+    Optional<PurchaseOrder> findForUpdateById(Long id);
+
+    @EntityGraph(attributePaths = {"supplier", "lines", "lines.item"})
+    List<PurchaseOrder> findAllByOrderByOrderDateDescIdDesc();
+
+    // Served by idx_purchase_orders_supplier_status
+    @EntityGraph(attributePaths = {"supplier", "lines", "lines.item"})
+    List<PurchaseOrder> findBySupplierIdAndStatusInOrderByOrderDateDescIdDesc(
+            Long supplierId, Collection<PurchaseOrderStatus> statuses);
+
+    @EntityGraph(attributePaths = {"supplier", "lines", "lines.item"})
+    List<PurchaseOrder> findByStatusInOrderByOrderDateDescIdDesc(Collection<PurchaseOrderStatus> statuses);
+
+    @EntityGraph(attributePaths = {"supplier", "lines", "lines.item"})
+    List<PurchaseOrder> findBySupplierIdOrderByOrderDateDescIdDesc(Long supplierId);
+
+    boolean existsByPoNumberIgnoreCase(String poNumber);
+
+    @Query("SELECT DISTINCT l.purchaseOrder.poNumber FROM PurchaseOrderLine l WHERE l.item.id = :itemId "
+            + "ORDER BY l.purchaseOrder.poNumber")
+    List<String> findPoNumbersUsingItem(@Param("itemId") Long itemId);
+
+    /*
+     * Merging items into one: every order keeps a single line for the merged
+     * items (its lowest id) with the summed ordered and received quantities,
+     * and that line is then pointed at the target. Same three steps as the
+     * recipe lines in RecipeRepository.
+     */
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE PurchaseOrderLine k SET "
+            + "k.orderedQuantity = CAST((SELECT SUM(o.orderedQuantity) FROM PurchaseOrderLine o "
+            + "WHERE o.purchaseOrder = k.purchaseOrder AND o.item.id IN :itemIds) AS Integer), "
+            + "k.receivedQuantity = CAST((SELECT SUM(o.receivedQuantity) FROM PurchaseOrderLine o "
+            + "WHERE o.purchaseOrder = k.purchaseOrder AND o.item.id IN :itemIds) AS Integer) "
+            + "WHERE k.id IN (SELECT MIN(m.id) FROM PurchaseOrderLine m WHERE m.item.id IN :itemIds GROUP BY m.purchaseOrder)")
+    int sumOrderLines(@Param("itemIds") Collection<Long> itemIds);
+
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM PurchaseOrderLine d WHERE d.item.id IN :itemIds "
+            + "AND d.id NOT IN (SELECT MIN(m.id) FROM PurchaseOrderLine m WHERE m.item.id IN :itemIds GROUP BY m.purchaseOrder)")
+    int deleteSummedOrderLines(@Param("itemIds") Collection<Long> itemIds);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE PurchaseOrderLine l SET l.item = :target WHERE l.item.id IN :sourceIds")
+    int reassignOrderLines(@Param("sourceIds") Collection<Long> sourceIds, @Param("target") Item target);
+}
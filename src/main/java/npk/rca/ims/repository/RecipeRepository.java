@@ -0,0 +1,54 @@
+package npk.rca.ims.repository;
+
+import npk.rca.ims.model.Item;
+import npk.rca.ims.model.Recipe;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RecipeRepository extends JpaRepository<Recipe, Long> {
+
+    // Load recipes together with their ingredients and items (no lazy-load per line)
+    @EntityGraph(attributePaths = {"ingredients", "ingredients.item"})
+    List<Recipe> findAllByOrderByNameAsc();
+
+    @EntityGraph(attributePaths = {"ingredients", "ingredients.item"})
+    Optional<Recipe> findWithIngredientsById(Long id);
+
+    Optional<Recipe> findByNameIgnoreCase(String name);
+
+    Optional<Recipe> findByNameIgnoreCaseAndIdIsNot(String name, Long id);
+
+    @Query("SELECT DISTINCT r.name FROM Recipe r JOIN r.ingredients i WHERE i.item.id = :itemId ORDER BY r.name")
+    List<String> findNamesUsingItem(@Param("itemId") Long itemId);
+
+    /*
+     * Merging items into one: every recipe keeps a single line for the merged
+     * items (its lowest id), holding the sum of their quantities per portion,
+     * and that line is then pointed at the target. Three set-based statements
+     * in this order, so (recipe_id, item_id) stays unique throughout.
+     */
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE RecipeIngredient k SET k.quantityPerPortion = "
+            + "(SELECT SUM(o.quantityPerPortion) FROM RecipeIngredient o WHERE o.recipe = k.recipe AND o.item.id IN :itemIds) "
+            + "WHERE k.id IN (SELECT MIN(m.id) FROM RecipeIngredient m WHERE m.item.id IN :itemIds GROUP BY m.recipe)")
+    int sumIngredientLines(@Param("itemIds") Collection<Long> itemIds);
+
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM RecipeIngredient d WHERE d.item.id IN :itemIds "
+            + "AND d.id NOT IN (SELECT MIN(m.id) FROM RecipeIngredient m WHERE m.item.id IN :itemIds GROUP BY m.recipe)")
+    int deleteSummedIngredientLines(@Param("itemIds") Collection<Long> itemIds);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE RecipeIngredient i SET i.item = :target WHERE i.item.id IN :sourceIds")
+    int reassignIngredients(@Param("sourceIds") Collection<Long> sourceIds, @Param("target") Item target);
+}
@@ -0,0 +1,16 @@
+package npk.rca.ims.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * ReportFileUsageView - A stored report file and when it was last handed out
+ *
+ * One per file, however many history entries share it; read by the report
+ * cache to evict the least recently used files first.
+ */
+public interface ReportFileUsageView {
+
+    String getFilePath();
+
+    LocalDateTime getLastUsed();
+}
@@ -2,14 +2,38 @@ package npk.rca.ims.repository;
 
 import npk.rca.ims.model.ReportHistory;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ReportHistoryRepository extends JpaRepository<ReportHistory, Long> {
     List<ReportHistory> findAllByOrderByGeneratedDateDesc();
     
     List<ReportHistory> findByStatusNotAndGeneratedDateBefore(String status, LocalDateTime date);
+
+    Optional<ReportHistory> findFirstByCacheKeyAndStatusOrderByGeneratedDateDesc(String cacheKey, String status);
+
+    List<ReportHistory> findByFilePath(String filePath);
+
+    boolean existsByFilePathAndStatusNot(String filePath, String status);
+
+    /**
+     * Stored files of ready reports, least recently used first
+     */
+    @Query("SELECT r.filePath AS filePath, MAX(r.generatedDate) AS lastUsed FROM ReportHistory r " +
+            "WHERE r.status = 'READY' AND r.filePath IS NOT NULL " +
+            "GROUP BY r.filePath ORDER BY MAX(r.generatedDate)")
+    List<ReportFileUsageView> findReadyFilesByLastUse();
+
+    /**
+     * Ledger high-water mark (postgresql/V9__ledger_version_shards.sql,
+     * h2/V8__ledger_version_sequence.sql); changes whenever transactions,
+     * items or suppliers do
+     */
+    @Query(value = "SELECT version FROM ledger_version", nativeQuery = true)
+    long findLedgerVersion();
 }
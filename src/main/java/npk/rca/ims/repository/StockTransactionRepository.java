@@ -3,20 +3,25 @@ package npk.rca.ims.repository;
 import npk.rca.ims.model.Item;
 import npk.rca.ims.model.StockTransaction;
 import npk.rca.ims.model.TransactionType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
  * StockTransactionRepository - Database access for transactions
  */
 @Repository
-public interface StockTransactionRepository extends JpaRepository<StockTransaction, Long> {
+public interface StockTransactionRepository extends JpaRepository<StockTransaction, Long>,
+        JpaSpecificationExecutor<StockTransaction>, StockTransactionRepositoryCustom {
 
     // Fetch transactions by Item entity
     List<StockTransaction> findByItem(Item item);
@@ -36,6 +41,28 @@ public interface StockTransactionRepository extends JpaRepository<StockTransacti
             "WHERE t.item.id = :itemId AND t.transactionType = 'OUT'")
     Integer getTotalOutByItemId(@Param("itemId") Long itemId);
 
+    /**
+     * Ledger totals for many items in one grouped query.
+     * Items without any transaction are simply absent from the result.
+     */
+    @Query("SELECT t.item.id AS itemId, " +
+            "COALESCE(SUM(CASE WHEN t.transactionType = 'IN' THEN t.quantity ELSE 0 END), 0) AS totalIn, " +
+            "COALESCE(SUM(CASE WHEN t.transactionType = 'OUT' THEN t.quantity ELSE 0 END), 0) AS totalOut " +
+            "FROM StockTransaction t WHERE t.item.id IN :itemIds GROUP BY t.item.id")
+    List<ItemBalanceView> getBalancesByItemIds(@Param("itemIds") Collection<Long> itemIds);
+
+    /**
+     * Searchable text of the transactions after the given id, in id order
+     * (limit the batch with the pageable)
+     */
+    @Query("SELECT t.id AS id, t.referenceNumber AS referenceNumber, t.notes AS notes, t.recordedBy AS recordedBy " +
+            "FROM StockTransaction t WHERE t.id > :afterId ORDER BY t.id")
+    List<TransactionSearchTextView> findSearchTextAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT t.id AS id, t.referenceNumber AS referenceNumber, t.notes AS notes, t.recordedBy AS recordedBy " +
+            "FROM StockTransaction t WHERE t.id IN :ids")
+    List<TransactionSearchTextView> findSearchTextByIds(@Param("ids") Collection<Long> ids);
+
     @Query("SELECT t FROM StockTransaction t ORDER BY t.transactionDate DESC, t.createdAt DESC")
     List<StockTransaction> findRecentTransactions();
 
@@ -52,4 +79,13 @@ public interface StockTransactionRepository extends JpaRepository<StockTransacti
 
     @Query("SELECT t FROM StockTransaction t WHERE t.originalTransaction.id = :originalId")
     StockTransaction findReversalTransaction(@Param("originalId") Long originalId);
+
+    /**
+     * Re-point every transaction of the source items to the target item.
+     * Runs as a single set-based UPDATE, so the cost does not depend on
+     * how many movements the source items have.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE StockTransaction t SET t.item = :target WHERE t.item.id IN :sourceIds")
+    int reassignItem(@Param("sourceIds") Collection<Long> sourceIds, @Param("target") Item target);
 }
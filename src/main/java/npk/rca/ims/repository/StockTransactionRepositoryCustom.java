@@ -0,0 +1,56 @@
+package npk.rca.ims.repository;
+
+import npk.rca.ims.dto.FieldSet;
+import npk.rca.ims.dto.StockTransactionDTO;
+import npk.rca.ims.model.StockTransaction;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Read-side queries of StockTransactionRepository that return DTOs directly
+ *
+ * Implemented in StockTransactionRepositoryImpl with the Criteria API.
+ */
+public interface StockTransactionRepositoryCustom {
+
+    /**
+     * Transactions matching the specification as ready-made DTOs.
+     *
+     * The rows join item and supplier for their names, so no entity is
+     * loaded into the persistence context and no lazy association is touched.
+     * balanceAfter is a window SUM over the item's history: joined into the
+     * row query when reading everything, and read by a second statement over
+     * just the rows' items when limit is set.
+     *
+     * @param limit maximum number of rows, or 0 for all
+     */
+    List<StockTransactionDTO> findTransactionRows(Specification<StockTransaction> spec, Sort sort, int limit);
+
+    /**
+     * Same as above, selecting only what the requested fields need: no item
+     * or supplier join unless their names are asked for, and no running
+     * balance unless balanceAfter is. id, transactionDate and createdAt are
+     * always filled (they make up the page cursor).
+     */
+    List<StockTransactionDTO> findTransactionRows(Specification<StockTransaction> spec, FieldSet fields,
+                                                  Sort sort, int limit);
+
+    /**
+     * Same rows as findTransactionRows, read through a database cursor.
+     *
+     * Rows are fetched STREAM_FETCH_SIZE at a time and mapped one by one, so
+     * memory does not grow with the number of rows. balanceAfter is joined
+     * from the window SUM, so the ledger is read once rather than once per
+     * row. Must be consumed inside
+     * a (read-only) transaction and closed, e.g. with try-with-resources.
+     */
+    Stream<StockTransactionDTO> streamTransactionRows(Specification<StockTransaction> spec, Sort sort);
+
+    /**
+     * Ids of the transactions matching the specification, in no particular order
+     */
+    List<Long> findTransactionIds(Specification<StockTransaction> spec);
+}
@@ -0,0 +1,308 @@
+package npk.rca.ims.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TupleElement;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.ParameterExpression;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import npk.rca.ims.dto.FieldSet;
+import npk.rca.ims.dto.StockTransactionDTO;
+import npk.rca.ims.model.Item;
+import npk.rca.ims.model.ItemBalance;
+import npk.rca.ims.model.StockTransaction;
+import npk.rca.ims.model.TransactionType;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.hibernate.query.criteria.JpaCriteriaQuery;
+import org.hibernate.query.criteria.JpaDerivedJoin;
+import org.hibernate.query.criteria.JpaEntityJoin;
+import org.hibernate.query.criteria.JpaRoot;
+import org.hibernate.query.criteria.JpaSubQuery;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+class StockTransactionRepositoryImpl implements StockTransactionRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    static final int STREAM_FETCH_SIZE = 500;
+
+    @Override
+    public List<StockTransactionDTO> findTransactionRows(Specification<StockTransaction> spec, Sort sort, int limit) {
+        return findTransactionRows(spec, FieldSet.ALL, sort, limit);
+    }
+
+    /**
+     * A page is read without balanceAfter, then one more statement fills it
+     * in from the page's items' rows since the page's oldest date only (see
+     * joinRunningBalance), never their whole histories. Unlimited reads join
+     * the balances into the row query instead.
+     */
+    @Override
+    public List<StockTransactionDTO> findTransactionRows(Specification<StockTransaction> spec, FieldSet fields,
+                                                         Sort sort, int limit) {
+        boolean paged = limit > 0;
+        TypedQuery<Tuple> typedQuery = createRowQuery(spec, fields, sort, !paged);
+        if (paged) {
+            typedQuery.setMaxResults(limit);
+        }
+
+        List<StockTransactionDTO> rows = new ArrayList<>();
+        for (Tuple tuple : typedQuery.getResultList()) {
+            rows.add(toDTO(tuple));
+        }
+        if (paged && fields.includes("balanceAfter") && !rows.isEmpty()) {
+            fillBalances(rows);
+        }
+        return rows;
+    }
+
+    @Override
+    public Stream<StockTransactionDTO> streamTransactionRows(Specification<StockTransaction> spec, Sort sort) {
+        // Tuples only: nothing enters the persistence context, so there is nothing to detach or clear
+        return createRowQuery(spec, FieldSet.ALL, sort, true)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setHint(HibernateHints.HINT_CACHEABLE, false)
+                .getResultStream()
+                .map(this::toDTO);
+    }
+
+    @Override
+    public List<Long> findTransactionIds(Specification<StockTransaction> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<StockTransaction> t = query.from(StockTransaction.class);
+        query.select(t.get("id"));
+
+        Predicate where = spec != null ? spec.toPredicate(t, query, cb) : null;
+        if (where != null) {
+            query.where(where);
+        }
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    /**
+     * id, transactionDate and createdAt are always selected (keyset cursor);
+     * the item and supplier joins and the running balance join only when a
+     * field needs them (and, for the balance, when joinBalance allows it).
+     */
+    private TypedQuery<Tuple> createRowQuery(Specification<StockTransaction> spec, FieldSet fields, Sort sort,
+                                             boolean joinBalance) {
+        HibernateCriteriaBuilder cb = criteriaBuilder();
+        JpaCriteriaQuery<Tuple> query = cb.createTupleQuery();
+        JpaRoot<StockTransaction> t = query.from(StockTransaction.class);
+
+        List<Selection<?>> selections = new ArrayList<>();
+        selections.add(t.get("id").alias("id"));
+        selections.add(t.get("transactionDate").alias("transactionDate"));
+        selections.add(t.get("createdAt").alias("createdAt"));
+        if (fields.includes("itemId")) {
+            selections.add(t.get("item").get("id").alias("itemId"));
+        }
+        if (fields.includesAny("itemName", "unit")) {
+            Join<StockTransaction, Item> item = t.join("item");
+            selections.add(item.get("name").alias("itemName"));
+            selections.add(item.get("unit").alias("unit"));
+        }
+        for (String field : List.of("transactionType", "quantity", "referenceNumber", "notes", "recordedBy")) {
+            if (fields.includes(field)) {
+                selections.add(t.get(field).alias(field));
+            }
+        }
+        if (joinBalance && fields.includes("balanceAfter")) {
+            selections.add(joinFilteredBalance(cb, query, t, spec).get("balance").alias("balanceAfter"));
+        }
+        if (fields.includes("supplierId")) {
+            selections.add(t.get("supplier").get("id").alias("supplierId"));
+        }
+        if (fields.includes("supplierName")) {
+            selections.add(t.join("supplier", JoinType.LEFT).get("name").alias("supplierName"));
+        }
+        if (fields.includes("reversed")) {
+            selections.add(t.get("isReversed").alias("reversed"));
+        }
+        if (fields.includes("originalTransactionId")) {
+            selections.add(t.join("originalTransaction", JoinType.LEFT).get("id").alias("originalTransactionId"));
+        }
+        query.multiselect(selections);
+
+        Predicate where = spec != null ? spec.toPredicate(t, query, cb) : null;
+        if (where != null) {
+            query.where(where);
+        }
+        if (sort != null && sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, t, cb));
+        }
+
+        return entityManager.createQuery(query);
+    }
+
+    /**
+     * Sets balanceAfter on rows already read, from the rows of just their
+     * items since the oldest of them.
+     */
+    private void fillBalances(List<StockTransactionDTO> rows) {
+        Set<Long> ids = new LinkedHashSet<>();
+        LocalDate from = null;
+        for (StockTransactionDTO row : rows) {
+            ids.add(row.getId());
+            if (from == null || row.getTransactionDate().isBefore(from)) {
+                from = row.getTransactionDate();
+            }
+        }
+
+        HibernateCriteriaBuilder cb = criteriaBuilder();
+        JpaCriteriaQuery<Tuple> query = cb.createTupleQuery();
+        JpaRoot<StockTransaction> t = query.from(StockTransaction.class);
+        // The rows may not carry itemId (sparse fieldsets), so the items come from a subquery on the ids
+        JpaSubQuery<Long> pageItems = query.subquery(Long.class);
+        JpaRoot<StockTransaction> p = pageItems.from(StockTransaction.class);
+        pageItems.select(p.get("item").get("id")).where(p.get("id").in(ids));
+
+        ParameterExpression<LocalDate> oldest = cb.parameter(LocalDate.class);
+        JpaDerivedJoin<Tuple> b = joinRunningBalance(cb, query, t, pageItems, oldest);
+        query.multiselect(t.get("id").alias("id"), b.get("balance").alias("balance"));
+        query.where(t.get("id").in(ids));
+
+        Map<Long, Number> balances = new HashMap<>();
+        for (Tuple tuple : entityManager.createQuery(query).setParameter(oldest, from).getResultList()) {
+            balances.put(tuple.get("id", Long.class), (Number) tuple.get("balance"));
+        }
+        for (StockTransactionDTO row : rows) {
+            Number balance = balances.get(row.getId());
+            row.setBalanceAfter(balance != null ? balance.intValue() : null);
+        }
+    }
+
+    /**
+     * joinRunningBalance for the rows matching spec: the items and the
+     * oldest date are taken from the same filter in subqueries, so a
+     * filtered export windows over the matching items since its start only.
+     */
+    private JpaDerivedJoin<Tuple> joinFilteredBalance(HibernateCriteriaBuilder cb, JpaCriteriaQuery<Tuple> query,
+                                                      JpaRoot<StockTransaction> t, Specification<StockTransaction> spec) {
+        JpaSubQuery<Long> items = query.subquery(Long.class);
+        JpaRoot<StockTransaction> i = items.from(StockTransaction.class);
+        Predicate itemsWhere = spec != null ? spec.toPredicate(i, query, cb) : null;
+        if (itemsWhere == null) {
+            return joinRunningBalance(cb, query, t, null, null);
+        }
+        items.select(i.get("item").get("id")).where(itemsWhere);
+
+        JpaSubQuery<LocalDate> from = query.subquery(LocalDate.class);
+        JpaRoot<StockTransaction> f = from.from(StockTransaction.class);
+        from.select(cb.least(f.<LocalDate>get("transactionDate"))).where(spec.toPredicate(f, query, cb));
+
+        return joinRunningBalance(cb, query, t, items, from);
+    }
+
+    /**
+     * Joins t to the balance of its item after t. Summing each item's whole
+     * history would grow with the ledger, so the sum runs backwards from the
+     * item's current balance (item_balances) instead:
+     *
+     *   balanceAfter = current balance - the item's rows after this one
+     *
+     * which needs only the rows from t's date on. A window SUM over those
+     * rows, partitioned by item in (transactionDate, createdAt, id) order,
+     * gives the part after each row; it is computed once in a derived table
+     * rather than once per row.
+     *
+     * @param items when not null, only these items' rows are summed
+     * @param from  when not null, only rows from this date on are summed; t
+     *              must not be older
+     */
+    private JpaDerivedJoin<Tuple> joinRunningBalance(HibernateCriteriaBuilder cb, JpaCriteriaQuery<Tuple> query,
+                                                     JpaRoot<StockTransaction> t, Expression<Long> items,
+                                                     Expression<LocalDate> from) {
+        JpaSubQuery<Tuple> sub = query.subquery(Tuple.class);
+        JpaRoot<StockTransaction> s = sub.from(StockTransaction.class);
+        JpaEntityJoin<ItemBalance> current = s.join(ItemBalance.class);
+        current.on(cb.equal(current.get("itemId"), s.get("item").get("id")));
+
+        Path<Integer> quantity = s.get("quantity");
+        Expression<Long> signed = cb.<Long>selectCase()
+                .when(cb.equal(s.get("transactionType"), TransactionType.IN), quantity.as(Long.class))
+                .otherwise(cb.neg(quantity).as(Long.class));
+        Path<LocalDate> date = s.get("transactionDate");
+        Path<LocalDateTime> created = s.get("createdAt");
+        Path<Long> id = s.get("id");
+        Path<Object> item = s.get("item").get("id");
+
+        Expression<Number> summed = cb.sum(signed, cb.createWindow().partitionBy(item));
+        Expression<Number> upToRow = cb.sum(signed, cb.createWindow()
+                .partitionBy(item)
+                .orderBy(cb.asc(date), cb.asc(created), cb.asc(id)));
+        Expression<Number> balance = cb.sum(
+                cb.<Number>diff(cb.<Number>diff(current.get("totalIn"), current.get("totalOut")), summed), upToRow);
+
+        sub.multiselect(id.alias("id"), balance.alias("balance"));
+        List<Predicate> where = new ArrayList<>();
+        if (items != null) {
+            where.add(item.in(items));
+        }
+        if (from != null) {
+            where.add(cb.greaterThanOrEqualTo(date, from));
+        }
+        sub.where(where.toArray(Predicate[]::new));
+
+        JpaDerivedJoin<Tuple> b = t.join(sub);
+        b.on(cb.equal(b.get("id"), t.get("id")));
+        return b;
+    }
+
+    private HibernateCriteriaBuilder criteriaBuilder() {
+        return (HibernateCriteriaBuilder) entityManager.getCriteriaBuilder();
+    }
+
+    private StockTransactionDTO toDTO(Tuple tuple) {
+        Map<String, Object> values = new HashMap<>();
+        for (TupleElement<?> element : tuple.getElements()) {
+            values.put(element.getAlias(), tuple.get(element));
+        }
+        Number balance = (Number) values.get("balanceAfter");
+        Boolean reversed = (Boolean) values.get("reversed");
+
+        StockTransactionDTO dto = new StockTransactionDTO();
+        dto.setId((Long) values.get("id"));
+        dto.setItemId((Long) values.get("itemId"));
+        dto.setItemName((String) values.get("itemName"));
+        dto.setUnit((String) values.get("unit"));
+        dto.setTransactionType((TransactionType) values.get("transactionType"));
+        dto.setQuantity((Integer) values.get("quantity"));
+        dto.setTransactionDate((LocalDate) values.get("transactionDate"));
+        dto.setReferenceNumber((String) values.get("referenceNumber"));
+        dto.setNotes((String) values.get("notes"));
+        dto.setRecordedBy((String) values.get("recordedBy"));
+        dto.setCreatedAt((LocalDateTime) values.get("createdAt"));
+        dto.setBalanceAfter(balance != null ? balance.intValue() : null);
+        dto.setSupplierId((Long) values.get("supplierId"));
+        dto.setSupplierName((String) values.get("supplierName"));
+        dto.setReversed(reversed != null && reversed);
+        dto.setOriginalTransactionId((Long) values.get("originalTransactionId"));
+        return dto;
+    }
+}
@@ -0,0 +1,146 @@
+package npk.rca.ims.repository;
+
+import npk.rca.ims.dto.TransactionCursor;
+import npk.rca.ims.dto.TransactionFilter;
+import npk.rca.ims.model.StockTransaction;
+import npk.rca.ims.model.TransactionType;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+/**
+ * StockTransactionSpecifications - Reusable WHERE-clause pieces for the ledger
+ *
+ * Combine with Specification.where(..).and(..), or build the whole
+ * WHERE clause from a TransactionFilter with matching(..). Every list,
+ * page and report of the ledger goes through here, so filtering happens
+ * in the database and only matching rows are read.
+ */
+public final class StockTransactionSpecifications {
+
+    /**
+     * Newest first; matches idx_stock_transactions_keyset and
+     * idx_stock_transactions_item_keyset (scanned backwards).
+     */
+    public static final Sort NEWEST_FIRST = Sort.by(
+            Sort.Order.desc("transactionDate"),
+            Sort.Order.desc("createdAt"),
+            Sort.Order.desc("id"));
+
+    private StockTransactionSpecifications() {
+    }
+
+    /**
+     * AND of every criterion set on the filter (no criteria = all rows)
+     */
+    public static Specification<StockTransaction> matching(TransactionFilter filter) {
+        Specification<StockTransaction> spec = Specification.where(null);
+        if (filter == null) {
+            return spec;
+        }
+        if (filter.getStartDate() != null) {
+            spec = spec.and(dateFrom(filter.getStartDate()));
+        }
+        if (filter.getEndDate() != null) {
+            spec = spec.and(dateTo(filter.getEndDate()));
+        }
+        if (filter.getItemIds() != null && !filter.getItemIds().isEmpty()) {
+            spec = spec.and(filter.getItemIds().size() == 1
+                    ? forItem(filter.getItemIds().get(0))
+                    : forItems(filter.getItemIds()));
+        }
+        if (filter.getType() != null) {
+            spec = spec.and(ofType(filter.getType()));
+        }
+        if (filter.getSupplierId() != null) {
+            spec = spec.and(fromSupplier(filter.getSupplierId()));
+        }
+        if (filter.getRecordedBy() != null && !filter.getRecordedBy().isBlank()) {
+            spec = spec.and(recordedBy(filter.getRecordedBy()));
+        }
+        if (filter.getReversed() != null) {
+            spec = spec.and(reversed(filter.getReversed()));
+        }
+        if (filter.getReason() != null && !filter.getReason().isBlank()) {
+            spec = spec.and(withReason(filter.getReason()));
+        }
+        return spec;
+    }
+
+    public static Specification<StockTransaction> forItem(Long itemId) {
+        return (root, query, cb) -> cb.equal(root.get("item").get("id"), itemId);
+    }
+
+    public static Specification<StockTransaction> forItems(Collection<Long> itemIds) {
+        return (root, query, cb) -> root.get("item").get("id").in(itemIds);
+    }
+
+    public static Specification<StockTransaction> dateBetween(LocalDate startDate, LocalDate endDate) {
+        return (root, query, cb) -> cb.between(root.get("transactionDate"), startDate, endDate);
+    }
+
+    public static Specification<StockTransaction> dateFrom(LocalDate startDate) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("transactionDate"), startDate);
+    }
+
+    public static Specification<StockTransaction> dateTo(LocalDate endDate) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("transactionDate"), endDate);
+    }
+
+    public static Specification<StockTransaction> ofType(TransactionType type) {
+        return (root, query, cb) -> cb.equal(root.get("transactionType"), type);
+    }
+
+    public static Specification<StockTransaction> fromSupplier(Long supplierId) {
+        return (root, query, cb) -> cb.equal(root.get("supplier").get("id"), supplierId);
+    }
+
+    public static Specification<StockTransaction> recordedBy(String recordedBy) {
+        return (root, query, cb) -> cb.equal(cb.lower(root.get("recordedBy")), recordedBy.toLowerCase());
+    }
+
+    public static Specification<StockTransaction> reversed(boolean reversed) {
+        return (root, query, cb) -> cb.equal(root.get("isReversed"), reversed);
+    }
+
+    /**
+     * Notes written as "Reason: details" (see AnalyticsService.extractReason)
+     */
+    public static Specification<StockTransaction> withReason(String reason) {
+        String pattern = reasonPattern(reason);
+        return (root, query, cb) -> cb.like(cb.lower(root.get("notes")), pattern, '\\');
+    }
+
+    public static Specification<StockTransaction> withIds(Collection<Long> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+
+    /**
+     * Rows strictly after the cursor in NEWEST_FIRST order:
+     * (date, createdAt, id) < (cursor.date, cursor.createdAt, cursor.id)
+     */
+    public static Specification<StockTransaction> after(TransactionCursor cursor) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("transactionDate"), cursor.getTransactionDate()),
+                cb.and(
+                        cb.equal(root.get("transactionDate"), cursor.getTransactionDate()),
+                        cb.lessThan(root.get("createdAt"), cursor.getCreatedAt())),
+                cb.and(
+                        cb.equal(root.get("transactionDate"), cursor.getTransactionDate()),
+                        cb.equal(root.get("createdAt"), cursor.getCreatedAt()),
+                        cb.lessThan(root.get("id"), cursor.getId())));
+    }
+
+    /**
+     * Lower-case LIKE pattern (escape character '\\') for withReason
+     */
+    static String reasonPattern(String reason) {
+        return escapeLike(reason.trim().toLowerCase()) + ":%";
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
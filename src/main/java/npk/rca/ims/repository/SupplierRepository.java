@@ -1,7 +1,10 @@
 package npk.rca.ims.repository;
 
+import jakarta.persistence.QueryHint;
 import npk.rca.ims.model.Supplier;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,6 +12,9 @@ import java.util.Optional;
 
 @Repository
 public interface SupplierRepository extends JpaRepository<Supplier, Long> {
+    // Lookups are query-cached; results are dropped whenever the suppliers table changes.
+    // Lists are not: a cached result grows with the table.
+
     // Find all active suppliers
     List<Supplier> findByActiveTrue();
 
@@ -16,9 +22,11 @@ public interface SupplierRepository extends JpaRepository<Supplier, Long> {
     List<Supplier> findByActiveFalse();
 
     // Check if a supplier with a given name exists (case-insensitive)
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     Optional<Supplier> findByNameIgnoreCase(String name);
 
     // Check if a supplier with a given email exists (case-insensitive)
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     Optional<Supplier> findByEmailIgnoreCase(String email);
 
     // Check if a supplier with a given name exists, excluding a specific ID
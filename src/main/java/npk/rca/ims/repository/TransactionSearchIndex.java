@@ -0,0 +1,32 @@
+package npk.rca.ims.repository;
+
+import npk.rca.ims.dto.TransactionFilter;
+
+import java.util.List;
+
+/**
+ * TransactionSearchIndex - Ranked full-text search over the ledger's free text
+ *
+ * Matches notes, referenceNumber and recordedBy. Every word of the query must
+ * match; a hit in the reference number ranks above one in the notes, which
+ * ranks above one in recordedBy. Ties go to the newest transaction.
+ *
+ * PostgresTransactionSearchIndex uses the tsvector column and GIN index from
+ * the V4 migration; InMemoryTransactionSearchIndex serves H2. SearchConfig
+ * picks one from the datasource URL.
+ */
+public interface TransactionSearchIndex {
+
+    /**
+     * Ids of matching transactions, best match first
+     *
+     * @param filter further criteria (see TransactionFilter), may be null
+     */
+    List<Long> search(String query, TransactionFilter filter, int offset, int limit);
+
+    /**
+     * Called after a transaction's notes or reference number were edited
+     */
+    default void reindex(Long transactionId) {
+    }
+}
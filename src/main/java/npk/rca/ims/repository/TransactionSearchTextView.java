@@ -0,0 +1,17 @@
+package npk.rca.ims.repository;
+
+/**
+ * TransactionSearchTextView - The searchable free text of one transaction
+ *
+ * Read in id order by InMemoryTransactionSearchIndex to build its index.
+ */
+public interface TransactionSearchTextView {
+
+    Long getId();
+
+    String getReferenceNumber();
+
+    String getNotes();
+
+    String getRecordedBy();
+}
@@ -1,8 +1,11 @@
 package npk.rca.ims.repository;
 
+import jakarta.persistence.QueryHint;
 import npk.rca.ims.model.User;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -16,14 +19,17 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     /**
      * Find user by email (case-insensitive)
-     * Used for authentication
+     * Used for authentication and on every profile call, so the result is
+     * query-cached (the User itself lives in the "users" cache region)
      */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT u FROM User u WHERE LOWER(u.email) = LOWER(:email)")
     Optional<User> findByEmail(@Param("email") String email);
     
     /**
      * Check if user exists by email (case-insensitive)
      */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT COUNT(u) > 0 FROM User u WHERE LOWER(u.email) = LOWER(:email)")
     boolean existsByEmail(@Param("email") String email);
 }
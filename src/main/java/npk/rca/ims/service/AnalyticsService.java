@@ -1,6 +1,8 @@
 package npk.rca.ims.service;
 
 import lombok.RequiredArgsConstructor;
+import npk.rca.ims.config.Workload;
+import npk.rca.ims.config.WorkloadType;
 import npk.rca.ims.dto.AnalyticsSummaryDTO;
 import npk.rca.ims.dto.MonthlyTrendDTO;
 import npk.rca.ims.model.StockTransaction;
@@ -18,6 +20,7 @@ import java.util.stream.Collectors;
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
+@Workload(WorkloadType.REPORTING)
 public class AnalyticsService {
 
     private final StockTransactionRepository transactionRepository;
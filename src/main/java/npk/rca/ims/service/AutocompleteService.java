@@ -0,0 +1,367 @@
+package npk.rca.ims.service;
+
+import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import npk.rca.ims.dto.SuggestionDTO;
+import npk.rca.ims.model.Item;
+import npk.rca.ims.model.Supplier;
+import npk.rca.ims.repository.ItemRepository;
+import npk.rca.ims.repository.SupplierRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * AutocompleteService - In-memory suggestion index for the search box
+ *
+ * Covers item name, category and SKU (ITEM-&lt;id&gt;, as printed on the
+ * reports) and the names of active suppliers. Suggestions never touch the
+ * database:
+ *
+ * - words: sorted map of word to entries, so a prefix is a range scan
+ *   (a trie in all but name)
+ * - bigrams: character bigrams (start-anchored) to words, to find candidates
+ *   for a mistyped word, confirmed with an edit distance of 1 (2 for words of
+ *   six letters or more)
+ *
+ * Every word typed must match; a name hit outranks a SKU hit, which outranks
+ * a category hit, and exact > prefix > fuzzy.
+ *
+ * Loaded once at startup; ItemService and SupplierService push their changes,
+ * which are applied when their transaction commits.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AutocompleteService {
+
+    public static final int DEFAULT_LIMIT = 10;
+    public static final int MAX_LIMIT = 50;
+
+    static final String ITEM = "ITEM";
+    static final String SUPPLIER = "SUPPLIER";
+
+    // Field weights
+    private static final float NAME = 1.0f;
+    private static final float SKU = 0.9f;
+    private static final float CATEGORY = 0.5f;
+
+    // Match quality
+    private static final float EXACT = 1.0f;
+    private static final float PREFIX = 0.8f;
+    private static final float FUZZY = 0.5f;
+
+    private final ItemRepository itemRepository;
+    private final SupplierRepository supplierRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final NavigableMap<String, Map<String, Float>> words = new TreeMap<>();
+    private final Map<String, Set<String>> bigrams = new HashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        List<Entry> loaded = new ArrayList<>();
+        itemRepository.findAll().forEach(item -> loaded.add(itemEntry(item)));
+        supplierRepository.findByActiveTrue().forEach(supplier -> loaded.add(supplierEntry(supplier)));
+
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            words.clear();
+            bigrams.clear();
+            loaded.forEach(this::put);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Autocomplete index loaded with {} entries and {} words", loaded.size(), words.size());
+    }
+
+    /**
+     * Top matches for what has been typed so far, best first
+     *
+     * @param limit clamped to 1..MAX_LIMIT
+     */
+    public List<SuggestionDTO> suggest(String query, int limit) {
+        Set<String> queryWords = normalize(query);
+        if (queryWords.isEmpty()) {
+            return List.of();
+        }
+        int k = Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        lock.readLock().lock();
+        try {
+            Map<String, Float> scores = null;
+            for (String word : queryWords) {
+                Map<String, Float> hits = match(word);
+                if (scores == null) {
+                    scores = hits;
+                } else {
+                    scores.keySet().retainAll(hits.keySet());
+                    scores.replaceAll((key, score) -> score + hits.get(key));
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            Comparator<Map.Entry<String, Float>> ranking = Map.Entry.<String, Float>comparingByValue().reversed();
+            ranking = ranking
+                    .thenComparingInt(hit -> entries.get(hit.getKey()).label.length())
+                    .thenComparing(hit -> entries.get(hit.getKey()).label, String.CASE_INSENSITIVE_ORDER);
+
+            return scores.entrySet().stream()
+                    .sorted(ranking)
+                    .limit(k)
+                    .map(hit -> entries.get(hit.getKey()).toDTO())
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void indexItem(Item item) {
+        Entry entry = itemEntry(item);
+        afterCommit(() -> write(() -> put(entry)));
+    }
+
+    public void removeItem(Long itemId) {
+        afterCommit(() -> write(() -> remove(key(ITEM, itemId))));
+    }
+
+    /**
+     * Inactive suppliers are not suggested, so deactivating one removes it
+     */
+    public void indexSupplier(Supplier supplier) {
+        if (!supplier.isActive()) {
+            removeSupplier(supplier.getId());
+            return;
+        }
+        Entry entry = supplierEntry(supplier);
+        afterCommit(() -> write(() -> put(entry)));
+    }
+
+    public void removeSupplier(Long supplierId) {
+        afterCommit(() -> write(() -> remove(key(SUPPLIER, supplierId))));
+    }
+
+    /**
+     * Best score per entry for one typed word: exact or prefix matches from the
+     * sorted word map, plus near misses found through shared bigrams
+     */
+    private Map<String, Float> match(String word) {
+        Map<String, Float> best = new HashMap<>();
+        for (Map.Entry<String, Map<String, Float>> hit
+                : words.subMap(word, true, word + Character.MAX_VALUE, true).entrySet()) {
+            addHits(best, hit.getValue(), hit.getKey().equals(word) ? EXACT : PREFIX);
+        }
+
+        int maxEdits = word.length() < 3 ? 0 : word.length() < 6 ? 1 : 2;
+        if (maxEdits > 0) {
+            Set<String> candidates = new HashSet<>();
+            for (String bigram : bigramsOf(word)) {
+                candidates.addAll(bigrams.getOrDefault(bigram, Set.of()));
+            }
+            for (String candidate : candidates) {
+                int edits = prefixDistance(word, candidate, maxEdits);
+                if (edits > 0 && edits <= maxEdits) {
+                    addHits(best, words.get(candidate), FUZZY / edits);
+                }
+            }
+        }
+        return best;
+    }
+
+    private static void addHits(Map<String, Float> best, Map<String, Float> hits, float quality) {
+        hits.forEach((key, weight) -> best.merge(key, weight * quality, Math::max));
+    }
+
+    /**
+     * Edits needed to turn the typed word into the candidate or into the start
+     * of it (the user may not have finished typing)
+     */
+    private static int prefixDistance(String typed, String candidate, int maxEdits) {
+        int best = maxEdits + 1;
+        int shortest = Math.max(1, typed.length() - maxEdits);
+        int longest = Math.min(candidate.length(), typed.length() + maxEdits);
+        for (int length = shortest; length <= longest; length++) {
+            best = Math.min(best, distance(typed, candidate.substring(0, length)));
+        }
+        return best;
+    }
+
+    /**
+     * Optimal string alignment distance (Levenshtein plus adjacent transpositions)
+     */
+    static int distance(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            d[i][0] = i;
+        }
+        for (int j = 0; j <= b.length(); j++) {
+            d[0][j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + 1);
+                }
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+
+    private void put(Entry entry) {
+        remove(entry.key);
+        entries.put(entry.key, entry);
+        entry.weights.forEach((word, weight) -> {
+            Map<String, Float> keys = words.get(word);
+            if (keys == null) {
+                keys = new HashMap<>();
+                words.put(word, keys);
+                for (String bigram : bigramsOf(word)) {
+                    bigrams.computeIfAbsent(bigram, b -> new HashSet<>()).add(word);
+                }
+            }
+            keys.put(entry.key, weight);
+        });
+    }
+
+    private void remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry == null) {
+            return;
+        }
+        for (String word : entry.weights.keySet()) {
+            Map<String, Float> keys = words.get(word);
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                words.remove(word);
+                for (String bigram : bigramsOf(word)) {
+                    Set<String> wordsWithBigram = bigrams.get(bigram);
+                    wordsWithBigram.remove(word);
+                    if (wordsWithBigram.isEmpty()) {
+                        bigrams.remove(bigram);
+                    }
+                }
+            }
+        }
+    }
+
+    private void write(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rolled-back changes must not reach the index
+     */
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    private static Entry itemEntry(Item item) {
+        String sku = "ITEM-" + item.getId();
+        Map<String, Float> weights = new HashMap<>();
+        addWords(weights, item.getName(), NAME);
+        addWords(weights, sku, SKU);
+        addWords(weights, item.getCategory(), CATEGORY);
+        String detail = item.getCategory() != null ? item.getCategory() + ", " + sku : sku;
+        return new Entry(key(ITEM, item.getId()), ITEM, item.getId(), item.getName(), detail, weights);
+    }
+
+    private static Entry supplierEntry(Supplier supplier) {
+        Map<String, Float> weights = new HashMap<>();
+        addWords(weights, supplier.getName(), NAME);
+        return new Entry(key(SUPPLIER, supplier.getId()), SUPPLIER, supplier.getId(),
+                supplier.getName(), supplier.getContactPerson(), weights);
+    }
+
+    private static void addWords(Map<String, Float> weights, String text, float weight) {
+        normalize(text).forEach(word -> weights.merge(word, weight, Math::max));
+    }
+
+    private static String key(String type, Long id) {
+        return type + ":" + id;
+    }
+
+    /**
+     * Lower-cased words without accents ("Café" and "cafe" are the same word)
+     */
+    static Set<String> normalize(String text) {
+        Set<String> result = new LinkedHashSet<>();
+        if (text == null) {
+            return result;
+        }
+        String plain = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+        for (String word : plain.split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                result.add(word);
+            }
+        }
+        return result;
+    }
+
+    private static List<String> bigramsOf(String word) {
+        String anchored = "^" + word;
+        List<String> result = new ArrayList<>(anchored.length() - 1);
+        for (int i = 0; i < anchored.length() - 1; i++) {
+            result.add(anchored.substring(i, i + 2));
+        }
+        return result;
+    }
+
+    /**
+     * One suggestible item or supplier and the weight of each of its words
+     */
+    @AllArgsConstructor
+    private static class Entry {
+        private final String key;
+        private final String type;
+        private final Long id;
+        private final String label;
+        private final String detail;
+        private final Map<String, Float> weights;
+
+        SuggestionDTO toDTO() {
+            return new SuggestionDTO(type, id, label, detail);
+        }
+    }
+}
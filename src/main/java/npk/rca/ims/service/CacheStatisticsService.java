@@ -0,0 +1,60 @@
+package npk.rca.ims.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import npk.rca.ims.dto.CacheRegionStatsDTO;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * CacheStatisticsService - Reports and resets the Hibernate second-level cache
+ *
+ * Region names match the aliases in ehcache.xml ("items", "suppliers", "users"
+ * and the query-results / update-timestamps regions).
+ */
+@Service
+@Slf4j
+public class CacheStatisticsService {
+
+    private final SessionFactory sessionFactory;
+
+    public CacheStatisticsService(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    public List<CacheRegionStatsDTO> getRegionStatistics() {
+        Statistics statistics = sessionFactory.getStatistics();
+        return Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(region -> toDTO(region, statistics.getCacheRegionStatistics(region)))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Drop every cached entity and query result, e.g. after the database was
+     * edited outside the application. Counters are reset as well.
+     */
+    public void evictAll() {
+        sessionFactory.getCache().evictAllRegions();
+        sessionFactory.getStatistics().clear();
+        log.info("Second-level cache evicted");
+    }
+
+    private CacheRegionStatsDTO toDTO(String region, CacheRegionStatistics stats) {
+        if (stats == null) {
+            return null;
+        }
+        long hits = stats.getHitCount();
+        long misses = stats.getMissCount();
+        double hitRatio = hits + misses == 0 ? 0.0 : (double) hits / (hits + misses);
+        return new CacheRegionStatsDTO(region, hits, misses, stats.getPutCount(), hitRatio);
+    }
+}
@@ -4,6 +4,8 @@ import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import npk.rca.ims.config.Workload;
+import npk.rca.ims.config.WorkloadType;
 import npk.rca.ims.dto.StockBalanceDTO;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.javamail.JavaMailSender;
@@ -263,6 +265,7 @@ public class EmailService {
     }
 
     @Scheduled(cron = "0 0 8 * * *") // Runs every day at 8 AM
+    @Workload(WorkloadType.SCHEDULED)
     public void sendDailyStockSummary() {
         try {
             List<StockBalanceDTO> lowStockItems = stockBalanceService.getLowStockItems();
@@ -0,0 +1,163 @@
+package npk.rca.ims.service;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.util.NumberToTextConverter;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ExcelTableWriter - Writes one table to a streaming (SXSSF) workbook
+ *
+ * Only the last ROW_WINDOW rows stay in memory; older rows are flushed to a
+ * compressed temp file and written out with the workbook, so memory does not
+ * grow with the number of rows.
+ *
+ * Column widths come from the header and the first SAMPLE_ROWS data rows
+ * instead of autoSizeColumn, which needs every row in memory. When a sheet is
+ * full (1,048,576 rows) the table continues on "Name (2)", "Name (3)"...
+ * with the header repeated.
+ *
+ * Usage: fill the banner rows of getSheet(), startTable(..) with the row of
+ * the header, then nextRow() and setCell(..) per data row, writeTo(..).
+ */
+class ExcelTableWriter implements Closeable {
+
+    static final int ROW_WINDOW = 100;
+    static final int SAMPLE_ROWS = 200;
+
+    private static final int MAX_COLUMN_CHARS = 255;
+    private static final int COLUMN_PADDING_CHARS = 4;
+
+    private final SXSSFWorkbook workbook;
+    private final String sheetName;
+    private final String[] headers;
+    private final int maxRows;
+    private final int[] columnChars;
+    private final List<Sheet> sheets = new ArrayList<>();
+
+    private Sheet sheet;
+    private CellStyle headerStyle;
+    private int nextRowNum;
+    private long dataRows;
+
+    ExcelTableWriter(String sheetName, String... headers) {
+        this(sheetName, SpreadsheetVersion.EXCEL2007.getMaxRows(), headers);
+    }
+
+    /**
+     * @param maxRows rows per sheet before the table moves to a new sheet
+     */
+    ExcelTableWriter(String sheetName, int maxRows, String... headers) {
+        this.workbook = new SXSSFWorkbook(ROW_WINDOW);
+        this.workbook.setCompressTempFiles(true);
+        this.sheetName = sheetName;
+        this.headers = headers;
+        this.maxRows = maxRows;
+        this.columnChars = new int[headers.length];
+        this.sheet = newSheet(sheetName);
+    }
+
+    SXSSFWorkbook getWorkbook() {
+        return workbook;
+    }
+
+    /**
+     * The sheet being written; the first one until the table spills over
+     */
+    Sheet getSheet() {
+        return sheet;
+    }
+
+    long getDataRows() {
+        return dataRows;
+    }
+
+    int getSheetCount() {
+        return sheets.size();
+    }
+
+    /**
+     * Writes the header at rowNum of the current sheet; data rows follow it.
+     * Rows above rowNum must be created before this call.
+     */
+    void startTable(int rowNum, CellStyle headerStyle) {
+        this.headerStyle = headerStyle;
+        writeHeader(rowNum);
+    }
+
+    Row nextRow() {
+        if (nextRowNum >= maxRows) {
+            sheet = newSheet(sheetName + " (" + (sheets.size() + 1) + ")");
+            writeHeader(0);
+        }
+        dataRows++;
+        return sheet.createRow(nextRowNum++);
+    }
+
+    void setCell(Row row, int column, String value) {
+        row.createCell(column).setCellValue(value);
+        sample(column, value);
+    }
+
+    void setCell(Row row, int column, double value) {
+        row.createCell(column).setCellValue(value);
+        if (dataRows <= SAMPLE_ROWS) {
+            sample(column, NumberToTextConverter.toText(value));
+        }
+    }
+
+    /**
+     * Applies the sampled widths to every sheet and writes the workbook
+     */
+    void writeTo(OutputStream out) throws IOException {
+        for (Sheet target : sheets) {
+            for (int column = 0; column < columnChars.length; column++) {
+                int chars = Math.min(MAX_COLUMN_CHARS, columnChars[column] + COLUMN_PADDING_CHARS);
+                target.setColumnWidth(column, chars * 256);
+            }
+        }
+        workbook.write(out);
+    }
+
+    /**
+     * Deletes the temp files behind the flushed rows
+     */
+    @Override
+    public void close() throws IOException {
+        workbook.dispose();
+        workbook.close();
+    }
+
+    private Sheet newSheet(String name) {
+        Sheet created = workbook.createSheet(name);
+        sheets.add(created);
+        nextRowNum = 0;
+        return created;
+    }
+
+    private void writeHeader(int rowNum) {
+        Row headerRow = sheet.createRow(rowNum);
+        for (int i = 0; i < headers.length; i++) {
+            Cell cell = headerRow.createCell(i);
+            cell.setCellValue(headers[i]);
+            cell.setCellStyle(headerStyle);
+            columnChars[i] = Math.max(columnChars[i], headers[i].length());
+        }
+        nextRowNum = rowNum + 1;
+    }
+
+    private void sample(int column, String value) {
+        if (dataRows <= SAMPLE_ROWS && value != null && column < columnChars.length) {
+            columnChars[column] = Math.max(columnChars[column], value.length());
+        }
+    }
+}
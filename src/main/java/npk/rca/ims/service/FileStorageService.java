@@ -1,16 +1,14 @@
 package npk.rca.ims.service;
 
+import npk.rca.ims.exceptions.ResourceNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.net.MalformedURLException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -58,17 +56,15 @@ public class FileStorageService {
         }
     }
 
-    public Resource loadFileAsResource(String fileName) {
-        try {
-            Path filePath = this.fileStorageLocation.resolve(fileName).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
-            if (resource.exists()) {
-                return resource;
-            } else {
-                throw new RuntimeException("File not found " + fileName);
-            }
-        } catch (MalformedURLException ex) {
-            throw new RuntimeException("File not found " + fileName, ex);
+    /**
+     * Path of a stored upload; names that resolve outside the upload
+     * directory are treated as missing
+     */
+    public Path loadFile(String fileName) {
+        Path filePath = this.fileStorageLocation.resolve(fileName).normalize();
+        if (!filePath.startsWith(this.fileStorageLocation) || !Files.isRegularFile(filePath)) {
+            throw new ResourceNotFoundException("File not found " + fileName);
         }
+        return filePath;
     }
 }
@@ -1,21 +1,36 @@
 package npk.rca.ims.service;
 
 import lombok.RequiredArgsConstructor;
+import npk.rca.ims.dto.BatchGetResponse;
+import npk.rca.ims.dto.FieldSet;
 import npk.rca.ims.dto.ItemDTO;
+import npk.rca.ims.dto.ItemFilter;
+import npk.rca.ims.dto.PageDTO;
 import npk.rca.ims.model.Item;
+import npk.rca.ims.model.ItemBalance;
 import npk.rca.ims.model.User;
+import npk.rca.ims.exceptions.ConflictException;
 import npk.rca.ims.exceptions.ResourceNotFoundException;
+import npk.rca.ims.repository.ItemBalanceRepository;
 import npk.rca.ims.repository.ItemRepository;
+import npk.rca.ims.repository.PurchaseOrderRepository;
+import npk.rca.ims.repository.RecipeRepository;
 import npk.rca.ims.repository.StockTransactionRepository;
 import npk.rca.ims.repository.UserRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -23,92 +38,50 @@ import java.util.stream.Stream;
 public class ItemService {
 
     private final ItemRepository itemRepository;
+    private final ItemBalanceRepository itemBalanceRepository;
     private final StockTransactionRepository stockTransactionRepository;
+    private final RecipeRepository recipeRepository;
+    private final PurchaseOrderRepository purchaseOrderRepository;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final AutocompleteService autocompleteService;
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
 
     /**
-     * Get filtered and sorted list of items
+     * One page of the items catalogue, filtered and sorted in the database
+     *
+     * @param sort "field,direction" with field name, currentBalance or
+     *             minimumStock (default name,asc)
+     * @param fields properties to load; balances are only read when one is requested
+     * @param size clamped to 1..MAX_PAGE_SIZE
      */
-    public List<ItemDTO> getFilteredItems(String category, String status, String name, String sort) {
-        // Get all items first
-        List<Item> items = itemRepository.findAll();
-
-        // Apply filters
-        Stream<Item> itemStream = items.stream();
-
-        // Filter by name (case-insensitive partial match)
-        if (name != null && !name.isEmpty()) {
-            itemStream = itemStream.filter(item ->
-                    item.getName().toLowerCase().contains(name.toLowerCase()));
-        }
-        
-        // Filter by category (exact match)
-        if (category != null && !category.isEmpty()) {
-            itemStream = itemStream.filter(item -> 
-                    item.getDescription() != null && item.getDescription().equalsIgnoreCase(category));
+    @Transactional(readOnly = true)
+    public PageDTO<ItemDTO> getItemCatalogue(ItemFilter filter, FieldSet fields, String sort, int page, int size) {
+        if (page < 0) {
+            throw new IllegalArgumentException("Page must not be negative");
         }
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
 
-        // Convert to DTOs (with calculated balance)
-        List<ItemDTO> itemDTOs = itemStream
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
-
-        // Filter by status (low stock vs adequate stock) - AFTER DTO conversion
-        if (status != null && !status.isEmpty()) {
-            if ("Birahagije".equalsIgnoreCase(status)) {
-                // Adequate stock items
-                itemDTOs = itemDTOs.stream()
-                        .filter(dto -> !dto.getIsLowStock())
-                        .collect(Collectors.toList());
-            } else if ("Mucye".equalsIgnoreCase(status)) {
-                // Low stock items
-                itemDTOs = itemDTOs.stream()
-                        .filter(ItemDTO::getIsLowStock)
-                        .collect(Collectors.toList());
-            } else if ("Byashize".equalsIgnoreCase(status)) {
-                // Out of stock items
-                itemDTOs = itemDTOs.stream()
-                        .filter(dto -> dto.getCurrentBalance() <= 0)
-                        .collect(Collectors.toList());
-            }
-        }
-
-        // Apply sorting
-        Comparator<ItemDTO> comparator = getComparator(sort);
-        itemDTOs.sort(comparator);
-
-        return itemDTOs;
+        Page<ItemDTO> result = itemRepository.findCatalogue(filter, fields, PageRequest.of(page, pageSize, parseSort(sort)));
+        return new PageDTO<>(result.getContent(), result.getNumber(), result.getSize(),
+                result.getTotalElements(), result.getTotalPages());
     }
 
     /**
-     * Create comparator based on sort parameter
+     * Translate the sort parameter; unknown fields fall back to name
      */
-    private Comparator<ItemDTO> getComparator(String sort) {
-        String[] sortParams = sort.split(",");
-        String field = sortParams[0];
-        boolean ascending = sortParams.length < 2 || "asc".equalsIgnoreCase(sortParams[1]);
-
-        Comparator<ItemDTO> comparator;
-
-        switch (field.toLowerCase()) {
-            case "name":
-                comparator = Comparator.comparing(ItemDTO::getName, String.CASE_INSENSITIVE_ORDER);
-                break;
-            case "currentbalance":
-            case "current_balance":
-                comparator = Comparator.comparing(dto ->
-                        dto.getCurrentBalance() != null ? dto.getCurrentBalance() : 0);
-                break;
-            case "minimumstock":
-            case "minimum_stock":
-                comparator = Comparator.comparing(ItemDTO::getMinimumStock);
-                break;
-            default:
-                comparator = Comparator.comparing(ItemDTO::getName, String.CASE_INSENSITIVE_ORDER);
-        }
-
-        return ascending ? comparator : comparator.reversed();
+    private Sort parseSort(String sort) {
+        String[] sortParams = (sort != null ? sort : "").split(",");
+        boolean ascending = sortParams.length < 2 || "asc".equalsIgnoreCase(sortParams[1].trim());
+
+        String property = switch (sortParams[0].trim().toLowerCase()) {
+            case "currentbalance", "current_balance" -> "currentBalance";
+            case "minimumstock", "minimum_stock" -> "minimumStock";
+            default -> "name";
+        };
+        return Sort.by(ascending ? Sort.Direction.ASC : Sort.Direction.DESC, property);
     }
 
     /**
@@ -120,6 +93,25 @@ public class ItemService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Items with balances for many ids: one IN query for the items and one
+     * for their totals, whatever the number of ids
+     */
+    @Transactional(readOnly = true)
+    public BatchGetResponse<ItemDTO> getItemsByIds(List<Long> ids) {
+        Map<Long, ItemBalance> balances = itemBalanceRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(ItemBalance::getItemId, Function.identity()));
+
+        Map<Long, ItemDTO> found = new HashMap<>();
+        for (Item item : itemRepository.findAllById(ids)) {
+            ItemBalance balance = balances.get(item.getId());
+            found.put(item.getId(), toDTO(item,
+                    balance != null ? balance.getTotalIn().intValue() : 0,
+                    balance != null ? balance.getTotalOut().intValue() : 0));
+        }
+        return BatchGetResponse.inRequestOrder(ids, found);
+    }
+
     /**
      * Get item by ID
      */
@@ -142,6 +134,7 @@ public class ItemService {
         item.setDamagedQuantity(0);
 
         Item savedItem = itemRepository.save(item);
+        autocompleteService.indexItem(savedItem);
         return convertToDTO(savedItem);
     }
 
@@ -159,21 +152,36 @@ public class ItemService {
         item.setDescription(itemDTO.getDescription());
 
         Item updatedItem = itemRepository.save(item);
+        autocompleteService.indexItem(updatedItem);
         return convertToDTO(updatedItem);
     }
 
     /**
      * Delete item
+     *
+     * Refused while a recipe or purchase order uses the item: dropping the
+     * line would silently change them, so they have to be edited (or the
+     * item merged) first.
      */
     @Transactional
     public void deleteItem(Long id) {
         Item item = itemRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Item not found with id: " + id));
-        
+
+        List<String> recipes = recipeRepository.findNamesUsingItem(id);
+        if (!recipes.isEmpty()) {
+            throw new ConflictException("Item is used by recipe(s): " + String.join(", ", recipes));
+        }
+        List<String> purchaseOrders = purchaseOrderRepository.findPoNumbersUsingItem(id);
+        if (!purchaseOrders.isEmpty()) {
+            throw new ConflictException("Item is on purchase order(s): " + String.join(", ", purchaseOrders));
+        }
+
         // Before deleting the item, we must delete its transactions to avoid constraint violations
         stockTransactionRepository.deleteAll(stockTransactionRepository.findByItem_Id(id));
 
         itemRepository.delete(item);
+        autocompleteService.removeItem(id);
     }
 
     /**
@@ -181,30 +189,94 @@ public class ItemService {
      */
     @Transactional
     public void deleteItemWithPasswordVerification(Long id, String username, String password) {
-        // 1. Verify user exists
+        // 1. Verify user exists and password matches
+        verifyPassword(username, password, "Incorrect password. Deletion denied.");
+
+        // 2. Proceed with deletion
+        deleteItem(id);
+    }
+
+    /**
+     * Merge duplicate items into a target item
+     *
+     * The damaged quantity of the sources is added to the target and all
+     * their transactions, recipe lines and purchase order lines are
+     * re-pointed to it with set-based statements (a recipe or order that had
+     * several of the merged items keeps one line with the summed
+     * quantities), then the source items are deleted.
+     */
+    @Transactional
+    public ItemDTO mergeItems(Long targetId, List<Long> sourceItemIds) {
+        Item target = itemRepository.findById(targetId)
+                .orElseThrow(() -> new ResourceNotFoundException("Item not found with id: " + targetId));
+
+        Set<Long> sourceIds = new LinkedHashSet<>(sourceItemIds);
+        if (sourceIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one source item is required");
+        }
+        if (sourceIds.contains(targetId)) {
+            throw new IllegalArgumentException("An item cannot be merged into itself");
+        }
+
+        List<Item> sources = itemRepository.findAllById(sourceIds);
+        if (sources.size() != sourceIds.size()) {
+            sources.forEach(source -> sourceIds.remove(source.getId()));
+            throw new ResourceNotFoundException("Item not found with id: " + sourceIds.iterator().next());
+        }
+
+        // Damaged quantity is the only derived figure stored on the item itself;
+        // balances are computed from the ledger and follow the re-pointed rows.
+        itemRepository.addDamagedQuantityOf(sourceIds, targetId);
+        stockTransactionRepository.reassignItem(sourceIds, target);
+
+        Set<Long> mergedIds = new LinkedHashSet<>(sourceIds);
+        mergedIds.add(targetId);
+        recipeRepository.sumIngredientLines(mergedIds);
+        recipeRepository.deleteSummedIngredientLines(mergedIds);
+        recipeRepository.reassignIngredients(sourceIds, target);
+        purchaseOrderRepository.sumOrderLines(mergedIds);
+        purchaseOrderRepository.deleteSummedOrderLines(mergedIds);
+        purchaseOrderRepository.reassignOrderLines(sourceIds, target);
+
+        itemRepository.deleteAllByIdInBatch(sourceIds);
+        sourceIds.forEach(autocompleteService::removeItem);
+
+        // The bulk statements cleared the persistence context: read the merged row back
+        Item mergedItem = itemRepository.findById(targetId)
+                .orElseThrow(() -> new ResourceNotFoundException("Item not found with id: " + targetId));
+        return convertToDTO(mergedItem);
+    }
+
+    /**
+     * Merge items with password verification
+     */
+    @Transactional
+    public ItemDTO mergeItemsWithPasswordVerification(Long targetId, List<Long> sourceItemIds,
+                                                      String username, String password) {
+        verifyPassword(username, password, "Incorrect password. Merge denied.");
+        return mergeItems(targetId, sourceItemIds);
+    }
+
+    private void verifyPassword(String username, String password, String deniedMessage) {
         User user = userRepository.findByEmail(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found: " + username));
 
-        // 2. Verify password
         if (!passwordEncoder.matches(password, user.getPassword())) {
-            throw new IllegalArgumentException("Incorrect password. Deletion denied.");
+            throw new IllegalArgumentException(deniedMessage);
         }
-
-        // 3. Proceed with deletion
-        deleteItem(id);
     }
 
     /**
      * Record damaged quantity
      */
     public ItemDTO recordDamagedQuantity(Long id, int damagedQuantity) {
-        Item item = itemRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Item not found with id: " + id));
-
-        // Add to existing damaged quantity
-        item.setDamagedQuantity(item.getDamagedQuantity() + damagedQuantity);
+        // Add to existing damaged quantity (one UPDATE, not read-modify-write)
+        if (itemRepository.addDamagedQuantity(id, damagedQuantity) == 0) {
+            throw new ResourceNotFoundException("Item not found with id: " + id);
+        }
 
-        Item updatedItem = itemRepository.save(item);
+        Item updatedItem = itemRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Item not found with id: " + id));
         return convertToDTO(updatedItem);
     }
 
@@ -238,24 +310,26 @@ public class ItemService {
      * Convert Item entity to ItemDTO
      */
     private ItemDTO convertToDTO(Item item) {
+        // Calculate current balance from transactions
+        Integer totalIn = stockTransactionRepository.getTotalInByItemId(item.getId());
+        Integer totalOut = stockTransactionRepository.getTotalOutByItemId(item.getId());
+
+        return toDTO(item, totalIn != null ? totalIn : 0, totalOut != null ? totalOut : 0);
+    }
+
+    private ItemDTO toDTO(Item item, int stockIn, int stockOut) {
         ItemDTO dto = new ItemDTO();
         dto.setId(item.getId());
         dto.setName(item.getName());
         dto.setUnit(item.getUnit());
+        dto.setCategory(item.getCategory());
         dto.setMinimumStock(item.getMinimumStock());
         dto.setDescription(item.getDescription());
         dto.setCreatedAt(item.getCreatedAt());
         dto.setUpdatedAt(item.getUpdatedAt());
         dto.setDamagedQuantity(item.getDamagedQuantity());
 
-        // Calculate current balance from transactions
-        Integer totalIn = stockTransactionRepository.getTotalInByItemId(item.getId());
-        Integer totalOut = stockTransactionRepository.getTotalOutByItemId(item.getId());
-        
-        int stockIn = (totalIn != null) ? totalIn : 0;
-        int stockOut = (totalOut != null) ? totalOut : 0;
         int currentBalance = stockIn - stockOut;
-        
         dto.setTotalIn(stockIn);
         dto.setTotalOut(stockOut);
         dto.setCurrentBalance(currentBalance);
@@ -0,0 +1,231 @@
+package npk.rca.ims.service;
+
+import lombok.Value;
+import npk.rca.ims.model.TransactionType;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * LedgerCsvReader - Parses and validates a historical ledger CSV, one row at a time
+ *
+ * The first line is a header naming the columns (any order, case-insensitive):
+ *   transaction_date, item_name, transaction_type, quantity   (required)
+ *   supplier_name, reference_number, notes, recorded_by       (optional)
+ *
+ * item_name and supplier_name are matched case-insensitively.
+ *
+ * Fields follow RFC 4180: quoted with double quotes when they contain commas,
+ * quotes or line breaks. The first invalid row stops the read with an
+ * IllegalArgumentException naming its line.
+ */
+class LedgerCsvReader implements Closeable {
+
+    static final List<String> REQUIRED_COLUMNS =
+            List.of("transaction_date", "item_name", "transaction_type", "quantity");
+    static final List<String> OPTIONAL_COLUMNS =
+            List.of("supplier_name", "reference_number", "notes", "recorded_by");
+
+    private final BufferedReader reader;
+    private long lineNumber = 0;
+
+    LedgerCsvReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+    }
+
+    /**
+     * Hands every data row to the sink in file order
+     *
+     * @return number of rows read
+     */
+    long forEachRow(RowSink<? super Row> sink) throws IOException {
+        List<String> header = readRecord();
+        if (header == null) {
+            throw new IllegalArgumentException("Import file is empty");
+        }
+        Map<String, Integer> columns = indexColumns(header);
+
+        long count = 0;
+        List<String> fields;
+        while (true) {
+            long line = lineNumber + 1;
+            fields = readRecord();
+            if (fields == null) {
+                return count;
+            }
+            if (fields.size() == 1 && fields.get(0).isBlank()) {
+                continue;
+            }
+            sink.accept(toRow(line, fields, columns));
+            count++;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private Map<String, Integer> indexColumns(List<String> header) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            // Spreadsheet exports often start with a UTF-8 byte order mark
+            String name = header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT);
+            if (!REQUIRED_COLUMNS.contains(name) && !OPTIONAL_COLUMNS.contains(name)) {
+                throw new IllegalArgumentException("Unknown column in header: " + header.get(i));
+            }
+            if (columns.put(name, i) != null) {
+                throw new IllegalArgumentException("Duplicate column in header: " + name);
+            }
+        }
+        for (String required : REQUIRED_COLUMNS) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("Missing required column: " + required);
+            }
+        }
+        return columns;
+    }
+
+    private Row toRow(long line, List<String> fields, Map<String, Integer> columns) {
+        String itemName = text(line, fields, columns, "item_name", 100);
+        if (itemName == null) {
+            throw invalid(line, "item_name is required");
+        }
+
+        String date = text(line, fields, columns, "transaction_date", 10);
+        LocalDate transactionDate;
+        try {
+            transactionDate = LocalDate.parse(date == null ? "" : date);
+        } catch (DateTimeParseException e) {
+            throw invalid(line, "transaction_date must be YYYY-MM-DD");
+        }
+        if (transactionDate.isAfter(LocalDate.now())) {
+            throw invalid(line, "transaction_date cannot be in the future");
+        }
+
+        String type = text(line, fields, columns, "transaction_type", 10);
+        TransactionType transactionType;
+        try {
+            transactionType = TransactionType.valueOf(type == null ? "" : type.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw invalid(line, "transaction_type must be IN or OUT");
+        }
+
+        String quantityText = text(line, fields, columns, "quantity", 10);
+        int quantity;
+        try {
+            quantity = Integer.parseInt(quantityText == null ? "" : quantityText);
+        } catch (NumberFormatException e) {
+            quantity = 0;
+        }
+        if (quantity <= 0) {
+            throw invalid(line, "quantity must be a positive whole number");
+        }
+
+        return new Row(line, transactionDate, itemName, transactionType, quantity,
+                text(line, fields, columns, "supplier_name", 100),
+                text(line, fields, columns, "reference_number", 100),
+                text(line, fields, columns, "notes", 500),
+                text(line, fields, columns, "recorded_by", 100));
+    }
+
+    /**
+     * Trimmed value of a column, null when the column is absent or blank
+     */
+    private String text(long line, List<String> fields, Map<String, Integer> columns, String column, int maxLength) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        if (value.isEmpty()) {
+            return null;
+        }
+        if (value.length() > maxLength) {
+            throw invalid(line, column + " is longer than " + maxLength + " characters");
+        }
+        return value;
+    }
+
+    private static IllegalArgumentException invalid(long line, String message) {
+        return new IllegalArgumentException("Line " + line + ": " + message);
+    }
+
+    /**
+     * Reads one CSV record, which may span several lines when a quoted field
+     * contains line breaks. Returns null at end of input.
+     */
+    private List<String> readRecord() throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        lineNumber++;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int i = 0;
+        while (true) {
+            if (i == line.length()) {
+                if (!quoted) {
+                    fields.add(field.toString());
+                    return fields;
+                }
+                // Line break inside a quoted field
+                line = reader.readLine();
+                if (line == null) {
+                    throw invalid(lineNumber, "unterminated quoted field");
+                }
+                lineNumber++;
+                field.append('\n');
+                i = 0;
+                continue;
+            }
+
+            char c = line.charAt(i++);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i < line.length() && line.charAt(i) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+    }
+
+    /**
+     * One validated ledger line; optional text fields are null when blank
+     */
+    @Value
+    static class Row {
+        long lineNumber;
+        LocalDate transactionDate;
+        String itemName;
+        TransactionType transactionType;
+        int quantity;
+        String supplierName;
+        String referenceNumber;
+        String notes;
+        String recordedBy;
+    }
+}
@@ -0,0 +1,303 @@
+package npk.rca.ims.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import npk.rca.ims.config.Workload;
+import npk.rca.ims.config.WorkloadType;
+import npk.rca.ims.dto.LedgerImportResultDTO;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * LedgerImportService - Bulk load of historical ledger history
+ *
+ * Onboarding a school means loading years of paper-ledger entries; going
+ * through JPA one entity at a time is far too slow for that. Instead:
+ *
+ * 1. CSV rows are validated as they are read and streamed into a temporary
+ *    staging table: COPY FROM STDIN on PostgreSQL, batched inserts on H2
+ * 2. Item and supplier names are resolved to ids with set-based joins;
+ *    both are matched case-insensitively ("rice" finds "Rice")
+ * 3. One INSERT ... SELECT moves the rows into stock_transactions
+ * 4. The running balance of every item touched is checked in ledger order
+ *    (no point in its history may go below zero), and the planner
+ *    statistics are refreshed
+ *
+ * All of it runs in one transaction, so a bad file leaves the ledger untouched.
+ * Imports have a workload of their own (one at a time, never queued), so a
+ * second upload is turned away at once instead of holding its request open
+ * behind the first or taking the scheduler's slots.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Workload(WorkloadType.IMPORT)
+public class LedgerImportService {
+
+    static final String STAGING_TABLE = "ledger_import_staging";
+
+    private static final String STAGING_COLUMNS =
+            "line_no, transaction_date, item_name, transaction_type, quantity, "
+            + "supplier_name, reference_number, notes, recorded_by";
+
+    private static final String STAGING_DEFINITION = " ("
+            + "line_no BIGINT NOT NULL, "
+            + "transaction_date DATE NOT NULL, "
+            + "item_name VARCHAR(100) NOT NULL, "
+            + "transaction_type VARCHAR(10) NOT NULL, "
+            + "quantity INTEGER NOT NULL, "
+            + "supplier_name VARCHAR(100), "
+            + "reference_number VARCHAR(100), "
+            + "notes VARCHAR(500), "
+            + "recorded_by VARCHAR(100))";
+
+    // Dropped at commit or rollback
+    private static final String POSTGRES_STAGING_DDL =
+            "CREATE TEMP TABLE " + STAGING_TABLE + STAGING_DEFINITION + " ON COMMIT DROP";
+
+    // H2 only keeps temporary-table DDL inside the transaction when TRANSACTIONAL is given;
+    // the table outlives the transaction on a pooled connection, so it is emptied instead
+    private static final String H2_STAGING_DDL =
+            "CREATE LOCAL TEMPORARY TABLE IF NOT EXISTS " + STAGING_TABLE + STAGING_DEFINITION
+            + " ON COMMIT DELETE ROWS TRANSACTIONAL";
+
+    // Names match case-insensitively, for items and suppliers alike; names are not
+    // unique in the schema, so duplicates resolve to the oldest row
+    private static final String ITEM_IDS =
+            "(SELECT LOWER(name) AS name_key, MIN(id) AS id FROM items GROUP BY LOWER(name))";
+
+    private static final String SUPPLIER_IDS =
+            "(SELECT LOWER(name) AS name_key, MIN(id) AS id FROM suppliers GROUP BY LOWER(name))";
+
+    private static final String UNKNOWN_ITEMS_SQL =
+            "SELECT DISTINCT s.item_name FROM " + STAGING_TABLE + " s "
+            + "WHERE NOT EXISTS (SELECT 1 FROM items i WHERE LOWER(i.name) = LOWER(s.item_name)) "
+            + "ORDER BY s.item_name FETCH FIRST 20 ROWS ONLY";
+
+    private static final String UNKNOWN_SUPPLIERS_SQL =
+            "SELECT DISTINCT s.supplier_name FROM " + STAGING_TABLE + " s "
+            + "WHERE s.supplier_name IS NOT NULL "
+            + "AND NOT EXISTS (SELECT 1 FROM suppliers p WHERE LOWER(p.name) = LOWER(s.supplier_name)) "
+            + "ORDER BY s.supplier_name FETCH FIRST 20 ROWS ONLY";
+
+    private static final String INSERT_FROM_STAGING_SQL =
+            "INSERT INTO stock_transactions (item_id, transaction_type, quantity, transaction_date, "
+            + "reference_number, notes, recorded_by, supplier_id, created_at, is_reversed) "
+            + "SELECT i.id, s.transaction_type, s.quantity, s.transaction_date, "
+            + "s.reference_number, s.notes, COALESCE(s.recorded_by, ?), p.id, LOCALTIMESTAMP, FALSE "
+            + "FROM " + STAGING_TABLE + " s "
+            + "JOIN " + ITEM_IDS + " i ON i.name_key = LOWER(s.item_name) "
+            + "LEFT JOIN " + SUPPLIER_IDS + " p ON p.name_key = LOWER(s.supplier_name) "
+            + "ORDER BY s.line_no";
+
+    // Lowest running balance per touched item, in ledger order: backdated rows can
+    // take an item below zero at some point in its history even when it ends positive
+    private static final String NEGATIVE_BALANCES_SQL =
+            "SELECT i.name FROM ("
+            + "SELECT t.item_id, SUM(CASE WHEN t.transaction_type = 'IN' THEN t.quantity ELSE -t.quantity END) "
+            + "OVER (PARTITION BY t.item_id ORDER BY t.transaction_date, t.created_at, t.id) AS balance "
+            + "FROM stock_transactions t "
+            + "WHERE t.item_id IN (SELECT i2.id FROM " + ITEM_IDS + " i2 "
+            + "JOIN " + STAGING_TABLE + " s ON i2.name_key = LOWER(s.item_name))) r "
+            + "JOIN items i ON i.id = r.item_id "
+            + "GROUP BY i.id, i.name "
+            + "HAVING MIN(r.balance) < 0 "
+            + "ORDER BY i.name FETCH FIRST 20 ROWS ONLY";
+
+    private static final String ITEMS_AFFECTED_SQL =
+            "SELECT COUNT(DISTINCT LOWER(item_name)) FROM " + STAGING_TABLE;
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Import a ledger CSV (see LedgerCsvReader for the format)
+     *
+     * @param csv        UTF-8 CSV content; read once, never held in memory
+     * @param importedBy recorded_by for rows that don't name one
+     * @throws IllegalArgumentException when a row is invalid, names an unknown
+     *                                  item or supplier, or would take an item's
+     *                                  balance below zero; nothing is imported
+     * @throws npk.rca.ims.exceptions.WorkloadRejectedException while another
+     *                                  import is running
+     */
+    @Transactional
+    public LedgerImportResultDTO importTransactions(InputStream csv, String importedBy) throws IOException {
+        long started = System.nanoTime();
+
+        boolean postgres = Boolean.TRUE.equals(jdbcTemplate.execute(
+                (ConnectionCallback<Boolean>) connection -> connection.isWrapperFor(PGConnection.class)));
+        jdbcTemplate.execute(postgres ? POSTGRES_STAGING_DDL : H2_STAGING_DDL);
+
+        long staged = stage(csv, postgres);
+        if (staged == 0) {
+            throw new IllegalArgumentException("Import file has no rows");
+        }
+
+        rejectIfAny(jdbcTemplate.queryForList(UNKNOWN_ITEMS_SQL, String.class), "Unknown items");
+        rejectIfAny(jdbcTemplate.queryForList(UNKNOWN_SUPPLIERS_SQL, String.class), "Unknown suppliers");
+
+        int imported = jdbcTemplate.update(INSERT_FROM_STAGING_SQL, importedBy);
+
+        rejectIfAny(jdbcTemplate.queryForList(NEGATIVE_BALANCES_SQL, String.class),
+                "Import would leave a negative balance for");
+
+        if (postgres) {
+            // Row counts just jumped; don't wait for autovacuum before the planner notices
+            jdbcTemplate.execute("ANALYZE stock_transactions");
+        }
+
+        Long itemsAffected = jdbcTemplate.queryForObject(ITEMS_AFFECTED_SQL, Long.class);
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        log.info("Imported {} ledger rows for {} items in {} ms", imported, itemsAffected, elapsedMillis);
+
+        return LedgerImportResultDTO.builder()
+                .rowsImported(imported)
+                .itemsAffected(itemsAffected != null ? itemsAffected : 0)
+                .elapsedMillis(elapsedMillis)
+                .build();
+    }
+
+    private long stage(InputStream csv, boolean postgres) throws IOException {
+        try {
+            Long staged = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+                try (LedgerCsvReader reader = new LedgerCsvReader(new InputStreamReader(csv, StandardCharsets.UTF_8));
+                     StagingWriter writer = postgres ? new CopyStagingWriter(connection) : new BatchStagingWriter(connection)) {
+                    return reader.forEachRow(writer);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            return staged != null ? staged : 0;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void rejectIfAny(List<String> names, String message) {
+        if (!names.isEmpty()) {
+            throw new IllegalArgumentException(message + ": " + String.join(", ", names));
+        }
+    }
+
+    private interface StagingWriter extends RowSink<LedgerCsvReader.Row>, Closeable {
+    }
+
+    /**
+     * PostgreSQL: rows are re-encoded as CSV and streamed through COPY FROM STDIN
+     */
+    private static class CopyStagingWriter implements StagingWriter {
+
+        private final Writer out;
+
+        CopyStagingWriter(Connection connection) throws SQLException {
+            PGCopyOutputStream copy = new PGCopyOutputStream(connection.unwrap(PGConnection.class),
+                    "COPY " + STAGING_TABLE + " (" + STAGING_COLUMNS + ") FROM STDIN WITH (FORMAT csv)",
+                    COPY_BUFFER_SIZE);
+            this.out = new BufferedWriter(new OutputStreamWriter(copy, StandardCharsets.UTF_8), COPY_BUFFER_SIZE);
+        }
+
+        @Override
+        public void accept(LedgerCsvReader.Row row) throws IOException {
+            out.write(Long.toString(row.getLineNumber()));
+            out.write(',');
+            out.write(row.getTransactionDate().toString());
+            out.write(',');
+            out.write(quote(row.getItemName()));
+            out.write(',');
+            out.write(row.getTransactionType().name());
+            out.write(',');
+            out.write(Integer.toString(row.getQuantity()));
+            out.write(',');
+            out.write(quote(row.getSupplierName()));
+            out.write(',');
+            out.write(quote(row.getReferenceNumber()));
+            out.write(',');
+            out.write(quote(row.getNotes()));
+            out.write(',');
+            out.write(quote(row.getRecordedBy()));
+            out.write('\n');
+        }
+
+        /**
+         * In COPY's CSV format an unquoted empty field is NULL
+         */
+        private static String quote(String value) {
+            return value == null ? "" : '"' + value.replace("\"", "\"\"") + '"';
+        }
+
+        @Override
+        public void close() throws IOException {
+            // Ends the COPY
+            out.close();
+        }
+    }
+
+    /**
+     * Other databases (H2 in tests): JDBC batch inserts
+     */
+    private static class BatchStagingWriter implements StagingWriter {
+
+        private final PreparedStatement insert;
+        private int pending = 0;
+
+        BatchStagingWriter(Connection connection) throws SQLException {
+            this.insert = connection.prepareStatement(
+                    "INSERT INTO " + STAGING_TABLE + " (" + STAGING_COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        }
+
+        @Override
+        public void accept(LedgerCsvReader.Row row) throws IOException {
+            try {
+                insert.setLong(1, row.getLineNumber());
+                insert.setDate(2, Date.valueOf(row.getTransactionDate()));
+                insert.setString(3, row.getItemName());
+                insert.setString(4, row.getTransactionType().name());
+                insert.setInt(5, row.getQuantity());
+                insert.setString(6, row.getSupplierName());
+                insert.setString(7, row.getReferenceNumber());
+                insert.setString(8, row.getNotes());
+                insert.setString(9, row.getRecordedBy());
+                insert.addBatch();
+                if (++pending == BATCH_SIZE) {
+                    insert.executeBatch();
+                    pending = 0;
+                }
+            } catch (SQLException e) {
+                throw new IOException("Failed to stage line " + row.getLineNumber(), e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try (insert) {
+                if (pending > 0) {
+                    insert.executeBatch();
+                }
+            } catch (SQLException e) {
+                throw new IOException("Failed to stage import rows", e);
+            }
+        }
+    }
+}
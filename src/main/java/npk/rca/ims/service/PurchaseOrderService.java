@@ -0,0 +1,250 @@
+package npk.rca.ims.service;
+
+import lombok.RequiredArgsConstructor;
+import npk.rca.ims.dto.GoodsReceiptLineDTO;
+import npk.rca.ims.dto.GoodsReceiptRequest;
+import npk.rca.ims.dto.PurchaseOrderDTO;
+import npk.rca.ims.dto.PurchaseOrderLineDTO;
+import npk.rca.ims.dto.StockTransactionDTO;
+import npk.rca.ims.exceptions.ResourceNotFoundException;
+import npk.rca.ims.model.Item;
+import npk.rca.ims.model.PurchaseOrder;
+import npk.rca.ims.model.PurchaseOrderLine;
+import npk.rca.ims.model.PurchaseOrderStatus;
+import npk.rca.ims.model.Supplier;
+import npk.rca.ims.model.TransactionType;
+import npk.rca.ims.repository.ItemRepository;
+import npk.rca.ims.repository.PurchaseOrderRepository;
+import npk.rca.ims.repository.SupplierRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * PurchaseOrderService - Purchase orders and goods receipt
+ *
+ * Receiving posts one IN transaction per received line, linked to the
+ * PO's supplier and carrying the PO number as reference, in a single
+ * StockTransactionService.recordTransactions call. Line and order
+ * outstanding quantities are updated in the same transaction.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class PurchaseOrderService {
+
+    private static final Set<PurchaseOrderStatus> OPEN_STATUSES =
+            EnumSet.of(PurchaseOrderStatus.OPEN, PurchaseOrderStatus.PARTIALLY_RECEIVED);
+
+    private final PurchaseOrderRepository purchaseOrderRepository;
+    private final SupplierRepository supplierRepository;
+    private final ItemRepository itemRepository;
+    private final StockTransactionService stockTransactionService;
+
+    @Transactional(readOnly = true)
+    public List<PurchaseOrderDTO> getPurchaseOrders(Long supplierId, boolean openOnly) {
+        List<PurchaseOrder> orders;
+        if (supplierId != null && openOnly) {
+            orders = purchaseOrderRepository.findBySupplierIdAndStatusInOrderByOrderDateDescIdDesc(supplierId, OPEN_STATUSES);
+        } else if (supplierId != null) {
+            orders = purchaseOrderRepository.findBySupplierIdOrderByOrderDateDescIdDesc(supplierId);
+        } else if (openOnly) {
+            orders = purchaseOrderRepository.findByStatusInOrderByOrderDateDescIdDesc(OPEN_STATUSES);
+        } else {
+            orders = purchaseOrderRepository.findAllByOrderByOrderDateDescIdDesc();
+        }
+        return orders.stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public PurchaseOrderDTO getPurchaseOrderById(Long id) {
+        return convertToDTO(findPurchaseOrder(id));
+    }
+
+    public PurchaseOrderDTO createPurchaseOrder(PurchaseOrderDTO dto) {
+        if (purchaseOrderRepository.existsByPoNumberIgnoreCase(dto.getPoNumber())) {
+            throw new IllegalArgumentException("Purchase order '" + dto.getPoNumber() + "' already exists.");
+        }
+
+        Supplier supplier = supplierRepository.findById(dto.getSupplierId())
+                .orElseThrow(() -> new ResourceNotFoundException("Supplier not found with id: " + dto.getSupplierId()));
+        if (!supplier.isActive()) {
+            throw new IllegalArgumentException("Cannot order from inactive supplier '" + supplier.getName() + "'.");
+        }
+
+        Set<Long> itemIds = dto.getLines().stream()
+                .map(PurchaseOrderLineDTO::getItemId)
+                .collect(Collectors.toSet());
+        if (itemIds.size() != dto.getLines().size()) {
+            throw new IllegalArgumentException("Each item can only appear once on a purchase order.");
+        }
+        Map<Long, Item> items = itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        for (Long itemId : itemIds) {
+            if (!items.containsKey(itemId)) {
+                throw new ResourceNotFoundException("Item not found with id: " + itemId);
+            }
+        }
+
+        PurchaseOrder order = new PurchaseOrder();
+        order.setPoNumber(dto.getPoNumber());
+        order.setSupplier(supplier);
+        order.setStatus(PurchaseOrderStatus.OPEN);
+        order.setOrderDate(dto.getOrderDate() != null ? dto.getOrderDate() : LocalDate.now());
+        order.setExpectedDate(dto.getExpectedDate());
+        order.setNotes(dto.getNotes());
+        for (PurchaseOrderLineDTO lineDTO : dto.getLines()) {
+            PurchaseOrderLine line = new PurchaseOrderLine();
+            line.setItem(items.get(lineDTO.getItemId()));
+            line.setOrderedQuantity(lineDTO.getOrderedQuantity());
+            line.setReceivedQuantity(0);
+            order.addLine(line);
+        }
+
+        return convertToDTO(purchaseOrderRepository.save(order));
+    }
+
+    /**
+     * Receive goods against a PO (partially or fully).
+     * All received lines are posted as IN transactions in one batch.
+     */
+    public PurchaseOrderDTO receiveGoods(Long id, GoodsReceiptRequest request) {
+        PurchaseOrder order = findPurchaseOrderForUpdate(id);
+        if (!order.isOpen()) {
+            throw new IllegalArgumentException("Purchase order " + order.getPoNumber() + " is " + order.getStatus() + ".");
+        }
+
+        Map<Long, PurchaseOrderLine> linesByItem = new LinkedHashMap<>();
+        order.getLines().forEach(line -> linesByItem.put(line.getItem().getId(), line));
+
+        // What to receive per line: the request, or everything outstanding
+        Map<Long, Integer> receipt = new LinkedHashMap<>();
+        if (request.getLines() == null || request.getLines().isEmpty()) {
+            linesByItem.forEach((itemId, line) -> {
+                if (line.getOutstandingQuantity() > 0) {
+                    receipt.put(itemId, line.getOutstandingQuantity());
+                }
+            });
+        } else {
+            for (GoodsReceiptLineDTO receiptLine : request.getLines()) {
+                PurchaseOrderLine line = linesByItem.get(receiptLine.getItemId());
+                if (line == null) {
+                    throw new IllegalArgumentException("Item " + receiptLine.getItemId()
+                            + " is not on purchase order " + order.getPoNumber() + ".");
+                }
+                receipt.merge(receiptLine.getItemId(), receiptLine.getQuantity(), Integer::sum);
+            }
+        }
+
+        List<String> overReceived = new ArrayList<>();
+        receipt.forEach((itemId, quantity) -> {
+            PurchaseOrderLine line = linesByItem.get(itemId);
+            if (quantity > line.getOutstandingQuantity()) {
+                overReceived.add(line.getItem().getName() + " (Outstanding: " + line.getOutstandingQuantity()
+                        + ", Received: " + quantity + ")");
+            }
+        });
+        if (!overReceived.isEmpty()) {
+            throw new IllegalArgumentException("Quantity exceeds outstanding amount! " + String.join("; ", overReceived));
+        }
+        if (receipt.isEmpty()) {
+            throw new IllegalArgumentException("Nothing left to receive on purchase order " + order.getPoNumber() + ".");
+        }
+
+        LocalDate date = request.getReceivedDate() != null ? request.getReceivedDate() : LocalDate.now();
+        String notes = request.getNotes() != null && !request.getNotes().isBlank()
+                ? request.getNotes()
+                : "Received against " + order.getPoNumber();
+
+        List<StockTransactionDTO> movements = new ArrayList<>();
+        receipt.forEach((itemId, quantity) -> {
+            StockTransactionDTO movement = new StockTransactionDTO();
+            movement.setItemId(itemId);
+            movement.setTransactionType(TransactionType.IN);
+            movement.setQuantity(quantity);
+            movement.setTransactionDate(date);
+            movement.setReferenceNumber(order.getPoNumber());
+            movement.setNotes(notes);
+            movement.setRecordedBy(request.getRecordedBy());
+            movement.setSupplierId(order.getSupplier().getId());
+            movements.add(movement);
+        });
+        stockTransactionService.recordTransactions(movements);
+
+        // Incremental bookkeeping, no re-scan of the ledger
+        int receivedTotal = 0;
+        for (Map.Entry<Long, Integer> entry : receipt.entrySet()) {
+            PurchaseOrderLine line = linesByItem.get(entry.getKey());
+            line.setReceivedQuantity(line.getReceivedQuantity() + entry.getValue());
+            receivedTotal += entry.getValue();
+        }
+        order.setOutstandingQuantity(order.getOutstandingQuantity() - receivedTotal);
+        order.setStatus(order.getOutstandingQuantity() == 0
+                ? PurchaseOrderStatus.RECEIVED
+                : PurchaseOrderStatus.PARTIALLY_RECEIVED);
+
+        return convertToDTO(purchaseOrderRepository.save(order));
+    }
+
+    public PurchaseOrderDTO cancelPurchaseOrder(Long id) {
+        PurchaseOrder order = findPurchaseOrderForUpdate(id);
+        if (!order.isOpen()) {
+            throw new IllegalArgumentException("Purchase order " + order.getPoNumber() + " is already " + order.getStatus() + ".");
+        }
+        order.setStatus(PurchaseOrderStatus.CANCELLED);
+        return convertToDTO(purchaseOrderRepository.save(order));
+    }
+
+    private PurchaseOrder findPurchaseOrder(Long id) {
+        return purchaseOrderRepository.findWithLinesById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Purchase order not found with id: " + id));
+    }
+
+    /**
+     * The order with its row locked for the rest of the transaction, so a
+     * concurrent receipt waits and then sees the updated outstanding
+     * quantities instead of receiving the same goods twice.
+     */
+    private PurchaseOrder findPurchaseOrderForUpdate(Long id) {
+        return purchaseOrderRepository.findForUpdateById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Purchase order not found with id: " + id));
+    }
+
+    private PurchaseOrderDTO convertToDTO(PurchaseOrder order) {
+        List<PurchaseOrderLineDTO> lines = order.getLines().stream()
+                .map(line -> new PurchaseOrderLineDTO(
+                        line.getId(),
+                        line.getItem().getId(),
+                        line.getItem().getName(),
+                        line.getItem().getUnit(),
+                        line.getOrderedQuantity(),
+                        line.getReceivedQuantity(),
+                        line.getOutstandingQuantity()))
+                .collect(Collectors.toList());
+
+        return new PurchaseOrderDTO(
+                order.getId(),
+                order.getPoNumber(),
+                order.getSupplier().getId(),
+                order.getSupplier().getName(),
+                order.getStatus(),
+                order.getOrderDate(),
+                order.getExpectedDate(),
+                order.getNotes(),
+                order.getOutstandingQuantity(),
+                lines,
+                order.getCreatedAt(),
+                order.getUpdatedAt());
+    }
+}
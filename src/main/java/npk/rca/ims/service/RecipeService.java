@@ -0,0 +1,182 @@
+package npk.rca.ims.service;
+
+import lombok.RequiredArgsConstructor;
+import npk.rca.ims.dto.RecipeDTO;
+import npk.rca.ims.dto.RecipeIngredientDTO;
+import npk.rca.ims.dto.RecipeIssueRequest;
+import npk.rca.ims.dto.StockTransactionDTO;
+import npk.rca.ims.exceptions.ResourceNotFoundException;
+import npk.rca.ims.model.Item;
+import npk.rca.ims.model.Recipe;
+import npk.rca.ims.model.RecipeIngredient;
+import npk.rca.ims.model.TransactionType;
+import npk.rca.ims.repository.ItemRepository;
+import npk.rca.ims.repository.RecipeRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * RecipeService - Recipe (bill of materials) definitions and issuing
+ *
+ * Issuing N portions turns every ingredient line into one OUT movement
+ * and records them all through StockTransactionService.recordTransactions,
+ * so either every ingredient is issued or none is.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class RecipeService {
+
+    private final RecipeRepository recipeRepository;
+    private final ItemRepository itemRepository;
+    private final StockTransactionService stockTransactionService;
+
+    @Transactional(readOnly = true)
+    public List<RecipeDTO> getAllRecipes() {
+        return recipeRepository.findAllByOrderByNameAsc().stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public RecipeDTO getRecipeById(Long id) {
+        return convertToDTO(findRecipe(id));
+    }
+
+    public RecipeDTO createRecipe(RecipeDTO dto) {
+        if (recipeRepository.findByNameIgnoreCase(dto.getName()).isPresent()) {
+            throw new IllegalArgumentException("Recipe with name '" + dto.getName() + "' already exists.");
+        }
+
+        Recipe recipe = new Recipe();
+        updateEntityFromDTO(recipe, dto);
+        return convertToDTO(recipeRepository.save(recipe));
+    }
+
+    public RecipeDTO updateRecipe(Long id, RecipeDTO dto) {
+        Recipe recipe = findRecipe(id);
+
+        if (recipeRepository.findByNameIgnoreCaseAndIdIsNot(dto.getName(), id).isPresent()) {
+            throw new IllegalArgumentException("Recipe with name '" + dto.getName() + "' already exists.");
+        }
+
+        updateEntityFromDTO(recipe, dto);
+        return convertToDTO(recipeRepository.save(recipe));
+    }
+
+    public void deleteRecipe(Long id) {
+        if (!recipeRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Recipe not found with id: " + id);
+        }
+        recipeRepository.deleteById(id);
+    }
+
+    /**
+     * Issue N portions of a recipe as one OUT movement per ingredient.
+     * Fractional requirements are rounded up to whole units.
+     */
+    public List<StockTransactionDTO> issuePortions(Long id, RecipeIssueRequest request) {
+        Recipe recipe = findRecipe(id);
+        BigDecimal portions = BigDecimal.valueOf(request.getPortions());
+
+        LocalDate date = request.getTransactionDate() != null ? request.getTransactionDate() : LocalDate.now();
+        String reference = request.getReferenceNumber() != null && !request.getReferenceNumber().isBlank()
+                ? request.getReferenceNumber()
+                : "RECIPE-" + recipe.getId();
+        String notes = request.getNotes() != null && !request.getNotes().isBlank()
+                ? request.getNotes()
+                : "Consumed: " + recipe.getName() + " for " + request.getPortions() + " portions";
+
+        List<StockTransactionDTO> movements = new ArrayList<>();
+        for (RecipeIngredient ingredient : recipe.getIngredients()) {
+            int quantity = ingredient.getQuantityPerPortion()
+                    .multiply(portions)
+                    .setScale(0, RoundingMode.CEILING)
+                    .intValueExact();
+
+            StockTransactionDTO movement = new StockTransactionDTO();
+            movement.setItemId(ingredient.getItem().getId());
+            movement.setTransactionType(TransactionType.OUT);
+            movement.setQuantity(quantity);
+            movement.setTransactionDate(date);
+            movement.setReferenceNumber(reference);
+            movement.setNotes(notes);
+            movement.setRecordedBy(request.getRecordedBy());
+            movements.add(movement);
+        }
+
+        return stockTransactionService.recordTransactions(movements);
+    }
+
+    private Recipe findRecipe(Long id) {
+        return recipeRepository.findWithIngredientsById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Recipe not found with id: " + id));
+    }
+
+    private void updateEntityFromDTO(Recipe recipe, RecipeDTO dto) {
+        recipe.setName(dto.getName());
+        recipe.setDescription(dto.getDescription());
+
+        Set<Long> itemIds = dto.getIngredients().stream()
+                .map(RecipeIngredientDTO::getItemId)
+                .collect(Collectors.toSet());
+        if (itemIds.size() != dto.getIngredients().size()) {
+            throw new IllegalArgumentException("Each item can only appear once in a recipe.");
+        }
+
+        Map<Long, Item> items = itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        for (Long itemId : itemIds) {
+            if (!items.containsKey(itemId)) {
+                throw new ResourceNotFoundException("Item not found with id: " + itemId);
+            }
+        }
+
+        // Update the lines in place, matched by item: Hibernate flushes inserts
+        // before orphan deletes, so re-adding a kept item would hit the
+        // (recipe_id, item_id) unique key. orphanRemoval deletes dropped lines.
+        Map<Long, RecipeIngredientDTO> lines = dto.getIngredients().stream()
+                .collect(Collectors.toMap(RecipeIngredientDTO::getItemId, Function.identity()));
+        recipe.getIngredients().removeIf(ingredient -> !lines.containsKey(ingredient.getItem().getId()));
+        Map<Long, RecipeIngredient> existing = recipe.getIngredients().stream()
+                .collect(Collectors.toMap(ingredient -> ingredient.getItem().getId(), Function.identity()));
+        for (RecipeIngredientDTO line : dto.getIngredients()) {
+            RecipeIngredient ingredient = existing.get(line.getItemId());
+            if (ingredient == null) {
+                ingredient = new RecipeIngredient();
+                ingredient.setItem(items.get(line.getItemId()));
+                recipe.addIngredient(ingredient);
+            }
+            ingredient.setQuantityPerPortion(line.getQuantityPerPortion());
+        }
+    }
+
+    private RecipeDTO convertToDTO(Recipe recipe) {
+        List<RecipeIngredientDTO> ingredients = recipe.getIngredients().stream()
+                .map(ingredient -> new RecipeIngredientDTO(
+                        ingredient.getId(),
+                        ingredient.getItem().getId(),
+                        ingredient.getItem().getName(),
+                        ingredient.getItem().getUnit(),
+                        ingredient.getQuantityPerPortion()))
+                .collect(Collectors.toList());
+
+        return new RecipeDTO(
+                recipe.getId(),
+                recipe.getName(),
+                recipe.getDescription(),
+                ingredients,
+                recipe.getCreatedAt(),
+                recipe.getUpdatedAt());
+    }
+}
@@ -0,0 +1,34 @@
+package npk.rca.ims.service;
+
+import npk.rca.ims.dto.StockBalanceDTO;
+import npk.rca.ims.dto.StockTransactionDTO;
+import npk.rca.ims.dto.SupplierDTO;
+import npk.rca.ims.dto.TransactionFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * ReportData - Where ReportService reads the rows of a report from
+ *
+ * Either live (every call is its own query, what a single download needs) or
+ * a ReportRun: one consistent snapshot shared by every report of a run.
+ */
+public interface ReportData {
+
+    /**
+     * Ledger version the rows belong to (part of the report cache key)
+     */
+    long ledgerVersion();
+
+    /**
+     * @return number of rows passed to the sink
+     */
+    long forEachTransaction(TransactionFilter filter, RowSink<? super StockTransactionDTO> sink) throws IOException;
+
+    List<StockBalanceDTO> balances();
+
+    List<StockBalanceDTO> lowStockItems();
+
+    List<SupplierDTO> activeSuppliers();
+}
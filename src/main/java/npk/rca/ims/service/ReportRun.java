@@ -0,0 +1,100 @@
+package npk.rca.ims.service;
+
+import lombok.Builder;
+import lombok.Getter;
+import npk.rca.ims.dto.StockBalanceDTO;
+import npk.rca.ims.dto.StockTransactionDTO;
+import npk.rca.ims.dto.SupplierDTO;
+import npk.rca.ims.dto.TransactionFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * ReportRun - The data of several reports, read once from one snapshot
+ *
+ * The ledger version, balances and suppliers are loaded by
+ * ReportSnapshotService in one repeatable-read transaction, then only read,
+ * so the reports rendered from them can run on several threads without
+ * going back to the database.
+ *
+ * Transaction rows are not held: they can be the whole ledger for the
+ * period. Each forEachTransaction streams them from a cursor of its own in
+ * the same transaction, so they agree with the balances and with the
+ * version the reports are cached under; that is only possible on the
+ * thread that opened the snapshot, while it is open (see
+ * ReportSnapshotService.snapshot). ReportService.generateTransactionReports
+ * reads them once for both formats. Reading a dataset the run was not
+ * loaded with is a programming error.
+ */
+public final class ReportRun implements ReportData {
+
+    private final long ledgerVersion;
+    private final TransactionSource transactions;
+    private final List<StockBalanceDTO> balances;
+    private final List<SupplierDTO> suppliers;
+
+    ReportRun(long ledgerVersion, TransactionSource transactions,
+              List<StockBalanceDTO> balances, List<SupplierDTO> suppliers) {
+        this.ledgerVersion = ledgerVersion;
+        this.transactions = transactions;
+        this.balances = balances != null ? List.copyOf(balances) : null;
+        this.suppliers = suppliers != null ? List.copyOf(suppliers) : null;
+    }
+
+    @Override
+    public long ledgerVersion() {
+        return ledgerVersion;
+    }
+
+    @Override
+    public long forEachTransaction(TransactionFilter filter, RowSink<? super StockTransactionDTO> sink) throws IOException {
+        return transactions.forEachTransaction(filter, sink);
+    }
+
+    @Override
+    public List<StockBalanceDTO> balances() {
+        return loaded(balances, "balances");
+    }
+
+    /**
+     * Taken from the run's balances rather than queried again
+     */
+    @Override
+    public List<StockBalanceDTO> lowStockItems() {
+        return loaded(balances, "balances").stream()
+                .filter(balance -> Boolean.TRUE.equals(balance.getIsLowStock()))
+                .toList();
+    }
+
+    @Override
+    public List<SupplierDTO> activeSuppliers() {
+        return loaded(suppliers, "suppliers");
+    }
+
+    private static <T> List<T> loaded(List<T> dataset, String name) {
+        if (dataset == null) {
+            throw new IllegalStateException("Report run was not loaded with " + name);
+        }
+        return dataset;
+    }
+
+    /**
+     * Where the run streams transaction rows from (StockTransactionService,
+     * in the snapshot transaction)
+     */
+    @FunctionalInterface
+    interface TransactionSource {
+        long forEachTransaction(TransactionFilter filter, RowSink<? super StockTransactionDTO> sink) throws IOException;
+    }
+
+    /**
+     * The datasets a run holds
+     */
+    @Getter
+    @Builder
+    public static class Scope {
+        private final boolean balances;
+        private final boolean suppliers;
+    }
+}
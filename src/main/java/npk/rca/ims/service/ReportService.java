@@ -6,30 +6,40 @@ import com.lowagie.text.pdf.PdfPTable;
 import com.lowagie.text.pdf.PdfWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import npk.rca.ims.config.Workload;
+import npk.rca.ims.config.WorkloadType;
 import npk.rca.ims.dto.CategoryDistributionDTO;
 import npk.rca.ims.dto.StockBalanceDTO;
 import npk.rca.ims.dto.StockTransactionDTO;
 import npk.rca.ims.dto.SupplierDTO;
+import npk.rca.ims.dto.TransactionFilter;
 import npk.rca.ims.exceptions.ReportGenerationException;
 import npk.rca.ims.model.Item;
 import npk.rca.ims.model.ReportHistory;
 import npk.rca.ims.model.TransactionType;
 import npk.rca.ims.repository.ItemRepository;
+import npk.rca.ims.repository.ReportFileUsageView;
 import npk.rca.ims.repository.ReportHistoryRepository;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.Font;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.util.IOUtils;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 
 import java.awt.Color;
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -39,20 +49,36 @@ import java.nio.file.Paths;
 import java.util.UUID;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@Workload(WorkloadType.REPORTING)
 public class ReportService {
 
     private static final String HEADER_IMAGE_PATH = "static/rca-info.png";
-    private static final String STORAGE_DIR = "reports_storage";
     private static final String ORGANIZATION_NAME = "RWANDA CODING ACADEMY";
     private static final String DATE_FORMAT = "dd-MM-yyyy";
     private static final String DATETIME_FORMAT = "dd-MM-yyyy HH:mm";
     private static final String DEFAULT_UNIT = "Kg";
     private static final String PLACEHOLDER = "-";
+    private static final int PDF_ROWS_PER_FLUSH = 500;
+
+    private static final String[] TRANSACTION_EXCEL_HEADERS = {
+            "Date", "Ref No.", "Item Name", "Unit",
+            "Stock IN", "Stock OUT", "Balance",
+            "Source / Destination", "Remarks"
+    };
+    private static final String[] BALANCE_EXCEL_HEADERS = {
+            "SKU / ID", "Item Name", "Category", "Unit", "Current Stock", "Minimum Stock", "Status", "Last Updated"
+    };
+    private static final String[] SUPPLIER_EXCEL_HEADERS = {
+            "Company Name", "Contact Person", "Phone", "Email", "Items Supplied"
+    };
 
     private final StockTransactionService transactionService;
     private final StockBalanceService balanceService;
@@ -60,6 +86,19 @@ public class ReportService {
     private final ReportHistoryRepository reportHistoryRepository;
     private final ItemRepository itemRepository;
 
+    private final ReportData liveData = new LiveReportData();
+
+    // Shared while stored files are handed out (withReportFiles), exclusive while they are deleted
+    private final ReadWriteLock cacheLock = new ReentrantReadWriteLock();
+
+    // Where generated reports are stored and served from
+    @Value("${app.reports.storage-dir:reports_storage}")
+    private String storageDir = "reports_storage";
+
+    // Stored report files are evicted, least recently used first, above this
+    @Value("${app.reports.cache-max-size:1GB}")
+    private DataSize cacheMaxSize = DataSize.ofGigabytes(1);
+
     public List<ReportHistory> getReportHistory() {
         return reportHistoryRepository.findAllByOrderByGeneratedDateDesc();
     }
@@ -69,7 +108,10 @@ public class ReportService {
                 .orElseThrow(() -> new npk.rca.ims.exceptions.ResourceNotFoundException("Report history not found with id: " + id));
     }
 
-    public byte[] getReportFileContent(Long id) {
+    /**
+     * The stored file of a generated report, for streaming to the client
+     */
+    public Path getReportFile(Long id) {
         ReportHistory history = reportHistoryRepository.findById(id)
                 .orElseThrow(() -> new npk.rca.ims.exceptions.ResourceNotFoundException("Report history not found with id: " + id));
         
@@ -80,16 +122,16 @@ public class ReportService {
         if (history.getFilePath() == null) {
              throw new npk.rca.ims.exceptions.ResourceNotFoundException("File path not found for report: " + id);
         }
-        
-        try {
-            return Files.readAllBytes(Paths.get(history.getFilePath()));
-        } catch (IOException e) {
-            log.error("Failed to read report file", e);
-            throw new RuntimeException("Failed to read report file", e);
+
+        Path file = Paths.get(history.getFilePath());
+        if (!Files.isReadable(file)) {
+            throw new npk.rca.ims.exceptions.ResourceNotFoundException("Report file is no longer available: " + id);
         }
+        return file;
     }
 
     @Scheduled(cron = "0 0 0 * * ?") // Run every day at midnight
+    @Workload(WorkloadType.SCHEDULED)
     public void cleanupExpiredReports() {
         log.info("Starting report cleanup task...");
         LocalDateTime cutoffDate = LocalDateTime.now().minusDays(5);
@@ -98,15 +140,14 @@ public class ReportService {
         int deletedCount = 0;
         for (ReportHistory report : expiredReports) {
             try {
-                if (report.getFilePath() != null) {
-                    Path filePath = Paths.get(report.getFilePath());
-                    if (Files.exists(filePath)) {
-                        Files.delete(filePath);
-                    }
-                }
+                String filePath = report.getFilePath();
                 report.setFilePath(null);
                 report.setStatus("EXPIRED");
                 reportHistoryRepository.save(report);
+                // A cached file is shared; keep it while a newer entry still uses it
+                if (filePath != null && !reportHistoryRepository.existsByFilePathAndStatusNot(filePath, "EXPIRED")) {
+                    deleteReportFile(Paths.get(filePath));
+                }
                 deletedCount++;
             } catch (Exception e) {
                 log.error("Failed to cleanup report id: " + report.getId(), e);
@@ -116,24 +157,173 @@ public class ReportService {
         log.info("Report cleanup completed. Deleted {} reports.", deletedCount);
     }
 
-    private String saveFileToDisk(byte[] content, String prefix, String extension) {
+    /**
+     * Report cache: the same report with the same parameters against an
+     * unchanged ledger is the same document, so its stored file is handed out
+     * again (with a history entry of its own) instead of being rebuilt.
+     *
+     * The ledger version is read before any live report data, so a change
+     * made while a report is being written can only make its entry miss
+     * sooner; a ReportRun carries the version of its snapshot.
+     */
+    private Path generateReport(String title, String type, String format, String prefix,
+                                List<?> parameters, ReportData data, ReportContent content) throws IOException {
+        String cacheKey = cacheKey(type, format, title, parameters, data.ledgerVersion());
+
+        Optional<Path> cached = cachedReport(title, type, format, cacheKey);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        Path report = writeReportFile(prefix, "PDF".equals(format) ? "pdf" : "xlsx", content);
+        saveReportHistory(title, type, format, "READY", Files.size(report), report.toString(), cacheKey);
+        evictReportFiles(report);
+        return report;
+    }
+
+    /**
+     * The stored file of a READY entry with this key, if it is still there;
+     * handing it out records a history entry of its own
+     */
+    private Optional<Path> cachedReport(String title, String type, String format, String cacheKey) throws IOException {
+        Optional<ReportHistory> cached =
+                reportHistoryRepository.findFirstByCacheKeyAndStatusOrderByGeneratedDateDesc(cacheKey, "READY");
+        if (cached.isPresent() && cached.get().getFilePath() != null) {
+            Path file = Paths.get(cached.get().getFilePath());
+            if (Files.isReadable(file)) {
+                log.debug("{} {} served from cache: {}", title, format, file);
+                saveReportHistory(title, type, format, "READY", Files.size(file), file.toString(), cacheKey);
+                return Optional.of(file);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Generates reports and passes their stored files to use before anything
+     * can delete them. Stored files are shared through the report cache, and
+     * any report written meanwhile may evict them, so eviction is held back
+     * from before the files are looked up or written until use returns; use
+     * copies what it needs to keep. The eviction held back is done after.
+     */
+    public <T> T withReportFiles(ReportFiles generation, ReportFileUse<T> use) throws IOException {
+        Lock inUse = cacheLock.readLock();
+        inUse.lock();
+        T result;
         try {
-            Path storagePath = Paths.get(STORAGE_DIR);
-            if (!Files.exists(storagePath)) {
-                Files.createDirectories(storagePath);
+            result = use.accept(generation.generate());
+        } finally {
+            inUse.unlock();
+        }
+        evictReportFiles();
+        return result;
+    }
+
+    static String cacheKey(String type, String format, String title, List<?> parameters, long ledgerVersion) {
+        StringJoiner key = new StringJoiner("|");
+        key.add(type).add(format).add(String.valueOf(ledgerVersion));
+        parameters.forEach(parameter -> key.add(String.valueOf(parameter)));
+        key.add(title);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Keeps the stored reports under cacheMaxSize by deleting the least
+     * recently used files (never the ones just written). The history entries
+     * of a deleted file become EXPIRED, as after cleanupExpiredReports.
+     *
+     * Skipped while stored files are being handed out (withReportFiles), the
+     * generating thread's own included; the next report written, or the end
+     * of the hand-out, evicts instead.
+     */
+    private void evictReportFiles(Path... keep) {
+        Lock evicting = cacheLock.writeLock();
+        if (!evicting.tryLock()) {
+            log.debug("Report cache eviction deferred, stored reports are in use");
+            return;
+        }
+        List<String> kept = Arrays.stream(keep).map(Path::toString).toList();
+        try {
+            List<ReportFileUsageView> files = reportHistoryRepository.findReadyFilesByLastUse();
+            Map<String, Long> sizes = new LinkedHashMap<>();
+            long total = 0;
+            for (ReportFileUsageView usage : files) {
+                Path file = Paths.get(usage.getFilePath());
+                long size = Files.exists(file) ? Files.size(file) : 0;
+                sizes.put(usage.getFilePath(), size);
+                total += size;
             }
-            
-            String filename = prefix.replaceAll("[^a-zA-Z0-9.-]", "_") + "_" + UUID.randomUUID().toString().substring(0, 8) + "." + extension.toLowerCase();
-            Path filePath = storagePath.resolve(filename);
-            Files.write(filePath, content);
-            return filePath.toString();
-        } catch (IOException e) {
-            log.error("Failed to save report to disk", e);
-            return null;
+
+            long maxBytes = cacheMaxSize.toBytes();
+            for (Map.Entry<String, Long> file : sizes.entrySet()) {
+                if (total <= maxBytes) {
+                    break;
+                }
+                if (kept.contains(file.getKey())) {
+                    continue;
+                }
+                Files.deleteIfExists(Paths.get(file.getKey()));
+                List<ReportHistory> sharing = reportHistoryRepository.findByFilePath(file.getKey());
+                sharing.forEach(history -> {
+                    history.setStatus("EXPIRED");
+                    history.setFilePath(null);
+                });
+                reportHistoryRepository.saveAll(sharing);
+                total -= file.getValue();
+                log.info("Evicted cached report {} ({} bytes)", file.getKey(), file.getValue());
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Report cache eviction failed", e);
+        } finally {
+            evicting.unlock();
+        }
+    }
+
+    /**
+     * Deletes a stored file once no hand-out (withReportFiles) is using it
+     */
+    private void deleteReportFile(Path file) throws IOException {
+        Lock deleting = cacheLock.writeLock();
+        deleting.lock();
+        try {
+            Files.deleteIfExists(file);
+        } finally {
+            deleting.unlock();
+        }
+    }
+
+    /**
+     * Writes a report straight into the storage directory instead of building
+     * it in memory first; a partly written file is removed on failure
+     */
+    private Path writeReportFile(String prefix, String extension, ReportContent content) throws IOException {
+        Path filePath = newReportFile(prefix, extension);
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(filePath))) {
+            content.writeTo(out);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(filePath);
+            throw e;
+        }
+        return filePath;
+    }
+
+    private Path newReportFile(String prefix, String extension) throws IOException {
+        Path storagePath = Paths.get(storageDir);
+        if (!Files.exists(storagePath)) {
+            Files.createDirectories(storagePath);
         }
+
+        String filename = prefix.replaceAll("[^a-zA-Z0-9.-]", "_") + "_" + UUID.randomUUID().toString().substring(0, 8) + "." + extension.toLowerCase();
+        return storagePath.resolve(filename);
     }
 
-    private void saveReportHistory(String title, String type, String format, String status, int sizeBytes, String filePath) {
+    private void saveReportHistory(String title, String type, String format, String status, long sizeBytes,
+                                   String filePath, String cacheKey) {
         String size;
         if (sizeBytes > 1024 * 1024) {
             size = String.format("%.2f MB", sizeBytes / (1024.0 * 1024.0));
@@ -148,223 +338,243 @@ public class ReportService {
                 .status(status)
                 .size(size)
                 .filePath(filePath)
+                .cacheKey(cacheKey)
                 .build();
 
         reportHistoryRepository.save(history);
     }
 
+    // Reports read live data by default; the overloads taking ReportData
+    // render from a ReportRun, so several reports share one snapshot.
+
     // ============ TRANSACTION REPORTS ============
 
-    public byte[] generateTransactionReportPdf(LocalDate startDate, LocalDate endDate, Long itemId, String title) {
+    public Path generateTransactionReportPdf(LocalDate startDate, LocalDate endDate, Long itemId, String title) {
+        return generateTransactionReportPdf(liveData, startDate, endDate, itemId, title);
+    }
+
+    public Path generateTransactionReportPdf(ReportData data, LocalDate startDate, LocalDate endDate, Long itemId, String title) {
         try {
             String reportTitle = (title != null && !title.isEmpty()) ? title : "Complete Transaction History";
-            List<StockTransactionDTO> transactions = getFilteredTransactions(startDate, endDate, itemId, null);
-            byte[] report = createTransactionPdfReport(transactions, reportTitle, startDate, endDate);
-            
-            String filePath = saveFileToDisk(report, "Transaction_Report", "pdf");
-            saveReportHistory(reportTitle, "TRANSACTION", "PDF", "READY", report.length, filePath);
-            
-            return report;
+            TransactionFilter filter = transactionFilter(startDate, endDate, itemId, null, null);
+            return generateReport(reportTitle, "TRANSACTION", "PDF", "Transaction_Report", Arrays.asList(startDate, endDate, itemId), data,
+                    out -> writeTransactionPdfReport(data, filter, reportTitle, startDate, endDate, out));
         } catch (Exception e) {
             log.error("Error generating transaction PDF report", e);
-            saveReportHistory(title != null ? title : "Complete Transaction History", "TRANSACTION", "PDF", "FAILED", 0, null);
+            saveReportHistory(title != null ? title : "Complete Transaction History", "TRANSACTION", "PDF", "FAILED", 0, null, null);
             throw new ReportGenerationException("Failed to generate transaction PDF report", e);
         }
     }
 
-    public byte[] generateTransactionReportExcel(LocalDate startDate, LocalDate endDate, Long itemId, String title) {
+    public Path generateTransactionReportExcel(LocalDate startDate, LocalDate endDate, Long itemId, String title) {
+        return generateTransactionReportExcel(liveData, startDate, endDate, itemId, title);
+    }
+
+    public Path generateTransactionReportExcel(ReportData data, LocalDate startDate, LocalDate endDate, Long itemId, String title) {
         try {
             String reportTitle = (title != null && !title.isEmpty()) ? title : "Complete Transaction History";
-            List<StockTransactionDTO> transactions = getFilteredTransactions(startDate, endDate, itemId, null);
-            byte[] report = createTransactionExcelReport(transactions, reportTitle, startDate, endDate, itemId);
-            
-            String filePath = saveFileToDisk(report, "Transaction_Report", "xlsx");
-            saveReportHistory(reportTitle, "TRANSACTION", "EXCEL", "READY", report.length, filePath);
-            
-            return report;
+            TransactionFilter filter = transactionFilter(startDate, endDate, itemId, null, null);
+            return generateReport(reportTitle, "TRANSACTION", "EXCEL", "Transaction_Report", Arrays.asList(startDate, endDate, itemId), data,
+                    out -> writeTransactionExcelReport(data, filter, reportTitle, startDate, endDate, itemId, out));
         } catch (Exception e) {
             log.error("Error generating transaction Excel report", e);
-            saveReportHistory(title != null ? title : "Complete Transaction History", "TRANSACTION", "EXCEL", "FAILED", 0, null);
+            saveReportHistory(title != null ? title : "Complete Transaction History", "TRANSACTION", "EXCEL", "FAILED", 0, null, null);
             throw new ReportGenerationException("Failed to generate transaction Excel report", e);
         }
     }
 
+    /**
+     * The PDF and the Excel of one transaction report from a single read of
+     * the ledger: every row goes to both writers as the cursor returns it.
+     * A format already in the report cache is served from there; if only one
+     * is, the other is written on its own.
+     */
+    public TransactionReports generateTransactionReports(ReportData data, LocalDate startDate, LocalDate endDate,
+                                                         Long itemId, String title) {
+        String reportTitle = (title != null && !title.isEmpty()) ? title : "Complete Transaction History";
+        try {
+            TransactionFilter filter = transactionFilter(startDate, endDate, itemId, null, null);
+            List<?> parameters = Arrays.asList(startDate, endDate, itemId);
+            long ledgerVersion = data.ledgerVersion();
+            String pdfKey = cacheKey("TRANSACTION", "PDF", reportTitle, parameters, ledgerVersion);
+            String excelKey = cacheKey("TRANSACTION", "EXCEL", reportTitle, parameters, ledgerVersion);
+
+            Optional<Path> pdf = cachedReport(reportTitle, "TRANSACTION", "PDF", pdfKey);
+            Optional<Path> excel = cachedReport(reportTitle, "TRANSACTION", "EXCEL", excelKey);
+            if (pdf.isPresent() || excel.isPresent()) {
+                return new TransactionReports(
+                        pdf.isPresent() ? pdf.get() : generateTransactionReportPdf(data, startDate, endDate, itemId, title),
+                        excel.isPresent() ? excel.get() : generateTransactionReportExcel(data, startDate, endDate, itemId, title));
+            }
+
+            Path pdfFile = newReportFile("Transaction_Report", "pdf");
+            Path excelFile = newReportFile("Transaction_Report", "xlsx");
+            try (OutputStream pdfOut = new BufferedOutputStream(Files.newOutputStream(pdfFile));
+                 OutputStream excelOut = new BufferedOutputStream(Files.newOutputStream(excelFile))) {
+                writeTransactionReports(data, filter, reportTitle, startDate, endDate, itemId, pdfOut, excelOut);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(pdfFile);
+                Files.deleteIfExists(excelFile);
+                throw e;
+            }
+            saveReportHistory(reportTitle, "TRANSACTION", "PDF", "READY", Files.size(pdfFile), pdfFile.toString(), pdfKey);
+            saveReportHistory(reportTitle, "TRANSACTION", "EXCEL", "READY", Files.size(excelFile), excelFile.toString(), excelKey);
+            evictReportFiles(pdfFile, excelFile);
+            return new TransactionReports(pdfFile, excelFile);
+        } catch (ReportGenerationException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Error generating transaction PDF and Excel reports", e);
+            saveReportHistory(reportTitle, "TRANSACTION", "PDF", "FAILED", 0, null, null);
+            saveReportHistory(reportTitle, "TRANSACTION", "EXCEL", "FAILED", 0, null, null);
+            throw new ReportGenerationException("Failed to generate transaction reports", e);
+        }
+    }
+
     // ============ STOCK IN REPORTS ============
 
-    public byte[] generateStockInReportPdf(LocalDate startDate, LocalDate endDate, Long supplierId) {
+    public Path generateStockInReportPdf(LocalDate startDate, LocalDate endDate, Long supplierId) {
         try {
-            List<StockTransactionDTO> transactions = getFilteredTransactions(startDate, endDate, null, TransactionType.IN);
-            if (supplierId != null) {
-                transactions = transactions.stream()
-                        .filter(t -> supplierId.equals(t.getSupplierId()))
-                        .collect(Collectors.toList());
-            }
-            byte[] report = createTransactionPdfReport(transactions, "Stock IN Report", startDate, endDate);
-            
-            String filePath = saveFileToDisk(report, "Stock_IN_Report", "pdf");
-            saveReportHistory("Stock IN Report", "STOCK_IN", "PDF", "READY", report.length, filePath);
-            
-            return report;
+            TransactionFilter filter = transactionFilter(startDate, endDate, null, TransactionType.IN, supplierId);
+            return generateReport("Stock IN Report", "STOCK_IN", "PDF", "Stock_IN_Report", Arrays.asList(startDate, endDate, supplierId), liveData,
+                    out -> writeTransactionPdfReport(liveData, filter, "Stock IN Report", startDate, endDate, out));
         } catch (Exception e) {
             log.error("Error generating stock-in PDF report", e);
-            saveReportHistory("Stock IN Report", "STOCK_IN", "PDF", "FAILED", 0, null);
+            saveReportHistory("Stock IN Report", "STOCK_IN", "PDF", "FAILED", 0, null, null);
             throw new ReportGenerationException("Failed to generate stock-in PDF report", e);
         }
     }
 
-    public byte[] generateStockInReportExcel(LocalDate startDate, LocalDate endDate, Long supplierId) {
+    public Path generateStockInReportExcel(LocalDate startDate, LocalDate endDate, Long supplierId) {
         try {
-            List<StockTransactionDTO> transactions = getFilteredTransactions(startDate, endDate, null, TransactionType.IN);
-            if (supplierId != null) {
-                transactions = transactions.stream()
-                        .filter(t -> supplierId.equals(t.getSupplierId()))
-                        .collect(Collectors.toList());
-            }
-            byte[] report = createTransactionExcelReport(transactions, "Stock IN Report", startDate, endDate, null);
-            
-            String filePath = saveFileToDisk(report, "Stock_IN_Report", "xlsx");
-            saveReportHistory("Stock IN Report", "STOCK_IN", "EXCEL", "READY", report.length, filePath);
-            
-            return report;
+            TransactionFilter filter = transactionFilter(startDate, endDate, null, TransactionType.IN, supplierId);
+            return generateReport("Stock IN Report", "STOCK_IN", "EXCEL", "Stock_IN_Report", Arrays.asList(startDate, endDate, supplierId), liveData,
+                    out -> writeTransactionExcelReport(liveData, filter, "Stock IN Report", startDate, endDate, null, out));
         } catch (Exception e) {
             log.error("Error generating stock-in Excel report", e);
-            saveReportHistory("Stock IN Report", "STOCK_IN", "EXCEL", "FAILED", 0, null);
+            saveReportHistory("Stock IN Report", "STOCK_IN", "EXCEL", "FAILED", 0, null, null);
             throw new ReportGenerationException("Failed to generate stock-in Excel report", e);
         }
     }
 
     // ============ STOCK OUT REPORTS ============
 
-    public byte[] generateStockOutReportPdf(LocalDate startDate, LocalDate endDate) {
+    public Path generateStockOutReportPdf(LocalDate startDate, LocalDate endDate) {
         try {
-            List<StockTransactionDTO> transactions = getFilteredTransactions(startDate, endDate, null, TransactionType.OUT);
-            byte[] report = createTransactionPdfReport(transactions, "Stock OUT Report", startDate, endDate);
-            
-            String filePath = saveFileToDisk(report, "Stock_OUT_Report", "pdf");
-            saveReportHistory("Stock OUT Report", "STOCK_OUT", "PDF", "READY", report.length, filePath);
-            
-            return report;
+            TransactionFilter filter = transactionFilter(startDate, endDate, null, TransactionType.OUT, null);
+            return generateReport("Stock OUT Report", "STOCK_OUT", "PDF", "Stock_OUT_Report", Arrays.asList(startDate, endDate), liveData,
+                    out -> writeTransactionPdfReport(liveData, filter, "Stock OUT Report", startDate, endDate, out));
         } catch (Exception e) {
             log.error("Error generating stock-out PDF report", e);
-            saveReportHistory("Stock OUT Report", "STOCK_OUT", "PDF", "FAILED", 0, null);
+            saveReportHistory("Stock OUT Report", "STOCK_OUT", "PDF", "FAILED", 0, null, null);
             throw new ReportGenerationException("Failed to generate stock-out PDF report", e);
         }
     }
 
-    public byte[] generateStockOutReportExcel(LocalDate startDate, LocalDate endDate) {
+    public Path generateStockOutReportExcel(LocalDate startDate, LocalDate endDate) {
         try {
-            List<StockTransactionDTO> transactions = getFilteredTransactions(startDate, endDate, null, TransactionType.OUT);
-            byte[] report = createTransactionExcelReport(transactions, "Stock OUT Report", startDate, endDate, null);
-            
-            String filePath = saveFileToDisk(report, "Stock_OUT_Report", "xlsx");
-            saveReportHistory("Stock OUT Report", "STOCK_OUT", "EXCEL", "READY", report.length, filePath);
-            
-            return report;
+            TransactionFilter filter = transactionFilter(startDate, endDate, null, TransactionType.OUT, null);
+            return generateReport("Stock OUT Report", "STOCK_OUT", "EXCEL", "Stock_OUT_Report", Arrays.asList(startDate, endDate), liveData,
+                    out -> writeTransactionExcelReport(liveData, filter, "Stock OUT Report", startDate, endDate, null, out));
         } catch (Exception e) {
             log.error("Error generating stock-out Excel report", e);
-            saveReportHistory("Stock OUT Report", "STOCK_OUT", "EXCEL", "FAILED", 0, null);
+            saveReportHistory("Stock OUT Report", "STOCK_OUT", "EXCEL", "FAILED", 0, null, null);
             throw new ReportGenerationException("Failed to generate stock-out Excel report", e);
         }
     }
 
     // ============ BALANCE REPORTS ============
 
-    public byte[] generateBalanceReportPdf() {
+    public Path generateBalanceReportPdf() {
+        return generateBalanceReportPdf(liveData);
+    }
+
+    public Path generateBalanceReportPdf(ReportData data) {
         try {
-            List<StockBalanceDTO> balances = balanceService.getAllBalances();
-            byte[] report = createBalancePdfReport(balances);
-            
-            String filePath = saveFileToDisk(report, "Stock_Balance_Report", "pdf");
-            saveReportHistory("Stock Balance Report", "BALANCE", "PDF", "READY", report.length, filePath);
-            
-            return report;
+            return generateReport("Stock Balance Report", "BALANCE", "PDF", "Stock_Balance_Report", List.of(), data,
+                    out -> writeBalancePdfReport(data.balances(), out));
         } catch (Exception e) {
             log.error("Error generating balance PDF report", e);
-            saveReportHistory("Stock Balance Report", "BALANCE", "PDF", "FAILED", 0, null);
+            saveReportHistory("Stock Balance Report", "BALANCE", "PDF", "FAILED", 0, null, null);
             throw new ReportGenerationException("Failed to generate balance PDF report", e);
         }
     }
 
-    public byte[] generateBalanceReportExcel() {
+    public Path generateBalanceReportExcel() {
+        return generateBalanceReportExcel(liveData);
+    }
+
+    public Path generateBalanceReportExcel(ReportData data) {
         try {
-            List<StockBalanceDTO> balances = balanceService.getAllBalances();
-            byte[] report = createBalanceExcelReport(balances);
-            
-            String filePath = saveFileToDisk(report, "Stock_Balance_Report", "xlsx");
-            saveReportHistory("Stock Balance Report", "BALANCE", "EXCEL", "READY", report.length, filePath);
-            
-            return report;
+            return generateReport("Stock Balance Report", "BALANCE", "EXCEL", "Stock_Balance_Report", List.of(), data,
+                    out -> writeBalanceExcelReport(data.balances(), out));
         } catch (Exception e) {
             log.error("Error generating balance Excel report", e);
-            saveReportHistory("Stock Balance Report", "BALANCE", "EXCEL", "FAILED", 0, null);
+            saveReportHistory("Stock Balance Report", "BALANCE", "EXCEL", "FAILED", 0, null, null);
             throw new ReportGenerationException("Failed to generate balance Excel report", e);
         }
     }
 
     // ============ LOW STOCK REPORTS ============
 
-    public byte[] generateLowStockReportPdf() {
+    public Path generateLowStockReportPdf() {
+        return generateLowStockReportPdf(liveData);
+    }
+
+    public Path generateLowStockReportPdf(ReportData data) {
         try {
-            List<StockBalanceDTO> lowStockItems = balanceService.getLowStockItems();
-            byte[] report = createLowStockPdfReport(lowStockItems);
-            
-            String filePath = saveFileToDisk(report, "Low_Stock_Report", "pdf");
-            saveReportHistory("Low Stock Report", "LOW_STOCK", "PDF", "READY", report.length, filePath);
-            
-            return report;
+            return generateReport("Low Stock Report", "LOW_STOCK", "PDF", "Low_Stock_Report", List.of(), data,
+                    out -> writeLowStockPdfReport(data.lowStockItems(), out));
         } catch (Exception e) {
             log.error("Error generating low stock PDF report", e);
-            saveReportHistory("Low Stock Report", "LOW_STOCK", "PDF", "FAILED", 0, null);
+            saveReportHistory("Low Stock Report", "LOW_STOCK", "PDF", "FAILED", 0, null, null);
             throw new ReportGenerationException("Failed to generate low stock PDF report", e);
         }
     }
 
-    public byte[] generateLowStockReportExcel() {
+    public Path generateLowStockReportExcel() {
+        return generateLowStockReportExcel(liveData);
+    }
+
+    public Path generateLowStockReportExcel(ReportData data) {
         try {
-            List<StockBalanceDTO> lowStockItems = balanceService.getLowStockItems();
-            byte[] report = createLowStockExcelReport(lowStockItems);
-            
-            String filePath = saveFileToDisk(report, "Low_Stock_Report", "xlsx");
-            saveReportHistory("Low Stock Report", "LOW_STOCK", "EXCEL", "READY", report.length, filePath);
-            
-            return report;
+            return generateReport("Low Stock Report", "LOW_STOCK", "EXCEL", "Low_Stock_Report", List.of(), data,
+                    out -> writeLowStockExcelReport(data.lowStockItems(), out));
         } catch (Exception e) {
             log.error("Error generating low stock Excel report", e);
-            saveReportHistory("Low Stock Report", "LOW_STOCK", "EXCEL", "FAILED", 0, null);
+            saveReportHistory("Low Stock Report", "LOW_STOCK", "EXCEL", "FAILED", 0, null, null);
             throw new ReportGenerationException("Failed to generate low stock Excel report", e);
         }
     }
 
     // ============ SUPPLIER REPORTS ============
 
-    public byte[] generateSupplierReportPdf() {
+    public Path generateSupplierReportPdf() {
+        return generateSupplierReportPdf(liveData);
+    }
+
+    public Path generateSupplierReportPdf(ReportData data) {
         try {
-            List<SupplierDTO> suppliers = supplierService.getAllActiveSuppliers();
-            byte[] report = createSupplierPdfReport(suppliers);
-            
-            String filePath = saveFileToDisk(report, "Supplier_Report", "pdf");
-            saveReportHistory("Supplier Report", "SUPPLIER", "PDF", "READY", report.length, filePath);
-            
-            return report;
+            return generateReport("Supplier Report", "SUPPLIER", "PDF", "Supplier_Report", List.of(), data,
+                    out -> writeSupplierPdfReport(data.activeSuppliers(), out));
         } catch (Exception e) {
             log.error("Error generating supplier PDF report", e);
-            saveReportHistory("Supplier Report", "SUPPLIER", "PDF", "FAILED", 0, null);
+            saveReportHistory("Supplier Report", "SUPPLIER", "PDF", "FAILED", 0, null, null);
             throw new ReportGenerationException("Failed to generate supplier PDF report", e);
         }
     }
 
-    public byte[] generateSupplierReportExcel() {
+    public Path generateSupplierReportExcel() {
+        return generateSupplierReportExcel(liveData);
+    }
+
+    public Path generateSupplierReportExcel(ReportData data) {
         try {
-            List<SupplierDTO> suppliers = supplierService.getAllActiveSuppliers();
-            byte[] report = createSupplierExcelReport(suppliers);
-            
-            String filePath = saveFileToDisk(report, "Supplier_Report", "xlsx");
-            saveReportHistory("Supplier Report", "SUPPLIER", "EXCEL", "READY", report.length, filePath);
-            
-            return report;
+            return generateReport("Supplier Report", "SUPPLIER", "EXCEL", "Supplier_Report", List.of(), data,
+                    out -> writeSupplierExcelReport(data.activeSuppliers(), out));
         } catch (Exception e) {
             log.error("Error generating supplier Excel report", e);
-            saveReportHistory("Supplier Report", "SUPPLIER", "EXCEL", "FAILED", 0, null);
+            saveReportHistory("Supplier Report", "SUPPLIER", "EXCEL", "FAILED", 0, null, null);
             throw new ReportGenerationException("Failed to generate supplier Excel report", e);
         }
     }
@@ -394,67 +604,127 @@ public class ReportService {
 
     // ============ HELPER METHODS ============
 
-    private List<StockTransactionDTO> getFilteredTransactions(
+    /**
+     * The filter of a transaction report; a ReportRun for that report must be
+     * loaded with the same filter
+     */
+    static TransactionFilter transactionFilter(
             LocalDate startDate,
             LocalDate endDate,
             Long itemId,
-            TransactionType type
+            TransactionType type,
+            Long supplierId
     ) {
-        List<StockTransactionDTO> transactions = transactionService.getAllTransactions();
-
-        return transactions.stream()
-                .filter(t -> startDate == null || !t.getTransactionDate().isBefore(startDate))
-                .filter(t -> endDate == null || !t.getTransactionDate().isAfter(endDate))
-                .filter(t -> itemId == null || itemId.equals(t.getItemId()))
-                .filter(t -> type == null || type.equals(t.getTransactionType()))
-                .sorted(Comparator.comparing(StockTransactionDTO::getTransactionDate).reversed())
-                .collect(Collectors.toList());
+        return TransactionFilter.builder()
+                .startDate(startDate)
+                .endDate(endDate)
+                .itemIds(itemId != null ? List.of(itemId) : null)
+                .type(type)
+                .supplierId(supplierId)
+                .build();
     }
 
     // ============ TRANSACTION PDF REPORTS ============
 
-    private byte[] createTransactionPdfReport(
-            List<StockTransactionDTO> transactions,
+    private void writeTransactionPdfReport(
+            ReportData data,
+            TransactionFilter filter,
             String reportTitle,
             LocalDate startDate,
-            LocalDate endDate
-    ) throws DocumentException, IOException {
-        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-            Document document = new Document(PageSize.A4.rotate());
-            PdfWriter writer = PdfWriter.getInstance(document, out);
-            writer.setPageEvent(new PageNumberFooter());
-            document.open();
+            LocalDate endDate,
+            OutputStream out
+    ) throws IOException {
+        TransactionPdfWriter pdf = new TransactionPdfWriter(reportTitle, startDate, endDate, out);
+        data.forEachTransaction(filter, pdf);
+        pdf.finish();
+    }
 
-            addHeaderImage(document);
-            addTitle(document, reportTitle);
-            addDateRangeInfo(document, startDate, endDate);
-            addTimestamp(document);
+    /**
+     * Both formats of a transaction report, fed from one pass over the rows
+     */
+    private void writeTransactionReports(
+            ReportData data,
+            TransactionFilter filter,
+            String reportTitle,
+            LocalDate startDate,
+            LocalDate endDate,
+            Long itemId,
+            OutputStream pdfOut,
+            OutputStream excelOut
+    ) throws IOException {
+        TransactionPdfWriter pdf = new TransactionPdfWriter(reportTitle, startDate, endDate, pdfOut);
+        try (TransactionExcelWriter excel = new TransactionExcelWriter(reportTitle, startDate, endDate, itemId)) {
+            data.forEachTransaction(filter, tx -> {
+                pdf.accept(tx);
+                excel.accept(tx);
+            });
+            pdf.finish();
+            excel.finish(excelOut);
+        }
+    }
 
-            if (transactions.isEmpty()) {
-                addNoDataMessage(document);
-            } else {
-                PdfPTable table = createTransactionPdfTable(transactions);
-                document.add(table);
-                addSummaryStats(document, transactions);
+    /**
+     * Rows are streamed from the database into the table, and the table is
+     * written to the document every PDF_ROWS_PER_FLUSH rows (a PdfPTable marked
+     * incomplete drops the rows it has already laid out), so neither the rows
+     * nor the table grow with the size of the report.
+     */
+    private class TransactionPdfWriter implements RowSink<StockTransactionDTO> {
+
+        private final Document document;
+        private final PdfPTable table;
+        private final TransactionSummary summary = new TransactionSummary();
+        private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DATE_FORMAT);
+
+        TransactionPdfWriter(String reportTitle, LocalDate startDate, LocalDate endDate, OutputStream out) throws IOException {
+            document = openPdfDocument(PageSize.A4.rotate(), out);
+            try {
+                addHeaderImage(document);
+                addTitle(document, reportTitle);
+                addDateRangeInfo(document, startDate, endDate);
+                addTimestamp(document);
+
+                table = createTransactionPdfTable();
+            } catch (DocumentException e) {
+                throw new IOException("Failed to write transaction PDF", e);
+            }
+        }
+
+        @Override
+        public void accept(StockTransactionDTO tx) throws IOException {
+            addTransactionPdfDataRow(table, tx, formatter);
+            summary.add(tx);
+            if (summary.total % PDF_ROWS_PER_FLUSH == 0) {
+                addToDocument(document, table);
             }
+        }
 
+        void finish() throws IOException {
+            try {
+                if (summary.total == 0) {
+                    addNoDataMessage(document);
+                } else {
+                    table.setComplete(true);
+                    document.add(table);
+                    addSummaryStats(document, summary);
+                }
+            } catch (DocumentException e) {
+                throw new IOException("Failed to write transaction PDF", e);
+            }
             document.close();
-            return out.toByteArray();
         }
     }
 
-    private PdfPTable createTransactionPdfTable(List<StockTransactionDTO> transactions) throws DocumentException {
+    private PdfPTable createTransactionPdfTable() throws DocumentException {
         PdfPTable table = new PdfPTable(9);
         table.setWidthPercentage(100);
         // Date, Ref, Item, Unit, In, Out, Balance, Source/Dest, Remarks
         table.setWidths(new float[]{3, 3, 4, 2, 2, 2, 2, 4, 4});
 
         addTransactionPdfTableHeader(table);
-
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DATE_FORMAT);
-        for (StockTransactionDTO tx : transactions) {
-            addTransactionPdfDataRow(table, tx, formatter);
-        }
+        // Header repeats on every page and survives partial writes of the table
+        table.setHeaderRows(1);
+        table.setComplete(false);
 
         return table;
     }
@@ -522,53 +792,69 @@ public class ReportService {
 
     // ============ TRANSACTION EXCEL REPORTS ============
 
-    private byte[] createTransactionExcelReport(
-            List<StockTransactionDTO> transactions,
+    private void writeTransactionExcelReport(
+            ReportData data,
+            TransactionFilter filter,
             String reportTitle,
             LocalDate startDate,
             LocalDate endDate,
-            Long itemId
+            Long itemId,
+            OutputStream out
     ) throws IOException {
-        try (XSSFWorkbook workbook = new XSSFWorkbook();
-             ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+        try (TransactionExcelWriter excel = new TransactionExcelWriter(reportTitle, startDate, endDate, itemId)) {
+            data.forEachTransaction(filter, excel);
+            excel.finish(out);
+        }
+    }
+
+    private class TransactionExcelWriter implements RowSink<StockTransactionDTO>, Closeable {
+
+        private final ExcelTableWriter writer = new ExcelTableWriter("Transactions", TRANSACTION_EXCEL_HEADERS);
+        private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DATE_FORMAT);
+        private final int headerRow;
 
-            Sheet sheet = workbook.createSheet("Transactions");
+        TransactionExcelWriter(String reportTitle, LocalDate startDate, LocalDate endDate, Long itemId) {
+            Workbook workbook = writer.getWorkbook();
+            Sheet sheet = writer.getSheet();
 
             addExcelHeaderImage(workbook, sheet);
             addExcelTitle(workbook, sheet, reportTitle, 4); // Writes to 4 and 5
 
-            int headerRow = 6;
-            
+            int row = 6;
+
             // Add Item Details if specific item selected (Stock Card style)
             if (itemId != null) {
                 Optional<Item> itemOpt = itemRepository.findById(itemId);
                 if (itemOpt.isPresent()) {
-                    addExcelItemDetails(workbook, sheet, itemOpt.get(), headerRow);
-                    headerRow += 4; // Shift down
+                    addExcelItemDetails(workbook, sheet, itemOpt.get(), row);
+                    row += 4; // Shift down
                 }
             }
 
             if (startDate != null && endDate != null) {
-                addExcelDateRange(workbook, sheet, startDate, endDate, headerRow);
-                headerRow += 1;
-            } else {
-                 // If no date range, just add a small spacer or title row if needed.
-                 // Current logic assumes date range usually exists. 
-                 // If not, we just proceed.
+                addExcelDateRange(workbook, sheet, startDate, endDate, row);
+                row += 1;
             }
 
-            createTransactionExcelHeader(workbook, sheet, headerRow);
+            headerRow = row;
+            writer.startTable(headerRow, createHeaderCellStyle(workbook));
+        }
 
-            if (transactions.isEmpty()) {
-                addExcelNoDataMessage(workbook, sheet, headerRow + 1);
-            } else {
-                populateTransactionExcelData(sheet, transactions, headerRow + 1);
-            }
+        @Override
+        public void accept(StockTransactionDTO tx) {
+            writeTransactionExcelRow(writer, tx, formatter);
+        }
 
-            autoSizeColumns(sheet, 9);
+        void finish(OutputStream out) throws IOException {
+            if (writer.getDataRows() == 0) {
+                addExcelNoDataMessage(writer.getWorkbook(), writer.getSheet(), headerRow + 1);
+            }
+            writer.writeTo(out);
+        }
 
-            workbook.write(out);
-            return out.toByteArray();
+        @Override
+        public void close() throws IOException {
+            writer.close();
         }
     }
 
@@ -600,113 +886,79 @@ public class ReportService {
         row3.createCell(1).setCellValue(item.getUnit());
     }
 
-    private void createTransactionExcelHeader(Workbook workbook, Sheet sheet, int rowNum) {
-        Row headerRow = sheet.createRow(rowNum);
-        String[] headers = {
-                "Date", "Ref No.", "Item Name", "Unit",
-                "Stock IN", "Stock OUT", "Balance",
-                "Source / Destination", "Remarks"
-        };
-
-        CellStyle headerStyle = createHeaderCellStyle(workbook);
+    private void writeTransactionExcelRow(ExcelTableWriter writer, StockTransactionDTO tx, DateTimeFormatter formatter) {
+        Row row = writer.nextRow();
 
-        for (int i = 0; i < headers.length; i++) {
-            Cell cell = headerRow.createCell(i);
-            cell.setCellValue(headers[i]);
-            cell.setCellStyle(headerStyle);
+        // 1. Date
+        writer.setCell(row, 0, tx.getTransactionDate().format(formatter));
+        
+        // 2. Reference
+        String reference = (tx.getReferenceNumber() != null && !tx.getReferenceNumber().isEmpty()) 
+                ? tx.getReferenceNumber() 
+                : "TX-" + tx.getId();
+        writer.setCell(row, 1, reference);
+        
+        // 3. Item Name
+        writer.setCell(row, 2, tx.getItemName());
+        
+        // 4. Unit
+        writer.setCell(row, 3, Optional.ofNullable(tx.getUnit()).orElse(DEFAULT_UNIT));
+        
+        // 5. Stock IN & 6. Stock OUT
+        if (tx.getTransactionType() == TransactionType.IN) {
+            writer.setCell(row, 4, tx.getQuantity()); // IN
+            writer.setCell(row, 5, "-"); // OUT
+        } else {
+            writer.setCell(row, 4, "-"); // IN
+            writer.setCell(row, 5, tx.getQuantity()); // OUT
         }
-    }
-
-    private void populateTransactionExcelData(Sheet sheet, List<StockTransactionDTO> transactions, int startRow) {
-        int rowNum = startRow;
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DATE_FORMAT);
-
-        for (StockTransactionDTO tx : transactions) {
-            Row row = sheet.createRow(rowNum++);
-
-            // 1. Date
-            row.createCell(0).setCellValue(tx.getTransactionDate().format(formatter));
-            
-            // 2. Reference
-            String reference = (tx.getReferenceNumber() != null && !tx.getReferenceNumber().isEmpty()) 
-                    ? tx.getReferenceNumber() 
-                    : "TX-" + tx.getId();
-            row.createCell(1).setCellValue(reference);
-            
-            // 3. Item Name
-            row.createCell(2).setCellValue(tx.getItemName());
-            
-            // 4. Unit
-            row.createCell(3).setCellValue(Optional.ofNullable(tx.getUnit()).orElse(DEFAULT_UNIT));
-            
-            // 5. Stock IN & 6. Stock OUT
-            if (tx.getTransactionType() == TransactionType.IN) {
-                row.createCell(4).setCellValue(tx.getQuantity()); // IN
-                row.createCell(5).setCellValue("-"); // OUT
-            } else {
-                row.createCell(4).setCellValue("-"); // IN
-                row.createCell(5).setCellValue(tx.getQuantity()); // OUT
-            }
-            
-            // 7. Balance
-            row.createCell(6).setCellValue(tx.getBalanceAfter());
-            
-            // 8. Source / Destination
-            String sourceOrDest = PLACEHOLDER;
-            if (tx.getTransactionType() == TransactionType.IN) {
-                sourceOrDest = Optional.ofNullable(tx.getSupplierName()).orElse("Internal Adjustment");
-            } else {
-                // For OUT transactions, try to get recipient from notes, otherwise default
-                sourceOrDest = (tx.getNotes() != null && !tx.getNotes().isEmpty()) ? tx.getNotes() : "Issued Out";
-            }
-            row.createCell(7).setCellValue(sourceOrDest);
-
-            // 9. Remarks
-            row.createCell(8).setCellValue(Optional.ofNullable(tx.getNotes()).orElse(PLACEHOLDER));
+        
+        // 7. Balance
+        writer.setCell(row, 6, tx.getBalanceAfter());
+        
+        // 8. Source / Destination
+        String sourceOrDest = PLACEHOLDER;
+        if (tx.getTransactionType() == TransactionType.IN) {
+            sourceOrDest = Optional.ofNullable(tx.getSupplierName()).orElse("Internal Adjustment");
+        } else {
+            // For OUT transactions, try to get recipient from notes, otherwise default
+            sourceOrDest = (tx.getNotes() != null && !tx.getNotes().isEmpty()) ? tx.getNotes() : "Issued Out";
         }
+        writer.setCell(row, 7, sourceOrDest);
+
+        // 9. Remarks
+        writer.setCell(row, 8, Optional.ofNullable(tx.getNotes()).orElse(PLACEHOLDER));
     }
 
     // ============ BALANCE PDF REPORTS ============
 
-    private byte[] createBalancePdfReport(List<StockBalanceDTO> balances) throws DocumentException, IOException {
-        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-            Document document = new Document(PageSize.A4);
-            PdfWriter writer = PdfWriter.getInstance(document, out);
-            writer.setPageEvent(new PageNumberFooter());
-            document.open();
+    private void writeBalancePdfReport(List<StockBalanceDTO> balances, OutputStream out) throws IOException {
+        writeBalancePdfReport(balances, "Current Stock Balance Report", out);
+    }
 
+    private void writeBalancePdfReport(List<StockBalanceDTO> balances, String reportTitle, OutputStream out) throws IOException {
+        Document document = openPdfDocument(PageSize.A4, out);
+        try {
             addHeaderImage(document);
-            addTitle(document, "Current Stock Balance Report");
+            addTitle(document, reportTitle);
             addTimestamp(document);
 
             if (balances.isEmpty()) {
                 addNoDataMessage(document);
             } else {
-                PdfPTable table = createBalancePdfTable(balances);
-                document.add(table);
+                addBalancePdfTable(document, balances);
             }
-
-            document.close();
-            return out.toByteArray();
+        } catch (DocumentException e) {
+            throw new IOException("Failed to write balance PDF", e);
         }
+        document.close();
     }
 
-    private PdfPTable createBalancePdfTable(List<StockBalanceDTO> balances) throws DocumentException {
-        PdfPTable table = new PdfPTable(5);
-        table.setWidthPercentage(100);
-        table.setWidths(new float[]{4, 3, 3, 3, 3});
-
-        String[] headers = {"Item Name", "Unit", "Current Stock", "Minimum Stock", "Status"};
-        for (String header : headers) {
-            PdfPCell cell = new PdfPCell(
-                    new Phrase(header, FontFactory.getFont(FontFactory.HELVETICA_BOLD, 10, Color.WHITE))
-            );
-            cell.setBackgroundColor(Color.DARK_GRAY);
-            cell.setHorizontalAlignment(Element.ALIGN_CENTER);
-            cell.setPadding(5);
-            table.addCell(cell);
-        }
+    private void addBalancePdfTable(Document document, List<StockBalanceDTO> balances) throws DocumentException, IOException {
+        PdfPTable table = createPdfTable(new float[]{4, 3, 3, 3, 3},
+                "Item Name", "Unit", "Current Stock", "Minimum Stock", "Status");
 
+        int rows = 0;
         for (StockBalanceDTO balance : balances) {
             addCell(table, balance.getItemName());
             addCell(table, Optional.ofNullable(balance.getUnit()).orElse(DEFAULT_UNIT));
@@ -719,52 +971,40 @@ public class ReportService {
             statusCell.setHorizontalAlignment(Element.ALIGN_CENTER);
             statusCell.setBackgroundColor(status.equals("LOW") ? Color.ORANGE : Color.GREEN);
             table.addCell(statusCell);
+
+            if (++rows % PDF_ROWS_PER_FLUSH == 0) {
+                addToDocument(document, table);
+            }
         }
 
-        return table;
+        table.setComplete(true);
+        document.add(table);
     }
 
     // ============ BALANCE EXCEL REPORTS ============
 
-    private byte[] createBalanceExcelReport(List<StockBalanceDTO> balances) throws IOException {
-        try (XSSFWorkbook workbook = new XSSFWorkbook();
-             ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-
-            Sheet sheet = workbook.createSheet("Stock Balance");
+    private void writeBalanceExcelReport(List<StockBalanceDTO> balances, OutputStream out) throws IOException {
+        try (ExcelTableWriter writer = new ExcelTableWriter("Stock Balance", BALANCE_EXCEL_HEADERS)) {
+            Workbook workbook = writer.getWorkbook();
+            Sheet sheet = writer.getSheet();
 
             addExcelHeaderImage(workbook, sheet);
-            addExcelTitle(workbook, sheet, "Current Stock Balance Report", 4);
+            addExcelTitle(workbook, sheet, "Current Stock Balance Report", 4); // Writes to 4 and 5
 
-            createBalanceExcelHeader(workbook, sheet, 5);
+            writer.startTable(6, createHeaderCellStyle(workbook));
 
             if (balances.isEmpty()) {
-                addExcelNoDataMessage(workbook, sheet, 6);
+                addExcelNoDataMessage(workbook, sheet, 7);
             } else {
-                populateBalanceExcelData(workbook, sheet, balances, 6);
+                populateBalanceExcelData(writer, balances);
             }
 
-            autoSizeColumns(sheet, 7);
-
-            workbook.write(out);
-            return out.toByteArray();
-        }
-    }
-
-    private void createBalanceExcelHeader(Workbook workbook, Sheet sheet, int rowNum) {
-        Row headerRow = sheet.createRow(rowNum);
-        String[] headers = {"SKU / ID", "Item Name", "Category", "Unit", "Current Stock", "Minimum Stock", "Status", "Last Updated"};
-
-        CellStyle headerStyle = createHeaderCellStyle(workbook);
-
-        for (int i = 0; i < headers.length; i++) {
-            Cell cell = headerRow.createCell(i);
-            cell.setCellValue(headers[i]);
-            cell.setCellStyle(headerStyle);
+            writer.writeTo(out);
         }
     }
 
-    private void populateBalanceExcelData(Workbook workbook, Sheet sheet, List<StockBalanceDTO> balances, int startRow) {
-        int rowNum = startRow;
+    private void populateBalanceExcelData(ExcelTableWriter writer, List<StockBalanceDTO> balances) {
+        Workbook workbook = writer.getWorkbook();
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DATE_FORMAT);
 
         CellStyle lowStockStyle = workbook.createCellStyle();
@@ -776,21 +1016,20 @@ public class ReportService {
         okStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
 
         for (StockBalanceDTO balance : balances) {
-            Row row = sheet.createRow(rowNum++);
+            Row row = writer.nextRow();
 
-            row.createCell(0).setCellValue("ITEM-" + balance.getItemId());
-            row.createCell(1).setCellValue(balance.getItemName());
-            row.createCell(2).setCellValue(Optional.ofNullable(balance.getCategory()).orElse("-"));
-            row.createCell(3).setCellValue(Optional.ofNullable(balance.getUnit()).orElse(DEFAULT_UNIT));
-            row.createCell(4).setCellValue(balance.getCurrentBalance());
-            row.createCell(5).setCellValue(balance.getMinimumStock());
+            writer.setCell(row, 0, "ITEM-" + balance.getItemId());
+            writer.setCell(row, 1, balance.getItemName());
+            writer.setCell(row, 2, Optional.ofNullable(balance.getCategory()).orElse("-"));
+            writer.setCell(row, 3, Optional.ofNullable(balance.getUnit()).orElse(DEFAULT_UNIT));
+            writer.setCell(row, 4, balance.getCurrentBalance());
+            writer.setCell(row, 5, balance.getMinimumStock());
 
             String status = balance.getCurrentBalance() <= balance.getMinimumStock() ? "LOW" : "OK";
-            Cell statusCell = row.createCell(6);
-            statusCell.setCellValue(status);
-            statusCell.setCellStyle(status.equals("LOW") ? lowStockStyle : okStyle);
+            writer.setCell(row, 6, status);
+            row.getCell(6).setCellStyle(status.equals("LOW") ? lowStockStyle : okStyle);
             
-            row.createCell(7).setCellValue(
+            writer.setCell(row, 7,
                 balance.getLastUpdated() != null ? balance.getLastUpdated().format(formatter) : "-"
             );
         }
@@ -798,42 +1037,19 @@ public class ReportService {
 
     // ============ LOW STOCK REPORTS ============
 
-    private byte[] createLowStockPdfReport(List<StockBalanceDTO> lowStockItems) throws DocumentException, IOException {
-        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-            Document document = new Document(PageSize.A4);
-            PdfWriter writer = PdfWriter.getInstance(document, out);
-            writer.setPageEvent(new PageNumberFooter());
-            document.open();
-
-            addHeaderImage(document);
-            addTitle(document, "Low Stock Report");
-            addTimestamp(document);
-
-            if (lowStockItems.isEmpty()) {
-                addNoDataMessage(document);
-            } else {
-                PdfPTable table = createBalancePdfTable(lowStockItems); // Reuse balance table
-                document.add(table);
-            }
-
-            document.close();
-            return out.toByteArray();
-        }
+    private void writeLowStockPdfReport(List<StockBalanceDTO> lowStockItems, OutputStream out) throws IOException {
+        writeBalancePdfReport(lowStockItems, "Low Stock Report", out); // Reuse balance table
     }
 
-    private byte[] createLowStockExcelReport(List<StockBalanceDTO> lowStockItems) throws IOException {
-        return createBalanceExcelReport(lowStockItems); // Reuse balance report structure
+    private void writeLowStockExcelReport(List<StockBalanceDTO> lowStockItems, OutputStream out) throws IOException {
+        writeBalanceExcelReport(lowStockItems, out); // Reuse balance report structure
     }
 
     // ============ SUPPLIER REPORTS ============
 
-    private byte[] createSupplierPdfReport(List<SupplierDTO> suppliers) throws DocumentException, IOException {
-        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-            Document document = new Document(PageSize.A4);
-            PdfWriter writer = PdfWriter.getInstance(document, out);
-            writer.setPageEvent(new PageNumberFooter());
-            document.open();
-
+    private void writeSupplierPdfReport(List<SupplierDTO> suppliers, OutputStream out) throws IOException {
+        Document document = openPdfDocument(PageSize.A4, out);
+        try {
             addHeaderImage(document);
             addTitle(document, "Supplier List Report");
             addTimestamp(document);
@@ -841,78 +1057,101 @@ public class ReportService {
             if (suppliers.isEmpty()) {
                 addNoDataMessage(document);
             } else {
-                PdfPTable table = createSupplierPdfTable(suppliers);
-                document.add(table);
+                addSupplierPdfTable(document, suppliers);
             }
-
-            document.close();
-            return out.toByteArray();
+        } catch (DocumentException e) {
+            throw new IOException("Failed to write supplier PDF", e);
         }
+        document.close();
     }
 
-    private PdfPTable createSupplierPdfTable(List<SupplierDTO> suppliers) throws DocumentException {
-        PdfPTable table = new PdfPTable(4);
-        table.setWidthPercentage(100);
-        table.setWidths(new float[]{3, 3, 3, 4});
-
-        String[] headers = {"Company Name", "Contact Person", "Phone", "Email"};
-        for (String header : headers) {
-            PdfPCell cell = new PdfPCell(
-                    new Phrase(header, FontFactory.getFont(FontFactory.HELVETICA_BOLD, 10, Color.WHITE))
-            );
-            cell.setBackgroundColor(Color.DARK_GRAY);
-            cell.setHorizontalAlignment(Element.ALIGN_CENTER);
-            cell.setPadding(5);
-            table.addCell(cell);
-        }
+    private void addSupplierPdfTable(Document document, List<SupplierDTO> suppliers) throws DocumentException, IOException {
+        PdfPTable table = createPdfTable(new float[]{3, 3, 3, 4},
+                "Company Name", "Contact Person", "Phone", "Email");
 
+        int rows = 0;
         for (SupplierDTO supplier : suppliers) {
             addCell(table, supplier.getName());
             addCell(table, supplier.getContactPerson());
             addCell(table, supplier.getPhone());
             addCell(table, supplier.getEmail());
+
+            if (++rows % PDF_ROWS_PER_FLUSH == 0) {
+                addToDocument(document, table);
+            }
         }
-        return table;
-    }
 
-    private byte[] createSupplierExcelReport(List<SupplierDTO> suppliers) throws IOException {
-        try (XSSFWorkbook workbook = new XSSFWorkbook();
-             ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+        table.setComplete(true);
+        document.add(table);
+    }
 
-            Sheet sheet = workbook.createSheet("Suppliers");
+    private void writeSupplierExcelReport(List<SupplierDTO> suppliers, OutputStream out) throws IOException {
+        try (ExcelTableWriter writer = new ExcelTableWriter("Suppliers", SUPPLIER_EXCEL_HEADERS)) {
+            Workbook workbook = writer.getWorkbook();
+            Sheet sheet = writer.getSheet();
 
             addExcelHeaderImage(workbook, sheet);
             addExcelTitle(workbook, sheet, "Active Suppliers Report", 4); // Writes to 4 and 5
 
-            Row headerRow = sheet.createRow(6); // Moved to 6
-            String[] headers = {"Company Name", "Contact Person", "Phone", "Email", "Items Supplied"};
-            CellStyle headerStyle = createHeaderCellStyle(workbook);
-
-            for (int i = 0; i < headers.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                cell.setCellStyle(headerStyle);
-            }
+            writer.startTable(6, createHeaderCellStyle(workbook));
 
-            int rowNum = 7; // Moved to 7
             for (SupplierDTO supplier : suppliers) {
-                Row row = sheet.createRow(rowNum++);
-                row.createCell(0).setCellValue(supplier.getName());
-                row.createCell(1).setCellValue(supplier.getContactPerson());
-                row.createCell(2).setCellValue(supplier.getPhone());
-                row.createCell(3).setCellValue(supplier.getEmail());
-                row.createCell(4).setCellValue(supplier.getItemsSupplied());
+                Row row = writer.nextRow();
+                writer.setCell(row, 0, supplier.getName());
+                writer.setCell(row, 1, supplier.getContactPerson());
+                writer.setCell(row, 2, supplier.getPhone());
+                writer.setCell(row, 3, supplier.getEmail());
+                writer.setCell(row, 4, supplier.getItemsSupplied());
             }
 
-            autoSizeColumns(sheet, 5);
-
-            workbook.write(out);
-            return out.toByteArray();
+            writer.writeTo(out);
         }
     }
 
     // ============ COMMON PDF HELPERS ============
 
+    /**
+     * Pages are written to out as they are completed; the caller owns (and
+     * closes) the stream
+     */
+    private Document openPdfDocument(Rectangle pageSize, OutputStream out) throws IOException {
+        Document document = new Document(pageSize);
+        try {
+            PdfWriter writer = PdfWriter.getInstance(document, out);
+            writer.setCloseStream(false);
+            writer.setPageEvent(new PageNumberFooter());
+        } catch (DocumentException e) {
+            throw new IOException("Failed to open PDF document", e);
+        }
+        document.open();
+        return document;
+    }
+
+    /**
+     * A table written in chunks: the header repeats on every page and the
+     * table stays incomplete until the last row, so each document.add(..)
+     * lays out and drops the rows added since the previous one
+     */
+    private PdfPTable createPdfTable(float[] widths, String... headers) throws DocumentException {
+        PdfPTable table = new PdfPTable(headers.length);
+        table.setWidthPercentage(100);
+        table.setWidths(widths);
+
+        for (String header : headers) {
+            PdfPCell cell = new PdfPCell(
+                    new Phrase(header, FontFactory.getFont(FontFactory.HELVETICA_BOLD, 10, Color.WHITE))
+            );
+            cell.setBackgroundColor(Color.DARK_GRAY);
+            cell.setHorizontalAlignment(Element.ALIGN_CENTER);
+            cell.setPadding(5);
+            table.addCell(cell);
+        }
+        table.setHeaderRows(1);
+        table.setComplete(false);
+
+        return table;
+    }
+
     private void addHeaderImage(Document document) {
         try {
             ClassPathResource imgFile = new ClassPathResource(HEADER_IMAGE_PATH);
@@ -981,19 +1220,24 @@ public class ReportService {
         document.add(message);
     }
 
-    private void addSummaryStats(Document document, List<StockTransactionDTO> transactions) throws DocumentException {
-        long inCount = transactions.stream().filter(t -> t.getTransactionType() == TransactionType.IN).count();
-        long outCount = transactions.stream().filter(t -> t.getTransactionType() == TransactionType.OUT).count();
-
+    private void addSummaryStats(Document document, TransactionSummary stats) throws DocumentException {
         Paragraph summary = new Paragraph(
                 String.format("\nSummary: Total Transactions: %d | Stock IN: %d | Stock OUT: %d",
-                        transactions.size(), inCount, outCount),
+                        stats.total, stats.in, stats.out),
                 FontFactory.getFont(FontFactory.HELVETICA_BOLD, 10)
         );
         summary.setSpacingBefore(15);
         document.add(summary);
     }
 
+    private void addToDocument(Document document, PdfPTable table) throws IOException {
+        try {
+            document.add(table);
+        } catch (DocumentException e) {
+            throw new IOException("Failed to write table rows to PDF", e);
+        }
+    }
+
     private void addCell(PdfPTable table, String text) {
         PdfPCell cell = new PdfPCell(new Phrase(text, FontFactory.getFont(FontFactory.HELVETICA, 9)));
         cell.setPadding(4);
@@ -1096,12 +1340,83 @@ public class ReportService {
         return headerStyle;
     }
 
-    private void autoSizeColumns(Sheet sheet, int columnCount) {
-        for (int i = 0; i < columnCount; i++) {
-            sheet.autoSizeColumn(i);
-            int currentWidth = sheet.getColumnWidth(i);
-            sheet.setColumnWidth(i, currentWidth + 1000);
+    /**
+     * Running counts for the summary line, kept while rows stream past
+     */
+    private static class TransactionSummary {
+        private long total;
+        private long in;
+        private long out;
+
+        void add(StockTransactionDTO tx) {
+            total++;
+            if (tx.getTransactionType() == TransactionType.IN) {
+                in++;
+            } else if (tx.getTransactionType() == TransactionType.OUT) {
+                out++;
+            }
+        }
+    }
+
+    /**
+     * Reads straight from the services, each call its own query
+     */
+    private class LiveReportData implements ReportData {
+
+        @Override
+        public long ledgerVersion() {
+            return reportHistoryRepository.findLedgerVersion();
         }
+
+        @Override
+        public long forEachTransaction(TransactionFilter filter, RowSink<? super StockTransactionDTO> sink) throws IOException {
+            return transactionService.forEachTransaction(filter, sink);
+        }
+
+        @Override
+        public List<StockBalanceDTO> balances() {
+            return balanceService.getAllBalances();
+        }
+
+        @Override
+        public List<StockBalanceDTO> lowStockItems() {
+            return balanceService.getLowStockItems();
+        }
+
+        @Override
+        public List<SupplierDTO> activeSuppliers() {
+            return supplierService.getAllActiveSuppliers();
+        }
+    }
+
+    /**
+     * Report body written to the storage file as it is produced
+     */
+    @FunctionalInterface
+    private interface ReportContent {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * The two files of generateTransactionReports
+     */
+    public record TransactionReports(Path pdf, Path excel) {
+    }
+
+    /**
+     * A report generation, returning its stored files by name
+     */
+    @FunctionalInterface
+    public interface ReportFiles {
+        Map<String, Path> generate() throws IOException;
+    }
+
+    /**
+     * What the caller of withReportFiles does with the stored files
+     */
+    @FunctionalInterface
+    public interface ReportFileUse<T> {
+        T accept(Map<String, Path> files) throws IOException;
     }
 
     public static class ReportGenerationException extends RuntimeException {
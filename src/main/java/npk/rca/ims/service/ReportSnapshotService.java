@@ -0,0 +1,70 @@
+package npk.rca.ims.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import npk.rca.ims.config.Workload;
+import npk.rca.ims.config.WorkloadType;
+import npk.rca.ims.repository.ReportHistoryRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+
+/**
+ * ReportSnapshotService - Loads the data of a ReportRun
+ *
+ * The ledger version that keys the report cache, the balances, the
+ * suppliers and the transaction rows are all read in one REPEATABLE READ
+ * transaction, so they come from the same snapshot, and the balances and
+ * suppliers are read once however many reports use them. The rows are
+ * streamed while the reports are written, so the transaction lasts until
+ * the work given the run returns.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Workload(WorkloadType.REPORTING)
+public class ReportSnapshotService {
+
+    private final StockTransactionService transactionService;
+    private final StockBalanceService balanceService;
+    private final SupplierService supplierService;
+    private final ReportHistoryRepository reportHistoryRepository;
+
+    /**
+     * Loads a run and hands it to work inside the snapshot transaction.
+     * The run's lists can be read from any thread, then and after; its
+     * transaction rows only on this thread before work returns, as the
+     * transaction is bound to it (any other read would see later rows).
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public <T> T snapshot(ReportRun.Scope scope, SnapshotWork<T> work) throws IOException {
+        long ledgerVersion = reportHistoryRepository.findLedgerVersion();
+
+        Thread snapshotThread = Thread.currentThread();
+        boolean[] open = {true};
+        ReportRun run = new ReportRun(ledgerVersion, (filter, sink) -> {
+                    if (Thread.currentThread() != snapshotThread || !open[0]) {
+                        throw new IllegalStateException("Transaction rows of a report run are read in its snapshot transaction");
+                    }
+                    return transactionService.forEachTransaction(filter, sink);
+                },
+                scope.isBalances() ? balanceService.getAllBalances() : null,
+                scope.isSuppliers() ? supplierService.getAllActiveSuppliers() : null);
+        log.debug("Report run loaded at ledger version {}", ledgerVersion);
+        try {
+            return work.apply(run);
+        } finally {
+            open[0] = false;
+        }
+    }
+
+    /**
+     * What is done with a run while its snapshot is open
+     */
+    @FunctionalInterface
+    public interface SnapshotWork<T> {
+        T apply(ReportRun run) throws IOException;
+    }
+}
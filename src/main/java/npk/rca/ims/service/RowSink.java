@@ -0,0 +1,14 @@
+package npk.rca.ims.service;
+
+import java.io.IOException;
+
+/**
+ * Receives rows one at a time from a streamed read (see
+ * StockTransactionService.forEachTransaction), so exports never need the whole
+ * result in memory.
+ */
+@FunctionalInterface
+public interface RowSink<T> {
+
+    void accept(T row) throws IOException;
+}
@@ -2,22 +2,36 @@ package npk.rca.ims.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import npk.rca.ims.config.Workload;
+import npk.rca.ims.config.WorkloadContext;
+import npk.rca.ims.config.WorkloadType;
 import npk.rca.ims.model.ScheduledReportConfig;
 import npk.rca.ims.repository.ScheduledReportConfigRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -28,9 +42,16 @@ public class ScheduledReportService {
 
     private final ScheduledReportConfigRepository configRepository;
     private final ReportService reportService;
+    private final ReportSnapshotService snapshotService;
     private final EmailService emailService;
 
+    // Bundle members each use a connection of the scheduled pool while they
+    // run, so no more run at once than that pool holds
+    @Value("${app.reports.bundle-threads:2}")
+    private int bundleThreads = 2;
+
     @Scheduled(cron = "0 * * * * *") // Run every minute to be responsive
+    @Workload(WorkloadType.SCHEDULED)
     public void processScheduledReports() {
         log.info("Starting scheduled report processing check...");
         List<ScheduledReportConfig> configs = configRepository.findByActiveTrue();
@@ -162,38 +183,113 @@ public class ScheduledReportService {
         };
     }
 
+    /**
+     * Reads the data of all bundle members once, from one snapshot (see
+     * ReportRun), then renders the members side by side and writes each into
+     * the zip as soon as it is ready; this thread is the only one writing the
+     * zip. The members rendered from the run's lists go to a bounded
+     * executor. The transaction history streams its rows in the snapshot
+     * transaction, which is bound to this thread, so it is written here
+     * meanwhile, both files from a single read of the ledger. Members run in
+     * the caller's workload, whose slot the bundle already holds. If one
+     * fails, the rest are cancelled.
+     *
+     * Each member's files are copied to files of the bundle's own (see
+     * bundleCopy), so no stored report has to survive until it is zipped.
+     */
     private File createAllReportsZip(LocalDate start, LocalDate end) throws IOException {
+        Map<String, Function<ReportRun, Path>> listMembers = Map.of(
+                "Stock_Balance.xlsx", reportService::generateBalanceReportExcel,
+                "Low_Stock.pdf", reportService::generateLowStockReportPdf,
+                "Supplier_List.xlsx", reportService::generateSupplierReportExcel);
+
         Path tempZip = Files.createTempFile("reports_bundle_", ".zip");
-        
-        try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(tempZip.toFile()))) {
-            // 1. Transaction Report PDF
-            addToZip(zos, "Transaction_History.pdf", reportService.generateTransactionReportPdf(start, end, null, "Transaction History"));
-            
-            // 2. Transaction Report Excel
-            addToZip(zos, "Transaction_History.xlsx", reportService.generateTransactionReportExcel(start, end, null, "Transaction History"));
-            
-            // 3. Stock Balance Excel
-            addToZip(zos, "Stock_Balance.xlsx", reportService.generateBalanceReportExcel());
-            
-            // 4. Low Stock PDF
-            addToZip(zos, "Low_Stock.pdf", reportService.generateLowStockReportPdf());
-            
-            // 5. Supplier List Excel
-            addToZip(zos, "Supplier_List.xlsx", reportService.generateSupplierReportExcel());
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.max(1, Math.min(bundleThreads, listMembers.size())),
+                Thread.ofPlatform().name("report-bundle-", 1).daemon().factory());
+        Set<Path> copies = ConcurrentHashMap.newKeySet();
+        boolean written = false;
+        try (ZipOutputStream zos = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(tempZip)))) {
+            CompletionService<Map<String, Path>> completion = new ExecutorCompletionService<>(executor);
+            Map<String, Path> history = snapshotService.snapshot(ReportRun.Scope.builder()
+                    .balances(true)
+                    .suppliers(true)
+                    .build(), run -> {
+                listMembers.forEach((name, member) -> completion.submit(WorkloadContext.propagate(
+                        () -> bundleCopy(() -> Map.of(name, member.apply(run)), copies))));
+
+                return bundleCopy(() -> {
+                    ReportService.TransactionReports reports =
+                            reportService.generateTransactionReports(run, start, end, null, "Transaction History");
+                    return Map.of("Transaction_History.pdf", reports.pdf(), "Transaction_History.xlsx", reports.excel());
+                }, copies);
+            });
+
+            addAllToZip(zos, history);
+            for (int i = 0; i < listMembers.size(); i++) {
+                addAllToZip(zos, completion.take().get());
+            }
+            written = true;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e.getCause() instanceof IOException cause
+                    ? cause
+                    : new IOException("Failed to generate report bundle", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while generating report bundle", e);
+        } finally {
+            executor.shutdownNow();
+            for (Path copy : copies) {
+                Files.deleteIfExists(copy);
+            }
+            if (!written) {
+                Files.deleteIfExists(tempZip);
+            }
         }
-        
+
         return tempZip.toFile();
     }
 
-    private void addToZip(ZipOutputStream zos, String filename, byte[] content) throws IOException {
+    /**
+     * Stored reports are shared through the report cache, and any report
+     * written meanwhile, a sibling member included, may evict them; the
+     * member's files are copied before eviction can touch them
+     * (ReportService.withReportFiles).
+     */
+    private Map<String, Path> bundleCopy(ReportService.ReportFiles member, Set<Path> copies) throws IOException {
+        return reportService.withReportFiles(member, files -> copyAll(files, copies));
+    }
+
+    private Map<String, Path> copyAll(Map<String, Path> files, Set<Path> copies) throws IOException {
+        Map<String, Path> copied = new LinkedHashMap<>();
+        for (Map.Entry<String, Path> file : files.entrySet()) {
+            Path copy = Files.createTempFile("bundle_", "_" + file.getKey());
+            copies.add(copy);
+            Files.copy(file.getValue(), copy, StandardCopyOption.REPLACE_EXISTING);
+            copied.put(file.getKey(), copy);
+        }
+        return copied;
+    }
+
+    private void addAllToZip(ZipOutputStream zos, Map<String, Path> files) throws IOException {
+        for (Map.Entry<String, Path> file : files.entrySet()) {
+            addToZip(zos, file.getKey(), file.getValue());
+            Files.deleteIfExists(file.getValue());
+        }
+    }
+
+    private void addToZip(ZipOutputStream zos, String filename, Path content) throws IOException {
         ZipEntry entry = new ZipEntry(filename);
         zos.putNextEntry(entry);
-        zos.write(content);
+        Files.copy(content, zos);
         zos.closeEntry();
     }
 
     private File generateSpecificReport(ScheduledReportConfig.ScheduledReportType type, LocalDate start, LocalDate end) throws IOException {
-        byte[] content;
+        Path content;
         String filename;
         
         switch (type) {
@@ -215,7 +311,7 @@ public class ScheduledReportService {
         }
         
         Path tempFile = Files.createTempFile("report_", "_" + filename);
-        Files.write(tempFile, content);
+        Files.copy(content, tempFile, StandardCopyOption.REPLACE_EXISTING);
         return tempFile.toFile();
     }
 
@@ -0,0 +1,91 @@
+package npk.rca.ims.service;
+
+import lombok.RequiredArgsConstructor;
+import npk.rca.ims.config.SqlProfiler;
+import npk.rca.ims.config.SqlStatementStats;
+import npk.rca.ims.dto.SqlStatementStatsDTO;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * SqlProfileService - The most expensive SQL statements seen by the SqlProfiler
+ *
+ * Returns an empty list when profiling is switched off (app.sql-profile.enabled=false).
+ */
+@Service
+@RequiredArgsConstructor
+public class SqlProfileService {
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 200;
+
+    private final ObjectProvider<SqlProfiler> sqlProfiler;
+
+    /**
+     * Top statements by total time (default), mean, p95, max or count
+     *
+     * @param limit clamped to 1..MAX_LIMIT
+     */
+    public List<SqlStatementStatsDTO> getTopStatements(String sortBy, int limit) {
+        SqlProfiler profiler = sqlProfiler.getIfAvailable();
+        if (profiler == null) {
+            return Collections.emptyList();
+        }
+        Comparator<SqlStatementStatsDTO> order = comparator(sortBy).reversed()
+                .thenComparing(SqlStatementStatsDTO::getSql);
+
+        return profiler.getStatements().stream()
+                .map(SqlProfileService::toDTO)
+                .sorted(order)
+                .limit(Math.max(1, Math.min(limit, MAX_LIMIT)))
+                .toList();
+    }
+
+    public void reset() {
+        SqlProfiler profiler = sqlProfiler.getIfAvailable();
+        if (profiler != null) {
+            profiler.reset();
+        }
+    }
+
+    private static Comparator<SqlStatementStatsDTO> comparator(String sortBy) {
+        String key = sortBy == null ? "total" : sortBy.toLowerCase(Locale.ROOT);
+        return switch (key) {
+            case "total" -> Comparator.comparingDouble(SqlStatementStatsDTO::getTotalMillis);
+            case "mean" -> Comparator.comparingDouble(SqlStatementStatsDTO::getMeanMillis);
+            case "p95" -> Comparator.comparingDouble(SqlStatementStatsDTO::getP95Millis);
+            case "p99" -> Comparator.comparingDouble(SqlStatementStatsDTO::getP99Millis);
+            case "max" -> Comparator.comparingDouble(SqlStatementStatsDTO::getMaxMillis);
+            case "count" -> Comparator.comparingLong(SqlStatementStatsDTO::getCount);
+            default -> throw new IllegalArgumentException(
+                    "Unknown sort: " + sortBy + ". Allowed: total, mean, p95, p99, max, count");
+        };
+    }
+
+    private static SqlStatementStatsDTO toDTO(SqlStatementStats stats) {
+        long count = stats.getCount();
+        long totalNanos = stats.getTotalNanos();
+        return SqlStatementStatsDTO.builder()
+                .sql(stats.getSql())
+                .parameterShape(stats.getParameterShape())
+                .count(count)
+                .slowCount(stats.getSlowCount())
+                .rows(stats.getRows())
+                .totalMillis(millis(totalNanos))
+                .meanMillis(count == 0 ? 0.0 : millis(totalNanos / count))
+                .p50Millis(millis(stats.percentileNanos(50)))
+                .p95Millis(millis(stats.percentileNanos(95)))
+                .p99Millis(millis(stats.percentileNanos(99)))
+                .maxMillis(millis(stats.getMaxNanos()))
+                .build();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
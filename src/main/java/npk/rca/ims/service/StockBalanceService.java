@@ -1,14 +1,20 @@
 package npk.rca.ims.service;
 
 import lombok.RequiredArgsConstructor;
+import npk.rca.ims.dto.BatchGetResponse;
 import npk.rca.ims.dto.StockBalanceDTO;
 import npk.rca.ims.model.Item;
+import npk.rca.ims.model.ItemBalance;
+import npk.rca.ims.repository.ItemBalanceRepository;
 import npk.rca.ims.repository.ItemRepository;
 import npk.rca.ims.repository.StockTransactionRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -17,6 +23,7 @@ import java.util.stream.Collectors;
 public class StockBalanceService {
 
     private final ItemRepository itemRepository;
+    private final ItemBalanceRepository itemBalanceRepository;
     private final StockTransactionRepository transactionRepository;
 
     public List<StockBalanceDTO> getAllBalances() {
@@ -31,12 +38,31 @@ public class StockBalanceService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Balances of many items with two IN queries (items, maintained totals)
+     */
+    public BatchGetResponse<StockBalanceDTO> getBalancesByIds(List<Long> itemIds) {
+        Map<Long, ItemBalance> totals = itemBalanceRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(ItemBalance::getItemId, Function.identity()));
+
+        Map<Long, StockBalanceDTO> found = new HashMap<>();
+        for (Item item : itemRepository.findAllById(itemIds)) {
+            ItemBalance total = totals.get(item.getId());
+            found.put(item.getId(), toBalance(item,
+                    total != null ? total.getTotalIn().intValue() : 0,
+                    total != null ? total.getTotalOut().intValue() : 0));
+        }
+        return BatchGetResponse.inRequestOrder(itemIds, found);
+    }
+
     private StockBalanceDTO calculateItemBalance(Item item) {
         Integer totalIn = transactionRepository.getTotalInByItemId(item.getId());
         Integer totalOut = transactionRepository.getTotalOutByItemId(item.getId());
-        
-        int in = (totalIn != null) ? totalIn : 0;
-        int out = (totalOut != null) ? totalOut : 0;
+
+        return toBalance(item, totalIn != null ? totalIn : 0, totalOut != null ? totalOut : 0);
+    }
+
+    private StockBalanceDTO toBalance(Item item, int in, int out) {
         int balance = in - out;
 
         StockBalanceDTO dto = new StockBalanceDTO();
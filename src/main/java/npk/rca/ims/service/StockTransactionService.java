@@ -1,26 +1,44 @@
 package npk.rca.ims.service;
 
 import lombok.RequiredArgsConstructor;
+import npk.rca.ims.dto.BatchGetResponse;
+import npk.rca.ims.dto.CursorPageDTO;
+import npk.rca.ims.dto.FieldSet;
+import npk.rca.ims.dto.SearchCursor;
 import npk.rca.ims.dto.StockBalanceDTO;
 import npk.rca.ims.dto.StockTransactionDTO;
+import npk.rca.ims.dto.TransactionCursor;
+import npk.rca.ims.dto.TransactionFilter;
 import npk.rca.ims.exceptions.ResourceNotFoundException;
 import npk.rca.ims.model.Item;
+import npk.rca.ims.model.ItemBalance;
 import npk.rca.ims.model.StockTransaction;
 import npk.rca.ims.model.Supplier;
 import npk.rca.ims.model.TransactionType;
+import npk.rca.ims.repository.ItemBalanceRepository;
+import npk.rca.ims.repository.ItemBalanceView;
 import npk.rca.ims.repository.ItemRepository;
 import npk.rca.ims.repository.StockTransactionRepository;
+import npk.rca.ims.repository.StockTransactionSpecifications;
 import npk.rca.ims.repository.SupplierRepository;
+import npk.rca.ims.repository.TransactionSearchIndex;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * StockTransactionService - Business logic for stock movements
@@ -33,29 +51,28 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class StockTransactionService {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
     private final StockTransactionRepository transactionRepository;
     private final ItemRepository itemRepository;
+    private final ItemBalanceRepository itemBalanceRepository;
     private final SupplierRepository supplierRepository;
+    private final TransactionSearchIndex searchIndex;
 
     /**
      * Get all transactions
      */
     public List<StockTransactionDTO> getAllTransactions() {
-        List<StockTransaction> transactions = transactionRepository.findAll();
-        return calculateBalancesForTransactions(transactions);
+        return searchTransactions(new TransactionFilter());
     }
 
     /**
      * Get transactions for a specific item
      */
     public List<StockTransactionDTO> getTransactionsByItemId(Long itemId) {
-        // Verify item exists
-        if (!itemRepository.existsById(itemId)) {
-            throw new ResourceNotFoundException("Item not found with id: " + itemId);
-        }
-
-        List<StockTransaction> transactions = transactionRepository.findByItem_Id(itemId);
-        return calculateBalancesForTransactions(transactions);
+        // Item existence is verified by searchTransactions
+        return searchTransactions(TransactionFilter.builder().itemIds(List.of(itemId)).build());
     }
 
     /**
@@ -64,50 +81,143 @@ public class StockTransactionService {
     public List<StockTransactionDTO> getTransactionsByDateRange(
             LocalDate startDate, LocalDate endDate) {
 
-        if (startDate.isAfter(endDate)) {
-            throw new IllegalArgumentException("Start date must be before end date");
+        return searchTransactions(TransactionFilter.builder().startDate(startDate).endDate(endDate).build());
+    }
+
+    /**
+     * One page of the ledger, newest first, using keyset pagination on
+     * (transactionDate, createdAt, id).
+     *
+     * Only size + 1 rows are read (the extra row tells us whether there is a
+     * next page) with a DTO projection, so no entities are loaded.
+     * balanceAfter is a running sum over the histories of the page's items
+     * only: a request costs its rows plus those histories, not the ledger.
+     *
+     * @param filter criteria, see TransactionFilter (all optional)
+     * @param fields properties to load (FieldSet.ALL for every one)
+     * @param cursor nextCursor of the previous page, or null for the first page
+     * @param size   page size, clamped to 1..MAX_PAGE_SIZE
+     */
+    public CursorPageDTO<StockTransactionDTO> getTransactionPage(TransactionFilter filter, FieldSet fields,
+                                                                 String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        Specification<StockTransaction> spec = validatedSpecification(filter);
+        if (cursor != null && !cursor.isBlank()) {
+            spec = spec.and(StockTransactionSpecifications.after(TransactionCursor.decode(cursor)));
+        }
+
+        List<StockTransactionDTO> content = transactionRepository.findTransactionRows(
+                spec, fields, StockTransactionSpecifications.NEWEST_FIRST, pageSize + 1);
+
+        boolean hasMore = content.size() > pageSize;
+        String nextCursor = null;
+        if (hasMore) {
+            content = new ArrayList<>(content.subList(0, pageSize));
+            StockTransactionDTO last = content.get(content.size() - 1);
+            nextCursor = new TransactionCursor(last.getTransactionDate(), last.getCreatedAt(), last.getId()).encode();
         }
 
-        List<StockTransaction> transactions = transactionRepository.findByTransactionDateBetween(startDate, endDate);
-        return calculateBalancesForTransactions(transactions);
+        return new CursorPageDTO<>(content, nextCursor, hasMore, content.size());
+    }
+
+    /**
+     * Every transaction matching the filter, newest first (used by reports).
+     * The filter is applied in the database; balanceAfter is the item's
+     * real balance after each row, not a running sum of the filtered rows.
+     */
+    public List<StockTransactionDTO> searchTransactions(TransactionFilter filter) {
+        return transactionRepository.findTransactionRows(
+                validatedSpecification(filter), StockTransactionSpecifications.NEWEST_FIRST, 0);
+    }
+
+    /**
+     * Same rows as searchTransactions, handed to the sink one at a time from a
+     * database cursor instead of being collected into a list (used by exports).
+     * The running balances come from the same statement, in one pass.
+     *
+     * @return number of rows passed to the sink
+     */
+    public long forEachTransaction(TransactionFilter filter, RowSink<? super StockTransactionDTO> sink) throws IOException {
+        long count = 0;
+        try (Stream<StockTransactionDTO> rows = transactionRepository.streamTransactionRows(
+                validatedSpecification(filter), StockTransactionSpecifications.NEWEST_FIRST)) {
+            Iterator<StockTransactionDTO> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                sink.accept(iterator.next());
+                count++;
+            }
+        }
+        return count;
     }
 
     /**
-     * Helper method to convert transactions to DTOs and calculate running balances
-     * This ensures the frontend receives the "Balance After" for each transaction
+     * Full-text search over notes, reference number and recordedBy, best
+     * match first, optionally narrowed by the usual filter.
+     *
+     * The index (see TransactionSearchIndex) ranks and pages the ids; the page
+     * is then read with the same DTO projection as the list endpoints.
+     *
+     * @param query  words to find; all must match
+     * @param cursor nextCursor of the previous page, or null for the first page
+     * @param size   page size, clamped to 1..MAX_PAGE_SIZE
      */
-    private List<StockTransactionDTO> calculateBalancesForTransactions(List<StockTransaction> transactions) {
-        // Sort transactions by date and creation time to ensure correct order
-        transactions.sort(Comparator.comparing(StockTransaction::getTransactionDate)
-                .thenComparing(StockTransaction::getCreatedAt));
-
-        // Group by item to calculate balances per item
-        Map<Long, List<StockTransaction>> transactionsByItem = transactions.stream()
-                .collect(Collectors.groupingBy(t -> t.getItem().getId()));
-
-        List<StockTransactionDTO> resultDTOs = new ArrayList<>();
-
-        // Calculate running balance for each item's transaction history
-        for (List<StockTransaction> itemTransactions : transactionsByItem.values()) {
-            int runningBalance = 0;
-            for (StockTransaction t : itemTransactions) {
-                if (t.getTransactionType() == TransactionType.IN) {
-                    runningBalance += t.getQuantity();
-                } else {
-                    runningBalance -= t.getQuantity();
+    public CursorPageDTO<StockTransactionDTO> fullTextSearch(String query, TransactionFilter filter,
+                                                             String cursor, int size) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query is required");
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        validatedSpecification(filter);
+        int offset = cursor != null && !cursor.isBlank() ? SearchCursor.decode(cursor).getOffset() : 0;
+
+        List<Long> ids = searchIndex.search(query.trim(), filter, offset, pageSize + 1);
+        boolean hasMore = ids.size() > pageSize;
+        if (hasMore) {
+            ids = ids.subList(0, pageSize);
+        }
+
+        List<StockTransactionDTO> content = new ArrayList<>();
+        if (!ids.isEmpty()) {
+            Map<Long, StockTransactionDTO> rows = transactionRepository.findTransactionRows(
+                            StockTransactionSpecifications.withIds(ids), null, ids.size()).stream()
+                    .collect(Collectors.toMap(StockTransactionDTO::getId, Function.identity()));
+            for (Long id : ids) {
+                StockTransactionDTO row = rows.get(id);
+                if (row != null) {
+                    content.add(row);
                 }
-                
-                StockTransactionDTO dto = convertToDTO(t);
-                dto.setBalanceAfter(runningBalance);
-                resultDTOs.add(dto);
             }
         }
 
-        // Re-sort the final list by date descending (newest first) for display
-        resultDTOs.sort(Comparator.comparing(StockTransactionDTO::getTransactionDate)
-                .thenComparing(StockTransactionDTO::getCreatedAt).reversed());
+        String nextCursor = hasMore ? new SearchCursor(offset + pageSize).encode() : null;
+        return new CursorPageDTO<>(content, nextCursor, hasMore, content.size());
+    }
 
-        return resultDTOs;
+    /**
+     * Transactions for many ids with the list endpoints' single-query projection
+     */
+    public BatchGetResponse<StockTransactionDTO> getTransactionsByIds(List<Long> ids) {
+        Map<Long, StockTransactionDTO> found = transactionRepository.findTransactionRows(
+                        StockTransactionSpecifications.withIds(ids), null, ids.size()).stream()
+                .collect(Collectors.toMap(StockTransactionDTO::getId, Function.identity()));
+        return BatchGetResponse.inRequestOrder(ids, found);
+    }
+
+    private Specification<StockTransaction> validatedSpecification(TransactionFilter filter) {
+        if (filter != null) {
+            if (filter.getStartDate() != null && filter.getEndDate() != null
+                    && filter.getStartDate().isAfter(filter.getEndDate())) {
+                throw new IllegalArgumentException("Start date must be before end date");
+            }
+            if (filter.getItemIds() != null && filter.getItemIds().size() == 1) {
+                Long itemId = filter.getItemIds().get(0);
+                if (!itemRepository.existsById(itemId)) {
+                    throw new ResourceNotFoundException("Item not found with id: " + itemId);
+                }
+            }
+        }
+        return StockTransactionSpecifications.matching(filter);
     }
 
     /**
@@ -152,11 +262,7 @@ public class StockTransactionService {
         StockTransaction savedTransaction = transactionRepository.save(transaction);
 
         // Update damaged quantity if applicable
-        if (transaction.getTransactionType() == TransactionType.OUT && 
-            transaction.getNotes() != null && 
-            (transaction.getNotes().toLowerCase().startsWith("damaged") || 
-             transaction.getNotes().toLowerCase().contains("damage"))) {
-            
+        if (isDamageRecord(transaction)) {
             item.setDamagedQuantity(item.getDamagedQuantity() + transaction.getQuantity());
             itemRepository.save(item);
         }
@@ -170,6 +276,106 @@ public class StockTransactionService {
         return resultDTO;
     }
 
+    /**
+     * Record several transactions as one unit (all-or-nothing)
+     *
+     * Used by recipe issuing and goods receipt, which expand one business
+     * action into many movements. Items and suppliers are loaded with one
+     * IN-query each, stock sufficiency for every item is checked with one
+     * grouped balance query, and all rows are saved together. If any item
+     * is short, nothing is written.
+     */
+    @Transactional
+    public List<StockTransactionDTO> recordTransactions(List<StockTransactionDTO> transactionDTOs) {
+        if (transactionDTOs.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Set<Long> itemIds = transactionDTOs.stream()
+                .map(StockTransactionDTO::getItemId)
+                .collect(Collectors.toSet());
+        Map<Long, Item> items = itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        for (Long itemId : itemIds) {
+            if (!items.containsKey(itemId)) {
+                throw new ResourceNotFoundException("Item not found with id: " + itemId);
+            }
+        }
+
+        Set<Long> supplierIds = transactionDTOs.stream()
+                .map(StockTransactionDTO::getSupplierId)
+                .filter(id -> id != null)
+                .collect(Collectors.toSet());
+        Map<Long, Supplier> suppliers = supplierIds.isEmpty() ? Map.of()
+                : supplierRepository.findAllById(supplierIds).stream()
+                        .collect(Collectors.toMap(Supplier::getId, Function.identity()));
+        for (Long supplierId : supplierIds) {
+            if (!suppliers.containsKey(supplierId)) {
+                throw new ResourceNotFoundException("Supplier not found with id: " + supplierId);
+            }
+        }
+
+        // Current balances of every item in the batch (one grouped query)
+        Map<Long, Integer> balances = new HashMap<>();
+        itemIds.forEach(id -> balances.put(id, 0));
+        for (ItemBalanceView view : transactionRepository.getBalancesByItemIds(itemIds)) {
+            balances.put(view.getItemId(), view.getCurrentBalance());
+        }
+
+        // Business rule: the batch as a whole cannot OUT more than available
+        Map<Long, Integer> requestedOut = new LinkedHashMap<>();
+        for (StockTransactionDTO dto : transactionDTOs) {
+            if (dto.getTransactionType() == TransactionType.OUT) {
+                requestedOut.merge(dto.getItemId(), dto.getQuantity(), Integer::sum);
+            }
+        }
+        List<String> shortages = new ArrayList<>();
+        requestedOut.forEach((itemId, requested) -> {
+            int available = balances.get(itemId);
+            if (requested > available) {
+                shortages.add(items.get(itemId).getName() + " (Available: " + available
+                        + ", Requested: " + requested + ")");
+            }
+        });
+        if (!shortages.isEmpty()) {
+            throw new IllegalArgumentException("Insufficient stock! " + String.join("; ", shortages));
+        }
+
+        List<StockTransaction> transactions = new ArrayList<>();
+        for (StockTransactionDTO dto : transactionDTOs) {
+            StockTransaction transaction = new StockTransaction();
+            transaction.setItem(items.get(dto.getItemId()));
+            transaction.setTransactionType(dto.getTransactionType());
+            transaction.setQuantity(dto.getQuantity());
+            transaction.setTransactionDate(dto.getTransactionDate());
+            transaction.setReferenceNumber(dto.getReferenceNumber());
+            transaction.setNotes(dto.getNotes());
+            transaction.setRecordedBy(dto.getRecordedBy());
+            if (dto.getSupplierId() != null) {
+                transaction.setSupplier(suppliers.get(dto.getSupplierId()));
+            }
+            transactions.add(transaction);
+
+            if (isDamageRecord(transaction)) {
+                Item item = transaction.getItem();
+                item.setDamagedQuantity(item.getDamagedQuantity() + transaction.getQuantity());
+            }
+        }
+
+        List<StockTransaction> savedTransactions = transactionRepository.saveAll(transactions);
+
+        List<StockTransactionDTO> result = new ArrayList<>();
+        for (StockTransaction saved : savedTransactions) {
+            int delta = saved.getTransactionType() == TransactionType.IN ? saved.getQuantity() : -saved.getQuantity();
+            int balanceAfter = balances.merge(saved.getItem().getId(), delta, Integer::sum);
+
+            StockTransactionDTO resultDTO = convertToDTO(saved);
+            resultDTO.setBalanceAfter(balanceAfter);
+            result.add(resultDTO);
+        }
+        return result;
+    }
+
     /**
      * Update transaction (Advanced Edit)
      * Allows changing Item, Quantity, Type, etc.
@@ -313,6 +519,7 @@ public class StockTransactionService {
         }
 
         StockTransaction savedTransaction = transactionRepository.save(transaction);
+        searchIndex.reindex(savedTransaction.getId());
         
         // Calculate balance
         Integer currentBalance = calculateBalance(transaction.getItem().getId());
@@ -442,10 +649,45 @@ public class StockTransactionService {
      * This is what the school will use for reports!
      */
     public List<StockBalanceDTO> generateBalanceReport() {
-        return itemRepository.findAll()
-                .stream()
-                .map(this::calculateItemBalance)
-                .collect(Collectors.toList());
+        return generateBalanceReport(FieldSet.ALL);
+    }
+
+    /**
+     * Balance report loading only the requested properties: the maintained
+     * totals (one query for every item) are read only when a balance
+     * property is requested
+     */
+    public List<StockBalanceDTO> generateBalanceReport(FieldSet fields) {
+        boolean balances = fields.includesAny(
+                "totalIn", "totalOut", "currentBalance", "isLowStock", "status");
+        Map<Long, ItemBalance> totals = balances
+                ? itemBalanceRepository.findAll().stream()
+                        .collect(Collectors.toMap(ItemBalance::getItemId, Function.identity()))
+                : Map.of();
+
+        List<StockBalanceDTO> report = new ArrayList<>();
+        for (Item item : itemRepository.findAll()) {
+            StockBalanceDTO dto = new StockBalanceDTO();
+            dto.setItemId(item.getId());
+            dto.setItemName(item.getName());
+            dto.setUnit(item.getUnit());
+            dto.setCategory(item.getCategory());
+            dto.setLastUpdated(item.getUpdatedAt());
+            dto.setDamagedQuantity(item.getDamagedQuantity());
+            dto.setMinimumStock(item.getMinimumStock());
+            if (balances) {
+                ItemBalance total = totals.get(item.getId());
+                int in = total != null ? total.getTotalIn().intValue() : 0;
+                int out = total != null ? total.getTotalOut().intValue() : 0;
+                dto.setTotalIn(in);
+                dto.setTotalOut(out);
+                dto.setCurrentBalance(in - out);
+                dto.setIsLowStock(in - out < item.getMinimumStock());
+                // status is calculated by DTO's getStatus() method
+            }
+            report.add(dto);
+        }
+        return report;
     }
 
     /**
@@ -458,6 +700,15 @@ public class StockTransactionService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Is this an OUT movement recording damaged stock?
+     */
+    private boolean isDamageRecord(StockTransaction transaction) {
+        return transaction.getTransactionType() == TransactionType.OUT &&
+                transaction.getNotes() != null &&
+                transaction.getNotes().toLowerCase().contains("damage");
+    }
+
     /**
      * Calculate balance for a single item
      */
@@ -471,31 +722,6 @@ public class StockTransactionService {
         return in - out;
     }
 
-    /**
-     * Create StockBalanceDTO for an item
-     */
-    private StockBalanceDTO calculateItemBalance(Item item) {
-        Integer totalIn = transactionRepository.getTotalInByItemId(item.getId());
-        Integer totalOut = transactionRepository.getTotalOutByItemId(item.getId());
-        
-        int in = (totalIn != null) ? totalIn : 0;
-        int out = (totalOut != null) ? totalOut : 0;
-        int balance = in - out;
-
-        StockBalanceDTO dto = new StockBalanceDTO();
-        dto.setItemId(item.getId());
-        dto.setItemName(item.getName());
-        dto.setUnit(item.getUnit());
-        dto.setTotalIn(in);
-        dto.setTotalOut(out);
-        dto.setCurrentBalance(balance);
-        dto.setMinimumStock(item.getMinimumStock());
-        dto.setIsLowStock(balance < item.getMinimumStock());
-        // status is calculated by DTO's getStatus() method
-
-        return dto;
-    }
-
     /**
      * Convert entity to DTO
      */
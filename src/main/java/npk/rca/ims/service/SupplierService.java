@@ -23,6 +23,7 @@ public class SupplierService {
     private final SupplierRepository supplierRepository;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final AutocompleteService autocompleteService;
 
     public List<SupplierDTO> getAllActiveSuppliers() {
         return supplierRepository.findByActiveTrue().stream()
@@ -50,7 +51,9 @@ public class SupplierService {
         Supplier supplier = new Supplier();
         updateEntityFromDTO(supplier, dto);
         supplier.setActive(true);
-        return convertToDTO(supplierRepository.save(supplier));
+        Supplier saved = supplierRepository.save(supplier);
+        autocompleteService.indexSupplier(saved);
+        return convertToDTO(saved);
     }
 
     public SupplierDTO updateSupplier(Long id, SupplierDTO dto) {
@@ -70,7 +73,9 @@ public class SupplierService {
         }
 
         updateEntityFromDTO(supplier, dto);
-        return convertToDTO(supplierRepository.save(supplier));
+        Supplier saved = supplierRepository.save(supplier);
+        autocompleteService.indexSupplier(saved);
+        return convertToDTO(saved);
     }
 
     public void deactivateSupplier(Long id, String username, String password) {
@@ -81,6 +86,7 @@ public class SupplierService {
         
         supplier.setActive(false); // Soft delete
         supplierRepository.save(supplier);
+        autocompleteService.removeSupplier(id);
     }
 
     public void reactivateSupplier(Long id) {
@@ -88,7 +94,7 @@ public class SupplierService {
                 .orElseThrow(() -> new ResourceNotFoundException("Supplier not found with id: " + id));
         
         supplier.setActive(true);
-        supplierRepository.save(supplier);
+        autocompleteService.indexSupplier(supplierRepository.save(supplier));
     }
 
     public void deleteSupplier(Long id, String username, String password) {
@@ -98,6 +104,7 @@ public class SupplierService {
             throw new ResourceNotFoundException("Supplier not found with id: " + id);
         }
         supplierRepository.deleteById(id);
+        autocompleteService.removeSupplier(id);
     }
     
     private void verifyPassword(String username, String password) {
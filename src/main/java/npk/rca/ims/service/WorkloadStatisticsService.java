@@ -0,0 +1,58 @@
+package npk.rca.ims.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.RequiredArgsConstructor;
+import npk.rca.ims.config.WorkloadBulkhead;
+import npk.rca.ims.config.WorkloadInterceptor;
+import npk.rca.ims.config.WorkloadRoutingDataSource;
+import npk.rca.ims.config.WorkloadType;
+import npk.rca.ims.dto.WorkloadStatsDTO;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * WorkloadStatisticsService - Pool and concurrency saturation per workload
+ *
+ * Returns an empty list when workload isolation is switched off.
+ */
+@Service
+@RequiredArgsConstructor
+public class WorkloadStatisticsService {
+
+    private final ObjectProvider<WorkloadRoutingDataSource> workloadRoutingDataSource;
+    private final ObjectProvider<WorkloadInterceptor> workloadInterceptor;
+
+    public List<WorkloadStatsDTO> getWorkloadStatistics() {
+        WorkloadRoutingDataSource routing = workloadRoutingDataSource.getIfAvailable();
+        WorkloadInterceptor interceptor = workloadInterceptor.getIfAvailable();
+        if (routing == null || interceptor == null) {
+            return Collections.emptyList();
+        }
+
+        List<WorkloadStatsDTO> stats = new ArrayList<>();
+        for (WorkloadType workload : WorkloadType.values()) {
+            HikariDataSource pool = routing.getPools().get(workload);
+            WorkloadBulkhead bulkhead = interceptor.getBulkheads().get(workload);
+            // The MXBean is null until the pool hands out its first connection
+            HikariPoolMXBean poolBean = pool.getHikariPoolMXBean();
+
+            stats.add(WorkloadStatsDTO.builder()
+                    .workload(workload.name())
+                    .maxConnections(pool.getMaximumPoolSize())
+                    .activeConnections(poolBean != null ? poolBean.getActiveConnections() : 0)
+                    .idleConnections(poolBean != null ? poolBean.getIdleConnections() : 0)
+                    .threadsAwaitingConnection(poolBean != null ? poolBean.getThreadsAwaitingConnection() : 0)
+                    .maxConcurrent(bulkhead.getMaxConcurrent())
+                    .inFlight(bulkhead.getInFlight())
+                    .waiting(bulkhead.getWaiting())
+                    .rejected(bulkhead.getRejected())
+                    .build());
+        }
+        return stats;
+    }
+}
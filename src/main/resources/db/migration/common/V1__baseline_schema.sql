@@ -0,0 +1,90 @@
+-- Baseline: the schema as previously created by spring.jpa.hibernate.ddl-auto=update.
+-- Existing databases are baselined at this version (spring.flyway.baseline-on-migrate)
+-- and skip this script; new databases are created from it.
+
+CREATE TABLE items (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name             VARCHAR(100) NOT NULL,
+    unit             VARCHAR(50)  NOT NULL,
+    category         VARCHAR(50),
+    damaged_quantity INTEGER      NOT NULL,
+    minimum_stock    INTEGER      NOT NULL,
+    description      VARCHAR(500),
+    created_at       TIMESTAMP(6) NOT NULL,
+    updated_at       TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE suppliers (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name           VARCHAR(100) NOT NULL,
+    contact_person VARCHAR(100) NOT NULL,
+    phone          VARCHAR(20)  NOT NULL,
+    email          VARCHAR(100) NOT NULL,
+    items_supplied VARCHAR(500),
+    active         BOOLEAN      NOT NULL,
+    created_at     TIMESTAMP(6) NOT NULL,
+    updated_at     TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE stock_transactions (
+    id                      BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    item_id                 BIGINT       NOT NULL,
+    transaction_type        VARCHAR(10)  NOT NULL CHECK (transaction_type IN ('IN', 'OUT')),
+    quantity                INTEGER      NOT NULL,
+    transaction_date        DATE         NOT NULL,
+    reference_number        VARCHAR(100),
+    notes                   VARCHAR(500),
+    recorded_by             VARCHAR(100),
+    supplier_id             BIGINT,
+    created_at              TIMESTAMP(6) NOT NULL,
+    is_reversed             BOOLEAN      NOT NULL,
+    original_transaction_id BIGINT UNIQUE,
+    CONSTRAINT fk_stock_transactions_item FOREIGN KEY (item_id) REFERENCES items (id),
+    CONSTRAINT fk_stock_transactions_supplier FOREIGN KEY (supplier_id) REFERENCES suppliers (id),
+    CONSTRAINT fk_stock_transactions_original FOREIGN KEY (original_transaction_id) REFERENCES stock_transactions (id)
+);
+
+CREATE TABLE users (
+    id                  BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email               VARCHAR(100) NOT NULL UNIQUE,
+    password            VARCHAR(255) NOT NULL,
+    role                VARCHAR(255) NOT NULL,
+    enabled             BOOLEAN      NOT NULL,
+    name                VARCHAR(100),
+    phone               VARCHAR(50),
+    location            VARCHAR(100),
+    department          VARCHAR(100),
+    system_email        VARCHAR(100),
+    avatar_url          TEXT,
+    cover_url           TEXT,
+    language            VARCHAR(10),
+    theme               VARCHAR(20),
+    email_notifications BOOLEAN      NOT NULL,
+    sms_notifications   BOOLEAN      NOT NULL,
+    two_factor_auth     BOOLEAN      NOT NULL,
+    created_at          TIMESTAMP(6) NOT NULL,
+    updated_at          TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE report_history (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    title          VARCHAR(255) NOT NULL,
+    type           VARCHAR(255) NOT NULL,
+    format         VARCHAR(255) NOT NULL,
+    size           VARCHAR(255) NOT NULL,
+    status         VARCHAR(255) NOT NULL,
+    file_path      VARCHAR(255),
+    generated_date TIMESTAMP(6)
+);
+
+CREATE TABLE scheduled_report_configs (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email          VARCHAR(255) NOT NULL,
+    report_type    VARCHAR(255) NOT NULL
+        CHECK (report_type IN ('ALL_REPORTS_ZIP', 'TRANSACTION_HISTORY', 'STOCK_BALANCE', 'LOW_STOCK')),
+    frequency      VARCHAR(255) NOT NULL CHECK (frequency IN ('DAILY', 'WEEKLY', 'MONTHLY', 'INTERVAL')),
+    interval_hours INTEGER,
+    scheduled_time TIME(6),
+    last_sent      TIMESTAMP(6),
+    active         BOOLEAN      NOT NULL
+);
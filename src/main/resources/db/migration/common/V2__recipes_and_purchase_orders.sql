@@ -0,0 +1,47 @@
+-- Recipes (bill of materials) and purchase orders.
+-- IF NOT EXISTS: databases baselined at V1 may already have these tables
+-- from ddl-auto=update.
+
+CREATE TABLE IF NOT EXISTS recipes (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name        VARCHAR(100) NOT NULL UNIQUE,
+    description VARCHAR(500),
+    created_at  TIMESTAMP(6) NOT NULL,
+    updated_at  TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS recipe_ingredients (
+    id                   BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    recipe_id            BIGINT         NOT NULL,
+    item_id              BIGINT         NOT NULL,
+    quantity_per_portion NUMERIC(12, 4) NOT NULL,
+    CONSTRAINT uk_recipe_ingredients_recipe_item UNIQUE (recipe_id, item_id),
+    CONSTRAINT fk_recipe_ingredients_recipe FOREIGN KEY (recipe_id) REFERENCES recipes (id),
+    CONSTRAINT fk_recipe_ingredients_item FOREIGN KEY (item_id) REFERENCES items (id)
+);
+
+CREATE TABLE IF NOT EXISTS purchase_orders (
+    id                   BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    po_number            VARCHAR(50)  NOT NULL UNIQUE,
+    supplier_id          BIGINT       NOT NULL,
+    status               VARCHAR(20)  NOT NULL
+        CHECK (status IN ('OPEN', 'PARTIALLY_RECEIVED', 'RECEIVED', 'CANCELLED')),
+    order_date           DATE         NOT NULL,
+    expected_date        DATE,
+    notes                VARCHAR(500),
+    outstanding_quantity INTEGER      NOT NULL,
+    created_at           TIMESTAMP(6) NOT NULL,
+    updated_at           TIMESTAMP(6) NOT NULL,
+    CONSTRAINT fk_purchase_orders_supplier FOREIGN KEY (supplier_id) REFERENCES suppliers (id)
+);
+
+CREATE TABLE IF NOT EXISTS purchase_order_lines (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    purchase_order_id BIGINT  NOT NULL,
+    item_id           BIGINT  NOT NULL,
+    ordered_quantity  INTEGER NOT NULL,
+    received_quantity INTEGER NOT NULL,
+    CONSTRAINT uk_purchase_order_lines_order_item UNIQUE (purchase_order_id, item_id),
+    CONSTRAINT fk_purchase_order_lines_order FOREIGN KEY (purchase_order_id) REFERENCES purchase_orders (id),
+    CONSTRAINT fk_purchase_order_lines_item FOREIGN KEY (item_id) REFERENCES items (id)
+);
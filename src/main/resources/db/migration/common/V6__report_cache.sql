@@ -0,0 +1,10 @@
+-- Report result cache: identical requests against an unchanged ledger share
+-- one stored file. cache_key is the SHA-256 of report type, format,
+-- parameters and ledger version (see ReportService).
+ALTER TABLE report_history ADD COLUMN cache_key VARCHAR(64);
+
+CREATE INDEX idx_report_history_cache_key
+    ON report_history (cache_key);
+
+CREATE INDEX idx_report_history_file_path
+    ON report_history (file_path);
@@ -0,0 +1,37 @@
+-- H2 counterpart of postgresql/V3__query_indexes.sql (used by the tests).
+-- H2 has no BRIN, partial or expression indexes, so those become plain
+-- B-tree indexes on the same leading columns; LOWER/UPPER lookups are not indexed.
+-- H2 does not scan an index backwards, so the keyset indexes are declared DESC
+-- to serve the newest-first ORDER BY the way PostgreSQL does with a backward scan.
+
+CREATE INDEX IF NOT EXISTS idx_stock_transactions_item_keyset
+    ON stock_transactions (item_id, transaction_date DESC, created_at DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_stock_transactions_keyset
+    ON stock_transactions (transaction_date DESC, created_at DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS brin_stock_transactions_created_at
+    ON stock_transactions (created_at);
+
+CREATE INDEX IF NOT EXISTS idx_stock_transactions_supplier
+    ON stock_transactions (supplier_id, transaction_date);
+
+CREATE INDEX IF NOT EXISTS idx_stock_transactions_out_date
+    ON stock_transactions (transaction_type, transaction_date);
+
+CREATE INDEX IF NOT EXISTS idx_report_history_cleanup
+    ON report_history (generated_date, status);
+
+CREATE INDEX IF NOT EXISTS idx_report_history_generated_date
+    ON report_history (generated_date DESC);
+
+CREATE INDEX IF NOT EXISTS idx_items_name
+    ON items (name);
+
+CREATE INDEX IF NOT EXISTS idx_purchase_orders_supplier_status
+    ON purchase_orders (supplier_id, status);
+
+CREATE INDEX IF NOT EXISTS idx_purchase_order_lines_item
+    ON purchase_order_lines (item_id);
+CREATE INDEX IF NOT EXISTS idx_recipe_ingredients_item
+    ON recipe_ingredients (item_id);
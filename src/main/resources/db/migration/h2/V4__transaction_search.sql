@@ -0,0 +1,4 @@
+-- H2 counterpart of postgresql/V4__transaction_search.sql.
+-- H2 has no tsvector/GIN; searches use InMemoryTransactionSearchIndex instead,
+-- so there is nothing to create. Kept so both databases share one version history.
+SELECT 1;
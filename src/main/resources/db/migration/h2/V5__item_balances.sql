@@ -0,0 +1,13 @@
+-- H2 counterpart of postgresql/V5__item_balances.sql.
+-- H2 triggers are Java classes, so instead of a maintained table the same
+-- columns are exposed as a view over the ledger. Queries and the ItemBalance
+-- entity see identical data either way.
+CREATE VIEW IF NOT EXISTS item_balances AS
+SELECT item_id,
+       CAST(SUM(CASE WHEN transaction_type = 'IN' THEN quantity ELSE 0 END) AS BIGINT) AS total_in,
+       CAST(SUM(CASE WHEN transaction_type = 'OUT' THEN quantity ELSE 0 END) AS BIGINT) AS total_out
+FROM stock_transactions
+GROUP BY item_id;
+
+CREATE INDEX IF NOT EXISTS idx_items_category
+    ON items (category);
@@ -0,0 +1,19 @@
+-- H2 counterpart of postgresql/V7__ledger_version.sql.
+-- Without trigger-maintained counters the version is a fingerprint of the
+-- tables reports read: row counts, highest ids, quantity and reversal totals
+-- and last update times. It changes with every insert, delete, reversal,
+-- quantity or item/supplier change; an edit that touches none of these
+-- (notes on a transaction) goes unnoticed, which is acceptable for tests.
+CREATE VIEW IF NOT EXISTS ledger_version AS
+SELECT ORA_HASH(CONCAT_WS('|',
+           (SELECT COUNT(*) FROM stock_transactions),
+           (SELECT COALESCE(MAX(id), 0) FROM stock_transactions),
+           (SELECT COALESCE(SUM(quantity), 0) FROM stock_transactions),
+           (SELECT COUNT(*) FROM stock_transactions WHERE is_reversed),
+           (SELECT COALESCE(SUM(item_id), 0) FROM stock_transactions),
+           (SELECT COUNT(*) FROM items),
+           (SELECT COALESCE(MAX(id), 0) FROM items),
+           (SELECT MAX(updated_at) FROM items),
+           (SELECT COUNT(*) FROM suppliers),
+           (SELECT COALESCE(MAX(id), 0) FROM suppliers),
+           (SELECT MAX(updated_at) FROM suppliers))) AS version;
@@ -0,0 +1,18 @@
+-- H2 counterpart of postgresql/V8__ledger_version_sequence.sql.
+-- The V7 fingerprint missed edits that changed no count, total or
+-- timestamp, such as a transaction's notes. Transactions have no
+-- updated_at, so each row is hashed whole and the hashes summed.
+DROP VIEW IF EXISTS ledger_version;
+CREATE VIEW ledger_version AS
+SELECT ORA_HASH(CONCAT_WS('|',
+           (SELECT COUNT(*) FROM stock_transactions),
+           (SELECT COALESCE(MAX(id), 0) FROM stock_transactions),
+           (SELECT COALESCE(SUM(ORA_HASH(CONCAT_WS('|', id, item_id, transaction_type, quantity,
+                   transaction_date, reference_number, notes, recorded_by, supplier_id,
+                   is_reversed, original_transaction_id))), 0) FROM stock_transactions),
+           (SELECT COUNT(*) FROM items),
+           (SELECT COALESCE(MAX(id), 0) FROM items),
+           (SELECT MAX(updated_at) FROM items),
+           (SELECT COUNT(*) FROM suppliers),
+           (SELECT COALESCE(MAX(id), 0) FROM suppliers),
+           (SELECT MAX(updated_at) FROM suppliers))) AS version;
@@ -0,0 +1,64 @@
+-- Indexes designed from the repository queries.
+-- Checked by QueryPlanTest; keep the two in step.
+
+-- Ledger: per-item history in (date, createdAt, id) order.
+-- findByItem_Id, getTotalIn/OutByItemId, grouped balances, the balanceAfter
+-- subquery and the per-item keyset page.
+CREATE INDEX IF NOT EXISTS idx_stock_transactions_item_keyset
+    ON stock_transactions (item_id, transaction_date, created_at, id);
+
+-- Ledger: global keyset pagination and findByTransactionDateBetween.
+CREATE INDEX IF NOT EXISTS idx_stock_transactions_keyset
+    ON stock_transactions (transaction_date, created_at, id);
+
+-- countByCreatedAtAfter: created_at only grows with insertion order,
+-- so a tiny BRIN index is enough for "rows created since X".
+CREATE INDEX IF NOT EXISTS brin_stock_transactions_created_at
+    ON stock_transactions USING brin (created_at);
+
+-- Stock-in by supplier (reports, supplier filter). Most rows have no supplier.
+CREATE INDEX IF NOT EXISTS idx_stock_transactions_supplier
+    ON stock_transactions (supplier_id, transaction_date)
+    WHERE supplier_id IS NOT NULL;
+
+-- OUT-only scans: findAllOutTransactions, getDamagedQuantityBetween, type=OUT reports.
+CREATE INDEX IF NOT EXISTS idx_stock_transactions_out_date
+    ON stock_transactions (transaction_date)
+    WHERE transaction_type = 'OUT';
+
+-- Report cleanup job: findByStatusNotAndGeneratedDateBefore('EXPIRED', cutoff).
+CREATE INDEX IF NOT EXISTS idx_report_history_cleanup
+    ON report_history (generated_date)
+    WHERE status <> 'EXPIRED';
+
+-- Report history list: findAllByOrderByGeneratedDateDesc.
+CREATE INDEX IF NOT EXISTS idx_report_history_generated_date
+    ON report_history (generated_date DESC);
+
+-- UserRepository.findByEmail / existsByEmail compare LOWER(email).
+CREATE INDEX IF NOT EXISTS idx_users_email_lower
+    ON users (LOWER(email));
+
+-- Supplier/recipe/PO ...IgnoreCase lookups (Spring Data renders them with UPPER).
+CREATE INDEX IF NOT EXISTS idx_suppliers_name_upper
+    ON suppliers (UPPER(name));
+CREATE INDEX IF NOT EXISTS idx_suppliers_email_upper
+    ON suppliers (UPPER(email));
+CREATE INDEX IF NOT EXISTS idx_recipes_name_upper
+    ON recipes (UPPER(name));
+CREATE INDEX IF NOT EXISTS idx_purchase_orders_po_number_upper
+    ON purchase_orders (UPPER(po_number));
+
+-- ItemRepository.findByName / existsByName.
+CREATE INDEX IF NOT EXISTS idx_items_name
+    ON items (name);
+
+-- Open purchase orders per supplier.
+CREATE INDEX IF NOT EXISTS idx_purchase_orders_supplier_status
+    ON purchase_orders (supplier_id, status);
+
+-- FK columns used from the item side (merge, delete).
+CREATE INDEX IF NOT EXISTS idx_purchase_order_lines_item
+    ON purchase_order_lines (item_id);
+CREATE INDEX IF NOT EXISTS idx_recipe_ingredients_item
+    ON recipe_ingredients (item_id);
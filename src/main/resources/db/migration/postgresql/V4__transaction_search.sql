@@ -0,0 +1,13 @@
+-- Full-text search over the free-text ledger columns (GET /api/transactions/search).
+-- The 'simple' configuration only lower-cases: notes are written in English,
+-- French and Kinyarwanda, and reference numbers must match exactly, so no stemming.
+-- Weights rank a reference-number hit above a notes hit above a recorded-by hit.
+ALTER TABLE stock_transactions
+    ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', coalesce(reference_number, '')), 'A') ||
+        setweight(to_tsvector('simple', coalesce(notes, '')), 'B') ||
+        setweight(to_tsvector('simple', coalesce(recorded_by, '')), 'C')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_stock_transactions_search
+    ON stock_transactions USING gin (search_vector);
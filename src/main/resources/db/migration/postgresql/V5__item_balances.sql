@@ -0,0 +1,90 @@
+-- Running IN/OUT totals per item, kept in step with the ledger by triggers,
+-- so the items catalogue can filter and sort on balance without summing
+-- stock_transactions for every item.
+-- Items without any transaction have no row (their totals are 0).
+CREATE TABLE IF NOT EXISTS item_balances (
+    item_id   BIGINT PRIMARY KEY REFERENCES items (id) ON DELETE CASCADE,
+    total_in  BIGINT NOT NULL DEFAULT 0,
+    total_out BIGINT NOT NULL DEFAULT 0
+);
+
+-- Statement-level triggers with transition tables: a bulk INSERT ... SELECT
+-- (ledger import) or a reassignment UPDATE (item merge) costs one upsert per
+-- item touched, not one per row.
+CREATE OR REPLACE FUNCTION maintain_item_balances() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO item_balances AS b (item_id, total_in, total_out)
+        SELECT item_id,
+               SUM(CASE WHEN transaction_type = 'IN' THEN quantity ELSE 0 END),
+               SUM(CASE WHEN transaction_type = 'OUT' THEN quantity ELSE 0 END)
+        FROM new_rows
+        GROUP BY item_id
+        ON CONFLICT (item_id) DO UPDATE
+            SET total_in = b.total_in + EXCLUDED.total_in,
+                total_out = b.total_out + EXCLUDED.total_out;
+    ELSIF TG_OP = 'DELETE' THEN
+        UPDATE item_balances b
+        SET total_in = b.total_in - d.total_in,
+            total_out = b.total_out - d.total_out
+        FROM (SELECT item_id,
+                     SUM(CASE WHEN transaction_type = 'IN' THEN quantity ELSE 0 END) AS total_in,
+                     SUM(CASE WHEN transaction_type = 'OUT' THEN quantity ELSE 0 END) AS total_out
+              FROM old_rows
+              GROUP BY item_id) d
+        WHERE b.item_id = d.item_id;
+    ELSE
+        -- Updates that leave item, type and quantity alone (notes, reversal
+        -- flags) net out to zero and are skipped
+        INSERT INTO item_balances AS b (item_id, total_in, total_out)
+        SELECT item_id, SUM(delta_in), SUM(delta_out)
+        FROM (SELECT item_id,
+                     CASE WHEN transaction_type = 'IN' THEN quantity ELSE 0 END AS delta_in,
+                     CASE WHEN transaction_type = 'OUT' THEN quantity ELSE 0 END AS delta_out
+              FROM new_rows
+              UNION ALL
+              SELECT item_id,
+                     CASE WHEN transaction_type = 'IN' THEN -quantity ELSE 0 END,
+                     CASE WHEN transaction_type = 'OUT' THEN -quantity ELSE 0 END
+              FROM old_rows) d
+        GROUP BY item_id
+        HAVING SUM(delta_in) <> 0 OR SUM(delta_out) <> 0
+        ON CONFLICT (item_id) DO UPDATE
+            SET total_in = b.total_in + EXCLUDED.total_in,
+                total_out = b.total_out + EXCLUDED.total_out;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_item_balances_insert ON stock_transactions;
+CREATE TRIGGER trg_item_balances_insert
+    AFTER INSERT ON stock_transactions
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION maintain_item_balances();
+
+DROP TRIGGER IF EXISTS trg_item_balances_update ON stock_transactions;
+CREATE TRIGGER trg_item_balances_update
+    AFTER UPDATE ON stock_transactions
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION maintain_item_balances();
+
+DROP TRIGGER IF EXISTS trg_item_balances_delete ON stock_transactions;
+CREATE TRIGGER trg_item_balances_delete
+    AFTER DELETE ON stock_transactions
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION maintain_item_balances();
+
+-- Backfill from the existing ledger
+INSERT INTO item_balances (item_id, total_in, total_out)
+SELECT item_id,
+       SUM(CASE WHEN transaction_type = 'IN' THEN quantity ELSE 0 END),
+       SUM(CASE WHEN transaction_type = 'OUT' THEN quantity ELSE 0 END)
+FROM stock_transactions
+GROUP BY item_id
+ON CONFLICT (item_id) DO UPDATE
+    SET total_in = EXCLUDED.total_in,
+        total_out = EXCLUDED.total_out;
+
+CREATE INDEX IF NOT EXISTS idx_items_category
+    ON items (lower(category));
@@ -0,0 +1,35 @@
+-- Ledger high-water mark for the report cache: one counter, bumped by any
+-- statement that changes what a report can show (transactions, items,
+-- suppliers). The bump commits with the change, so a reader never sees a
+-- new version without the data behind it.
+CREATE TABLE IF NOT EXISTS ledger_version (
+    id      SMALLINT PRIMARY KEY CHECK (id = 1),
+    version BIGINT NOT NULL
+);
+
+INSERT INTO ledger_version (id, version)
+VALUES (1, 0)
+ON CONFLICT (id) DO NOTHING;
+
+-- Statement-level: a bulk import or an item merge is one bump, not one per row
+CREATE OR REPLACE FUNCTION bump_ledger_version() RETURNS trigger AS $$
+BEGIN
+    UPDATE ledger_version SET version = version + 1 WHERE id = 1;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_ledger_version ON stock_transactions;
+CREATE TRIGGER trg_ledger_version
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON stock_transactions
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_ledger_version();
+
+DROP TRIGGER IF EXISTS trg_ledger_version ON items;
+CREATE TRIGGER trg_ledger_version
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON items
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_ledger_version();
+
+DROP TRIGGER IF EXISTS trg_ledger_version ON suppliers;
+CREATE TRIGGER trg_ledger_version
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON suppliers
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_ledger_version();
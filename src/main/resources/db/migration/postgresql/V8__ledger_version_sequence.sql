@@ -0,0 +1,59 @@
+-- The V7 counter was a single row every writer updated, so concurrent
+-- writers to any ledger table queued on its row lock until the first one
+-- committed. The version now comes from a sequence: nextval never blocks.
+--
+-- nextval is not rolled back and is visible before its transaction commits,
+-- so the bump is a deferred constraint trigger: it runs as the writing
+-- transaction commits, not when the statement runs. A report built while
+-- the writer is still open reads the old version and the old rows; it only
+-- misses sooner if the writer rolls back. TRUNCATE cannot be deferred and
+-- bumps straight away.
+CREATE SEQUENCE IF NOT EXISTS ledger_version_seq;
+
+-- Continue above the last V7 version so no cached report key is reused
+SELECT setval('ledger_version_seq', (SELECT version + 1 FROM ledger_version WHERE id = 1));
+
+CREATE OR REPLACE FUNCTION bump_ledger_version() RETURNS trigger AS $$
+BEGIN
+    PERFORM nextval('ledger_version_seq');
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_ledger_version ON stock_transactions;
+CREATE CONSTRAINT TRIGGER trg_ledger_version
+    AFTER INSERT OR UPDATE OR DELETE ON stock_transactions
+    DEFERRABLE INITIALLY DEFERRED
+    FOR EACH ROW EXECUTE FUNCTION bump_ledger_version();
+
+DROP TRIGGER IF EXISTS trg_ledger_version ON items;
+CREATE CONSTRAINT TRIGGER trg_ledger_version
+    AFTER INSERT OR UPDATE OR DELETE ON items
+    DEFERRABLE INITIALLY DEFERRED
+    FOR EACH ROW EXECUTE FUNCTION bump_ledger_version();
+
+DROP TRIGGER IF EXISTS trg_ledger_version ON suppliers;
+CREATE CONSTRAINT TRIGGER trg_ledger_version
+    AFTER INSERT OR UPDATE OR DELETE ON suppliers
+    DEFERRABLE INITIALLY DEFERRED
+    FOR EACH ROW EXECUTE FUNCTION bump_ledger_version();
+
+DROP TRIGGER IF EXISTS trg_ledger_version_truncate ON stock_transactions;
+CREATE TRIGGER trg_ledger_version_truncate
+    AFTER TRUNCATE ON stock_transactions
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_ledger_version();
+
+DROP TRIGGER IF EXISTS trg_ledger_version_truncate ON items;
+CREATE TRIGGER trg_ledger_version_truncate
+    AFTER TRUNCATE ON items
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_ledger_version();
+
+DROP TRIGGER IF EXISTS trg_ledger_version_truncate ON suppliers;
+CREATE TRIGGER trg_ledger_version_truncate
+    AFTER TRUNCATE ON suppliers
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_ledger_version();
+
+-- Same name and column as before, so the read is the same on both vendors
+DROP TABLE ledger_version;
+CREATE VIEW ledger_version AS
+SELECT last_value AS version FROM ledger_version_seq;
@@ -0,0 +1,185 @@
+package npk.rca.ims.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two in-memory H2 databases stand in for the primary and the replica; each
+ * holds a single row naming itself, so a query shows where it was routed.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private static final Duration WINDOW = Duration.ofSeconds(5);
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+
+    private ReplicaRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = node("primary");
+        DataSource replica = node("replica");
+        routingDataSource = new ReplicaRoutingDataSource(primary, Map.of("replica-0", replica), WINDOW, clock);
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Read-only transactions should go to the replica")
+    void readOnlyTransaction_ShouldUseReplica() {
+        assertEquals("replica", readOnly.execute(status -> whereAmI()));
+    }
+
+    @Test
+    @DisplayName("Read-write transactions and non-transactional work should go to the primary")
+    void readWriteTransaction_ShouldUsePrimary() {
+        assertEquals("primary", readWrite.execute(status -> whereAmI()));
+        assertEquals("primary", whereAmI());
+    }
+
+    @Test
+    @DisplayName("Should pin a user's reads to the primary for the window after they write")
+    void readAfterWrite_ShouldStayOnPrimaryWithinWindow() {
+        signIn("alice");
+        readWrite.execute(status -> whereAmI());
+
+        assertEquals("primary", readOnly.execute(status -> whereAmI()));
+
+        signIn("bob");
+        assertEquals("replica", readOnly.execute(status -> whereAmI()));
+
+        signIn("alice");
+        clock.advance(WINDOW.plusSeconds(1));
+        assertEquals("replica", readOnly.execute(status -> whereAmI()));
+    }
+
+    @Test
+    @DisplayName("Should not pin a user's reads after a rolled back write")
+    void readAfterRollback_ShouldUseReplica() {
+        signIn("alice");
+        readWrite.execute(status -> {
+            whereAmI();
+            status.setRollbackOnly();
+            return null;
+        });
+
+        assertEquals("replica", readOnly.execute(status -> whereAmI()));
+    }
+
+    @Test
+    @DisplayName("Read-your-writes window should cover the allowed replica lag")
+    void effectiveWindow_ShouldBeAtLeastMaxLag() {
+        ReplicaProperties properties = new ReplicaProperties();
+        properties.setReadYourWritesWindow(Duration.ofSeconds(5));
+        properties.setMaxLag(Duration.ofSeconds(30));
+        assertEquals(Duration.ofSeconds(30), properties.effectiveReadYourWritesWindow());
+
+        properties.setReadYourWritesWindow(Duration.ofMinutes(1));
+        assertEquals(Duration.ofMinutes(1), properties.effectiveReadYourWritesWindow());
+    }
+
+    @Test
+    @DisplayName("Should fall back to the primary while no replica is healthy")
+    void unhealthyReplica_ShouldFallBackToPrimary() {
+        assertTrue(routingDataSource.markUnhealthy("replica-0"));
+        assertEquals("primary", readOnly.execute(status -> whereAmI()));
+
+        assertTrue(routingDataSource.markHealthy("replica-0"));
+        assertEquals("replica", readOnly.execute(status -> whereAmI()));
+    }
+
+    @Test
+    @DisplayName("Health monitor should take out lagging or failing replicas and restore them")
+    void healthMonitor_ShouldFollowLagQuery() {
+        new ReplicaHealthMonitor(routingDataSource, "SELECT 60", Duration.ofSeconds(30)).checkReplicas();
+        assertFalse(routingDataSource.isHealthy("replica-0"));
+
+        new ReplicaHealthMonitor(routingDataSource, "SELECT 0", Duration.ofSeconds(30)).checkReplicas();
+        assertTrue(routingDataSource.isHealthy("replica-0"));
+
+        new ReplicaHealthMonitor(routingDataSource, "SELECT no_such_column FROM node", Duration.ofSeconds(30)).checkReplicas();
+        assertFalse(routingDataSource.isHealthy("replica-0"));
+
+        new ReplicaHealthMonitor(routingDataSource, "", Duration.ofSeconds(30)).checkReplicas();
+        assertTrue(routingDataSource.isHealthy("replica-0"));
+    }
+
+    private String whereAmI() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private void signIn(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, List.of()));
+    }
+
+    private static DataSource node(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:routing_" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(20))");
+        jdbc.execute("DELETE FROM node");
+        jdbc.update("INSERT INTO node (name) VALUES (?)", name);
+        return dataSource;
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
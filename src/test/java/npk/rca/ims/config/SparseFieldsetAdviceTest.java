@@ -0,0 +1,78 @@
+package npk.rca.ims.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import npk.rca.ims.dto.ItemDTO;
+import npk.rca.ims.dto.PageDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SparseFieldsetAdviceTest {
+
+    private final SparseFieldsetAdvice advice = new SparseFieldsetAdvice();
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .setFilterProvider(JacksonConfig.serializeAll());
+
+    private PageDTO<ItemDTO> page;
+
+    @BeforeEach
+    void setUp() {
+        ItemDTO item = new ItemDTO();
+        item.setId(1L);
+        item.setName("Rice");
+        item.setUnit("kg");
+        item.setCurrentBalance(40);
+        page = new PageDTO<>(List.of(item), 0, 50, 1, 1);
+    }
+
+    @Test
+    @DisplayName("Should write only the requested properties of filtered DTOs")
+    void beforeBodyWrite_ShouldKeepOnlyRequestedFields() throws Exception {
+        JsonNode json = write("id, name");
+
+        JsonNode item = json.get("content").get(0);
+        assertEquals(2, item.size());
+        assertEquals("Rice", item.get("name").asText());
+        assertFalse(item.has("currentBalance"));
+        // the page wrapper is not filtered
+        assertEquals(1, json.get("totalElements").asInt());
+    }
+
+    @Test
+    @DisplayName("Should write every property without ?fields=")
+    void beforeBodyWrite_ShouldKeepEverything_WhenNoFieldsRequested() throws Exception {
+        JsonNode item = write(null).get("content").get(0);
+
+        assertEquals(40, item.get("currentBalance").asInt());
+        assertEquals(ItemDTO.FIELDS.size(), item.size());
+    }
+
+    private JsonNode write(String fields) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/items");
+        if (fields != null) {
+            request.setParameter("fields", fields);
+        }
+        MappingJacksonValue body = (MappingJacksonValue) advice.beforeBodyWrite(page, null, MediaType.APPLICATION_JSON,
+                MappingJackson2HttpMessageConverter.class, new ServletServerHttpRequest(request),
+                new ServletServerHttpResponse(new MockHttpServletResponse()));
+
+        String json = body.getFilters() != null
+                ? objectMapper.writer(body.getFilters()).writeValueAsString(body.getValue())
+                : objectMapper.writeValueAsString(body.getValue());
+        return objectMapper.readTree(json);
+    }
+}
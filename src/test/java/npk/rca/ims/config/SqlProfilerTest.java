@@ -0,0 +1,184 @@
+package npk.rca.ims.config;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs real statements through a datasource-proxy wrapped H2 database
+ */
+class SqlProfilerTest {
+
+    private SqlProfileProperties properties;
+    private SqlProfiler profiler;
+    private DataSource dataSource;
+    private Connection keepAlive;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        properties = new SqlProfileProperties();
+        profiler = new SqlProfiler(properties);
+
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:sql-profiler;DB_CLOSE_DELAY=-1");
+        keepAlive = h2.getConnection();
+        try (Statement statement = keepAlive.createStatement()) {
+            statement.execute("CREATE TABLE fruit (id BIGINT PRIMARY KEY, name VARCHAR(50))");
+            statement.execute("INSERT INTO fruit VALUES (1, 'apple'), (2, 'banana'), (3, 'cherry')");
+        }
+
+        dataSource = ProxyDataSourceBuilder.create(h2)
+                .listener(profiler)
+                .proxyResultSet(profiler.rowCounter())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (Statement statement = keepAlive.createStatement()) {
+            statement.execute("DROP TABLE fruit");
+        }
+        keepAlive.close();
+    }
+
+    @Test
+    @DisplayName("Should group executions of one statement and count the rows read")
+    void afterQuery_ShouldAggregatePerNormalizedStatement() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            for (long id = 1; id <= 3; id++) {
+                readAll(connection, "SELECT name FROM fruit WHERE id = ?", id);
+            }
+            readAll(connection, "SELECT name FROM fruit WHERE id IN (1, 2)", null);
+            readAll(connection, "SELECT name FROM fruit WHERE id IN (3)", null);
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("UPDATE fruit SET name = 'kiwi' WHERE id > 1");
+            }
+        }
+
+        Map<String, SqlStatementStats> stats = statsBySql();
+        SqlStatementStats byId = stats.get("SELECT name FROM fruit WHERE id = ?");
+        assertEquals(3, byId.getCount());
+        assertEquals(3, byId.getRows());
+        assertEquals("(Long)", byId.getParameterShape());
+        assertTrue(byId.getMaxNanos() > 0);
+        assertTrue(byId.percentileNanos(50) <= byId.percentileNanos(99));
+
+        SqlStatementStats inList = stats.get("SELECT name FROM fruit WHERE id in (?...)");
+        assertEquals(2, inList.getCount());
+        assertEquals(3, inList.getRows());
+
+        SqlStatementStats update = stats.get("UPDATE fruit SET name = ? WHERE id > ?");
+        assertEquals(1, update.getCount());
+        assertEquals(2, update.getRows());
+        assertEquals(0, update.getSlowCount());
+    }
+
+    @Test
+    @DisplayName("Should mark statements at or over the threshold as slow")
+    void afterQuery_ShouldCountSlowStatements() throws SQLException {
+        properties.setSlowStatementThreshold(Duration.ZERO);
+
+        try (Connection connection = dataSource.getConnection()) {
+            readAll(connection, "SELECT name FROM fruit WHERE id = ?", 1L);
+        }
+
+        assertEquals(1, statsBySql().get("SELECT name FROM fruit WHERE id = ?").getSlowCount());
+    }
+
+    @Test
+    @DisplayName("Should stop tracking new statements at the limit and count them instead")
+    void afterQuery_ShouldCapDistinctStatements() throws SQLException {
+        properties.setMaxStatements(1);
+
+        try (Connection connection = dataSource.getConnection()) {
+            readAll(connection, "SELECT name FROM fruit WHERE id = ?", 1L);
+            readAll(connection, "SELECT id FROM fruit WHERE name = ?", "apple");
+        }
+
+        assertEquals(1, profiler.getStatements().size());
+        assertEquals(1, profiler.getUntrackedCount());
+
+        profiler.reset();
+        assertTrue(profiler.getStatements().isEmpty());
+        assertEquals(0, profiler.getUntrackedCount());
+    }
+
+    @Test
+    @DisplayName("Should keep working across a request and leave nothing behind on the thread")
+    void endRequest_ShouldClearRequestProfile() throws SQLException {
+        properties.setSlowRequestThreshold(Duration.ZERO);
+
+        profiler.beginRequest("GET /api/fruit");
+        try (Connection connection = dataSource.getConnection()) {
+            readAll(connection, "SELECT name FROM fruit WHERE id = ?", 1L);
+            readAll(connection, "SELECT name FROM fruit WHERE id = ?", 2L);
+        } finally {
+            profiler.endRequest();
+        }
+
+        assertEquals(2, statsBySql().get("SELECT name FROM fruit WHERE id = ?").getCount());
+        assertDoesNotThrow(profiler::endRequest);
+    }
+
+    @Test
+    @DisplayName("Should pass result set calls through and count only rows next() returns")
+    void rowCounter_ShouldCountRowsOnly() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT name FROM fruit ORDER BY id")) {
+            assertTrue(resultSet.next());
+            assertEquals("apple", resultSet.getString("name"));
+            assertFalse(resultSet.isWrapperFor(PreparedStatement.class));
+            assertThrows(SQLException.class, () -> resultSet.getString("missing"));
+            assertTrue(resultSet.next());
+        }
+
+        assertEquals(2, statsBySql().get("SELECT name FROM fruit ORDER BY id").getRows());
+    }
+
+    @Test
+    @DisplayName("Should replace literals and collapse IN lists and whitespace")
+    void normalize_ShouldReplaceLiterals() {
+        assertEquals("select * from items i1_0 where i1_0.name = ? and i1_0.minimum_stock > ? and i1_0.id in (?...)",
+                SqlProfiler.normalize("select *  from items i1_0\n where i1_0.name = 'It''s' "
+                        + "and i1_0.minimum_stock > -2.5 and i1_0.id in (?, ?,?)"));
+        assertEquals("select st1_0.id from stock_transactions st1_0 offset ? rows fetch first ? rows only",
+                SqlProfiler.normalize("select st1_0.id from stock_transactions st1_0 offset 0 rows fetch first 50 rows only"));
+    }
+
+    private static void readAll(Connection connection, String sql, Object parameter) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            if (parameter instanceof Long id) {
+                statement.setLong(1, id);
+            } else if (parameter instanceof String text) {
+                statement.setString(1, text);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    resultSet.getObject(1);
+                }
+            }
+        }
+    }
+
+    private Map<String, SqlStatementStats> statsBySql() {
+        return profiler.getStatements().stream()
+                .collect(Collectors.toMap(SqlStatementStats::getSql, Function.identity()));
+    }
+}
@@ -0,0 +1,135 @@
+package npk.rca.ims.config;
+
+import npk.rca.ims.exceptions.WorkloadRejectedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkloadInterceptorTest {
+
+    private Map<WorkloadType, WorkloadBulkhead> bulkheads;
+    private Jobs target;
+    private Jobs jobs;
+
+    @BeforeEach
+    void setUp() {
+        bulkheads = new EnumMap<>(WorkloadType.class);
+        bulkheads.put(WorkloadType.OLTP, new WorkloadBulkhead(WorkloadType.OLTP, 0, Duration.ZERO));
+        bulkheads.put(WorkloadType.REPORTING, new WorkloadBulkhead(WorkloadType.REPORTING, 1, Duration.ofMillis(50)));
+        bulkheads.put(WorkloadType.SCHEDULED, new WorkloadBulkhead(WorkloadType.SCHEDULED, 1, Duration.ofMillis(50)));
+
+        target = new Jobs();
+        ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(new WorkloadInterceptor(bulkheads));
+        jobs = (Jobs) proxyFactory.getProxy();
+        target.self = jobs;
+    }
+
+    @Test
+    @DisplayName("Class annotation should apply and method annotation should override it")
+    void invoke_ShouldEnterAnnotatedWorkload() throws Exception {
+        assertEquals(WorkloadType.REPORTING, jobs.report());
+        assertEquals(WorkloadType.SCHEDULED, jobs.cleanup());
+        assertNull(WorkloadContext.current());
+    }
+
+    @Test
+    @DisplayName("Nested calls should join the outer workload without taking another slot")
+    void invoke_ShouldJoinOuterWorkload() {
+        assertEquals(WorkloadType.SCHEDULED, jobs.cleanupThenReport());
+        assertEquals(0, bulkheads.get(WorkloadType.REPORTING).getInFlight());
+    }
+
+    @Test
+    @DisplayName("Should reject callers once the workload is at its limit")
+    void invoke_ShouldRejectWhenSaturated() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        target.blocker = () -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+        };
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<WorkloadType> first = executor.submit(jobs::report);
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            assertEquals(1, bulkheads.get(WorkloadType.REPORTING).getInFlight());
+
+            target.blocker = null;
+            assertThrows(WorkloadRejectedException.class, () -> jobs.report());
+            assertEquals(1, bulkheads.get(WorkloadType.REPORTING).getRejected());
+
+            release.countDown();
+            assertEquals(WorkloadType.REPORTING, first.get(5, TimeUnit.SECONDS));
+            assertEquals(WorkloadType.REPORTING, jobs.report());
+            assertEquals(0, bulkheads.get(WorkloadType.REPORTING).getInFlight());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("A task handed to another thread should join the workload of the thread that created it")
+    void propagate_ShouldRunTaskInCallersWorkload() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            target.executor = executor;
+            assertEquals(WorkloadType.SCHEDULED, jobs.cleanupThenReportElsewhere());
+            assertEquals(0, bulkheads.get(WorkloadType.REPORTING).getInFlight());
+            assertNull(executor.submit(WorkloadContext::current).get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    interface Blocker {
+        void await() throws InterruptedException;
+    }
+
+    @Workload(WorkloadType.REPORTING)
+    static class Jobs {
+        Jobs self;
+        volatile Blocker blocker;
+        ExecutorService executor;
+
+        public WorkloadType report() throws InterruptedException {
+            if (blocker != null) {
+                blocker.await();
+            }
+            return WorkloadContext.current();
+        }
+
+        @Workload(WorkloadType.SCHEDULED)
+        public WorkloadType cleanup() {
+            return WorkloadContext.current();
+        }
+
+        @Workload(WorkloadType.SCHEDULED)
+        public WorkloadType cleanupThenReportElsewhere() throws Exception {
+            return executor.submit(WorkloadContext.propagate(self::report)).get(5, TimeUnit.SECONDS);
+        }
+
+        @Workload(WorkloadType.SCHEDULED)
+        public WorkloadType cleanupThenReport() {
+            try {
+                return self.report();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -1,34 +1,55 @@
 package npk.rca.ims.controller;
 
+import npk.rca.ims.exceptions.ResourceNotFoundException;
 import npk.rca.ims.service.FileStorageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
 @AutoConfigureMockMvc
 class FileControllerTest {
 
+    private static final String CONTENT = "Hello, World!";
+
     @Autowired
     private MockMvc mockMvc;
 
     @MockBean
     private FileStorageService fileStorageService;
 
+    @TempDir
+    Path tempDir;
+
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = Files.writeString(tempDir.resolve("test.txt"), CONTENT);
+    }
+
     @Test
     @WithMockUser(roles = "USER")
     void uploadFile_ShouldBeAllowedForAuthenticatedUser() throws Exception {
@@ -60,10 +81,69 @@ class FileControllerTest {
 
     @Test
     void downloadFile_ShouldBeAllowedPublicly() throws Exception {
-        Resource resource = new ByteArrayResource("content".getBytes());
-        given(fileStorageService.loadFileAsResource("test.txt")).willReturn(resource);
+        given(fileStorageService.loadFile("test.txt")).willReturn(file);
 
         mockMvc.perform(get("/api/files/download/test.txt"))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, CONTENT.length()))
+                .andExpect(content().string(CONTENT));
+    }
+
+    @Test
+    @DisplayName("Should return only the requested byte range")
+    void downloadFile_ShouldReturnPartialContent_WhenRangeRequested() throws Exception {
+        given(fileStorageService.loadFile("test.txt")).willReturn(file);
+
+        mockMvc.perform(get("/api/files/download/test.txt").header(HttpHeaders.RANGE, "bytes=7-11"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 7-11/" + CONTENT.length()))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 5))
+                .andExpect(content().string("World"));
+    }
+
+    @Test
+    @DisplayName("Should answer 416 when the range starts past the end of the file")
+    void downloadFile_ShouldRejectUnsatisfiableRange() throws Exception {
+        given(fileStorageService.loadFile("test.txt")).willReturn(file);
+
+        mockMvc.perform(get("/api/files/download/test.txt").header(HttpHeaders.RANGE, "bytes=500-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + CONTENT.length()));
+    }
+
+    @Test
+    @DisplayName("Should send the whole file when If-Range no longer matches")
+    void downloadFile_ShouldIgnoreRange_WhenIfRangeIsStale() throws Exception {
+        given(fileStorageService.loadFile("test.txt")).willReturn(file);
+
+        mockMvc.perform(get("/api/files/download/test.txt")
+                        .header(HttpHeaders.RANGE, "bytes=7-11")
+                        .header(HttpHeaders.IF_RANGE, "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(content().string(CONTENT));
+    }
+
+    @Test
+    @DisplayName("Should answer 304 when the client already has the current version")
+    void downloadFile_ShouldReturnNotModified_WhenETagMatches() throws Exception {
+        given(fileStorageService.loadFile("test.txt")).willReturn(file);
+
+        String etag = mockMvc.perform(get("/api/files/download/test.txt"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/files/download/test.txt").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void downloadFile_ShouldReturnNotFound_WhenFileMissing() throws Exception {
+        given(fileStorageService.loadFile("missing.txt")).willThrow(new ResourceNotFoundException("File not found missing.txt"));
+
+        mockMvc.perform(get("/api/files/download/missing.txt"))
+                .andExpect(status().isNotFound());
     }
 }
@@ -1,7 +1,13 @@
 package npk.rca.ims.controller;
 
+import npk.rca.ims.dto.BatchGetRequest;
+import npk.rca.ims.dto.BatchGetResponse;
 import npk.rca.ims.dto.DeleteRequestDTO;
+import npk.rca.ims.dto.FieldSet;
 import npk.rca.ims.dto.ItemDTO;
+import npk.rca.ims.dto.ItemFilter;
+import npk.rca.ims.dto.ItemMergeRequest;
+import npk.rca.ims.dto.PageDTO;
 import npk.rca.ims.service.ItemService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -45,14 +51,29 @@ class ItemControllerTest {
     }
 
     @Test
-    void getAllItems_ShouldReturnListOfItems() {
-        when(itemService.getFilteredItems(null, null, null, "name,asc"))
-                .thenReturn(Arrays.asList(testItemDTO));
+    void getAllItems_ShouldReturnPageOfItems() {
+        ItemFilter filter = ItemFilter.builder().category("Grains").build();
+        when(itemService.getItemCatalogue(filter, FieldSet.ALL, "name,asc", 0, 50))
+                .thenReturn(new PageDTO<>(List.of(testItemDTO), 0, 50, 1, 1));
 
-        ResponseEntity<List<ItemDTO>> response = itemController.getAllItems(null, null, null, "name,asc");
+        ResponseEntity<PageDTO<ItemDTO>> response = itemController.getAllItems(filter, null, "name,asc", 0, 50);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(1, response.getBody().size());
+        assertEquals(1, response.getBody().getContent().size());
+        assertEquals(1, response.getBody().getTotalElements());
+    }
+
+    @Test
+    void getItemsByIds_ShouldReturnBatch() {
+        when(itemService.getItemsByIds(List.of(1L, 2L)))
+                .thenReturn(new BatchGetResponse<>(List.of(testItemDTO), List.of(2L)));
+
+        ResponseEntity<BatchGetResponse<ItemDTO>> response =
+                itemController.getItemsByIds(new BatchGetRequest(List.of(1L, 2L)));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().getContent().size());
+        assertEquals(List.of(2L), response.getBody().getMissingIds());
     }
 
     @Test
@@ -97,4 +118,18 @@ class ItemControllerTest {
 
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
     }
+
+    @Test
+    void mergeItems_ShouldReturnMergedItem() {
+        ItemMergeRequest mergeRequest = new ItemMergeRequest(List.of(2L, 3L), "password");
+
+        when(principal.getName()).thenReturn("user@example.com");
+        when(itemService.mergeItemsWithPasswordVerification(1L, List.of(2L, 3L), "user@example.com", "password"))
+                .thenReturn(testItemDTO);
+
+        ResponseEntity<ItemDTO> response = itemController.mergeItems(1L, mergeRequest, principal);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("Test Item", response.getBody().getName());
+    }
 }
@@ -0,0 +1,334 @@
+package npk.rca.ims.controller;
+
+import jakarta.persistence.EntityManagerFactory;
+import npk.rca.ims.model.User;
+import npk.rca.ims.repository.UserRepository;
+import npk.rca.ims.service.JwtService;
+import npk.rca.ims.support.QueryCountConfig;
+import npk.rca.ims.support.QueryCounter;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of SQL statements each endpoint runs against a fixed
+ * dataset (query-count/seed.sql). A change that adds a query per row, or an
+ * extra round trip, fails here with the statements listed; if the new count
+ * is intended, update the number in the same change.
+ *
+ * The second-level cache is cleared before every request, so these are the
+ * cold-cache counts.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(QueryCountConfig.class)
+@Sql(scripts = "/query-count/seed.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_CLASS)
+@Sql(scripts = "/query-count/cleanup.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_CLASS)
+class QueryCountBaselineTest {
+
+    // Items in seed.sql, and how many of them are below their minimum stock.
+    // Counts written in terms of these still run a query per item: known
+    // N+1s, kept visible until they are fixed.
+    private static final int SEEDED_ITEMS = 4;
+    private static final int LOW_STOCK_ITEMS = 3;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private QueryCounter queryCounter;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Value("${app.file.upload-dir}")
+    private String uploadDir;
+
+    private String bearer;
+
+    @BeforeEach
+    void setUp() {
+        User admin = userRepository.findByEmail("querycount@example.com").orElseThrow();
+        bearer = "Bearer " + jwtService.generateToken(admin);
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    // Admin
+
+    @Test
+    @DisplayName("GET /api/admin/users")
+    void adminUsers() throws Exception {
+        expectStatements(1, get("/api/admin/users"));
+    }
+
+    @Test
+    @DisplayName("GET /api/admin/cache/stats")
+    void adminCacheStats() throws Exception {
+        expectStatements(0, get("/api/admin/cache/stats"));
+    }
+
+    @Test
+    @DisplayName("GET /api/admin/workloads")
+    void adminWorkloads() throws Exception {
+        expectStatements(0, get("/api/admin/workloads"));
+    }
+
+    // Analytics
+
+    @Test
+    @DisplayName("GET /api/analytics/summary")
+    void analyticsSummary() throws Exception {
+        expectStatements(4, get("/api/analytics/summary"));
+    }
+
+    // Auth
+
+    @Test
+    @DisplayName("GET /api/auth/profile")
+    void authProfile() throws Exception {
+        expectStatements(1, get("/api/auth/profile"));
+    }
+
+    @Test
+    @DisplayName("GET /api/auth/validate")
+    void authValidate() throws Exception {
+        expectStatements(0, get("/api/auth/validate"));
+    }
+
+    // Balances
+
+    @Test
+    @DisplayName("POST /api/balances/batch-get")
+    void balancesBatchGet() throws Exception {
+        expectStatements(2, post("/api/balances/batch-get")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ids\": [9001, 9002, 9003, 9999]}"));
+    }
+
+    // Dashboard
+
+    @Test
+    @DisplayName("GET /api/dashboard/metrics")
+    void dashboardMetrics() throws Exception {
+        expectStatements(1 + 2 * SEEDED_ITEMS + 3, get("/api/dashboard/metrics"));
+    }
+
+    @Test
+    @DisplayName("GET /api/dashboard/chart-data")
+    void dashboardChartData() throws Exception {
+        expectStatements(4, get("/api/dashboard/chart-data"));
+    }
+
+    @Test
+    @DisplayName("GET /api/dashboard/recent-transactions")
+    void dashboardRecentTransactions() throws Exception {
+        expectStatements(2, get("/api/dashboard/recent-transactions"));
+    }
+
+    @Test
+    @DisplayName("GET /api/dashboard/notifications")
+    void dashboardNotifications() throws Exception {
+        expectStatements(1 + 2 * SEEDED_ITEMS + 2 * LOW_STOCK_ITEMS, get("/api/dashboard/notifications"));
+    }
+
+    // Files
+
+    @Test
+    @DisplayName("GET /api/files/download/{fileName} never touches the database")
+    void filesDownload() throws Exception {
+        Path file = Path.of(uploadDir, "query-count.txt");
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, "query count");
+
+        expectStatements(0, get("/api/files/download/query-count.txt"));
+    }
+
+    // Items
+
+    @Test
+    @DisplayName("GET /api/items")
+    void itemsCatalogue() throws Exception {
+        expectStatements(1, get("/api/items").param("category", "Grains"));
+    }
+
+    @Test
+    @DisplayName("GET /api/items sorted by balance with a status filter")
+    void itemsCatalogueByStatus() throws Exception {
+        expectStatements(1, get("/api/items")
+                .param("status", "Mucye")
+                .param("sort", "currentBalance,desc"));
+    }
+
+    @Test
+    @DisplayName("GET /api/items/{id}")
+    void itemById() throws Exception {
+        expectStatements(3, get("/api/items/9001"));
+    }
+
+    @Test
+    @DisplayName("POST /api/items/batch-get")
+    void itemsBatchGet() throws Exception {
+        expectStatements(2, post("/api/items/batch-get")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ids\": [9001, 9002, 9003, 9004]}"));
+    }
+
+    // Purchase orders
+
+    @Test
+    @DisplayName("GET /api/purchase-orders")
+    void purchaseOrders() throws Exception {
+        expectStatements(1, get("/api/purchase-orders").param("supplierId", "9001"));
+    }
+
+    @Test
+    @DisplayName("GET /api/purchase-orders/{id}")
+    void purchaseOrderById() throws Exception {
+        expectStatements(1, get("/api/purchase-orders/9001"));
+    }
+
+    // Recipes
+
+    @Test
+    @DisplayName("GET /api/recipes")
+    void recipes() throws Exception {
+        expectStatements(1, get("/api/recipes"));
+    }
+
+    @Test
+    @DisplayName("GET /api/recipes/{id}")
+    void recipeById() throws Exception {
+        expectStatements(1, get("/api/recipes/9001"));
+    }
+
+    // Reports
+
+    @Test
+    @DisplayName("GET /api/reports/balance")
+    void reportsBalance() throws Exception {
+        expectStatements(2, get("/api/reports/balance"));
+    }
+
+    @Test
+    @DisplayName("GET /api/reports/balance without balance fields")
+    void reportsBalanceNamesOnly() throws Exception {
+        expectStatements(1, get("/api/reports/balance").param("fields", "itemId,itemName"));
+    }
+
+    @Test
+    @DisplayName("GET /api/reports/low-stock")
+    void reportsLowStock() throws Exception {
+        expectStatements(2, get("/api/reports/low-stock"));
+    }
+
+    @Test
+    @DisplayName("GET /api/reports/categories")
+    void reportsCategories() throws Exception {
+        expectStatements(1 + 2 * SEEDED_ITEMS, get("/api/reports/categories"));
+    }
+
+    @Test
+    @DisplayName("GET /api/reports/history")
+    void reportsHistory() throws Exception {
+        expectStatements(1, get("/api/reports/history"));
+    }
+
+    @Test
+    @DisplayName("GET /api/reports/schedule")
+    void reportsSchedule() throws Exception {
+        expectStatements(1, get("/api/reports/schedule"));
+    }
+
+    // Search
+
+    @Test
+    @DisplayName("GET /api/search/suggest never touches the database")
+    void searchSuggest() throws Exception {
+        expectStatements(0, get("/api/search/suggest").param("q", "rice"));
+    }
+
+    // Transactions
+
+    @Test
+    @DisplayName("GET /api/transactions")
+    void transactions() throws Exception {
+        // The page, then balanceAfter for just the page's items
+        expectStatements(2, get("/api/transactions"));
+    }
+
+    @Test
+    @DisplayName("GET /api/transactions for one item")
+    void transactionsForItem() throws Exception {
+        expectStatements(3, get("/api/transactions").param("itemId", "9001"));
+    }
+
+    @Test
+    @DisplayName("GET /api/transactions/date-range")
+    void transactionsByDateRange() throws Exception {
+        expectStatements(2, get("/api/transactions/date-range")
+                .param("startDate", "2024-03-01")
+                .param("endDate", "2024-03-31"));
+    }
+
+    @Test
+    @DisplayName("GET /api/transactions/search")
+    void transactionsSearch() throws Exception {
+        // Warm the in-memory index first: the cold load reads the whole ledger in batches
+        mockMvc.perform(get("/api/transactions/search").param("q", "delivery").header("Authorization", bearer))
+                .andExpect(status().isOk());
+
+        expectStatements(4, get("/api/transactions/search").param("q", "delivery"));
+    }
+
+    @Test
+    @DisplayName("POST /api/transactions/batch-get")
+    void transactionsBatchGet() throws Exception {
+        expectStatements(2, post("/api/transactions/batch-get")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ids\": [9001, 9002, 9003, 9004, 9005, 9006]}"));
+    }
+
+    // Suppliers
+
+    @Test
+    @DisplayName("GET /api/suppliers")
+    void suppliers() throws Exception {
+        expectStatements(1, get("/api/suppliers"));
+    }
+
+    @Test
+    @DisplayName("GET /api/suppliers/inactive")
+    void inactiveSuppliers() throws Exception {
+        expectStatements(1, get("/api/suppliers/inactive"));
+    }
+
+    private void expectStatements(int expected, MockHttpServletRequestBuilder request) throws Exception {
+        queryCounter.reset();
+        mockMvc.perform(request.header("Authorization", bearer))
+                .andExpect(status().is2xxSuccessful());
+        queryCounter.assertStatements(expected);
+    }
+}
@@ -1,5 +1,7 @@
 package npk.rca.ims.controller;
 
+import npk.rca.ims.exceptions.ReportGenerationException;
+import npk.rca.ims.exceptions.WorkloadRejectedException;
 import npk.rca.ims.model.ScheduledReportConfig;
 import npk.rca.ims.repository.ScheduledReportConfigRepository;
 import npk.rca.ims.service.JwtService;
@@ -9,11 +11,13 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.IOException;
 import java.util.Arrays;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -21,6 +25,8 @@ import static org.mockito.BDDMockito.given;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(ReportController.class)
@@ -70,4 +76,27 @@ class ReportControllerTest {
                         .content("{\"email\":\"test@example.com\",\"frequency\":\"DAILY\",\"reportType\":\"TRANSACTION_HISTORY\"}"))
                 .andExpect(status().isOk());
     }
+
+    @Test
+    @WithMockUser
+    void exportBalancePdf_ShouldReturnErrorBody_WhenGenerationFails() throws Exception {
+        given(reportService.generateBalanceReportPdf())
+                .willThrow(new ReportGenerationException("Failed to generate balance PDF report", new IOException("disk full")));
+
+        mockMvc.perform(get("/api/reports/export/balance/pdf"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.error").value("Report Generation Failed"))
+                .andExpect(jsonPath("$.message").value("Failed to generate balance PDF report"));
+    }
+
+    @Test
+    @WithMockUser
+    void exportPdf_ShouldReturnServiceUnavailable_WhenReportingIsBusy() throws Exception {
+        given(reportService.generateTransactionReportPdf(any(), any(), any(), any()))
+                .willThrow(new WorkloadRejectedException("Reporting is busy"));
+
+        mockMvc.perform(get("/api/reports/export/pdf"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+    }
 }
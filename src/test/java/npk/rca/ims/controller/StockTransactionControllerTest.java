@@ -1,6 +1,9 @@
 package npk.rca.ims.controller;
 
+import npk.rca.ims.dto.CursorPageDTO;
+import npk.rca.ims.dto.FieldSet;
 import npk.rca.ims.dto.StockTransactionDTO;
+import npk.rca.ims.dto.TransactionFilter;
 import npk.rca.ims.model.TransactionType;
 import npk.rca.ims.service.StockTransactionService;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,7 +20,13 @@ import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -41,23 +50,61 @@ class StockTransactionControllerTest {
     }
 
     @Test
-    void getAllTransactions_ShouldReturnAllTransactions_WhenNoItemIdProvided() {
-        when(transactionService.getAllTransactions()).thenReturn(Arrays.asList(testTransactionDTO));
+    void getAllTransactions_ShouldReturnFirstPage_WhenNoItemIdProvided() {
+        TransactionFilter filter = new TransactionFilter();
+        when(transactionService.getTransactionPage(filter, FieldSet.ALL, null, 50)).thenReturn(page(testTransactionDTO));
 
-        ResponseEntity<List<StockTransactionDTO>> response = transactionController.getAllTransactions(null);
+        ResponseEntity<CursorPageDTO<StockTransactionDTO>> response =
+                transactionController.getAllTransactions(null, filter, null, null, 50);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(1, response.getBody().size());
+        assertEquals(1, response.getBody().getContent().size());
     }
 
     @Test
-    void getAllTransactions_ShouldReturnFilteredTransactions_WhenItemIdProvided() {
-        when(transactionService.getTransactionsByItemId(1L)).thenReturn(Arrays.asList(testTransactionDTO));
+    void getAllTransactions_ShouldReturnFilteredPage_WhenItemIdProvided() {
+        when(transactionService.getTransactionPage(any(TransactionFilter.class), eq(FieldSet.ALL), eq("abc"), eq(20)))
+                .thenReturn(page(testTransactionDTO));
 
-        ResponseEntity<List<StockTransactionDTO>> response = transactionController.getAllTransactions(1L);
+        ResponseEntity<CursorPageDTO<StockTransactionDTO>> response =
+                transactionController.getAllTransactions(1L, new TransactionFilter(), null, "abc", 20);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(1, response.getBody().size());
+        assertEquals(1, response.getBody().getContent().size());
+        verify(transactionService).getTransactionPage(
+                argThat(filter -> List.of(1L).equals(filter.getItemIds())), eq(FieldSet.ALL), eq("abc"), eq(20));
+    }
+
+    @Test
+    void getAllTransactions_ShouldPassRequestedFields() {
+        when(transactionService.getTransactionPage(any(TransactionFilter.class), any(FieldSet.class), isNull(), eq(50)))
+                .thenReturn(page(testTransactionDTO));
+
+        transactionController.getAllTransactions(null, new TransactionFilter(), "id, itemName,quantity", null, 50);
+
+        verify(transactionService).getTransactionPage(any(TransactionFilter.class),
+                eq(FieldSet.of("id", "itemName", "quantity")), isNull(), eq(50));
+    }
+
+    @Test
+    void getAllTransactions_ShouldRejectUnknownField() {
+        assertThrows(IllegalArgumentException.class, () ->
+                transactionController.getAllTransactions(null, new TransactionFilter(), "id,password", null, 50));
+        verifyNoInteractions(transactionService);
+    }
+
+    @Test
+    void searchTransactions_ShouldPassQueryAndFilterToService() {
+        when(transactionService.fullTextSearch(eq("kigali foods"), any(TransactionFilter.class), isNull(), eq(50)))
+                .thenReturn(page(testTransactionDTO));
+
+        ResponseEntity<CursorPageDTO<StockTransactionDTO>> response =
+                transactionController.searchTransactions("kigali foods", 1L, new TransactionFilter(), null, 50);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().getContent().size());
+        verify(transactionService).fullTextSearch(eq("kigali foods"),
+                argThat(filter -> List.of(1L).equals(filter.getItemIds())), isNull(), eq(50));
     }
 
     @Test
@@ -65,14 +112,17 @@ class StockTransactionControllerTest {
         LocalDate startDate = LocalDate.now().minusDays(1);
         LocalDate endDate = LocalDate.now();
 
-        when(transactionService.getTransactionsByDateRange(startDate, endDate))
-                .thenReturn(Arrays.asList(testTransactionDTO));
+        when(transactionService.getTransactionPage(any(TransactionFilter.class), eq(FieldSet.ALL), isNull(), eq(50)))
+                .thenReturn(page(testTransactionDTO));
 
-        ResponseEntity<List<StockTransactionDTO>> response = 
-                transactionController.getTransactionsByDateRange(startDate, endDate);
+        ResponseEntity<CursorPageDTO<StockTransactionDTO>> response =
+                transactionController.getTransactionsByDateRange(startDate, endDate, new TransactionFilter(), null, null, 50);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(1, response.getBody().size());
+        assertEquals(1, response.getBody().getContent().size());
+        verify(transactionService).getTransactionPage(
+                argThat(filter -> startDate.equals(filter.getStartDate()) && endDate.equals(filter.getEndDate())),
+                eq(FieldSet.ALL), isNull(), eq(50));
     }
 
     @Test
@@ -84,4 +134,8 @@ class StockTransactionControllerTest {
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
         assertEquals(100, response.getBody().getQuantity());
     }
+
+    private CursorPageDTO<StockTransactionDTO> page(StockTransactionDTO... rows) {
+        return new CursorPageDTO<>(Arrays.asList(rows), null, false, rows.length);
+    }
 }
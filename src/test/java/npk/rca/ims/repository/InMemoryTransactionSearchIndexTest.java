@@ -0,0 +1,91 @@
+package npk.rca.ims.repository;
+
+import npk.rca.ims.dto.TransactionFilter;
+import npk.rca.ims.model.TransactionType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class InMemoryTransactionSearchIndexTest {
+
+    @Autowired
+    private StockTransactionRepository transactionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private InMemoryTransactionSearchIndex index;
+    private long riceId;
+    private long beansId;
+
+    @BeforeEach
+    void setUp() {
+        index = new InMemoryTransactionSearchIndex(transactionRepository);
+        riceId = item("Search Rice");
+        beansId = item("Search Beans");
+    }
+
+    @Test
+    @DisplayName("Should require every word and rank reference hits above notes hits")
+    void search_ShouldMatchAllWordsAndRankByField() {
+        long inNotes = transaction(riceId, "IN", "PO-77", "Delivery from Kigali Foods", "jane");
+        long inReference = transaction(riceId, "IN", "KIGALI-FOODS-3", "March delivery", "jane");
+        transaction(riceId, "IN", "PO-78", "Delivery from Kigali Market", "jane");
+
+        List<Long> hits = index.search("kigali foods", null, 0, 10);
+
+        assertEquals(List.of(inReference, inNotes), hits);
+    }
+
+    @Test
+    @DisplayName("Should apply the filter and page the ranked hits")
+    void search_ShouldFilterAndPage() {
+        long first = transaction(riceId, "IN", null, "Kigali Foods delivery", "jane");
+        long second = transaction(riceId, "IN", null, "Kigali Foods delivery", "jane");
+        transaction(beansId, "IN", null, "Kigali Foods delivery", "jane");
+
+        TransactionFilter riceOnly = TransactionFilter.builder().itemIds(List.of(riceId)).type(TransactionType.IN).build();
+
+        assertEquals(List.of(second), index.search("kigali", riceOnly, 0, 1));
+        assertEquals(List.of(first), index.search("kigali", riceOnly, 1, 1));
+        assertEquals(List.of(), index.search("kigali", riceOnly, 2, 1));
+    }
+
+    @Test
+    @DisplayName("Should pick up new transactions and edited notes")
+    void search_ShouldFollowInsertsAndEdits() {
+        assertTrue(index.search("expired", null, 0, 10).isEmpty());
+
+        long id = transaction(riceId, "OUT", null, "Damaged: rats", "jane");
+        assertEquals(List.of(id), index.search("rats", null, 0, 10));
+
+        jdbcTemplate.update("UPDATE stock_transactions SET notes = 'Expired: past date' WHERE id = ?", id);
+        index.reindex(id);
+
+        assertTrue(index.search("rats", null, 0, 10).isEmpty());
+        assertEquals(List.of(id), index.search("expired", null, 0, 10));
+    }
+
+    private long item(String name) {
+        jdbcTemplate.update("INSERT INTO items (name, unit, damaged_quantity, minimum_stock, created_at, updated_at) "
+                + "VALUES (?, 'kg', 0, 10, LOCALTIMESTAMP, LOCALTIMESTAMP)", name);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM items", Long.class);
+    }
+
+    private long transaction(long itemId, String type, String reference, String notes, String recordedBy) {
+        jdbcTemplate.update("INSERT INTO stock_transactions (item_id, transaction_type, quantity, transaction_date, "
+                + "reference_number, notes, recorded_by, created_at, is_reversed) "
+                + "VALUES (?, ?, 5, CURRENT_DATE, ?, ?, ?, LOCALTIMESTAMP, FALSE)", itemId, type, reference, notes, recordedBy);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM stock_transactions", Long.class);
+    }
+}
@@ -0,0 +1,135 @@
+package npk.rca.ims.repository;
+
+import npk.rca.ims.dto.FieldSet;
+import npk.rca.ims.dto.ItemDTO;
+import npk.rca.ims.dto.ItemFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the catalogue query against the migrated schema (item_balances is a
+ * view over the ledger in H2)
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ItemRepositoryTest {
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        // balance 40, minimum 10: adequate
+        long rice = item("Catalogue Rice", "Grains", 10);
+        transaction(rice, "IN", 100);
+        transaction(rice, "OUT", 60);
+        // balance 5, minimum 10: low
+        long beans = item("Catalogue Beans", "Legumes", 10);
+        transaction(beans, "IN", 5);
+        // no transactions: out of stock
+        item("Catalogue Maize", "Grains", 20);
+    }
+
+    @Test
+    @DisplayName("Should compute balances from the maintained totals")
+    void findCatalogue_ShouldReturnBalances() {
+        Page<ItemDTO> page = itemRepository.findCatalogue(filter(null, null), FieldSet.ALL, PageRequest.of(0, 10, Sort.by("name")));
+
+        assertEquals(List.of("Catalogue Beans", "Catalogue Maize", "Catalogue Rice"), names(page));
+        ItemDTO rice = page.getContent().get(2);
+        assertEquals(100, rice.getTotalIn());
+        assertEquals(60, rice.getTotalOut());
+        assertEquals(40, rice.getCurrentBalance());
+        assertFalse(rice.getIsLowStock());
+        assertEquals("Grains", rice.getCategory());
+        assertEquals(0, page.getContent().get(1).getCurrentBalance());
+    }
+
+    @Test
+    @DisplayName("Should filter by stock status")
+    void findCatalogue_ShouldFilterByStatus() {
+        assertEquals(List.of("Catalogue Rice"), names(catalogue(filter(null, "Birahagije"), Sort.by("name"))));
+        assertEquals(List.of("Catalogue Beans", "Catalogue Maize"), names(catalogue(filter(null, "Mucye"), Sort.by("name"))));
+        assertEquals(List.of("Catalogue Maize"), names(catalogue(filter(null, "Byashize"), Sort.by("name"))));
+    }
+
+    @Test
+    @DisplayName("Should filter by category, not description")
+    void findCatalogue_ShouldFilterByCategory() {
+        assertEquals(List.of("Catalogue Maize", "Catalogue Rice"), names(catalogue(filter("grains", null), Sort.by("name"))));
+    }
+
+    @Test
+    @DisplayName("Should sort by balance and minimum stock")
+    void findCatalogue_ShouldSortByBalanceAndMinimumStock() {
+        assertEquals(List.of("Catalogue Rice", "Catalogue Beans", "Catalogue Maize"),
+                names(catalogue(filter(null, null), Sort.by(Sort.Direction.DESC, "currentBalance"))));
+        assertEquals(List.of("Catalogue Maize", "Catalogue Rice", "Catalogue Beans"),
+                names(catalogue(filter(null, null), Sort.by(Sort.Direction.DESC, "minimumStock"))));
+    }
+
+    @Test
+    @DisplayName("Should page the results and count every match")
+    void findCatalogue_ShouldPageWithTotalCount() {
+        Page<ItemDTO> second = itemRepository.findCatalogue(filter(null, null), FieldSet.ALL, PageRequest.of(1, 2, Sort.by("name")));
+
+        assertEquals(List.of("Catalogue Rice"), names(second));
+        assertEquals(3, second.getTotalElements());
+        assertEquals(2, second.getTotalPages());
+    }
+
+    @Test
+    @DisplayName("Should load only the requested fields")
+    void findCatalogue_ShouldLoadOnlyRequestedFields() {
+        Page<ItemDTO> page = itemRepository.findCatalogue(filter(null, "Mucye"), FieldSet.of("id", "name"),
+                PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "currentBalance")));
+
+        assertEquals(List.of("Catalogue Beans", "Catalogue Maize"), names(page));
+        ItemDTO beans = page.getContent().get(0);
+        assertNotNull(beans.getId());
+        assertNull(beans.getUnit());
+        assertNull(beans.getCurrentBalance());
+        assertNull(beans.getIsLowStock());
+    }
+
+    private Page<ItemDTO> catalogue(ItemFilter filter, Sort sort) {
+        return itemRepository.findCatalogue(filter, FieldSet.ALL, PageRequest.of(0, 10, sort));
+    }
+
+    /**
+     * Restricted to the items of this test by name
+     */
+    private static ItemFilter filter(String category, String status) {
+        return ItemFilter.builder().name("catalogue").category(category).status(status).build();
+    }
+
+    private static List<String> names(Page<ItemDTO> page) {
+        return page.getContent().stream().map(ItemDTO::getName).toList();
+    }
+
+    private long item(String name, String category, int minimumStock) {
+        jdbcTemplate.update("INSERT INTO items (name, unit, category, description, damaged_quantity, minimum_stock, created_at, updated_at) "
+                + "VALUES (?, 'kg', ?, 'Grains', 0, ?, LOCALTIMESTAMP, LOCALTIMESTAMP)", name, category, minimumStock);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM items", Long.class);
+    }
+
+    private void transaction(long itemId, String type, int quantity) {
+        jdbcTemplate.update("INSERT INTO stock_transactions (item_id, transaction_type, quantity, transaction_date, "
+                + "created_at, is_reversed) VALUES (?, ?, ?, CURRENT_DATE, LOCALTIMESTAMP, FALSE)", itemId, type, quantity);
+    }
+}
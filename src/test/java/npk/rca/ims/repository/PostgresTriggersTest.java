@@ -0,0 +1,204 @@
+package npk.rca.ims.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the PostgreSQL migrations against a real PostgreSQL and checks the
+ * triggers H2 cannot run: item_balances (V5) and the ledger version (V9).
+ * Skipped where Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class PostgresTriggersTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static JdbcTemplate jdbcTemplate;
+    private static TransactionTemplate transactionTemplate;
+
+    private long rice;
+    private long beans;
+
+    @BeforeAll
+    static void migrate() {
+        Flyway.configure()
+                .dataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword())
+                .locations("classpath:db/migration/common", "classpath:db/migration/postgresql")
+                .load()
+                .migrate();
+
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE stock_transactions, item_balances, items RESTART IDENTITY CASCADE");
+        rice = item("Rice");
+        beans = item("Beans");
+    }
+
+    @Test
+    @DisplayName("Should add inserted rows to the item's totals, one upsert per item for a bulk insert")
+    void itemBalances_ShouldFollowInserts() {
+        transaction(rice, "IN", 100);
+        jdbcTemplate.update("INSERT INTO stock_transactions (item_id, transaction_type, quantity, transaction_date, created_at, is_reversed) "
+                + "VALUES (?, 'OUT', 30, CURRENT_DATE, LOCALTIMESTAMP, FALSE), (?, 'IN', 50, CURRENT_DATE, LOCALTIMESTAMP, FALSE), "
+                + "(?, 'OUT', 20, CURRENT_DATE, LOCALTIMESTAMP, FALSE)", rice, beans, beans);
+
+        assertEquals(List.of(100L, 30L), totals(rice));
+        assertEquals(List.of(50L, 20L), totals(beans));
+    }
+
+    @Test
+    @DisplayName("Should net a reversal to zero: the flag update changes nothing, the opposite row cancels the original")
+    void itemBalances_ShouldFollowReversal() {
+        long original = transaction(rice, "IN", 100);
+
+        jdbcTemplate.update("UPDATE stock_transactions SET is_reversed = TRUE, notes = 'Wrong item' WHERE id = ?", original);
+        assertEquals(List.of(100L, 0L), totals(rice));
+
+        jdbcTemplate.update("INSERT INTO stock_transactions (item_id, transaction_type, quantity, transaction_date, created_at, "
+                + "is_reversed, original_transaction_id) VALUES (?, 'OUT', 100, CURRENT_DATE, LOCALTIMESTAMP, FALSE, ?)", rice, original);
+        assertEquals(List.of(100L, 100L), totals(rice));
+    }
+
+    @Test
+    @DisplayName("Should move the totals with the rows when an item merge re-points them")
+    void itemBalances_ShouldFollowMerge() {
+        transaction(rice, "IN", 100);
+        transaction(rice, "OUT", 40);
+        transaction(beans, "IN", 10);
+
+        jdbcTemplate.update("UPDATE stock_transactions SET item_id = ? WHERE item_id = ?", beans, rice);
+        jdbcTemplate.update("DELETE FROM items WHERE id = ?", rice);
+
+        assertEquals(List.of(110L, 40L), totals(beans));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM item_balances WHERE item_id = ?", Integer.class, rice));
+    }
+
+    @Test
+    @DisplayName("Should take deleted rows off the item's totals")
+    void itemBalances_ShouldFollowDeletes() {
+        transaction(rice, "IN", 100);
+        long out = transaction(rice, "OUT", 40);
+
+        jdbcTemplate.update("DELETE FROM stock_transactions WHERE id = ?", out);
+
+        assertEquals(List.of(100L, 0L), totals(rice));
+    }
+
+    @Test
+    @DisplayName("Should bump the ledger version when a write commits, including a notes-only edit")
+    void ledgerVersion_ShouldBump_OnCommit() {
+        long start = ledgerVersion();
+        long id = transaction(rice, "IN", 5);
+        long afterInsert = ledgerVersion();
+        assertTrue(afterInsert > start);
+
+        jdbcTemplate.update("UPDATE stock_transactions SET notes = 'Counted twice' WHERE id = ?", id);
+        assertTrue(ledgerVersion() > afterInsert);
+    }
+
+    @Test
+    @DisplayName("Should show a concurrent reader the new version only with the rows, once per transaction")
+    void ledgerVersion_ShouldBumpWithCommit_ForConcurrentReader() {
+        JdbcTemplate reader = new JdbcTemplate(new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword()));
+        long start = ledgerVersion();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            transaction(rice, "IN", 5);
+            transaction(rice, "OUT", 2);
+            jdbcTemplate.update("UPDATE items SET minimum_stock = 20 WHERE id = ?", rice);
+
+            // The writer is still open: old version, old rows
+            assertEquals(start, reader.queryForObject("SELECT version FROM ledger_version", Long.class));
+            assertEquals(0, reader.queryForObject(
+                    "SELECT COUNT(*) FROM stock_transactions WHERE item_id = ?", Integer.class, rice));
+        });
+
+        assertEquals(start + 1, reader.queryForObject("SELECT version FROM ledger_version", Long.class));
+        assertEquals(2, reader.queryForObject(
+                "SELECT COUNT(*) FROM stock_transactions WHERE item_id = ?", Integer.class, rice));
+    }
+
+    @Test
+    @DisplayName("Should leave the ledger version alone when the write rolls back")
+    void ledgerVersion_ShouldNotBump_OnRollback() {
+        long start = ledgerVersion();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            transaction(rice, "IN", 5);
+            status.setRollbackOnly();
+        });
+
+        assertEquals(start, ledgerVersion());
+    }
+
+    @Test
+    @DisplayName("Should count every one of several concurrent writers")
+    void ledgerVersion_ShouldCountEveryConcurrentWriter() throws Exception {
+        long start = ledgerVersion();
+        int writers = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < writers; i++) {
+                results.add(executor.submit(() -> transactionTemplate.executeWithoutResult(
+                        status -> transaction(beans, "IN", 1))));
+            }
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(start + writers, ledgerVersion());
+    }
+
+    private long item(String name) {
+        return jdbcTemplate.queryForObject("INSERT INTO items (name, unit, category, description, damaged_quantity, "
+                + "minimum_stock, created_at, updated_at) VALUES (?, 'kg', 'Grains', 'Grains', 0, 10, LOCALTIMESTAMP, "
+                + "LOCALTIMESTAMP) RETURNING id", Long.class, name);
+    }
+
+    private long transaction(long itemId, String type, int quantity) {
+        return jdbcTemplate.queryForObject("INSERT INTO stock_transactions (item_id, transaction_type, quantity, "
+                + "transaction_date, created_at, is_reversed) VALUES (?, ?, ?, CURRENT_DATE, LOCALTIMESTAMP, FALSE) "
+                + "RETURNING id", Long.class, itemId, type, quantity);
+    }
+
+    private List<Long> totals(long itemId) {
+        return jdbcTemplate.queryForObject("SELECT total_in, total_out FROM item_balances WHERE item_id = ?",
+                (rs, rowNum) -> List.of(rs.getLong("total_in"), rs.getLong("total_out")), itemId);
+    }
+
+    private long ledgerVersion() {
+        return jdbcTemplate.queryForObject("SELECT version FROM ledger_version", Long.class);
+    }
+}
@@ -0,0 +1,380 @@
+package npk.rca.ims.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import npk.rca.ims.dto.TransactionCursor;
+import npk.rca.ims.dto.TransactionFilter;
+import npk.rca.ims.model.PurchaseOrderStatus;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static npk.rca.ims.repository.StockTransactionSpecifications.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Guards the indexes of postgresql/V3__query_indexes.sql: each hot
+ * repository query must be answered from its index, never by a full scan
+ * of the table.
+ *
+ * The repository methods run against a real PostgreSQL holding a few years
+ * of ledger; the SQL they send is captured with its bound parameters and
+ * replayed under EXPLAIN with the same values, so the plan is the one the
+ * query actually gets. Skipped where Docker is not available.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(QueryPlanTest.CaptureConfig.class)
+@Testcontainers(disabledWithoutDocker = true)
+class QueryPlanTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    // Ledger rows per day and days of history (about four years)
+    private static final int PER_DAY = 70;
+    private static final int DAYS = 1430;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2021, 1, 1);
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.jpa.database-platform", () -> "org.hibernate.dialect.PostgreSQLDialect");
+    }
+
+    @Autowired
+    private StockTransactionRepository transactionRepository;
+
+    @Autowired
+    private ReportHistoryRepository reportHistoryRepository;
+
+    @Autowired
+    private PurchaseOrderRepository purchaseOrderRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private SupplierRepository supplierRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StatementCapture capture;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Seeds inside the test transaction (rolled back afterwards) and
+     * analyzes, so the planner costs the plans on realistic statistics
+     */
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE stock_transactions, item_balances, purchase_order_lines, purchase_orders, "
+                + "items, suppliers, report_history, users RESTART IDENTITY CASCADE");
+        jdbcTemplate.update("INSERT INTO items (name, unit, category, description, damaged_quantity, minimum_stock, "
+                + "created_at, updated_at) SELECT 'Item ' || n, 'kg', 'Grains', 'Grains', 0, 10, LOCALTIMESTAMP, "
+                + "LOCALTIMESTAMP FROM generate_series(1, 500) n");
+        jdbcTemplate.update("INSERT INTO suppliers (name, contact_person, phone, email, active, created_at, updated_at) "
+                + "SELECT 'Supplier ' || n, 'Contact ' || n, '0788000000', 'supplier' || n || '@school.rw', TRUE, "
+                + "LOCALTIMESTAMP, LOCALTIMESTAMP FROM generate_series(1, 2000) n");
+        jdbcTemplate.update("INSERT INTO users (email, password, role, enabled, email_notifications, sms_notifications, "
+                + "two_factor_auth, created_at, updated_at) SELECT 'User' || n || '@school.rw', 'x', 'USER', TRUE, "
+                + "FALSE, FALSE, FALSE, LOCALTIMESTAMP, LOCALTIMESTAMP FROM generate_series(1, 2000) n");
+        // One row in four is an OUT (the damaged ones), one in twenty comes from a supplier;
+        // created_at grows with insertion order, as it does in production
+        jdbcTemplate.update("INSERT INTO stock_transactions (item_id, transaction_type, quantity, transaction_date, "
+                + "notes, supplier_id, created_at, is_reversed) "
+                + "SELECT 1 + n % 500, CASE WHEN n % 4 = 0 THEN 'OUT' ELSE 'IN' END, 1 + n % 50, ?::date + n / ?, "
+                + "CASE WHEN n % 4 = 0 THEN 'Damaged: dropped' END, CASE WHEN n % 20 = 1 THEN 1 + n / 20 % 2000 END, "
+                + "?::date + n / ? + (n % ?) * INTERVAL '10 minutes', FALSE "
+                + "FROM generate_series(0, ? - 1) n", FIRST_DAY, PER_DAY, FIRST_DAY, PER_DAY, PER_DAY, PER_DAY * DAYS);
+        jdbcTemplate.update("INSERT INTO report_history (title, type, format, size, status, generated_date) "
+                + "SELECT 'Report ' || n, 'STOCK_BALANCE', 'PDF', '1 KB', CASE WHEN n % 100 = 0 THEN 'READY' "
+                + "ELSE 'EXPIRED' END, ?::date + n * INTERVAL '2 hours' FROM generate_series(1, 17000) n", FIRST_DAY);
+        jdbcTemplate.update("INSERT INTO purchase_orders (po_number, supplier_id, status, order_date, "
+                + "outstanding_quantity, created_at, updated_at) SELECT 'PO-' || n, 1 + n % 2000, CASE WHEN n % 25 = 0 "
+                + "THEN 'OPEN' ELSE 'RECEIVED' END, ?::date + n / 10, 0, LOCALTIMESTAMP, LOCALTIMESTAMP "
+                + "FROM generate_series(1, 14000) n", FIRST_DAY);
+        jdbcTemplate.execute("ANALYZE");
+        // A cached query result would answer without reaching the database
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    @Test
+    @DisplayName("Newest-first first page should walk the keyset index backwards")
+    void keysetFirstPage_ShouldUseKeysetIndex() {
+        String plan = plan(() -> transactionRepository.findTransactionRows(matching(null), NEWEST_FIRST, 51));
+
+        assertUsesIndex(plan, "stock_transactions", "idx_stock_transactions_keyset");
+        assertFalse(plan.contains("Sort"), plan);
+    }
+
+    @Test
+    @DisplayName("Keyset page after a cursor should seek the keyset index")
+    void keysetNextPage_ShouldUseKeysetIndex() {
+        LocalDate day = FIRST_DAY.plusDays(DAYS / 2);
+        TransactionCursor cursor = new TransactionCursor(day, day.atTime(5, 0), 50_000L);
+
+        String plan = plan(() -> transactionRepository.findTransactionRows(after(cursor), NEWEST_FIRST, 51));
+
+        assertUsesIndex(plan, "stock_transactions", "idx_stock_transactions_keyset");
+        assertFalse(plan.contains("Sort"), plan);
+    }
+
+    @Test
+    @DisplayName("Page balances should read only the rows from the page's oldest date on")
+    void pageBalances_ShouldSeekKeysetIndexFromPageStart() {
+        List<String> plans = plans(() -> transactionRepository.findTransactionRows(matching(null), NEWEST_FIRST, 51));
+
+        assertEquals(2, plans.size(), () -> String.join("\n\n", plans));
+        assertUsesIndex(plans.get(1), "stock_transactions", "idx_stock_transactions_keyset");
+    }
+
+    @Test
+    @DisplayName("Date range read should use the keyset index")
+    void dateRange_ShouldUseKeysetIndex() {
+        LocalDate start = FIRST_DAY.plusDays(400);
+
+        String plan = plan(() -> transactionRepository.findByTransactionDateBetween(start, start.plusDays(7)));
+
+        assertUsesIndex(plan, "stock_transactions", "idx_stock_transactions_keyset");
+    }
+
+    @Test
+    @DisplayName("Damaged quantity report should use the OUT/date index")
+    void damagedQuantity_ShouldUseOutDateIndex() {
+        LocalDate start = FIRST_DAY.plusDays(400);
+
+        String plan = plan(() -> transactionRepository.getDamagedQuantityBetween(start, start.plusDays(30)));
+
+        assertUsesIndex(plan, "stock_transactions", "idx_stock_transactions_out_date");
+    }
+
+    @Test
+    @DisplayName("Per-item balance sums should use the item keyset index")
+    void balanceByItem_ShouldUseItemKeysetIndex() {
+        String plan = plan(() -> transactionRepository.getTotalInByItemId(42L));
+
+        assertUsesIndex(plan, "stock_transactions", "idx_stock_transactions_item_keyset");
+    }
+
+    @Test
+    @DisplayName("Supplier filter should use the partial supplier index")
+    void transactionsBySupplier_ShouldUseSupplierIndex() {
+        TransactionFilter filter = new TransactionFilter();
+        filter.setSupplierId(7L);
+
+        String plan = plan(() -> transactionRepository.findTransactionRows(matching(filter), NEWEST_FIRST, 51));
+
+        assertUsesIndex(plan, "stock_transactions", "idx_stock_transactions_supplier");
+    }
+
+    @Test
+    @DisplayName("Recent activity count should use the created_at BRIN index")
+    void recentActivity_ShouldUseCreatedAtBrin() {
+        LocalDateTime since = FIRST_DAY.plusDays(DAYS - 7).atStartOfDay();
+
+        String plan = plan(() -> transactionRepository.countByCreatedAtAfter(since));
+
+        assertUsesIndex(plan, "stock_transactions", "brin_stock_transactions_created_at");
+    }
+
+    @Test
+    @DisplayName("Report cleanup should use the partial cleanup index")
+    void reportCleanup_ShouldUseCleanupIndex() {
+        LocalDateTime cutoff = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+        String plan = plan(() -> reportHistoryRepository.findByStatusNotAndGeneratedDateBefore("EXPIRED", cutoff));
+
+        assertUsesIndex(plan, "report_history", "idx_report_history_cleanup");
+    }
+
+    @Test
+    @DisplayName("Open purchase orders by supplier should use the supplier/status index")
+    void openOrdersBySupplier_ShouldUseSupplierStatusIndex() {
+        String plan = plan(() -> purchaseOrderRepository.findBySupplierIdAndStatusInOrderByOrderDateDescIdDesc(
+                7L, List.of(PurchaseOrderStatus.OPEN, PurchaseOrderStatus.PARTIALLY_RECEIVED)));
+
+        assertUsesIndex(plan, "purchase_orders", "idx_purchase_orders_supplier_status");
+    }
+
+    @Test
+    @DisplayName("Item lookup by name should use the name index")
+    void itemByName_ShouldUseNameIndex() {
+        String plan = plan(() -> itemRepository.findByName("Item 42"));
+
+        assertUsesIndex(plan, "items", "idx_items_name");
+    }
+
+    @Test
+    @DisplayName("Case-insensitive supplier name lookup should use the UPPER(name) index")
+    void supplierByName_ShouldUseUpperNameIndex() {
+        String plan = plan(() -> supplierRepository.findByNameIgnoreCase("supplier 42"));
+
+        assertUsesIndex(plan, "suppliers", "idx_suppliers_name_upper");
+    }
+
+    @Test
+    @DisplayName("Login lookup by email should use the LOWER(email) index")
+    void userByEmail_ShouldUseLowerEmailIndex() {
+        String plan = plan(() -> userRepository.findByEmail("USER42@school.rw"));
+
+        assertUsesIndex(plan, "users", "idx_users_email_lower");
+    }
+
+    /**
+     * Plan of the first statement the call runs
+     */
+    private String plan(Runnable call) {
+        List<String> plans = plans(call);
+        assertFalse(plans.isEmpty(), "The call ran no SQL");
+        return plans.get(0);
+    }
+
+    private List<String> plans(Runnable call) {
+        capture.start();
+        try {
+            call.run();
+        } finally {
+            capture.stop();
+        }
+        return capture.getStatements().stream().map(this::explain).toList();
+    }
+
+    /**
+     * EXPLAIN of the statement with its parameters bound as the repository
+     * bound them (same setXxx calls, same values)
+     */
+    private String explain(CapturedStatement captured) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + captured.sql())) {
+                for (ParameterSetOperation operation : captured.parameters()) {
+                    operation.getMethod().invoke(statement, operation.getArgs());
+                }
+                StringJoiner plan = new StringJoiner("\n", captured.sql() + "\n", "");
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        plan.add(rows.getString(1));
+                    }
+                }
+                return plan.toString();
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new SQLException("Could not bind " + captured.parameters(), e);
+            }
+        });
+    }
+
+    private static void assertUsesIndex(String plan, String table, String index) {
+        assertFalse(plan.contains("Seq Scan on " + table), () -> "Expected an index on " + table + " but got:\n" + plan);
+        assertTrue(plan.contains(" " + index + " "), () -> "Expected index " + index + " but got:\n" + plan);
+    }
+
+    record CapturedStatement(String sql, List<ParameterSetOperation> parameters) {
+    }
+
+    /**
+     * Keeps the statements run on the test thread between start() and stop()
+     */
+    static class StatementCapture implements QueryExecutionListener {
+
+        private final List<CapturedStatement> statements = new CopyOnWriteArrayList<>();
+        private volatile Thread recording;
+
+        void start() {
+            statements.clear();
+            recording = Thread.currentThread();
+        }
+
+        void stop() {
+            recording = null;
+        }
+
+        List<CapturedStatement> getStatements() {
+            return List.copyOf(statements);
+        }
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            if (Thread.currentThread() != recording) {
+                return;
+            }
+            for (QueryInfo query : queryInfoList) {
+                List<ParameterSetOperation> parameters = query.getParametersList().isEmpty()
+                        ? List.of() : new ArrayList<>(query.getParametersList().get(0));
+                statements.add(new CapturedStatement(query.getQuery(), parameters));
+            }
+        }
+    }
+
+    /**
+     * Wraps the "dataSource" bean, as QueryCountConfig does, to feed the capture
+     */
+    @TestConfiguration(proxyBeanMethods = false)
+    static class CaptureConfig {
+
+        @Bean
+        static StatementCapture statementCapture() {
+            return new StatementCapture();
+        }
+
+        @Bean
+        static BeanPostProcessor capturingDataSource(StatementCapture statementCapture) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)) {
+                        return ProxyDataSourceBuilder.create(dataSource)
+                                .name("query-plan")
+                                .listener(statementCapture)
+                                .build();
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+}
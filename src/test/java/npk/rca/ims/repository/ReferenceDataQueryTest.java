@@ -0,0 +1,69 @@
+package npk.rca.ims.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import npk.rca.ims.support.QueryCountConfig;
+import npk.rca.ims.support.QueryCounter;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the whole-table reference reads with more rows than their cache
+ * regions hold (ehcache.xml), outside a transaction, as the services do
+ */
+@SpringBootTest
+@Import(QueryCountConfig.class)
+class ReferenceDataQueryTest {
+
+    // More than the "items" region's 2000 entries
+    private static final int ITEMS = 2100;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private QueryCounter queryCounter;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.batchUpdate("INSERT INTO items (name, unit, category, description, damaged_quantity, minimum_stock, "
+                        + "created_at, updated_at) VALUES (?, 'kg', 'Bulk', 'Bulk', 0, 10, LOCALTIMESTAMP, LOCALTIMESTAMP)",
+                IntStream.range(0, ITEMS).mapToObj(i -> new Object[]{"Bulk SKU " + i}).toList());
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM items WHERE category = 'Bulk'");
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    @Test
+    @DisplayName("Should list every item in one statement, the second time too")
+    void findAll_ShouldRunOneStatement_WhenItemsOutnumberCacheRegion() {
+        itemRepository.findAll();
+
+        queryCounter.reset();
+        List<?> items = itemRepository.findAll();
+
+        assertTrue(items.size() >= ITEMS);
+        queryCounter.assertStatements(1);
+    }
+}
@@ -0,0 +1,48 @@
+package npk.rca.ims.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the ledger version read against the migrated (H2) schema
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ReportHistoryRepositoryTest {
+
+    @Autowired
+    private ReportHistoryRepository reportHistoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long transactionId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO items (name, unit, category, description, damaged_quantity, minimum_stock, created_at, updated_at) "
+                + "VALUES ('Version Rice', 'kg', 'Grains', 'Grains', 0, 10, LOCALTIMESTAMP, LOCALTIMESTAMP)");
+        long itemId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM items", Long.class);
+        jdbcTemplate.update("INSERT INTO stock_transactions (item_id, transaction_type, quantity, transaction_date, "
+                + "created_at, is_reversed) VALUES (?, 'IN', 10, DATE '2024-03-01', LOCALTIMESTAMP, FALSE)", itemId);
+        transactionId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM stock_transactions", Long.class);
+    }
+
+    @Test
+    @DisplayName("Should change the ledger version when only a transaction's notes change")
+    void findLedgerVersion_ShouldChange_WhenNotesEdited() {
+        long before = reportHistoryRepository.findLedgerVersion();
+        assertEquals(before, reportHistoryRepository.findLedgerVersion());
+
+        jdbcTemplate.update("UPDATE stock_transactions SET notes = 'Counted twice' WHERE id = ?", transactionId);
+
+        assertNotEquals(before, reportHistoryRepository.findLedgerVersion());
+    }
+}
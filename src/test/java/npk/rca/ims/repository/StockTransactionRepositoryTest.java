@@ -0,0 +1,124 @@
+package npk.rca.ims.repository;
+
+import npk.rca.ims.dto.FieldSet;
+import npk.rca.ims.dto.StockTransactionDTO;
+import npk.rca.ims.model.StockTransaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the ledger row queries against the migrated schema, checking
+ * balanceAfter on each of the paths that compute it
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class StockTransactionRepositoryTest {
+
+    @Autowired
+    private StockTransactionRepository transactionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long rice;
+
+    @BeforeEach
+    void setUp() {
+        rice = item("Ledger Rice");
+        long beans = item("Ledger Beans");
+        // Interleaved so each item's running balance skips the other's rows
+        transaction(rice, "IN", 100, "2024-03-01");
+        transaction(beans, "IN", 30, "2024-03-02");
+        transaction(rice, "OUT", 40, "2024-03-03");
+        transaction(beans, "OUT", 5, "2024-03-04");
+        transaction(rice, "IN", 15, "2024-03-05");
+    }
+
+    @Test
+    @DisplayName("Should compute the item's running balance for every row")
+    void findTransactionRows_ShouldComputeBalanceAfter() {
+        List<StockTransactionDTO> rows = transactionRepository.findTransactionRows(
+                ledgerItems(), StockTransactionSpecifications.NEWEST_FIRST, 0);
+
+        assertEquals(List.of(75, 25, 60, 30, 100), balances(rows));
+    }
+
+    @Test
+    @DisplayName("Should compute the real balance for a page, not a sum of the page's rows")
+    void findTransactionRows_ShouldComputeBalanceAfter_WhenPaged() {
+        List<StockTransactionDTO> page = transactionRepository.findTransactionRows(
+                ledgerItems(), FieldSet.of("id", "balanceAfter"), StockTransactionSpecifications.NEWEST_FIRST, 2);
+
+        assertEquals(List.of(75, 25), balances(page));
+        assertNull(page.get(0).getItemId());
+    }
+
+    @Test
+    @DisplayName("Should compute the item's balance when the filter excludes earlier rows")
+    void findTransactionRows_ShouldUseWholeHistory_WhenFiltered() {
+        Specification<StockTransaction> lastRice = ledgerItems().and((t, q, cb) -> cb.and(
+                cb.equal(t.get("item").get("id"), rice),
+                cb.greaterThan(t.get("transactionDate"), LocalDate.parse("2024-03-04"))));
+
+        assertEquals(List.of(75), balances(transactionRepository.findTransactionRows(
+                lastRice, StockTransactionSpecifications.NEWEST_FIRST, 0)));
+        assertEquals(List.of(75), balances(transactionRepository.findTransactionRows(
+                lastRice, StockTransactionSpecifications.NEWEST_FIRST, 10)));
+    }
+
+    @Test
+    @DisplayName("Should take later rows off the item's balance when the filter ends before them")
+    void findTransactionRows_ShouldComputeBalanceAfter_WhenLaterRowsExcluded() {
+        Specification<StockTransaction> early = ledgerItems().and(
+                StockTransactionSpecifications.dateBetween(LocalDate.parse("2024-03-02"), LocalDate.parse("2024-03-03")));
+
+        assertEquals(List.of(60, 30), balances(transactionRepository.findTransactionRows(
+                early, StockTransactionSpecifications.NEWEST_FIRST, 0)));
+        assertEquals(List.of(60, 30), balances(transactionRepository.findTransactionRows(
+                early, StockTransactionSpecifications.NEWEST_FIRST, 10)));
+    }
+
+    @Test
+    @DisplayName("Should stream the same balances as the list")
+    void streamTransactionRows_ShouldComputeBalanceAfter() {
+        try (Stream<StockTransactionDTO> rows = transactionRepository.streamTransactionRows(
+                ledgerItems(), StockTransactionSpecifications.NEWEST_FIRST)) {
+            assertEquals(List.of(75, 25, 60, 30, 100), rows.map(StockTransactionDTO::getBalanceAfter).toList());
+        }
+    }
+
+    /**
+     * Restricted to the items of this test by name
+     */
+    private static Specification<StockTransaction> ledgerItems() {
+        return (t, q, cb) -> cb.like(t.get("item").get("name"), "Ledger %");
+    }
+
+    private static List<Integer> balances(List<StockTransactionDTO> rows) {
+        return rows.stream().map(StockTransactionDTO::getBalanceAfter).toList();
+    }
+
+    private long item(String name) {
+        jdbcTemplate.update("INSERT INTO items (name, unit, category, description, damaged_quantity, minimum_stock, created_at, updated_at) "
+                + "VALUES (?, 'kg', 'Grains', 'Grains', 0, 10, LOCALTIMESTAMP, LOCALTIMESTAMP)", name);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM items", Long.class);
+    }
+
+    private void transaction(long itemId, String type, int quantity, String date) {
+        jdbcTemplate.update("INSERT INTO stock_transactions (item_id, transaction_type, quantity, transaction_date, "
+                + "created_at, is_reversed) VALUES (?, ?, ?, ?, LOCALTIMESTAMP, FALSE)", itemId, type, quantity, Date.valueOf(date));
+    }
+}
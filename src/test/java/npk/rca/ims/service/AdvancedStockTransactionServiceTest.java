@@ -7,6 +7,7 @@ import npk.rca.ims.model.TransactionType;
 import npk.rca.ims.repository.ItemRepository;
 import npk.rca.ims.repository.StockTransactionRepository;
 import npk.rca.ims.repository.SupplierRepository;
+import npk.rca.ims.repository.TransactionSearchIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -34,6 +35,9 @@ class AdvancedStockTransactionServiceTest {
     @Mock
     private SupplierRepository supplierRepository;
 
+    @Mock
+    private TransactionSearchIndex searchIndex;
+
     @InjectMocks
     private StockTransactionService stockTransactionService;
 
@@ -0,0 +1,111 @@
+package npk.rca.ims.service;
+
+import npk.rca.ims.dto.SuggestionDTO;
+import npk.rca.ims.model.Item;
+import npk.rca.ims.model.Supplier;
+import npk.rca.ims.repository.ItemRepository;
+import npk.rca.ims.repository.SupplierRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AutocompleteServiceTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private SupplierRepository supplierRepository;
+
+    @InjectMocks
+    private AutocompleteService autocompleteService;
+
+    @BeforeEach
+    void setUp() {
+        when(itemRepository.findAll()).thenReturn(List.of(
+                item(1L, "Rice", "Cereals"),
+                item(2L, "Brown Rice", "Cereals"),
+                item(3L, "Beans", "Legumes"),
+                item(12L, "Cooking Oil", null)));
+        when(supplierRepository.findByActiveTrue()).thenReturn(List.of(
+                supplier(5L, "Kigali Foods", true)));
+        autocompleteService.load();
+    }
+
+    @Test
+    @DisplayName("Should complete a prefix, exact name first")
+    void suggest_ShouldMatchPrefix() {
+        assertEquals(List.of("Rice", "Brown Rice"), labels(autocompleteService.suggest("ric", 10)));
+        assertEquals(List.of("Kigali Foods"), labels(autocompleteService.suggest("kig", 10)));
+    }
+
+    @Test
+    @DisplayName("Should tolerate a small typo")
+    void suggest_ShouldMatchWithTypo() {
+        assertEquals("Rice", autocompleteService.suggest("rcie", 10).get(0).getLabel());
+        assertEquals("Cooking Oil", autocompleteService.suggest("cookng", 10).get(0).getLabel());
+    }
+
+    @Test
+    @DisplayName("Should require every word and search category and SKU")
+    void suggest_ShouldMatchAllWordsAcrossFields() {
+        assertEquals(List.of("Brown Rice"), labels(autocompleteService.suggest("brown ric", 10)));
+        assertEquals(List.of("Rice", "Brown Rice"), labels(autocompleteService.suggest("cereals", 10)));
+
+        SuggestionDTO bySku = autocompleteService.suggest("ITEM-12", 10).get(0);
+        assertEquals("Cooking Oil", bySku.getLabel());
+        assertEquals("ITEM", bySku.getType());
+    }
+
+    @Test
+    @DisplayName("Should follow created, renamed and removed entries")
+    void suggest_ShouldFollowChanges() {
+        autocompleteService.indexItem(item(20L, "Maize Flour", "Cereals"));
+        autocompleteService.indexItem(item(3L, "Red Beans", "Legumes"));
+        autocompleteService.removeItem(1L);
+        autocompleteService.indexSupplier(supplier(5L, "Kigali Foods", false));
+
+        assertEquals(List.of("Maize Flour"), labels(autocompleteService.suggest("maiz", 10)));
+        assertEquals(List.of("Red Beans"), labels(autocompleteService.suggest("red", 10)));
+        assertEquals(List.of("Brown Rice"), labels(autocompleteService.suggest("rice", 10)));
+        assertTrue(autocompleteService.suggest("kigali", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should return nothing for an empty query and respect the limit")
+    void suggest_ShouldHandleEmptyQueryAndLimit() {
+        assertTrue(autocompleteService.suggest("  ", 10).isEmpty());
+        assertEquals(1, autocompleteService.suggest("ri", 1).size());
+    }
+
+    private static List<String> labels(List<SuggestionDTO> suggestions) {
+        return suggestions.stream().map(SuggestionDTO::getLabel).toList();
+    }
+
+    private static Item item(Long id, String name, String category) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName(name);
+        item.setCategory(category);
+        return item;
+    }
+
+    private static Supplier supplier(Long id, String name, boolean active) {
+        Supplier supplier = new Supplier();
+        supplier.setId(id);
+        supplier.setName(name);
+        supplier.setContactPerson("Jane");
+        supplier.setActive(active);
+        return supplier;
+    }
+}
@@ -0,0 +1,93 @@
+package npk.rca.ims.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import npk.rca.ims.dto.CacheRegionStatsDTO;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CacheStatisticsServiceTest {
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private SessionFactory sessionFactory;
+
+    @Mock
+    private Statistics statistics;
+
+    private CacheStatisticsService cacheStatisticsService;
+
+    @BeforeEach
+    void setUp() {
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        cacheStatisticsService = new CacheStatisticsService(entityManagerFactory);
+    }
+
+    @Test
+    @DisplayName("Should report hit ratio per region, sorted by name")
+    void getRegionStatistics_ShouldComputeHitRatioPerRegion() {
+        CacheRegionStatistics items = regionStats(30, 10, 12);
+        CacheRegionStatistics users = regionStats(0, 0, 0);
+        when(sessionFactory.getStatistics()).thenReturn(statistics);
+        when(statistics.getSecondLevelCacheRegionNames()).thenReturn(new String[]{"users", "items"});
+        when(statistics.getCacheRegionStatistics("items")).thenReturn(items);
+        when(statistics.getCacheRegionStatistics("users")).thenReturn(users);
+
+        List<CacheRegionStatsDTO> result = cacheStatisticsService.getRegionStatistics();
+
+        assertEquals(2, result.size());
+        assertEquals("items", result.get(0).getRegion());
+        assertEquals(30, result.get(0).getHitCount());
+        assertEquals(10, result.get(0).getMissCount());
+        assertEquals(12, result.get(0).getPutCount());
+        assertEquals(0.75, result.get(0).getHitRatio(), 1e-9);
+        assertEquals("users", result.get(1).getRegion());
+        assertEquals(0.0, result.get(1).getHitRatio());
+    }
+
+    @Test
+    @DisplayName("Should skip regions without statistics")
+    void getRegionStatistics_ShouldSkipUnknownRegions() {
+        when(sessionFactory.getStatistics()).thenReturn(statistics);
+        when(statistics.getSecondLevelCacheRegionNames()).thenReturn(new String[]{"gone"});
+        when(statistics.getCacheRegionStatistics("gone")).thenReturn(null);
+
+        assertTrue(cacheStatisticsService.getRegionStatistics().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should evict all regions and reset counters")
+    void evictAll_ShouldEvictRegionsAndClearStatistics() {
+        Cache cache = mock(Cache.class);
+        when(sessionFactory.getCache()).thenReturn(cache);
+        when(sessionFactory.getStatistics()).thenReturn(statistics);
+
+        cacheStatisticsService.evictAll();
+
+        verify(cache).evictAllRegions();
+        verify(statistics).clear();
+    }
+
+    private CacheRegionStatistics regionStats(long hits, long misses, long puts) {
+        CacheRegionStatistics stats = mock(CacheRegionStatistics.class);
+        when(stats.getHitCount()).thenReturn(hits);
+        when(stats.getMissCount()).thenReturn(misses);
+        when(stats.getPutCount()).thenReturn(puts);
+        return stats;
+    }
+}
@@ -0,0 +1,74 @@
+package npk.rca.ims.service;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExcelTableWriterTest {
+
+    @Test
+    @DisplayName("Should continue on a new sheet with the header repeated when a sheet is full")
+    void nextRow_ShouldSplitSheets_WhenRowLimitReached() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ExcelTableWriter writer = new ExcelTableWriter("Transactions", 5, "Ref", "Quantity")) {
+            writer.startTable(1, writer.getWorkbook().createCellStyle());
+            for (int i = 1; i <= 10; i++) {
+                Row row = writer.nextRow();
+                writer.setCell(row, 0, "TX-" + i);
+                writer.setCell(row, 1, i);
+            }
+            writer.writeTo(out);
+
+            assertEquals(10, writer.getDataRows());
+            assertEquals(3, writer.getSheetCount());
+        }
+
+        try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet first = workbook.getSheet("Transactions");
+            assertEquals("Ref", first.getRow(1).getCell(0).getStringCellValue());
+            assertEquals("TX-3", first.getRow(4).getCell(0).getStringCellValue());
+            assertEquals(4, first.getLastRowNum());
+
+            Sheet second = workbook.getSheet("Transactions (2)");
+            assertEquals("Ref", second.getRow(0).getCell(0).getStringCellValue());
+            assertEquals("TX-4", second.getRow(1).getCell(0).getStringCellValue());
+
+            Sheet third = workbook.getSheet("Transactions (3)");
+            assertEquals("TX-10", third.getRow(3).getCell(0).getStringCellValue());
+            assertEquals(10.0, third.getRow(3).getCell(1).getNumericCellValue());
+        }
+    }
+
+    @Test
+    @DisplayName("Should size columns from the header and sampled rows")
+    void writeTo_ShouldSetColumnWidthsFromSampledContent() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ExcelTableWriter writer = new ExcelTableWriter("Suppliers", "Name", "Email")) {
+            writer.startTable(0, writer.getWorkbook().createCellStyle());
+            Row row = writer.nextRow();
+            writer.setCell(row, 0, "Acme");
+            writer.setCell(row, 1, "procurement.department@example.com");
+
+            for (int i = 1; i < ExcelTableWriter.SAMPLE_ROWS; i++) {
+                writer.setCell(writer.nextRow(), 0, "Acme");
+            }
+            // Rows past the sample do not change the widths
+            writer.setCell(writer.nextRow(), 0, "A much longer supplier name than any sampled one");
+            writer.writeTo(out);
+        }
+
+        try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet sheet = workbook.getSheetAt(0);
+            assertEquals(("Name".length() + 4) * 256, sheet.getColumnWidth(0));
+            assertEquals(("procurement.department@example.com".length() + 4) * 256, sheet.getColumnWidth(1));
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package npk.rca.ims.service;
+
+import npk.rca.ims.dto.GoodsReceiptRequest;
+import npk.rca.ims.dto.ItemDTO;
+import npk.rca.ims.dto.PurchaseOrderDTO;
+import npk.rca.ims.exceptions.ConflictException;
+import npk.rca.ims.model.PurchaseOrderStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the set-based item merge against the migrated schema, where the
+ * ledger, recipe lines and purchase order lines reference items through
+ * foreign keys
+ */
+@SpringBootTest
+@Transactional
+class ItemMergeIntegrationTest {
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private PurchaseOrderService purchaseOrderService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Should move recipe lines to the target, summing lines of the same recipe")
+    void mergeItems_ShouldRepointRecipeIngredients() {
+        long rice = item("Merge Rice", 2);
+        long riceDuplicate = item("Merge rice ", 3);
+        long riceTypo = item("Merge Rcie", 0);
+        transaction(riceDuplicate, "IN", 40);
+        long lunch = recipe("Merge Lunch");
+        long dinner = recipe("Merge Dinner");
+        ingredient(lunch, rice, "0.1000");
+        ingredient(lunch, riceDuplicate, "0.0500");
+        ingredient(lunch, riceTypo, "0.0200");
+        ingredient(dinner, riceTypo, "0.3000");
+
+        ItemDTO merged = itemService.mergeItems(rice, List.of(riceDuplicate, riceTypo));
+
+        assertEquals(5, merged.getDamagedQuantity());
+        assertEquals(40, merged.getCurrentBalance());
+        assertEquals(Map.of(rice, new BigDecimal("0.1700")), lines(lunch));
+        assertEquals(Map.of(rice, new BigDecimal("0.3000")), lines(dinner));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM items WHERE id IN (?, ?)", Integer.class, riceDuplicate, riceTypo));
+    }
+
+    @Test
+    @DisplayName("Should move purchase order lines to the target, summing lines of the same order")
+    void mergeItems_ShouldRepointPurchaseOrderLines() {
+        long flour = item("Merge Flour", 0);
+        long flourDuplicate = item("Merge flour", 0);
+        long order = purchaseOrder("MERGE-PO-1");
+        orderLine(order, flour, 100, 40);
+        orderLine(order, flourDuplicate, 50, 10);
+
+        itemService.mergeItems(flour, List.of(flourDuplicate));
+
+        assertEquals(List.of(Map.of("ITEM_ID", flour, "ORDERED_QUANTITY", 150, "RECEIVED_QUANTITY", 50)),
+                jdbcTemplate.queryForList("SELECT item_id, ordered_quantity, received_quantity "
+                        + "FROM purchase_order_lines WHERE purchase_order_id = ?", order));
+    }
+
+    @Test
+    @DisplayName("Should lock the order while receiving goods")
+    void receiveGoods_ShouldReadOrderForUpdate() {
+        long salt = item("Merge Salt", 0);
+        long order = purchaseOrder("MERGE-PO-2");
+        orderLine(order, salt, 10, 0);
+
+        PurchaseOrderDTO received = purchaseOrderService.receiveGoods(order, new GoodsReceiptRequest());
+
+        assertEquals(PurchaseOrderStatus.RECEIVED, received.getStatus());
+        assertEquals(0, received.getOutstandingQuantity());
+    }
+
+    @Test
+    @DisplayName("Should refuse to delete an item still on a purchase order")
+    void deleteItem_ShouldThrowConflict_WhenOnPurchaseOrder() {
+        long oil = item("Merge Oil", 0);
+        orderLine(purchaseOrder("MERGE-PO-3"), oil, 5, 0);
+
+        ConflictException ex = assertThrows(ConflictException.class, () -> itemService.deleteItem(oil));
+
+        assertTrue(ex.getMessage().contains("MERGE-PO-3"));
+    }
+
+    @Test
+    @DisplayName("Should refuse to delete an item a recipe uses")
+    void deleteItem_ShouldThrowConflict_WhenUsedByRecipe() {
+        long beans = item("Merge Beans", 0);
+        ingredient(recipe("Merge Stew"), beans, "0.2000");
+
+        ConflictException ex = assertThrows(ConflictException.class, () -> itemService.deleteItem(beans));
+
+        assertTrue(ex.getMessage().contains("Merge Stew"));
+    }
+
+    private Map<Long, BigDecimal> lines(long recipeId) {
+        Map<Long, BigDecimal> lines = new HashMap<>();
+        jdbcTemplate.query("SELECT item_id, quantity_per_portion FROM recipe_ingredients WHERE recipe_id = ?",
+                rs -> { lines.put(rs.getLong(1), rs.getBigDecimal(2)); }, recipeId);
+        return lines;
+    }
+
+    private long item(String name, int damagedQuantity) {
+        jdbcTemplate.update("INSERT INTO items (name, unit, category, description, damaged_quantity, minimum_stock, created_at, updated_at) "
+                + "VALUES (?, 'kg', 'Grains', 'Grains', ?, 10, LOCALTIMESTAMP, LOCALTIMESTAMP)", name, damagedQuantity);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM items", Long.class);
+    }
+
+    private long recipe(String name) {
+        jdbcTemplate.update("INSERT INTO recipes (name, created_at, updated_at) VALUES (?, LOCALTIMESTAMP, LOCALTIMESTAMP)", name);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM recipes", Long.class);
+    }
+
+    private void ingredient(long recipeId, long itemId, String quantityPerPortion) {
+        jdbcTemplate.update("INSERT INTO recipe_ingredients (recipe_id, item_id, quantity_per_portion) VALUES (?, ?, ?)",
+                recipeId, itemId, new BigDecimal(quantityPerPortion));
+    }
+
+    private long purchaseOrder(String poNumber) {
+        jdbcTemplate.update("INSERT INTO suppliers (name, contact_person, phone, email, active, created_at, updated_at) "
+                + "VALUES (?, 'Alice', '0788000001', 'merge@example.com', TRUE, LOCALTIMESTAMP, LOCALTIMESTAMP)", poNumber + " Supplier");
+        long supplierId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM suppliers", Long.class);
+        jdbcTemplate.update("INSERT INTO purchase_orders (po_number, supplier_id, status, order_date, outstanding_quantity, "
+                + "created_at, updated_at) VALUES (?, ?, 'OPEN', CURRENT_DATE, 0, LOCALTIMESTAMP, LOCALTIMESTAMP)", poNumber, supplierId);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM purchase_orders", Long.class);
+    }
+
+    private void orderLine(long orderId, long itemId, int ordered, int received) {
+        jdbcTemplate.update("INSERT INTO purchase_order_lines (purchase_order_id, item_id, ordered_quantity, received_quantity) "
+                + "VALUES (?, ?, ?, ?)", orderId, itemId, ordered, received);
+        jdbcTemplate.update("UPDATE purchase_orders SET outstanding_quantity = outstanding_quantity + ? WHERE id = ?",
+                ordered - received, orderId);
+    }
+
+    private void transaction(long itemId, String type, int quantity) {
+        jdbcTemplate.update("INSERT INTO stock_transactions (item_id, transaction_type, quantity, transaction_date, "
+                + "created_at, is_reversed) VALUES (?, ?, ?, CURRENT_DATE, LOCALTIMESTAMP, FALSE)", itemId, type, quantity);
+    }
+}
@@ -1,29 +1,46 @@
 package npk.rca.ims.service;
 
+import npk.rca.ims.dto.BatchGetResponse;
+import npk.rca.ims.dto.FieldSet;
 import npk.rca.ims.dto.ItemDTO;
+import npk.rca.ims.dto.ItemFilter;
+import npk.rca.ims.dto.PageDTO;
+import npk.rca.ims.exceptions.ConflictException;
 import npk.rca.ims.exceptions.ResourceNotFoundException;
 import npk.rca.ims.model.Item;
+import npk.rca.ims.model.ItemBalance;
 import npk.rca.ims.model.User;
+import npk.rca.ims.repository.ItemBalanceRepository;
 import npk.rca.ims.repository.ItemRepository;
+import npk.rca.ims.repository.PurchaseOrderRepository;
+import npk.rca.ims.repository.RecipeRepository;
 import npk.rca.ims.repository.StockTransactionRepository;
 import npk.rca.ims.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,15 +49,27 @@ class ItemServiceTest {
     @Mock
     private ItemRepository itemRepository;
 
+    @Mock
+    private ItemBalanceRepository itemBalanceRepository;
+
     @Mock
     private StockTransactionRepository stockTransactionRepository;
 
+    @Mock
+    private RecipeRepository recipeRepository;
+
+    @Mock
+    private PurchaseOrderRepository purchaseOrderRepository;
+
     @Mock
     private UserRepository userRepository;
 
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private AutocompleteService autocompleteService;
+
     @InjectMocks
     private ItemService itemService;
 
@@ -145,6 +174,28 @@ class ItemServiceTest {
         verify(itemRepository, times(1)).delete(testItem);
     }
 
+    @Test
+    @DisplayName("Should refuse to delete an item a recipe still uses")
+    void deleteItem_ShouldThrowConflict_WhenUsedByRecipe() {
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(testItem));
+        when(recipeRepository.findNamesUsingItem(1L)).thenReturn(List.of("Lunch"));
+
+        assertThrows(ConflictException.class, () -> itemService.deleteItem(1L));
+
+        verify(itemRepository, never()).delete(any(Item.class));
+    }
+
+    @Test
+    @DisplayName("Should refuse to delete an item still on a purchase order")
+    void deleteItem_ShouldThrowConflict_WhenOnPurchaseOrder() {
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(testItem));
+        when(purchaseOrderRepository.findPoNumbersUsingItem(1L)).thenReturn(List.of("PO-2024-001"));
+
+        assertThrows(ConflictException.class, () -> itemService.deleteItem(1L));
+
+        verify(stockTransactionRepository, never()).deleteAll(anyList());
+    }
+
     @Test
     @DisplayName("Should delete item with password verification")
     void deleteItemWithPasswordVerification_ShouldDeleteItem_WhenPasswordIsValid() {
@@ -181,15 +232,12 @@ class ItemServiceTest {
     @Test
     @DisplayName("Should record damaged quantity correctly")
     void recordDamagedQuantity_ShouldUpdateDamagedQuantity() {
-        // Initial damaged quantity is 0
-        when(itemRepository.findById(1L)).thenReturn(Optional.of(testItem));
-
-        // Mock save to return item with updated damaged quantity
         Item updatedItem = new Item();
         updatedItem.setId(1L);
         updatedItem.setDamagedQuantity(5);
         updatedItem.setMinimumStock(10); // Ensure minimumStock is set to avoid NPE
-        when(itemRepository.save(any(Item.class))).thenReturn(updatedItem);
+        when(itemRepository.addDamagedQuantity(1L, 5)).thenReturn(1);
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(updatedItem));
 
         when(stockTransactionRepository.getTotalInByItemId(1L)).thenReturn(100);
         when(stockTransactionRepository.getTotalOutByItemId(1L)).thenReturn(50);
@@ -197,71 +245,140 @@ class ItemServiceTest {
         ItemDTO result = itemService.recordDamagedQuantity(1L, 5);
 
         assertEquals(5, result.getDamagedQuantity());
+        verify(itemRepository, never()).save(any(Item.class));
     }
 
     @Test
-    @DisplayName("Should filter items by name")
-    void getFilteredItems_ShouldFilterByName() {
-        when(itemRepository.findAll()).thenReturn(Arrays.asList(testItem));
-        when(stockTransactionRepository.getTotalInByItemId(1L)).thenReturn(100);
-        when(stockTransactionRepository.getTotalOutByItemId(1L)).thenReturn(50);
+    @DisplayName("Should throw ResourceNotFoundException when recording damage for a missing item")
+    void recordDamagedQuantity_ShouldThrowException_WhenItemNotFound() {
+        when(itemRepository.addDamagedQuantity(99L, 5)).thenReturn(0);
 
-        List<ItemDTO> result = itemService.getFilteredItems(null, null, "Test", "name,asc");
+        assertThrows(ResourceNotFoundException.class, () -> itemService.recordDamagedQuantity(99L, 5));
+    }
 
-        assertEquals(1, result.size());
-        assertEquals("Test Item", result.get(0).getName());
+    @Test
+    @DisplayName("Should get many items with balances without per-item sums")
+    void getItemsByIds_ShouldUseMaintainedTotals() {
+        List<Long> ids = List.of(1L, 99L);
+        when(itemBalanceRepository.findAllById(ids)).thenReturn(List.of(new ItemBalance(1L, 100L, 95L)));
+        when(itemRepository.findAllById(ids)).thenReturn(List.of(testItem));
+
+        BatchGetResponse<ItemDTO> result = itemService.getItemsByIds(ids);
+
+        assertEquals(1, result.getContent().size());
+        assertEquals(5, result.getContent().get(0).getCurrentBalance());
+        assertTrue(result.getContent().get(0).getIsLowStock());
+        assertEquals(List.of(99L), result.getMissingIds());
+        verifyNoInteractions(stockTransactionRepository);
     }
-    
+
     @Test
-    @DisplayName("Should filter items by status 'Mucye' (Low Stock)")
-    void getFilteredItems_ShouldFilterByStatus_LowStock() {
-        testItem.setMinimumStock(60); // Min stock > Current Balance (50)
-        
-        when(itemRepository.findAll()).thenReturn(Arrays.asList(testItem));
-        when(stockTransactionRepository.getTotalInByItemId(1L)).thenReturn(100);
-        when(stockTransactionRepository.getTotalOutByItemId(1L)).thenReturn(50);
+    @DisplayName("Should page the catalogue in the repository with the requested sort")
+    void getItemCatalogue_ShouldQueryOnePage() {
+        ItemFilter filter = ItemFilter.builder().status("Mucye").build();
+        when(itemRepository.findCatalogue(eq(filter), eq(FieldSet.ALL), any(Pageable.class)))
+                .thenAnswer(invocation -> new PageImpl<>(List.of(testItemDTO), invocation.getArgument(2), 120));
+
+        PageDTO<ItemDTO> result = itemService.getItemCatalogue(filter, FieldSet.ALL, "current_balance,desc", 2, 25);
+
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(itemRepository).findCatalogue(eq(filter), eq(FieldSet.ALL), pageable.capture());
+        assertEquals(2, pageable.getValue().getPageNumber());
+        assertEquals(25, pageable.getValue().getPageSize());
+        assertEquals(Sort.by(Sort.Direction.DESC, "currentBalance"), pageable.getValue().getSort());
+
+        assertEquals(1, result.getContent().size());
+        assertEquals(120, result.getTotalElements());
+        assertEquals(5, result.getTotalPages());
+        assertEquals(2, result.getPage());
+    }
 
-        List<ItemDTO> result = itemService.getFilteredItems(null, "Mucye", null, "name,asc");
+    @Test
+    @DisplayName("Should fall back to name order and cap the page size")
+    void getItemCatalogue_ShouldDefaultSortAndCapSize() {
+        when(itemRepository.findCatalogue(any(), any(), any(Pageable.class)))
+                .thenAnswer(invocation -> new PageImpl<>(List.of(), invocation.getArgument(2), 0));
 
-        assertEquals(1, result.size());
+        itemService.getItemCatalogue(new ItemFilter(), FieldSet.ALL, "unknown", 0, 10_000);
+
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(itemRepository).findCatalogue(any(), any(), pageable.capture());
+        assertEquals(ItemService.MAX_PAGE_SIZE, pageable.getValue().getPageSize());
+        assertEquals(Sort.by(Sort.Direction.ASC, "name"), pageable.getValue().getSort());
     }
 
     @Test
-    @DisplayName("Should filter items by status 'Birahagije' (Adequate Stock)")
-    void getFilteredItems_ShouldFilterByStatus_AdequateStock() {
-        testItem.setMinimumStock(10); // Min stock < Current Balance (50)
+    @DisplayName("Should reject a negative page")
+    void getItemCatalogue_ShouldRejectNegativePage() {
+        assertThrows(IllegalArgumentException.class,
+                () -> itemService.getItemCatalogue(new ItemFilter(), FieldSet.ALL, "name,asc", -1, 10));
+        verifyNoInteractions(itemRepository);
+    }
 
-        when(itemRepository.findAll()).thenReturn(Arrays.asList(testItem));
+    @Test
+    @DisplayName("Should calculate current balance correctly")
+    void getCurrentBalance_ShouldReturnCorrectBalance() {
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(testItem));
         when(stockTransactionRepository.getTotalInByItemId(1L)).thenReturn(100);
-        when(stockTransactionRepository.getTotalOutByItemId(1L)).thenReturn(50);
+        when(stockTransactionRepository.getTotalOutByItemId(1L)).thenReturn(30);
 
-        List<ItemDTO> result = itemService.getFilteredItems(null, "Birahagije", null, "name,asc");
+        int balance = itemService.getCurrentBalance(1L);
 
-        assertEquals(1, result.size());
+        assertEquals(70, balance);
     }
 
     @Test
-    @DisplayName("Should filter items by status 'Byashize' (Out of Stock)")
-    void getFilteredItems_ShouldFilterByStatus_OutOfStock() {
-        // Balance 0
-        when(itemRepository.findAll()).thenReturn(Arrays.asList(testItem));
-        when(stockTransactionRepository.getTotalInByItemId(1L)).thenReturn(50);
+    @DisplayName("Should re-point source transactions and fold damaged quantity into the target")
+    void mergeItems_ShouldReassignTransactionsAndDeleteSources() {
+        Item duplicate = new Item();
+        duplicate.setId(2L);
+        duplicate.setName("test item ");
+        duplicate.setMinimumStock(10);
+        duplicate.setDamagedQuantity(3);
+        Item merged = new Item();
+        merged.setId(1L);
+        merged.setName("Test Item");
+        merged.setMinimumStock(10);
+        merged.setDamagedQuantity(5);
+
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(testItem), Optional.of(merged));
+        when(itemRepository.findAllById(anyCollection())).thenReturn(List.of(duplicate));
+        when(stockTransactionRepository.getTotalInByItemId(1L)).thenReturn(150);
         when(stockTransactionRepository.getTotalOutByItemId(1L)).thenReturn(50);
 
-        List<ItemDTO> result = itemService.getFilteredItems(null, "Byashize", null, "name,asc");
+        ItemDTO result = itemService.mergeItems(1L, List.of(2L));
+
+        InOrder inOrder = inOrder(itemRepository, stockTransactionRepository);
+        inOrder.verify(itemRepository).addDamagedQuantityOf(Set.of(2L), 1L);
+        inOrder.verify(stockTransactionRepository).reassignItem(Set.of(2L), testItem);
+        verify(recipeRepository).sumIngredientLines(Set.of(2L, 1L));
+        verify(recipeRepository).reassignIngredients(Set.of(2L), testItem);
+        verify(purchaseOrderRepository).sumOrderLines(Set.of(2L, 1L));
+        verify(purchaseOrderRepository).reassignOrderLines(Set.of(2L), testItem);
+        inOrder.verify(itemRepository).deleteAllByIdInBatch(Set.of(2L));
+        verify(itemRepository, never()).save(any(Item.class));
+        assertEquals(5, result.getDamagedQuantity());
+        assertEquals(100, result.getCurrentBalance());
+    }
 
-        assertEquals(1, result.size());
+    @Test
+    @DisplayName("Should reject merging an item into itself")
+    void mergeItems_ShouldThrowException_WhenTargetIsAlsoSource() {
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(testItem));
+
+        assertThrows(IllegalArgumentException.class, () -> itemService.mergeItems(1L, List.of(1L, 2L)));
+
+        verify(stockTransactionRepository, never()).reassignItem(anyCollection(), any(Item.class));
     }
 
     @Test
-    @DisplayName("Should calculate current balance correctly")
-    void getCurrentBalance_ShouldReturnCorrectBalance() {
+    @DisplayName("Should throw ResourceNotFoundException when a source item does not exist")
+    void mergeItems_ShouldThrowException_WhenSourceNotFound() {
         when(itemRepository.findById(1L)).thenReturn(Optional.of(testItem));
-        when(stockTransactionRepository.getTotalInByItemId(1L)).thenReturn(100);
-        when(stockTransactionRepository.getTotalOutByItemId(1L)).thenReturn(30);
+        when(itemRepository.findAllById(anyCollection())).thenReturn(Collections.emptyList());
 
-        int balance = itemService.getCurrentBalance(1L);
+        assertThrows(ResourceNotFoundException.class, () -> itemService.mergeItems(1L, List.of(99L)));
 
-        assertEquals(70, balance);
+        verify(itemRepository, never()).deleteAllByIdInBatch(anyCollection());
     }
 }
@@ -0,0 +1,174 @@
+package npk.rca.ims.service;
+
+import npk.rca.ims.dto.LedgerImportResultDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the H2 fallback path (batched staging inserts) against the migrated
+ * schema. Each import commits, so the test cleans up after itself.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(LedgerImportService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LedgerImportServiceTest {
+
+    private static final String HEADER = "transaction_date,item_name,transaction_type,quantity,supplier_name,reference_number,notes\n";
+
+    @Autowired
+    private LedgerImportService ledgerImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO items (name, unit, damaged_quantity, minimum_stock, created_at, updated_at) "
+                + "VALUES ('Import Rice', 'kg', 0, 10, LOCALTIMESTAMP, LOCALTIMESTAMP)");
+        jdbcTemplate.update("INSERT INTO items (name, unit, damaged_quantity, minimum_stock, created_at, updated_at) "
+                + "VALUES ('Import Beans', 'kg', 0, 10, LOCALTIMESTAMP, LOCALTIMESTAMP)");
+        jdbcTemplate.update("INSERT INTO suppliers (name, contact_person, phone, email, active, created_at, updated_at) "
+                + "VALUES ('Import Farms', 'Jane', '0788000000', 'farms@example.com', TRUE, LOCALTIMESTAMP, LOCALTIMESTAMP)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM stock_transactions WHERE item_id IN "
+                + "(SELECT id FROM items WHERE name LIKE 'Import %')");
+        jdbcTemplate.update("DELETE FROM items WHERE name LIKE 'Import %'");
+        jdbcTemplate.update("DELETE FROM suppliers WHERE name = 'Import Farms'");
+    }
+
+    @Test
+    @DisplayName("Should resolve names and insert every row in file order")
+    void importTransactions_ShouldInsertRows() throws Exception {
+        String csv = HEADER
+                + "2023-01-10,Import Rice,IN,100,import farms,PO-1,\"First delivery, partial\"\n"
+                + "2023-01-11,Import Rice,out,40,,,\n"
+                + "2023-01-12,Import Beans,IN,25,,,\"Said \"\"thanks\"\"\"\n";
+
+        LedgerImportResultDTO result = ledgerImportService.importTransactions(stream(csv), "admin@example.com");
+
+        assertEquals(3, result.getRowsImported());
+        assertEquals(2, result.getItemsAffected());
+
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT i.name, t.transaction_type, t.quantity, t.supplier_id, t.notes, t.recorded_by "
+                + "FROM stock_transactions t JOIN items i ON i.id = t.item_id "
+                + "WHERE i.name LIKE 'Import %' ORDER BY t.id");
+        assertEquals(3, rows.size());
+        assertEquals("OUT", rows.get(1).get("TRANSACTION_TYPE"));
+        assertNotNull(rows.get(0).get("SUPPLIER_ID"));
+        assertNull(rows.get(1).get("SUPPLIER_ID"));
+        assertEquals("First delivery, partial", rows.get(0).get("NOTES"));
+        assertEquals("Said \"thanks\"", rows.get(2).get("NOTES"));
+        assertEquals("admin@example.com", rows.get(2).get("RECORDED_BY"));
+    }
+
+    @Test
+    @DisplayName("Should reject the whole file when a row is invalid")
+    void importTransactions_ShouldRejectInvalidRow() {
+        String csv = HEADER
+                + "2023-01-10,Import Rice,IN,100,,,\n"
+                + "2023-01-11,Import Rice,IN,-5,,,\n";
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> ledgerImportService.importTransactions(stream(csv), "admin"));
+
+        assertTrue(ex.getMessage().startsWith("Line 3:"), ex.getMessage());
+        assertEquals(0, importedRows());
+    }
+
+    @Test
+    @DisplayName("Should reject unknown item names without importing anything")
+    void importTransactions_ShouldRejectUnknownItems() {
+        String csv = HEADER
+                + "2023-01-10,Import Rice,IN,100,,,\n"
+                + "2023-01-10,Import Maize,IN,100,,,\n";
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> ledgerImportService.importTransactions(stream(csv), "admin"));
+
+        assertEquals("Unknown items: Import Maize", ex.getMessage());
+        assertEquals(0, importedRows());
+    }
+
+    @Test
+    @DisplayName("Should roll back when the import leaves an item below zero")
+    void importTransactions_ShouldRejectNegativeBalance() {
+        String csv = HEADER
+                + "2023-01-10,Import Rice,IN,10,,,\n"
+                + "2023-01-11,Import Rice,OUT,15,,,\n";
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> ledgerImportService.importTransactions(stream(csv), "admin"));
+
+        assertTrue(ex.getMessage().contains("Import Rice"), ex.getMessage());
+        assertEquals(0, importedRows());
+    }
+
+    @Test
+    @DisplayName("Should reject a backdated movement that takes the balance below zero mid-history")
+    void importTransactions_ShouldRejectNegativeRunningBalance() {
+        String csv = HEADER
+                + "2023-01-20,Import Rice,IN,100,,,\n"
+                + "2023-01-10,Import Rice,OUT,30,,,\n";
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> ledgerImportService.importTransactions(stream(csv), "admin"));
+
+        assertTrue(ex.getMessage().contains("Import Rice"), ex.getMessage());
+        assertEquals(0, importedRows());
+    }
+
+    @Test
+    @DisplayName("Should match item names case-insensitively, like supplier names")
+    void importTransactions_ShouldMatchItemNamesIgnoringCase() throws Exception {
+        String csv = HEADER
+                + "2023-01-10,import RICE,IN,10,IMPORT FARMS,,\n";
+
+        LedgerImportResultDTO result = ledgerImportService.importTransactions(stream(csv), "admin");
+
+        assertEquals(1, result.getRowsImported());
+        assertEquals(1, importedRows());
+    }
+
+    @Test
+    @DisplayName("Should require the mandatory columns in the header")
+    void importTransactions_ShouldRejectMissingColumn() {
+        String csv = "transaction_date,item_name,quantity\n2023-01-10,Import Rice,10\n";
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> ledgerImportService.importTransactions(stream(csv), "admin"));
+
+        assertEquals("Missing required column: transaction_type", ex.getMessage());
+    }
+
+    private int importedRows() {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stock_transactions t "
+                + "JOIN items i ON i.id = t.item_id WHERE i.name LIKE 'Import %'", Integer.class);
+        return count != null ? count : 0;
+    }
+
+    private static InputStream stream(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+}
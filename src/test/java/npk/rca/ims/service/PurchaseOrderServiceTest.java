@@ -0,0 +1,203 @@
+package npk.rca.ims.service;
+
+import npk.rca.ims.dto.GoodsReceiptLineDTO;
+import npk.rca.ims.dto.GoodsReceiptRequest;
+import npk.rca.ims.dto.PurchaseOrderDTO;
+import npk.rca.ims.dto.PurchaseOrderLineDTO;
+import npk.rca.ims.dto.StockTransactionDTO;
+import npk.rca.ims.exceptions.ResourceNotFoundException;
+import npk.rca.ims.model.Item;
+import npk.rca.ims.model.PurchaseOrder;
+import npk.rca.ims.model.PurchaseOrderLine;
+import npk.rca.ims.model.PurchaseOrderStatus;
+import npk.rca.ims.model.Supplier;
+import npk.rca.ims.model.TransactionType;
+import npk.rca.ims.repository.ItemRepository;
+import npk.rca.ims.repository.PurchaseOrderRepository;
+import npk.rca.ims.repository.SupplierRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PurchaseOrderServiceTest {
+
+    @Mock
+    private PurchaseOrderRepository purchaseOrderRepository;
+
+    @Mock
+    private SupplierRepository supplierRepository;
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private StockTransactionService stockTransactionService;
+
+    @InjectMocks
+    private PurchaseOrderService purchaseOrderService;
+
+    private Supplier supplier;
+    private Item rice;
+    private Item beans;
+    private PurchaseOrder order;
+
+    @BeforeEach
+    void setUp() {
+        supplier = new Supplier();
+        supplier.setId(3L);
+        supplier.setName("Agro Ltd");
+        supplier.setActive(true);
+
+        rice = new Item();
+        rice.setId(1L);
+        rice.setName("Rice");
+
+        beans = new Item();
+        beans.setId(2L);
+        beans.setName("Beans");
+
+        order = new PurchaseOrder();
+        order.setId(7L);
+        order.setPoNumber("PO-2024-001");
+        order.setSupplier(supplier);
+        order.setStatus(PurchaseOrderStatus.OPEN);
+        order.setOrderDate(LocalDate.now());
+        order.addLine(line(rice, 100));
+        order.addLine(line(beans, 50));
+    }
+
+    @Test
+    @DisplayName("Should post received lines as IN transactions in one batch and track outstanding")
+    @SuppressWarnings("unchecked")
+    void receiveGoods_ShouldPostBatchAndMarkPartiallyReceived() {
+        when(purchaseOrderRepository.findForUpdateById(7L)).thenReturn(Optional.of(order));
+        when(purchaseOrderRepository.save(any(PurchaseOrder.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        GoodsReceiptRequest request = new GoodsReceiptRequest(null, null, "storekeeper",
+                Arrays.asList(new GoodsReceiptLineDTO(1L, 60), new GoodsReceiptLineDTO(2L, 50)));
+
+        PurchaseOrderDTO result = purchaseOrderService.receiveGoods(7L, request);
+
+        ArgumentCaptor<List<StockTransactionDTO>> captor = ArgumentCaptor.forClass(List.class);
+        verify(stockTransactionService, times(1)).recordTransactions(captor.capture());
+        List<StockTransactionDTO> movements = captor.getValue();
+        assertEquals(2, movements.size());
+        assertTrue(movements.stream().allMatch(m -> m.getTransactionType() == TransactionType.IN));
+        assertTrue(movements.stream().allMatch(m -> m.getSupplierId().equals(3L)));
+        assertEquals("PO-2024-001", movements.get(0).getReferenceNumber());
+
+        assertEquals(PurchaseOrderStatus.PARTIALLY_RECEIVED, result.getStatus());
+        assertEquals(40, result.getOutstandingQuantity());
+        assertEquals(60, result.getLines().get(0).getReceivedQuantity());
+    }
+
+    @Test
+    @DisplayName("Should receive everything outstanding when no lines are given")
+    void receiveGoods_ShouldCloseOrder_WhenReceivingRemainder() {
+        when(purchaseOrderRepository.findForUpdateById(7L)).thenReturn(Optional.of(order));
+        when(purchaseOrderRepository.save(any(PurchaseOrder.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        PurchaseOrderDTO result = purchaseOrderService.receiveGoods(7L, new GoodsReceiptRequest());
+
+        assertEquals(PurchaseOrderStatus.RECEIVED, result.getStatus());
+        assertEquals(0, result.getOutstandingQuantity());
+        verify(stockTransactionService).recordTransactions(anyList());
+    }
+
+    @Test
+    @DisplayName("Should reject receiving more than outstanding")
+    void receiveGoods_ShouldThrowException_WhenOverReceiving() {
+        when(purchaseOrderRepository.findForUpdateById(7L)).thenReturn(Optional.of(order));
+
+        GoodsReceiptRequest request = new GoodsReceiptRequest(null, null, null,
+                Collections.singletonList(new GoodsReceiptLineDTO(1L, 101)));
+
+        assertThrows(IllegalArgumentException.class, () -> purchaseOrderService.receiveGoods(7L, request));
+        verify(stockTransactionService, never()).recordTransactions(anyList());
+    }
+
+    @Test
+    @DisplayName("Should reject receipts against a cancelled order")
+    void receiveGoods_ShouldThrowException_WhenOrderClosed() {
+        order.setStatus(PurchaseOrderStatus.CANCELLED);
+        when(purchaseOrderRepository.findForUpdateById(7L)).thenReturn(Optional.of(order));
+
+        assertThrows(IllegalArgumentException.class, () ->
+                purchaseOrderService.receiveGoods(7L, new GoodsReceiptRequest()));
+    }
+
+    @Test
+    @DisplayName("Should create order with outstanding quantity equal to ordered total")
+    void createPurchaseOrder_ShouldSaveOrder() {
+        PurchaseOrderDTO dto = new PurchaseOrderDTO();
+        dto.setPoNumber("PO-2024-002");
+        dto.setSupplierId(3L);
+        dto.setLines(Arrays.asList(
+                new PurchaseOrderLineDTO(null, 1L, null, null, 100, null, null),
+                new PurchaseOrderLineDTO(null, 2L, null, null, 25, null, null)));
+
+        when(purchaseOrderRepository.existsByPoNumberIgnoreCase("PO-2024-002")).thenReturn(false);
+        when(supplierRepository.findById(3L)).thenReturn(Optional.of(supplier));
+        when(itemRepository.findAllById(anyCollection())).thenReturn(Arrays.asList(rice, beans));
+        when(purchaseOrderRepository.save(any(PurchaseOrder.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        PurchaseOrderDTO result = purchaseOrderService.createPurchaseOrder(dto);
+
+        assertEquals(PurchaseOrderStatus.OPEN, result.getStatus());
+        assertEquals(125, result.getOutstandingQuantity());
+        assertEquals(2, result.getLines().size());
+    }
+
+    @Test
+    @DisplayName("Should throw exception when supplier does not exist")
+    void createPurchaseOrder_ShouldThrowException_WhenSupplierNotFound() {
+        PurchaseOrderDTO dto = new PurchaseOrderDTO();
+        dto.setPoNumber("PO-2024-003");
+        dto.setSupplierId(99L);
+
+        when(purchaseOrderRepository.existsByPoNumberIgnoreCase("PO-2024-003")).thenReturn(false);
+        when(supplierRepository.findById(99L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> purchaseOrderService.createPurchaseOrder(dto));
+        verify(purchaseOrderRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should read open orders of a supplier through the status query")
+    void getPurchaseOrders_ShouldUseStatusQuery_WhenOpenOnly() {
+        when(purchaseOrderRepository.findBySupplierIdAndStatusInOrderByOrderDateDescIdDesc(eq(3L), anyCollection()))
+                .thenReturn(Collections.singletonList(order));
+
+        List<PurchaseOrderDTO> result = purchaseOrderService.getPurchaseOrders(3L, true);
+
+        assertEquals(1, result.size());
+        assertEquals(150, result.get(0).getOutstandingQuantity());
+    }
+
+    private PurchaseOrderLine line(Item item, int ordered) {
+        PurchaseOrderLine line = new PurchaseOrderLine();
+        line.setItem(item);
+        line.setOrderedQuantity(ordered);
+        line.setReceivedQuantity(0);
+        return line;
+    }
+}
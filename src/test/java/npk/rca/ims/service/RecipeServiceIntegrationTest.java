@@ -0,0 +1,89 @@
+package npk.rca.ims.service;
+
+import jakarta.persistence.EntityManager;
+import npk.rca.ims.dto.RecipeDTO;
+import npk.rca.ims.dto.RecipeIngredientDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs recipe updates against the migrated schema, where recipe lines are
+ * unique per (recipe, item)
+ */
+@SpringBootTest
+@Transactional
+class RecipeServiceIntegrationTest {
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Should update a kept ingredient in place, add new ones and drop missing ones")
+    void updateRecipe_ShouldKeepExistingLine_WhenItemStays() {
+        long rice = item("Recipe Rice");
+        long beans = item("Recipe Beans");
+        long oil = item("Recipe Oil");
+        RecipeDTO created = recipeService.createRecipe(recipe("Recipe Lunch", line(rice, "0.1500"), line(beans, "0.0800")));
+        entityManager.flush();
+        Long riceLineId = lineId(created, rice);
+
+        RecipeDTO updated = recipeService.updateRecipe(created.getId(),
+                recipe("Recipe Lunch", line(rice, "0.2000"), line(oil, "0.0100")));
+        entityManager.flush();
+
+        assertEquals(Map.of(rice, new BigDecimal("0.2000"), oil, new BigDecimal("0.0100")), lines(created.getId()));
+        assertEquals(riceLineId, lineId(updated, rice));
+    }
+
+    private Map<Long, BigDecimal> lines(long recipeId) {
+        Map<Long, BigDecimal> lines = new HashMap<>();
+        jdbcTemplate.query("SELECT item_id, quantity_per_portion FROM recipe_ingredients WHERE recipe_id = ?",
+                rs -> { lines.put(rs.getLong(1), rs.getBigDecimal(2)); }, recipeId);
+        return lines;
+    }
+
+    private static Long lineId(RecipeDTO recipe, long itemId) {
+        return recipe.getIngredients().stream()
+                .filter(line -> line.getItemId() == itemId)
+                .findFirst()
+                .orElseThrow()
+                .getId();
+    }
+
+    private static RecipeDTO recipe(String name, RecipeIngredientDTO... lines) {
+        RecipeDTO recipe = new RecipeDTO();
+        recipe.setName(name);
+        recipe.setIngredients(List.of(lines));
+        return recipe;
+    }
+
+    private static RecipeIngredientDTO line(long itemId, String quantityPerPortion) {
+        RecipeIngredientDTO line = new RecipeIngredientDTO();
+        line.setItemId(itemId);
+        line.setQuantityPerPortion(new BigDecimal(quantityPerPortion));
+        return line;
+    }
+
+    private long item(String name) {
+        jdbcTemplate.update("INSERT INTO items (name, unit, category, description, damaged_quantity, minimum_stock, created_at, updated_at) "
+                + "VALUES (?, 'kg', 'Grains', 'Grains', 0, 10, LOCALTIMESTAMP, LOCALTIMESTAMP)", name);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM items", Long.class);
+    }
+}
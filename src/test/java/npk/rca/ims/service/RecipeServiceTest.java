@@ -0,0 +1,156 @@
+package npk.rca.ims.service;
+
+import npk.rca.ims.dto.RecipeDTO;
+import npk.rca.ims.dto.RecipeIngredientDTO;
+import npk.rca.ims.dto.RecipeIssueRequest;
+import npk.rca.ims.dto.StockTransactionDTO;
+import npk.rca.ims.exceptions.ResourceNotFoundException;
+import npk.rca.ims.model.Item;
+import npk.rca.ims.model.Recipe;
+import npk.rca.ims.model.RecipeIngredient;
+import npk.rca.ims.model.TransactionType;
+import npk.rca.ims.repository.ItemRepository;
+import npk.rca.ims.repository.RecipeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RecipeServiceTest {
+
+    @Mock
+    private RecipeRepository recipeRepository;
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private StockTransactionService stockTransactionService;
+
+    @InjectMocks
+    private RecipeService recipeService;
+
+    private Item rice;
+    private Item oil;
+    private Recipe lunch;
+
+    @BeforeEach
+    void setUp() {
+        rice = new Item();
+        rice.setId(1L);
+        rice.setName("Rice");
+        rice.setUnit("Kg");
+
+        oil = new Item();
+        oil.setId(2L);
+        oil.setName("Oil");
+        oil.setUnit("Liters");
+
+        lunch = new Recipe();
+        lunch.setId(10L);
+        lunch.setName("Lunch");
+        lunch.addIngredient(ingredient(rice, "0.15"));
+        lunch.addIngredient(ingredient(oil, "0.02"));
+    }
+
+    @Test
+    @DisplayName("Should expand portions into one OUT movement per ingredient")
+    @SuppressWarnings("unchecked")
+    void issuePortions_ShouldRecordOneOutPerIngredient() {
+        when(recipeRepository.findWithIngredientsById(10L)).thenReturn(Optional.of(lunch));
+        when(stockTransactionService.recordTransactions(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        RecipeIssueRequest request = new RecipeIssueRequest(301, null, null, null, "cook");
+        List<StockTransactionDTO> result = recipeService.issuePortions(10L, request);
+
+        ArgumentCaptor<List<StockTransactionDTO>> captor = ArgumentCaptor.forClass(List.class);
+        verify(stockTransactionService, times(1)).recordTransactions(captor.capture());
+        List<StockTransactionDTO> movements = captor.getValue();
+
+        assertEquals(2, result.size());
+        // 0.15 * 301 = 45.15 -> 46, 0.02 * 301 = 6.02 -> 7 (rounded up)
+        assertEquals(46, movements.get(0).getQuantity());
+        assertEquals(7, movements.get(1).getQuantity());
+        assertTrue(movements.stream().allMatch(m -> m.getTransactionType() == TransactionType.OUT));
+        assertEquals("RECIPE-10", movements.get(0).getReferenceNumber());
+        assertEquals("Consumed: Lunch for 301 portions", movements.get(0).getNotes());
+        assertNotNull(movements.get(0).getTransactionDate());
+    }
+
+    @Test
+    @DisplayName("Should throw exception when issuing an unknown recipe")
+    void issuePortions_ShouldThrowException_WhenRecipeNotFound() {
+        when(recipeRepository.findWithIngredientsById(99L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () ->
+                recipeService.issuePortions(99L, new RecipeIssueRequest(10, null, null, null, null)));
+        verify(stockTransactionService, never()).recordTransactions(anyList());
+    }
+
+    @Test
+    @DisplayName("Should create recipe with its ingredient lines")
+    void createRecipe_ShouldSaveRecipe() {
+        RecipeDTO dto = new RecipeDTO(null, "Lunch", null,
+                Arrays.asList(line(1L, "0.15"), line(2L, "0.02")), null, null);
+
+        when(recipeRepository.findByNameIgnoreCase("Lunch")).thenReturn(Optional.empty());
+        when(itemRepository.findAllById(anyCollection())).thenReturn(Arrays.asList(rice, oil));
+        when(recipeRepository.save(any(Recipe.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        RecipeDTO result = recipeService.createRecipe(dto);
+
+        assertEquals("Lunch", result.getName());
+        assertEquals(2, result.getIngredients().size());
+        assertEquals("Rice", result.getIngredients().get(0).getItemName());
+    }
+
+    @Test
+    @DisplayName("Should reject duplicate recipe names")
+    void createRecipe_ShouldThrowException_WhenNameExists() {
+        RecipeDTO dto = new RecipeDTO(null, "Lunch", null,
+                Collections.singletonList(line(1L, "0.15")), null, null);
+        when(recipeRepository.findByNameIgnoreCase("Lunch")).thenReturn(Optional.of(lunch));
+
+        assertThrows(IllegalArgumentException.class, () -> recipeService.createRecipe(dto));
+        verify(recipeRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should reject recipes listing the same item twice")
+    void createRecipe_ShouldThrowException_WhenItemRepeated() {
+        RecipeDTO dto = new RecipeDTO(null, "Dinner", null,
+                Arrays.asList(line(1L, "0.15"), line(1L, "0.10")), null, null);
+        when(recipeRepository.findByNameIgnoreCase("Dinner")).thenReturn(Optional.empty());
+
+        assertThrows(IllegalArgumentException.class, () -> recipeService.createRecipe(dto));
+        verify(recipeRepository, never()).save(any());
+    }
+
+    private RecipeIngredient ingredient(Item item, String perPortion) {
+        RecipeIngredient ingredient = new RecipeIngredient();
+        ingredient.setItem(item);
+        ingredient.setQuantityPerPortion(new BigDecimal(perPortion));
+        return ingredient;
+    }
+
+    private RecipeIngredientDTO line(Long itemId, String perPortion) {
+        return new RecipeIngredientDTO(null, itemId, null, null, new BigDecimal(perPortion));
+    }
+}
@@ -1,29 +1,53 @@
 package npk.rca.ims.service;
 
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.parser.PdfTextExtractor;
 import npk.rca.ims.dto.StockBalanceDTO;
 import npk.rca.ims.dto.StockTransactionDTO;
+import npk.rca.ims.dto.TransactionFilter;
 import npk.rca.ims.dto.SupplierDTO;
 import npk.rca.ims.model.TransactionType;
 import npk.rca.ims.repository.ItemRepository;
+import npk.rca.ims.repository.ReportFileUsageView;
 import npk.rca.ims.repository.ReportHistoryRepository;
 import npk.rca.ims.model.Item;
+import npk.rca.ims.model.ReportHistory;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
@@ -51,8 +75,13 @@ class ReportServiceTest {
     private StockBalanceDTO testBalance;
     private SupplierDTO testSupplier;
 
+    @TempDir
+    Path storageDir;
+
     @BeforeEach
     void setUp() {
+        ReflectionTestUtils.setField(reportService, "storageDir", storageDir.toString());
+
         // Force update
         testTransaction = new StockTransactionDTO();
         testTransaction.setId(1L);
@@ -82,33 +111,33 @@ class ReportServiceTest {
 
     @Test
     @DisplayName("Should generate transaction report PDF successfully")
-    void generateTransactionReportPdf_ShouldReturnPdfBytes() {
-        when(transactionService.getAllTransactions()).thenReturn(Arrays.asList(testTransaction));
+    void generateTransactionReportPdf_ShouldReturnPdfBytes() throws Exception {
+        givenTransactions(testTransaction);
 
-        byte[] result = reportService.generateTransactionReportPdf(null, null, null, null);
+        Path result = reportService.generateTransactionReportPdf(null, null, null, null);
 
         assertNotNull(result);
-        assertTrue(result.length > 0);
+        assertTrue(Files.size(result) > 0);
         // Verify history is saved
         verify(reportHistoryRepository).save(any());
     }
 
     @Test
     @DisplayName("Should generate transaction report Excel successfully")
-    void generateTransactionReportExcel_ShouldReturnExcelBytes() {
-        when(transactionService.getAllTransactions()).thenReturn(Arrays.asList(testTransaction));
+    void generateTransactionReportExcel_ShouldReturnExcelBytes() throws Exception {
+        givenTransactions(testTransaction);
 
-        byte[] result = reportService.generateTransactionReportExcel(null, null, null, null);
+        Path result = reportService.generateTransactionReportExcel(null, null, null, null);
 
         assertNotNull(result);
-        assertTrue(result.length > 0);
+        assertTrue(Files.size(result) > 0);
         verify(reportHistoryRepository).save(any());
     }
 
     @Test
     @DisplayName("Should generate transaction report Excel with Item Details (Stock Card)")
-    void generateTransactionReportExcel_WithItemDetails_ShouldReturnExcelBytes() {
-        when(transactionService.getAllTransactions()).thenReturn(Arrays.asList(testTransaction));
+    void generateTransactionReportExcel_WithItemDetails_ShouldReturnExcelBytes() throws Exception {
+        givenTransactions(testTransaction);
         
         Item mockItem = new Item();
         mockItem.setId(1L);
@@ -117,121 +146,367 @@ class ReportServiceTest {
         mockItem.setMinimumStock(10);
         when(itemRepository.findById(1L)).thenReturn(java.util.Optional.of(mockItem));
 
-        byte[] result = reportService.generateTransactionReportExcel(null, null, 1L, null);
+        Path result = reportService.generateTransactionReportExcel(null, null, 1L, null);
 
         assertNotNull(result);
-        assertTrue(result.length > 0);
+        assertTrue(Files.size(result) > 0);
         verify(reportHistoryRepository).save(any());
     }
 
+    @Test
+    @DisplayName("Should write the Excel report to storage with a header and one row per transaction")
+    void generateTransactionReportExcel_ShouldWriteWorkbookToStorage() throws Exception {
+        givenTransactions(testTransaction);
+
+        Path result = reportService.generateTransactionReportExcel(null, null, null, null);
+
+        try (Workbook workbook = WorkbookFactory.create(result.toFile())) {
+            Sheet sheet = workbook.getSheet("Transactions");
+            assertEquals("Date", sheet.getRow(6).getCell(0).getStringCellValue());
+            assertEquals("REF-001", sheet.getRow(7).getCell(1).getStringCellValue());
+            assertEquals(7, sheet.getLastRowNum());
+        }
+        verify(reportHistoryRepository).save(argThat(history ->
+                "READY".equals(history.getStatus()) && result.toString().equals(history.getFilePath())));
+    }
+
     @Test
     @DisplayName("Should generate transaction report PDF with custom title")
-    void generateTransactionReportPdf_WithCustomTitle_ShouldReturnPdfBytes() {
-        when(transactionService.getAllTransactions()).thenReturn(Arrays.asList(testTransaction));
+    void generateTransactionReportPdf_WithCustomTitle_ShouldReturnPdfBytes() throws Exception {
+        givenTransactions(testTransaction);
 
         String customTitle = "Custom Report Title";
-        byte[] result = reportService.generateTransactionReportPdf(null, null, null, customTitle);
+        Path result = reportService.generateTransactionReportPdf(null, null, null, customTitle);
 
         assertNotNull(result);
-        assertTrue(result.length > 0);
+        assertTrue(Files.size(result) > 0);
         verify(reportHistoryRepository).save(any());
     }
 
     @Test
     @DisplayName("Should generate stock-in report PDF successfully")
-    void generateStockInReportPdf_ShouldReturnPdfBytes() {
-        when(transactionService.getAllTransactions()).thenReturn(Arrays.asList(testTransaction));
+    void generateStockInReportPdf_ShouldReturnPdfBytes() throws Exception {
+        givenTransactions(testTransaction);
 
-        byte[] result = reportService.generateStockInReportPdf(null, null, null);
+        Path result = reportService.generateStockInReportPdf(null, null, null);
 
         assertNotNull(result);
-        assertTrue(result.length > 0);
+        assertTrue(Files.size(result) > 0);
         verify(reportHistoryRepository).save(any());
     }
 
+    @Test
+    @DisplayName("Should push supplier and type filters down to the transaction query")
+    void generateStockInReportExcel_ShouldFilterBySupplierInQuery() throws Exception {
+        givenTransactions(testTransaction);
+
+        Path result = reportService.generateStockInReportExcel(null, null, 5L);
+
+        assertTrue(Files.size(result) > 0);
+        verify(transactionService).forEachTransaction(argThat(filter ->
+                Long.valueOf(5L).equals(filter.getSupplierId()) && filter.getType() == TransactionType.IN), any());
+    }
+
     @Test
     @DisplayName("Should generate stock-out report PDF successfully")
-    void generateStockOutReportPdf_ShouldReturnPdfBytes() {
+    void generateStockOutReportPdf_ShouldReturnPdfBytes() throws Exception {
         testTransaction.setTransactionType(TransactionType.OUT);
-        when(transactionService.getAllTransactions()).thenReturn(Arrays.asList(testTransaction));
+        givenTransactions(testTransaction);
 
-        byte[] result = reportService.generateStockOutReportPdf(null, null);
+        Path result = reportService.generateStockOutReportPdf(null, null);
 
         assertNotNull(result);
-        assertTrue(result.length > 0);
+        assertTrue(Files.size(result) > 0);
         verify(reportHistoryRepository).save(any());
     }
 
     @Test
     @DisplayName("Should generate balance report PDF successfully")
-    void generateBalanceReportPdf_ShouldReturnPdfBytes() {
+    void generateBalanceReportPdf_ShouldReturnPdfBytes() throws Exception {
         when(balanceService.getAllBalances()).thenReturn(Arrays.asList(testBalance));
 
-        byte[] result = reportService.generateBalanceReportPdf();
+        Path result = reportService.generateBalanceReportPdf();
 
         assertNotNull(result);
-        assertTrue(result.length > 0);
+        assertTrue(Files.size(result) > 0);
         verify(reportHistoryRepository).save(any());
     }
 
     @Test
     @DisplayName("Should generate balance report Excel successfully")
-    void generateBalanceReportExcel_ShouldReturnExcelBytes() {
+    void generateBalanceReportExcel_ShouldReturnExcelBytes() throws Exception {
         when(balanceService.getAllBalances()).thenReturn(Arrays.asList(testBalance));
 
-        byte[] result = reportService.generateBalanceReportExcel();
+        Path result = reportService.generateBalanceReportExcel();
 
         assertNotNull(result);
-        assertTrue(result.length > 0);
+        assertTrue(Files.size(result) > 0);
         verify(reportHistoryRepository).save(any());
     }
 
     @Test
     @DisplayName("Should generate low stock report PDF successfully")
-    void generateLowStockReportPdf_ShouldReturnPdfBytes() {
+    void generateLowStockReportPdf_ShouldReturnPdfBytes() throws Exception {
         testBalance.setIsLowStock(true);
         when(balanceService.getLowStockItems()).thenReturn(Arrays.asList(testBalance));
 
-        byte[] result = reportService.generateLowStockReportPdf();
+        Path result = reportService.generateLowStockReportPdf();
 
         assertNotNull(result);
-        assertTrue(result.length > 0);
+        assertTrue(Files.size(result) > 0);
         verify(reportHistoryRepository).save(any());
     }
 
     @Test
     @DisplayName("Should generate supplier report PDF successfully")
-    void generateSupplierReportPdf_ShouldReturnPdfBytes() {
+    void generateSupplierReportPdf_ShouldReturnPdfBytes() throws Exception {
         when(supplierService.getAllActiveSuppliers()).thenReturn(Arrays.asList(testSupplier));
 
-        byte[] result = reportService.generateSupplierReportPdf();
+        Path result = reportService.generateSupplierReportPdf();
 
         assertNotNull(result);
-        assertTrue(result.length > 0);
+        assertTrue(Files.size(result) > 0);
         verify(reportHistoryRepository).save(any());
     }
 
+    @Test
+    @DisplayName("Should lay out a table longer than one flush across pages")
+    void generateSupplierReportPdf_ShouldRenderTableInChunks() throws Exception {
+        List<SupplierDTO> suppliers = new ArrayList<>();
+        for (long i = 1; i <= 1200; i++) {
+            suppliers.add(new SupplierDTO(i, "Supplier " + i, "Contact", "123456", "s" + i + "@example.com", "Items", true));
+        }
+        when(supplierService.getAllActiveSuppliers()).thenReturn(suppliers);
+
+        Path result = reportService.generateSupplierReportPdf();
+
+        PdfReader reader = new PdfReader(result.toString());
+        try {
+            assertTrue(reader.getNumberOfPages() > 20, "pages: " + reader.getNumberOfPages());
+            String lastPage = new PdfTextExtractor(reader).getTextFromPage(reader.getNumberOfPages());
+            assertTrue(lastPage.contains("Supplier 1200"));
+            assertTrue(lastPage.contains("Company Name"));
+        } finally {
+            reader.close();
+        }
+    }
+
     @Test
     @DisplayName("Should generate supplier report Excel successfully")
-    void generateSupplierReportExcel_ShouldReturnExcelBytes() {
+    void generateSupplierReportExcel_ShouldReturnExcelBytes() throws Exception {
         when(supplierService.getAllActiveSuppliers()).thenReturn(Arrays.asList(testSupplier));
 
-        byte[] result = reportService.generateSupplierReportExcel();
+        Path result = reportService.generateSupplierReportExcel();
 
         assertNotNull(result);
-        assertTrue(result.length > 0);
+        assertTrue(Files.size(result) > 0);
         verify(reportHistoryRepository).save(any());
     }
     
     @Test
     @DisplayName("Should handle empty data gracefully for transaction report")
-    void generateTransactionReportPdf_ShouldHandleEmptyData() {
-        when(transactionService.getAllTransactions()).thenReturn(Collections.emptyList());
+    void generateTransactionReportPdf_ShouldHandleEmptyData() throws Exception {
+        givenTransactions();
 
-        byte[] result = reportService.generateTransactionReportPdf(null, null, null, null);
+        Path result = reportService.generateTransactionReportPdf(null, null, null, null);
 
         assertNotNull(result);
-        assertTrue(result.length > 0);
+        assertTrue(Files.size(result) > 0);
         verify(reportHistoryRepository).save(any());
     }
+
+    @Test
+    @DisplayName("Should hand out the stored file again when the same report is asked for on an unchanged ledger")
+    void generateBalanceReportPdf_ShouldReuseStoredFile_WhenLedgerUnchanged() throws Exception {
+        when(reportHistoryRepository.findLedgerVersion()).thenReturn(42L);
+        when(balanceService.getAllBalances()).thenReturn(Arrays.asList(testBalance));
+        List<ReportHistory> saved = new ArrayList<>();
+        when(reportHistoryRepository.save(any())).thenAnswer(invocation -> {
+            saved.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        when(reportHistoryRepository.findFirstByCacheKeyAndStatusOrderByGeneratedDateDesc(anyString(), eq("READY")))
+                .thenReturn(Optional.empty())
+                .thenAnswer(invocation -> Optional.of(saved.get(0)));
+
+        Path first = reportService.generateBalanceReportPdf();
+        Path second = reportService.generateBalanceReportPdf();
+
+        assertEquals(first, second);
+        verify(balanceService, times(1)).getAllBalances();
+        assertEquals(2, saved.size());
+        assertEquals(saved.get(0).getCacheKey(), saved.get(1).getCacheKey());
+        assertEquals(first.toString(), saved.get(1).getFilePath());
+    }
+
+    @Test
+    @DisplayName("Should key the cache on type, format, parameters, title and ledger version")
+    void cacheKey_ShouldChange_WhenAnyPartChanges() {
+        List<Object> range = Arrays.asList(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31), null);
+        String key = ReportService.cacheKey("TRANSACTION", "PDF", "History", range, 7);
+
+        assertEquals(64, key.length());
+        assertEquals(key, ReportService.cacheKey("TRANSACTION", "PDF", "History", range, 7));
+        assertNotEquals(key, ReportService.cacheKey("TRANSACTION", "PDF", "History", range, 8));
+        assertNotEquals(key, ReportService.cacheKey("TRANSACTION", "EXCEL", "History", range, 7));
+        assertNotEquals(key, ReportService.cacheKey("TRANSACTION", "PDF", "Other", range, 7));
+        assertNotEquals(key, ReportService.cacheKey("TRANSACTION", "PDF", "History",
+                Arrays.asList(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31), 3L), 7));
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used files and expire their entries when over the size bound")
+    void generateSupplierReportPdf_ShouldEvictOldFiles_WhenCacheFull(@TempDir Path storage) throws Exception {
+        ReflectionTestUtils.setField(reportService, "cacheMaxSize", DataSize.ofBytes(1));
+        when(supplierService.getAllActiveSuppliers()).thenReturn(Arrays.asList(testSupplier));
+        Path old = Files.write(storage.resolve("Supplier_Report_old.pdf"), new byte[100]);
+        ReportHistory oldEntry = ReportHistory.builder().status("READY").filePath(old.toString()).build();
+        ReportHistory sharedEntry = ReportHistory.builder().status("READY").filePath(old.toString()).build();
+        when(reportHistoryRepository.findReadyFilesByLastUse()).thenReturn(List.of(fileUsage(old.toString())));
+        when(reportHistoryRepository.findByFilePath(old.toString())).thenReturn(List.of(oldEntry, sharedEntry));
+
+        Path result = reportService.generateSupplierReportPdf();
+
+        assertTrue(Files.exists(result));
+        assertFalse(Files.exists(old));
+        assertEquals("EXPIRED", oldEntry.getStatus());
+        assertNull(sharedEntry.getFilePath());
+        verify(reportHistoryRepository).saveAll(List.of(oldEntry, sharedEntry));
+    }
+
+    @Test
+    @DisplayName("Should hold back eviction of handed-out files until their use returns")
+    void withReportFiles_ShouldKeepFiles_UntilUseReturns(@TempDir Path storage) throws Exception {
+        ReflectionTestUtils.setField(reportService, "cacheMaxSize", DataSize.ofBytes(1));
+        when(supplierService.getAllActiveSuppliers()).thenReturn(Arrays.asList(testSupplier));
+        Path cached = Files.write(storage.resolve("Stock_Balance_Report_cached.pdf"), new byte[100]);
+        when(reportHistoryRepository.findReadyFilesByLastUse()).thenReturn(List.of(fileUsage(cached.toString())));
+
+        // Writing the second report would evict the first straight away
+        boolean readable = reportService.withReportFiles(
+                () -> Map.of("cached", cached, "fresh", reportService.generateSupplierReportPdf()),
+                files -> Files.isReadable(files.get("cached")));
+
+        assertTrue(readable);
+        assertFalse(Files.exists(cached));
+        verify(reportHistoryRepository, times(1)).findByFilePath(cached.toString());
+    }
+
+    @Test
+    @DisplayName("Should keep a shared report file while a newer entry still uses it")
+    void cleanupExpiredReports_ShouldKeepFile_WhenStillShared(@TempDir Path storage) throws Exception {
+        Path file = Files.write(storage.resolve("Stock_Balance_Report_shared.pdf"), new byte[10]);
+        ReportHistory expired = ReportHistory.builder().status("READY").filePath(file.toString()).build();
+        when(reportHistoryRepository.findByStatusNotAndGeneratedDateBefore(eq("EXPIRED"), any()))
+                .thenReturn(List.of(expired));
+        when(reportHistoryRepository.existsByFilePathAndStatusNot(file.toString(), "EXPIRED")).thenReturn(true);
+
+        reportService.cleanupExpiredReports();
+
+        assertEquals("EXPIRED", expired.getStatus());
+        assertTrue(Files.exists(file));
+    }
+
+    @Test
+    @DisplayName("Should render the reports of a run from its snapshot without querying again")
+    void generateTransactionReport_ShouldReadFromRun_WhenGivenOne() throws Exception {
+        LocalDate start = LocalDate.now().minusDays(7);
+        LocalDate end = LocalDate.now();
+        ReportRun run = new ReportRun(5L, (filter, sink) -> {
+            sink.accept(testTransaction);
+            return 1;
+        }, List.of(testBalance), null);
+
+        Path pdf = reportService.generateTransactionReportPdf(run, start, end, null, "Weekly");
+        Path balances = reportService.generateBalanceReportExcel(run);
+
+        assertTrue(Files.size(pdf) > 0);
+        assertTrue(Files.size(balances) > 0);
+        verifyNoInteractions(transactionService, balanceService);
+        verify(reportHistoryRepository, never()).findLedgerVersion();
+    }
+
+    @Test
+    @DisplayName("Should write the PDF and Excel of a transaction report from one read of the ledger")
+    void generateTransactionReports_ShouldReadRowsOnce() throws Exception {
+        LocalDate start = LocalDate.now().minusDays(7);
+        LocalDate end = LocalDate.now();
+        List<TransactionFilter> reads = new ArrayList<>();
+        ReportRun run = new ReportRun(5L, (filter, sink) -> {
+            reads.add(filter);
+            sink.accept(testTransaction);
+            return 1;
+        }, null, null);
+
+        ReportService.TransactionReports reports = reportService.generateTransactionReports(run, start, end, null, "Weekly");
+
+        assertEquals(List.of(ReportService.transactionFilter(start, end, null, null, null)), reads);
+        PdfReader reader = new PdfReader(reports.pdf().toString());
+        try {
+            assertTrue(new PdfTextExtractor(reader).getTextFromPage(1).contains("REF-001"));
+        } finally {
+            reader.close();
+        }
+        try (Workbook workbook = WorkbookFactory.create(reports.excel().toFile())) {
+            Sheet sheet = workbook.getSheetAt(0);
+            boolean found = false;
+            for (org.apache.poi.ss.usermodel.Row row : sheet) {
+                found |= row.getCell(1) != null && "REF-001".equals(row.getCell(1).toString());
+            }
+            assertTrue(found);
+        }
+        verify(reportHistoryRepository, times(2)).save(argThat(history -> "READY".equals(history.getStatus())));
+    }
+
+    @Test
+    @DisplayName("Should write only the format missing from the cache")
+    void generateTransactionReports_ShouldWriteMissingFormat_WhenOtherCached(@TempDir Path storage) throws Exception {
+        LocalDate start = LocalDate.now().minusDays(7);
+        LocalDate end = LocalDate.now();
+        Path cachedPdf = Files.write(storage.resolve("Transaction_Report_cached.pdf"), new byte[10]);
+        String pdfKey = ReportService.cacheKey("TRANSACTION", "PDF", "Weekly", Arrays.asList(start, end, null), 5L);
+        when(reportHistoryRepository.findFirstByCacheKeyAndStatusOrderByGeneratedDateDesc(anyString(), eq("READY")))
+                .thenAnswer(invocation -> pdfKey.equals(invocation.getArgument(0))
+                        ? Optional.of(ReportHistory.builder().status("READY").filePath(cachedPdf.toString()).build())
+                        : Optional.empty());
+        List<TransactionFilter> reads = new ArrayList<>();
+        ReportRun run = new ReportRun(5L, (filter, sink) -> {
+            reads.add(filter);
+            sink.accept(testTransaction);
+            return 1;
+        }, null, null);
+
+        ReportService.TransactionReports reports = reportService.generateTransactionReports(run, start, end, null, "Weekly");
+
+        assertEquals(cachedPdf, reports.pdf());
+        assertTrue(reports.excel().toString().endsWith(".xlsx"));
+        assertEquals(1, reads.size());
+    }
+
+    private static ReportFileUsageView fileUsage(String filePath) {
+        return new ReportFileUsageView() {
+            @Override
+            public String getFilePath() {
+                return filePath;
+            }
+
+            @Override
+            public LocalDateTime getLastUsed() {
+                return LocalDateTime.now().minusDays(1);
+            }
+        };
+    }
+
+    /**
+     * Streams the given rows into whatever sink the report writer passes in
+     */
+    private void givenTransactions(StockTransactionDTO... rows) throws IOException {
+        doAnswer(invocation -> {
+            RowSink<StockTransactionDTO> sink = invocation.getArgument(1);
+            for (StockTransactionDTO row : rows) {
+                sink.accept(row);
+            }
+            return (long) rows.length;
+        }).when(transactionService).forEachTransaction(any(TransactionFilter.class), any());
+    }
 }
@@ -0,0 +1,128 @@
+package npk.rca.ims.service;
+
+import npk.rca.ims.dto.StockBalanceDTO;
+import npk.rca.ims.dto.StockTransactionDTO;
+import npk.rca.ims.dto.SupplierDTO;
+import npk.rca.ims.dto.TransactionFilter;
+import npk.rca.ims.repository.ReportHistoryRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReportSnapshotServiceTest {
+
+    @Mock
+    private StockTransactionService transactionService;
+
+    @Mock
+    private StockBalanceService balanceService;
+
+    @Mock
+    private SupplierService supplierService;
+
+    @Mock
+    private ReportHistoryRepository reportHistoryRepository;
+
+    @InjectMocks
+    private ReportSnapshotService snapshotService;
+
+    private final TransactionFilter period = ReportService.transactionFilter(
+            LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31), null, null, null);
+
+    @Test
+    @DisplayName("Should read each dataset once and serve every report of the run from it")
+    void snapshot_ShouldLoadEachDatasetOnce() throws Exception {
+        when(reportHistoryRepository.findLedgerVersion()).thenReturn(12L);
+        when(balanceService.getAllBalances()).thenReturn(List.of(balance("Rice", true), balance("Beans", false)));
+        when(supplierService.getAllActiveSuppliers()).thenReturn(List.of(new SupplierDTO()));
+
+        ReportRun run = snapshotService.snapshot(ReportRun.Scope.builder()
+                .balances(true)
+                .suppliers(true)
+                .build(), loaded -> loaded);
+
+        assertEquals(12L, run.ledgerVersion());
+        assertEquals(2, run.balances().size());
+        assertEquals("Rice", run.lowStockItems().get(0).getItemName());
+        assertEquals(1, run.lowStockItems().size());
+        assertEquals(1, run.activeSuppliers().size());
+
+        verify(balanceService, times(1)).getAllBalances();
+        verify(balanceService, never()).getLowStockItems();
+        verifyNoInteractions(transactionService);
+    }
+
+    @Test
+    @DisplayName("Should stream transactions when a report reads them, inside the snapshot, not hold them")
+    void snapshot_ShouldStreamTransactionsOnRead() throws Exception {
+        StockTransactionDTO tx = new StockTransactionDTO();
+        tx.setId(1L);
+        doAnswer(invocation -> {
+            RowSink<StockTransactionDTO> sink = invocation.getArgument(1);
+            sink.accept(tx);
+            return 1L;
+        }).when(transactionService).forEachTransaction(eq(period), any());
+
+        List<StockTransactionDTO> rows = new ArrayList<>();
+        long count = snapshotService.snapshot(ReportRun.Scope.builder().build(), run -> {
+            verifyNoInteractions(transactionService);
+            return run.forEachTransaction(period, rows::add);
+        });
+
+        assertEquals(1, count);
+        assertEquals(List.of(tx), rows);
+        verify(transactionService, times(1)).forEachTransaction(eq(period), any());
+    }
+
+    @Test
+    @DisplayName("Should refuse to stream transactions outside the snapshot: after it, or on another thread")
+    void snapshot_ShouldRejectTransactionReadsOutsideSnapshot() throws Exception {
+        ReportRun run = snapshotService.snapshot(ReportRun.Scope.builder().build(), loaded -> {
+            ExecutorService other = Executors.newSingleThreadExecutor();
+            try {
+                Future<Long> read = other.submit(() -> loaded.forEachTransaction(period, tx -> { }));
+                ExecutionException e = assertThrows(ExecutionException.class, read::get);
+                assertInstanceOf(IllegalStateException.class, e.getCause());
+            } finally {
+                other.shutdownNow();
+            }
+            return loaded;
+        });
+
+        assertThrows(IllegalStateException.class, () -> run.forEachTransaction(period, tx -> { }));
+        verifyNoInteractions(transactionService);
+    }
+
+    @Test
+    @DisplayName("Should refuse datasets the run was not loaded with")
+    void snapshot_ShouldRejectReadsOutsideScope() throws Exception {
+        ReportRun run = snapshotService.snapshot(ReportRun.Scope.builder().balances(true).build(), loaded -> loaded);
+
+        assertThrows(IllegalStateException.class, run::activeSuppliers);
+        verifyNoInteractions(transactionService, supplierService);
+    }
+
+    private static StockBalanceDTO balance(String name, boolean low) {
+        StockBalanceDTO balance = new StockBalanceDTO();
+        balance.setItemName(name);
+        balance.setIsLowStock(low);
+        return balance;
+    }
+}
@@ -6,14 +6,31 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.ZipFile;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -30,13 +47,23 @@ class ScheduledReportServiceTest {
     @Mock
     private EmailService emailService;
 
+    @Mock
+    private ReportSnapshotService snapshotService;
+
     @InjectMocks
     private ScheduledReportService scheduledReportService;
 
+    @TempDir
+    Path tempDir;
+
     private ScheduledReportConfig dailyConfig;
+    private Path reportFile;
+    private final ReportRun run = new ReportRun(1L, (filter, sink) -> 0, List.of(), List.of());
 
     @BeforeEach
-    void setUp() {
+    void setUp() throws IOException {
+        reportFile = Files.write(tempDir.resolve("report.pdf"), new byte[]{1, 2, 3});
+
         dailyConfig = ScheduledReportConfig.builder()
                 .id(1L)
                 .email("test@example.com")
@@ -51,7 +78,7 @@ class ScheduledReportServiceTest {
     @Test
     void processScheduledReports_ShouldSendEmail_WhenReportIsDue() throws IOException {
         when(configRepository.findByActiveTrue()).thenReturn(List.of(dailyConfig));
-        when(reportService.generateTransactionReportPdf(any(), any(), any(), any())).thenReturn(new byte[]{1, 2, 3});
+        when(reportService.generateTransactionReportPdf(any(), any(), any(), any())).thenReturn(reportFile);
 
         scheduledReportService.processScheduledReports();
 
@@ -82,7 +109,7 @@ class ScheduledReportServiceTest {
         // So setting it to LocalTime.now() is correct.
         
         when(configRepository.findByActiveTrue()).thenReturn(List.of(dailyConfig));
-        when(reportService.generateTransactionReportPdf(any(), any(), any(), any())).thenReturn(new byte[]{1});
+        when(reportService.generateTransactionReportPdf(any(), any(), any(), any())).thenReturn(reportFile);
 
         scheduledReportService.processScheduledReports();
 
@@ -97,4 +124,163 @@ class ScheduledReportServiceTest {
         
         verify(emailService, never()).sendReportEmailWithAttachment(anyString(), anyString(), anyString(), anyMap());
     }
+
+    @Test
+    @DisplayName("Should generate the bundle members side by side and zip every one of them")
+    void processScheduledReports_ShouldGenerateBundleMembersInParallel() throws Exception {
+        ScheduledReportConfig bundle = ScheduledReportConfig.builder()
+                .id(2L)
+                .email("test@example.com")
+                .frequency(ScheduledReportConfig.ReportFrequency.INTERVAL)
+                .reportType(ScheduledReportConfig.ScheduledReportType.ALL_REPORTS_ZIP)
+                .active(true)
+                .build();
+        when(configRepository.findByActiveTrue()).thenReturn(List.of(bundle));
+        ArgumentCaptor<ReportRun.Scope> scope = ArgumentCaptor.forClass(ReportRun.Scope.class);
+        when(snapshotService.snapshot(scope.capture(), any())).thenAnswer(this::withRun);
+        handOutReportFiles();
+
+        // The transaction and balance reports wait for each other: passes only if they overlap
+        CountDownLatch bothRunning = new CountDownLatch(2);
+        Runnable overlap = () -> {
+            bothRunning.countDown();
+            try {
+                if (!bothRunning.await(5, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("Bundle members did not run in parallel");
+                }
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        AtomicReference<Thread> historyThread = new AtomicReference<>();
+        when(reportService.generateTransactionReports(eq(run), any(), any(), any(), any())).thenAnswer(invocation -> {
+            historyThread.set(Thread.currentThread());
+            overlap.run();
+            return new ReportService.TransactionReports(reportFile, reportFile);
+        });
+        when(reportService.generateBalanceReportExcel(run)).thenAnswer(invocation -> {
+            overlap.run();
+            return reportFile;
+        });
+        when(reportService.generateLowStockReportPdf(run)).thenReturn(reportFile);
+        when(reportService.generateSupplierReportExcel(run)).thenReturn(reportFile);
+
+        Set<String> zipped = new HashSet<>();
+        doAnswer(invocation -> {
+            Map<String, File> attachments = invocation.getArgument(3);
+            try (ZipFile zip = new ZipFile(attachments.values().iterator().next())) {
+                zip.stream().forEach(entry -> zipped.add(entry.getName()));
+            }
+            return null;
+        }).when(emailService).sendReportEmailWithAttachment(anyString(), anyString(), anyString(), anyMap());
+
+        scheduledReportService.processScheduledReports();
+
+        assertEquals(Set.of("Transaction_History.pdf", "Transaction_History.xlsx", "Stock_Balance.xlsx",
+                "Low_Stock.pdf", "Supplier_List.xlsx"), zipped);
+        verify(configRepository).save(bundle);
+        // One snapshot for all members, one ledger read for both transaction files
+        verify(snapshotService, times(1)).snapshot(any(), any());
+        verify(reportService, times(1)).generateTransactionReports(eq(run), any(), any(), any(), any());
+        verify(reportService, never()).generateTransactionReportPdf(any(), any(), any(), any(), any());
+        // Rows are streamed in the snapshot transaction, on the thread that opened it
+        assertEquals(Thread.currentThread(), historyThread.get());
+        assertTrue(scope.getValue().isBalances());
+        assertTrue(scope.getValue().isSuppliers());
+    }
+
+    @Test
+    @DisplayName("Should zip the copies taken during the hand-out, even when the stored files go right after")
+    void processScheduledReports_ShouldZipCopies_WhenStoredFilesEvictedAfterHandOut() throws Exception {
+        ScheduledReportConfig bundle = ScheduledReportConfig.builder()
+                .id(2L)
+                .email("test@example.com")
+                .frequency(ScheduledReportConfig.ReportFrequency.INTERVAL)
+                .reportType(ScheduledReportConfig.ScheduledReportType.ALL_REPORTS_ZIP)
+                .active(true)
+                .build();
+        when(configRepository.findByActiveTrue()).thenReturn(List.of(bundle));
+        when(snapshotService.snapshot(any(), any())).thenAnswer(this::withRun);
+        // Eviction may delete the stored files as soon as the hand-out ends
+        when(reportService.withReportFiles(any(), any())).thenAnswer(invocation -> {
+            ReportService.ReportFiles generation = invocation.getArgument(0);
+            ReportService.ReportFileUse<?> use = invocation.getArgument(1);
+            Map<String, Path> files = generation.generate();
+            Object copies = use.accept(files);
+            for (Path file : files.values()) {
+                Files.deleteIfExists(file);
+            }
+            return copies;
+        });
+        when(reportService.generateTransactionReports(eq(run), any(), any(), any(), any()))
+                .thenReturn(new ReportService.TransactionReports(storedFile("history.pdf", 1), storedFile("history.xlsx", 2)));
+        when(reportService.generateBalanceReportExcel(run)).thenReturn(storedFile("balance.xlsx", 3));
+        when(reportService.generateLowStockReportPdf(run)).thenReturn(storedFile("low.pdf", 4));
+        when(reportService.generateSupplierReportExcel(run)).thenReturn(storedFile("suppliers.xlsx", 5));
+
+        Map<String, Long> sizes = new HashMap<>();
+        doAnswer(invocation -> {
+            Map<String, File> attachments = invocation.getArgument(3);
+            try (ZipFile zip = new ZipFile(attachments.values().iterator().next())) {
+                zip.stream().forEach(entry -> sizes.put(entry.getName(), entry.getSize()));
+            }
+            return null;
+        }).when(emailService).sendReportEmailWithAttachment(anyString(), anyString(), anyString(), anyMap());
+
+        scheduledReportService.processScheduledReports();
+
+        assertEquals(Map.of("Transaction_History.pdf", 1L, "Transaction_History.xlsx", 2L, "Stock_Balance.xlsx", 3L,
+                "Low_Stock.pdf", 4L, "Supplier_List.xlsx", 5L), sizes);
+        verify(reportService, times(4)).withReportFiles(any(), any());
+        verify(configRepository).save(bundle);
+    }
+
+    @Test
+    @DisplayName("Should not send a bundle when one of its reports fails")
+    void processScheduledReports_ShouldNotSendBundle_WhenMemberFails() throws IOException {
+        ScheduledReportConfig bundle = ScheduledReportConfig.builder()
+                .id(2L)
+                .email("test@example.com")
+                .frequency(ScheduledReportConfig.ReportFrequency.INTERVAL)
+                .reportType(ScheduledReportConfig.ScheduledReportType.ALL_REPORTS_ZIP)
+                .active(true)
+                .build();
+        when(configRepository.findByActiveTrue()).thenReturn(List.of(bundle));
+        when(snapshotService.snapshot(any(), any())).thenAnswer(this::withRun);
+        handOutReportFiles();
+        lenient().when(reportService.generateTransactionReports(eq(run), any(), any(), any(), any()))
+                .thenReturn(new ReportService.TransactionReports(reportFile, reportFile));
+        lenient().when(reportService.generateBalanceReportExcel(run))
+                .thenThrow(new ReportService.ReportGenerationException("boom", null));
+        lenient().when(reportService.generateLowStockReportPdf(run)).thenReturn(reportFile);
+        lenient().when(reportService.generateSupplierReportExcel(run)).thenReturn(reportFile);
+
+        scheduledReportService.processScheduledReports();
+
+        verify(emailService, never()).sendReportEmailWithAttachment(anyString(), anyString(), anyString(), anyMap());
+        verify(configRepository, never()).save(any());
+    }
+
+    /**
+     * Runs the bundle's work against the run, as the snapshot transaction would
+     */
+    private Object withRun(InvocationOnMock invocation) throws IOException {
+        ReportSnapshotService.SnapshotWork<?> work = invocation.getArgument(1);
+        return work.apply(run);
+    }
+
+    /**
+     * Passes the stored files straight to the caller, as ReportService does
+     */
+    private void handOutReportFiles() throws IOException {
+        when(reportService.withReportFiles(any(), any())).thenAnswer(invocation -> {
+            ReportService.ReportFiles generation = invocation.getArgument(0);
+            ReportService.ReportFileUse<?> use = invocation.getArgument(1);
+            return use.accept(generation.generate());
+        });
+    }
+
+    private Path storedFile(String name, int size) throws IOException {
+        return Files.write(tempDir.resolve(name), new byte[size]);
+    }
 }
@@ -0,0 +1,108 @@
+package npk.rca.ims.service;
+
+import npk.rca.ims.config.SqlProfileProperties;
+import npk.rca.ims.config.SqlProfiler;
+import npk.rca.ims.config.SqlStatementStats;
+import npk.rca.ims.dto.SqlStatementStatsDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SqlProfileServiceTest {
+
+    @Mock
+    private ObjectProvider<SqlProfiler> sqlProfilerProvider;
+
+    @Mock
+    private SqlProfiler sqlProfiler;
+
+    private SqlProfileService sqlProfileService;
+
+    @BeforeEach
+    void setUp() {
+        sqlProfileService = new SqlProfileService(sqlProfilerProvider);
+    }
+
+    @Test
+    @DisplayName("Should rank statements by total time and report percentiles in milliseconds")
+    void getTopStatements_ShouldRankByTotalTime() {
+        SqlStatementStats frequent = stats("select frequent", 1_000_000L, 1_000_000L, 1_000_000L, 1_000_000L);
+        SqlStatementStats slow = stats("select slow", 30_000_000L);
+        SqlStatementStats rare = stats("select rare", 500_000L);
+        when(sqlProfilerProvider.getIfAvailable()).thenReturn(sqlProfiler);
+        when(sqlProfiler.getStatements()).thenReturn(List.of(frequent, slow, rare));
+
+        List<SqlStatementStatsDTO> result = sqlProfileService.getTopStatements(null, 2);
+
+        assertEquals(2, result.size());
+        assertEquals("select slow", result.get(0).getSql());
+        assertEquals(30.0, result.get(0).getP99Millis(), 1e-9);
+        assertEquals("select frequent", result.get(1).getSql());
+        assertEquals(4, result.get(1).getCount());
+        assertEquals(4.0, result.get(1).getTotalMillis(), 1e-9);
+        assertEquals(1.0, result.get(1).getMeanMillis(), 1e-9);
+        assertEquals(1.0, result.get(1).getP95Millis(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Should rank by count when asked")
+    void getTopStatements_ShouldRankByCount() {
+        SqlStatementStats frequent = stats("select frequent", 1_000L, 1_000L, 1_000L);
+        SqlStatementStats slow = stats("select slow", 30_000_000L);
+        when(sqlProfilerProvider.getIfAvailable()).thenReturn(sqlProfiler);
+        when(sqlProfiler.getStatements()).thenReturn(List.of(slow, frequent));
+
+        List<SqlStatementStatsDTO> result = sqlProfileService.getTopStatements("COUNT", 10);
+
+        assertEquals("select frequent", result.get(0).getSql());
+        assertEquals("select slow", result.get(1).getSql());
+    }
+
+    @Test
+    @DisplayName("Should reject an unknown sort")
+    void getTopStatements_ShouldRejectUnknownSort() {
+        when(sqlProfilerProvider.getIfAvailable()).thenReturn(sqlProfiler);
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> sqlProfileService.getTopStatements("median", 10));
+
+        assertTrue(ex.getMessage().startsWith("Unknown sort: median"));
+    }
+
+    @Test
+    @DisplayName("Should return nothing when profiling is switched off")
+    void getTopStatements_ShouldBeEmptyWhenDisabled() {
+        when(sqlProfilerProvider.getIfAvailable()).thenReturn(null);
+
+        assertTrue(sqlProfileService.getTopStatements("total", 10).isEmpty());
+        assertDoesNotThrow(() -> sqlProfileService.reset());
+    }
+
+    @Test
+    @DisplayName("Should clear the profiler on reset")
+    void reset_ShouldClearProfiler() {
+        when(sqlProfilerProvider.getIfAvailable()).thenReturn(sqlProfiler);
+
+        sqlProfileService.reset();
+
+        verify(sqlProfiler).reset();
+    }
+
+    private static SqlStatementStats stats(String sql, long... durations) {
+        SqlStatementStats stats = new SqlStatementStats(sql, new SqlProfileProperties().getSamplesPerStatement());
+        for (long nanos : durations) {
+            stats.record(nanos, "()", 0, false);
+        }
+        return stats;
+    }
+}
@@ -1,7 +1,10 @@
 package npk.rca.ims.service;
 
+import npk.rca.ims.dto.BatchGetResponse;
 import npk.rca.ims.dto.StockBalanceDTO;
 import npk.rca.ims.model.Item;
+import npk.rca.ims.model.ItemBalance;
+import npk.rca.ims.repository.ItemBalanceRepository;
 import npk.rca.ims.repository.ItemRepository;
 import npk.rca.ims.repository.StockTransactionRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -16,6 +19,7 @@ import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -24,6 +28,9 @@ class StockBalanceServiceTest {
     @Mock
     private ItemRepository itemRepository;
 
+    @Mock
+    private ItemBalanceRepository itemBalanceRepository;
+
     @Mock
     private StockTransactionRepository transactionRepository;
 
@@ -92,4 +99,23 @@ class StockBalanceServiceTest {
         assertEquals(1, result.size());
         assertEquals(2L, result.get(0).getItemId());
     }
+
+    @Test
+    @DisplayName("Should read balances of many items from the maintained totals")
+    void getBalancesByIds_ShouldUseMaintainedTotals() {
+        List<Long> ids = List.of(2L, 1L, 3L);
+        when(itemBalanceRepository.findAllById(ids)).thenReturn(List.of(new ItemBalance(1L, 100L, 20L)));
+        when(itemRepository.findAllById(ids)).thenReturn(List.of(item1, item2));
+
+        BatchGetResponse<StockBalanceDTO> result = stockBalanceService.getBalancesByIds(ids);
+
+        assertEquals(2, result.getContent().size());
+        StockBalanceDTO second = result.getContent().get(0);
+        assertEquals(2L, second.getItemId());
+        assertEquals(0, second.getCurrentBalance());
+        assertEquals("CRITICAL", second.getStatus());
+        assertEquals(80, result.getContent().get(1).getCurrentBalance());
+        assertEquals(List.of(3L), result.getMissingIds());
+        verifyNoInteractions(transactionRepository);
+    }
 }
@@ -1,15 +1,26 @@
 package npk.rca.ims.service;
 
+import npk.rca.ims.dto.BatchGetResponse;
+import npk.rca.ims.dto.CursorPageDTO;
+import npk.rca.ims.dto.FieldSet;
+import npk.rca.ims.dto.SearchCursor;
 import npk.rca.ims.dto.StockBalanceDTO;
 import npk.rca.ims.dto.StockTransactionDTO;
+import npk.rca.ims.dto.TransactionCursor;
+import npk.rca.ims.dto.TransactionFilter;
 import npk.rca.ims.exceptions.ResourceNotFoundException;
 import npk.rca.ims.model.Item;
+import npk.rca.ims.model.ItemBalance;
 import npk.rca.ims.model.StockTransaction;
 import npk.rca.ims.model.Supplier;
 import npk.rca.ims.model.TransactionType;
+import npk.rca.ims.repository.ItemBalanceRepository;
+import npk.rca.ims.repository.ItemBalanceView;
 import npk.rca.ims.repository.ItemRepository;
 import npk.rca.ims.repository.StockTransactionRepository;
+import npk.rca.ims.repository.StockTransactionSpecifications;
 import npk.rca.ims.repository.SupplierRepository;
+import npk.rca.ims.repository.TransactionSearchIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -17,16 +28,24 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,9 +57,15 @@ class StockTransactionServiceTest {
     @Mock
     private ItemRepository itemRepository;
 
+    @Mock
+    private ItemBalanceRepository itemBalanceRepository;
+
     @Mock
     private SupplierRepository supplierRepository;
 
+    @Mock
+    private TransactionSearchIndex searchIndex;
+
     @InjectMocks
     private StockTransactionService stockTransactionService;
 
@@ -80,26 +105,31 @@ class StockTransactionServiceTest {
     }
 
     @Test
-    @DisplayName("Should return all transactions with calculated running balances")
+    @DisplayName("Should return all transactions from one projection query, newest first")
+    @SuppressWarnings("unchecked")
     void getAllTransactions_ShouldReturnTransactionsWithBalances() {
-        when(transactionRepository.findAll()).thenReturn(Arrays.asList(testTransactionIn, testTransactionOut));
+        when(transactionRepository.findTransactionRows(any(Specification.class),
+                eq(StockTransactionSpecifications.NEWEST_FIRST), eq(0)))
+                .thenReturn(Arrays.asList(row(testTransactionOut, 80), row(testTransactionIn, 100)));
 
         List<StockTransactionDTO> result = stockTransactionService.getAllTransactions();
 
         assertEquals(2, result.size());
-        // Results are sorted by date desc, so OUT (newer) should be first
         assertEquals(TransactionType.OUT, result.get(0).getTransactionType());
         assertEquals(80, result.get(0).getBalanceAfter()); // 100 - 20 = 80
-        
+
         assertEquals(TransactionType.IN, result.get(1).getTransactionType());
         assertEquals(100, result.get(1).getBalanceAfter()); // 100
+        verify(transactionRepository, never()).findAll();
     }
 
     @Test
     @DisplayName("Should return transactions for specific item when item exists")
+    @SuppressWarnings("unchecked")
     void getTransactionsByItemId_ShouldReturnTransactions_WhenItemExists() {
         when(itemRepository.existsById(1L)).thenReturn(true);
-        when(transactionRepository.findByItem_Id(1L)).thenReturn(Arrays.asList(testTransactionIn));
+        when(transactionRepository.findTransactionRows(any(Specification.class), any(), eq(0)))
+                .thenReturn(Collections.singletonList(row(testTransactionIn, 100)));
 
         List<StockTransactionDTO> result = stockTransactionService.getTransactionsByItemId(1L);
 
@@ -189,8 +219,7 @@ class StockTransactionServiceTest {
     @DisplayName("Should generate balance report for all items")
     void generateBalanceReport_ShouldReturnBalances() {
         when(itemRepository.findAll()).thenReturn(Arrays.asList(testItem));
-        when(transactionRepository.getTotalInByItemId(1L)).thenReturn(100);
-        when(transactionRepository.getTotalOutByItemId(1L)).thenReturn(20);
+        when(itemBalanceRepository.findAll()).thenReturn(List.of(new ItemBalance(1L, 100L, 20L)));
 
         List<StockBalanceDTO> result = stockTransactionService.generateBalanceReport();
 
@@ -198,6 +227,20 @@ class StockTransactionServiceTest {
         assertEquals(80, result.get(0).getCurrentBalance());
         assertEquals(100, result.get(0).getTotalIn());
         assertEquals(20, result.get(0).getTotalOut());
+        verify(transactionRepository, never()).getTotalInByItemId(any());
+    }
+
+    @Test
+    @DisplayName("Should skip the totals when no balance field is requested")
+    void generateBalanceReport_ShouldSkipTotals_WhenNotRequested() {
+        when(itemRepository.findAll()).thenReturn(Arrays.asList(testItem));
+
+        List<StockBalanceDTO> result = stockTransactionService.generateBalanceReport(FieldSet.of("itemId", "itemName"));
+
+        assertEquals("Test Item", result.get(0).getItemName());
+        assertNull(result.get(0).getCurrentBalance());
+        assertNull(result.get(0).getStatus());
+        verifyNoInteractions(itemBalanceRepository);
     }
 
     @Test
@@ -295,16 +338,210 @@ class StockTransactionServiceTest {
         when(itemRepository.findAll()).thenReturn(Arrays.asList(testItem, lowStockItem));
         
         // Item 1: 100 - 20 = 80 (Min 10) -> OK
-        when(transactionRepository.getTotalInByItemId(1L)).thenReturn(100);
-        when(transactionRepository.getTotalOutByItemId(1L)).thenReturn(20);
-        
         // Item 2: 40 - 0 = 40 (Min 50) -> LOW
-        when(transactionRepository.getTotalInByItemId(2L)).thenReturn(40);
-        when(transactionRepository.getTotalOutByItemId(2L)).thenReturn(0);
+        when(itemBalanceRepository.findAll()).thenReturn(List.of(
+                new ItemBalance(1L, 100L, 20L), new ItemBalance(2L, 40L, 0L)));
 
         List<StockBalanceDTO> result = stockTransactionService.getLowStockItems();
 
         assertEquals(1, result.size());
         assertEquals(2L, result.get(0).getItemId());
     }
+
+    @Test
+    @DisplayName("Should save a multi-item batch with one grouped balance query")
+    void recordTransactions_ShouldSaveAllRows_WhenStockIsSufficient() {
+        Item oil = new Item();
+        oil.setId(2L);
+        oil.setName("Oil");
+
+        StockTransactionDTO rice = outDTO(1L, 30);
+        StockTransactionDTO oilOut = outDTO(2L, 5);
+
+        when(itemRepository.findAllById(anyCollection())).thenReturn(Arrays.asList(testItem, oil));
+        when(transactionRepository.getBalancesByItemIds(anyCollection()))
+                .thenReturn(Arrays.asList(balance(1L, 100, 20), balance(2L, 10, 0)));
+        when(transactionRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<StockTransactionDTO> result = stockTransactionService.recordTransactions(Arrays.asList(rice, oilOut));
+
+        assertEquals(2, result.size());
+        assertEquals(50, result.get(0).getBalanceAfter());
+        assertEquals(5, result.get(1).getBalanceAfter());
+        verify(transactionRepository, times(1)).getBalancesByItemIds(anyCollection());
+        verify(transactionRepository, never()).getTotalInByItemId(any());
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should write nothing when any item in the batch is short")
+    void recordTransactions_ShouldThrowException_WhenAnyItemIsShort() {
+        Item oil = new Item();
+        oil.setId(2L);
+        oil.setName("Oil");
+
+        when(itemRepository.findAllById(anyCollection())).thenReturn(Arrays.asList(testItem, oil));
+        // Oil has no ledger rows at all -> balance 0
+        when(transactionRepository.getBalancesByItemIds(anyCollection()))
+                .thenReturn(Collections.singletonList(balance(1L, 100, 20)));
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () ->
+                stockTransactionService.recordTransactions(Arrays.asList(outDTO(1L, 30), outDTO(2L, 5))));
+
+        assertTrue(ex.getMessage().contains("Oil"));
+        verify(transactionRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("Should throw exception when an item in the batch does not exist")
+    void recordTransactions_ShouldThrowException_WhenItemNotFound() {
+        when(itemRepository.findAllById(anyCollection())).thenReturn(Collections.singletonList(testItem));
+
+        assertThrows(ResourceNotFoundException.class, () ->
+                stockTransactionService.recordTransactions(Arrays.asList(outDTO(1L, 1), outDTO(99L, 1))));
+        verify(transactionRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("Should return one page with a cursor when more rows exist")
+    @SuppressWarnings("unchecked")
+    void getTransactionPage_ShouldReturnCursor_WhenMoreRowsExist() {
+        // size 1 -> repository is asked for 2 rows; the second one only signals "has more"
+        when(transactionRepository.findTransactionRows(any(Specification.class), eq(FieldSet.ALL), any(), eq(2)))
+                .thenReturn(Arrays.asList(row(testTransactionOut, 80), row(testTransactionIn, 100)));
+
+        CursorPageDTO<StockTransactionDTO> page = stockTransactionService.getTransactionPage(new TransactionFilter(), FieldSet.ALL, null, 1);
+
+        assertEquals(1, page.getContent().size());
+        assertTrue(page.isHasMore());
+        assertEquals(80, page.getContent().get(0).getBalanceAfter());
+        TransactionCursor cursor = TransactionCursor.decode(page.getNextCursor());
+        assertEquals(2L, cursor.getId());
+        assertEquals(testTransactionOut.getCreatedAt(), cursor.getCreatedAt());
+    }
+
+    @Test
+    @DisplayName("Should return last page without cursor")
+    @SuppressWarnings("unchecked")
+    void getTransactionPage_ShouldReturnNoCursor_OnLastPage() {
+        when(transactionRepository.findTransactionRows(any(Specification.class), eq(FieldSet.ALL), any(), eq(11)))
+                .thenReturn(Collections.singletonList(row(testTransactionIn, 100)));
+
+        String cursor = new TransactionCursor(LocalDate.now(), LocalDateTime.now(), 5L).encode();
+        CursorPageDTO<StockTransactionDTO> page = stockTransactionService.getTransactionPage(new TransactionFilter(), FieldSet.ALL, cursor, 10);
+
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+        assertEquals(100, page.getContent().get(0).getBalanceAfter());
+    }
+
+    @Test
+    @DisplayName("Should reject a cursor it did not issue")
+    void getTransactionPage_ShouldThrowException_WhenCursorInvalid() {
+        assertThrows(IllegalArgumentException.class, () ->
+                stockTransactionService.getTransactionPage(new TransactionFilter(), FieldSet.ALL, "not-a-cursor", 10));
+    }
+
+    @Test
+    @DisplayName("Should reject a filter whose start date is after its end date")
+    void searchTransactions_ShouldThrowException_WhenDatesInverted() {
+        TransactionFilter filter = TransactionFilter.builder()
+                .startDate(LocalDate.now())
+                .endDate(LocalDate.now().minusDays(1))
+                .build();
+
+        assertThrows(IllegalArgumentException.class, () -> stockTransactionService.searchTransactions(filter));
+    }
+
+    @Test
+    @DisplayName("Should throw exception when filtering on a single unknown item")
+    void searchTransactions_ShouldThrowException_WhenItemNotFound() {
+        when(itemRepository.existsById(99L)).thenReturn(false);
+        TransactionFilter filter = TransactionFilter.builder().itemIds(List.of(99L)).build();
+
+        assertThrows(ResourceNotFoundException.class, () -> stockTransactionService.searchTransactions(filter));
+    }
+
+    @Test
+    @DisplayName("Should hand every streamed row to the sink and close the cursor")
+    void forEachTransaction_ShouldStreamRowsAndCloseCursor() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        Stream<StockTransactionDTO> rows = Stream.of(row(testTransactionOut, 70), row(testTransactionIn, 100))
+                .onClose(() -> closed.set(true));
+        when(transactionRepository.streamTransactionRows(any(Specification.class),
+                eq(StockTransactionSpecifications.NEWEST_FIRST))).thenReturn(rows);
+
+        List<StockTransactionDTO> received = new ArrayList<>();
+        long count = stockTransactionService.forEachTransaction(new TransactionFilter(), received::add);
+
+        assertEquals(2, count);
+        assertEquals(List.of(70, 100), received.stream().map(StockTransactionDTO::getBalanceAfter).toList());
+        assertTrue(closed.get());
+    }
+
+    @Test
+    @DisplayName("Should return search hits in ranked order with a cursor to the next page")
+    void fullTextSearch_ShouldKeepRankOrder() {
+        TransactionFilter filter = new TransactionFilter();
+        when(searchIndex.search("kigali", filter, 0, 3)).thenReturn(List.of(2L, 1L, 7L));
+        when(transactionRepository.findTransactionRows(any(Specification.class), isNull(), eq(2)))
+                .thenReturn(List.of(row(testTransactionIn, 100), row(testTransactionOut, 70)));
+
+        CursorPageDTO<StockTransactionDTO> page = stockTransactionService.fullTextSearch(" kigali ", filter, null, 2);
+
+        assertTrue(page.isHasMore());
+        assertEquals(2, SearchCursor.decode(page.getNextCursor()).getOffset());
+        assertEquals(List.of(2L, 1L), page.getContent().stream().map(StockTransactionDTO::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Should reject an empty search query")
+    void fullTextSearch_ShouldThrowException_WhenQueryBlank() {
+        assertThrows(IllegalArgumentException.class, () ->
+                stockTransactionService.fullTextSearch("  ", new TransactionFilter(), null, 10));
+        verifyNoInteractions(searchIndex);
+    }
+
+    @Test
+    @DisplayName("Should resolve many ids with one query, in request order")
+    @SuppressWarnings("unchecked")
+    void getTransactionsByIds_ShouldKeepRequestOrderAndReportMissing() {
+        when(transactionRepository.findTransactionRows(any(Specification.class), isNull(), eq(4)))
+                .thenReturn(List.of(row(testTransactionIn, 100), row(testTransactionOut, 80)));
+
+        BatchGetResponse<StockTransactionDTO> result = stockTransactionService.getTransactionsByIds(List.of(2L, 9L, 1L, 2L));
+
+        assertEquals(List.of(2L, 1L), result.getContent().stream().map(StockTransactionDTO::getId).toList());
+        assertEquals(List.of(9L), result.getMissingIds());
+        verify(transactionRepository, times(1)).findTransactionRows(any(Specification.class), isNull(), eq(4));
+    }
+
+    private StockTransactionDTO outDTO(Long itemId, int quantity) {
+        StockTransactionDTO dto = new StockTransactionDTO();
+        dto.setItemId(itemId);
+        dto.setTransactionType(TransactionType.OUT);
+        dto.setQuantity(quantity);
+        dto.setTransactionDate(LocalDate.now());
+        return dto;
+    }
+
+    private ItemBalanceView balance(Long itemId, long totalIn, long totalOut) {
+        return new ItemBalanceView() {
+            public Long getItemId() { return itemId; }
+            public Long getTotalIn() { return totalIn; }
+            public Long getTotalOut() { return totalOut; }
+        };
+    }
+
+    private StockTransactionDTO row(StockTransaction transaction, int balanceAfter) {
+        StockTransactionDTO dto = new StockTransactionDTO();
+        dto.setId(transaction.getId());
+        dto.setItemId(transaction.getItem().getId());
+        dto.setTransactionType(transaction.getTransactionType());
+        dto.setQuantity(transaction.getQuantity());
+        dto.setTransactionDate(transaction.getTransactionDate());
+        dto.setCreatedAt(transaction.getCreatedAt());
+        dto.setBalanceAfter(balanceAfter);
+        return dto;
+    }
 }
@@ -36,6 +36,9 @@ class SupplierServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private AutocompleteService autocompleteService;
+
 
     @InjectMocks
     private SupplierService supplierService;
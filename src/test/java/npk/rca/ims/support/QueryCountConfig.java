@@ -0,0 +1,41 @@
+package npk.rca.ims.support;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+
+/**
+ * QueryCountConfig - Wraps the application DataSource so every statement
+ * reaches the QueryCounter
+ *
+ * Only the "dataSource" bean (the one JPA, JdbcTemplate and Flyway use) is
+ * wrapped; the pools behind it are left alone so nothing is counted twice.
+ * Import it into a @SpringBootTest and autowire the QueryCounter.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class QueryCountConfig {
+
+    @Bean
+    public static QueryCounter queryCounter() {
+        return new QueryCounter();
+    }
+
+    @Bean
+    public static BeanPostProcessor queryCountingDataSource(QueryCounter queryCounter) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name("query-count")
+                            .listener(queryCounter)
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,78 @@
+package npk.rca.ims.support;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.QueryType;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryUtils;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * QueryCounter - Records the SQL statements run on the thread under test
+ *
+ * Call reset() right before the service call or MockMvc request, then
+ * assertStatements(..). Only the thread that called reset() is counted, so
+ * scheduled jobs running in the background don't make the numbers flaky.
+ * A JDBC batch counts once: it is one round trip.
+ */
+public class QueryCounter implements QueryExecutionListener {
+
+    private final List<String> statements = new CopyOnWriteArrayList<>();
+    private volatile Thread recording;
+
+    public void reset() {
+        statements.clear();
+        recording = Thread.currentThread();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (Thread.currentThread() != recording) {
+            return;
+        }
+        queryInfoList.forEach(query -> statements.add(query.getQuery()));
+    }
+
+    public List<String> getStatements() {
+        return List.copyOf(statements);
+    }
+
+    public int count() {
+        return statements.size();
+    }
+
+    public int count(QueryType type) {
+        return (int) statements.stream().filter(sql -> QueryUtils.getQueryType(sql) == type).count();
+    }
+
+    /**
+     * Fails with every statement listed, so the extra query is easy to spot
+     */
+    public void assertStatements(int expected) {
+        if (count() != expected) {
+            fail(report("Expected " + expected + " SQL statements but " + count() + " ran"));
+        }
+    }
+
+    public void assertSelects(int expected) {
+        if (count(QueryType.SELECT) != expected) {
+            fail(report("Expected " + expected + " SELECTs but " + count(QueryType.SELECT) + " ran"));
+        }
+    }
+
+    private String report(String headline) {
+        StringBuilder message = new StringBuilder(headline).append(':');
+        for (int i = 0; i < statements.size(); i++) {
+            message.append('\n').append(i + 1).append(". ").append(statements.get(i));
+        }
+        return message.toString();
+    }
+}
@@ -0,0 +1,10 @@
+DELETE FROM scheduled_report_configs WHERE id = 9001;
+DELETE FROM report_history WHERE id = 9001;
+DELETE FROM purchase_order_lines WHERE purchase_order_id IN (9001, 9002);
+DELETE FROM purchase_orders WHERE id IN (9001, 9002);
+DELETE FROM recipe_ingredients WHERE recipe_id IN (9001, 9002);
+DELETE FROM recipes WHERE id IN (9001, 9002);
+DELETE FROM stock_transactions WHERE item_id BETWEEN 9001 AND 9004;
+DELETE FROM items WHERE id BETWEEN 9001 AND 9004;
+DELETE FROM suppliers WHERE id BETWEEN 9001 AND 9003;
+DELETE FROM users WHERE id IN (9001, 9002);
@@ -0,0 +1,55 @@
+-- Fixed dataset for QueryCountBaselineTest. Ids start at 9001 so they can't
+-- clash with rows other tests create through the identity columns.
+
+INSERT INTO users (id, email, password, role, enabled, name, email_notifications, sms_notifications,
+                   two_factor_auth, created_at, updated_at)
+VALUES (9001, 'querycount@example.com', 'not-a-real-hash', 'ADMIN', TRUE, 'Query Count', TRUE, FALSE,
+        FALSE, LOCALTIMESTAMP, LOCALTIMESTAMP),
+       (9002, 'querycount-clerk@example.com', 'not-a-real-hash', 'USER', TRUE, 'Query Clerk', FALSE, FALSE,
+        FALSE, LOCALTIMESTAMP, LOCALTIMESTAMP);
+
+INSERT INTO suppliers (id, name, contact_person, phone, email, items_supplied, active, created_at, updated_at)
+VALUES (9001, 'QC Farms', 'Alice', '0788000001', 'farms@example.com', 'Rice, Beans', TRUE, LOCALTIMESTAMP, LOCALTIMESTAMP),
+       (9002, 'QC Mills', 'Bob', '0788000002', 'mills@example.com', 'Flour', TRUE, LOCALTIMESTAMP, LOCALTIMESTAMP),
+       (9003, 'QC Retired', 'Carol', '0788000003', 'retired@example.com', NULL, FALSE, LOCALTIMESTAMP, LOCALTIMESTAMP);
+
+INSERT INTO items (id, name, unit, category, damaged_quantity, minimum_stock, description, created_at, updated_at)
+VALUES (9001, 'QC Rice', 'kg', 'Grains', 0, 50, NULL, LOCALTIMESTAMP, LOCALTIMESTAMP),
+       (9002, 'QC Beans', 'kg', 'Grains', 2, 40, NULL, LOCALTIMESTAMP, LOCALTIMESTAMP),
+       (9003, 'QC Flour', 'kg', 'Baking', 0, 30, NULL, LOCALTIMESTAMP, LOCALTIMESTAMP),
+       (9004, 'QC Salt', 'kg', 'Spices', 0, 5, NULL, LOCALTIMESTAMP, LOCALTIMESTAMP);
+
+INSERT INTO stock_transactions (id, item_id, transaction_type, quantity, transaction_date, reference_number,
+                                notes, recorded_by, supplier_id, created_at, is_reversed)
+VALUES (9001, 9001, 'IN', 100, DATE '2024-03-01', 'QC-PO-1', 'First rice delivery', 'querycount@example.com', 9001, LOCALTIMESTAMP, FALSE),
+       (9002, 9001, 'OUT', 60, DATE '2024-03-05', NULL, 'Lunch service', 'querycount@example.com', NULL, LOCALTIMESTAMP, FALSE),
+       (9003, 9002, 'IN', 80, DATE '2024-03-02', 'QC-PO-1', 'Beans delivery', 'querycount@example.com', 9001, LOCALTIMESTAMP, FALSE),
+       (9004, 9002, 'OUT', 10, DATE '2024-03-06', NULL, 'Dinner service', 'querycount@example.com', NULL, LOCALTIMESTAMP, FALSE),
+       (9005, 9003, 'IN', 20, DATE '2024-03-03', 'QC-PO-2', 'Flour delivery', 'querycount@example.com', 9002, LOCALTIMESTAMP, FALSE),
+       (9006, 9003, 'OUT', 20, DATE '2024-03-07', NULL, 'Bakery day', 'querycount@example.com', NULL, LOCALTIMESTAMP, FALSE);
+
+INSERT INTO recipes (id, name, description, created_at, updated_at)
+VALUES (9001, 'QC Rice and Beans', NULL, LOCALTIMESTAMP, LOCALTIMESTAMP),
+       (9002, 'QC Bread', NULL, LOCALTIMESTAMP, LOCALTIMESTAMP);
+
+INSERT INTO recipe_ingredients (id, recipe_id, item_id, quantity_per_portion)
+VALUES (9001, 9001, 9001, 0.1500),
+       (9002, 9001, 9002, 0.1000),
+       (9003, 9002, 9003, 0.2000),
+       (9004, 9002, 9004, 0.0050);
+
+INSERT INTO purchase_orders (id, po_number, supplier_id, status, order_date, expected_date, notes,
+                             outstanding_quantity, created_at, updated_at)
+VALUES (9001, 'QC-PO-1', 9001, 'PARTIALLY_RECEIVED', DATE '2024-02-25', DATE '2024-03-01', NULL, 20, LOCALTIMESTAMP, LOCALTIMESTAMP),
+       (9002, 'QC-PO-2', 9002, 'OPEN', DATE '2024-02-26', NULL, NULL, 30, LOCALTIMESTAMP, LOCALTIMESTAMP);
+
+INSERT INTO purchase_order_lines (id, purchase_order_id, item_id, ordered_quantity, received_quantity)
+VALUES (9001, 9001, 9001, 100, 100),
+       (9002, 9001, 9002, 100, 80),
+       (9003, 9002, 9003, 50, 20);
+
+INSERT INTO report_history (id, title, type, format, size, status, file_path, generated_date)
+VALUES (9001, 'QC Stock Balance', 'Stock Balance', 'PDF', '12 KB', 'COMPLETED', NULL, LOCALTIMESTAMP);
+
+INSERT INTO scheduled_report_configs (id, email, report_type, frequency, interval_hours, scheduled_time, last_sent, active)
+VALUES (9001, 'querycount@example.com', 'LOW_STOCK', 'DAILY', NULL, TIME '07:00:00', NULL, FALSE);